@@ -0,0 +1,185 @@
+package com.revature.benchmarks;
+
+import com.revature.repository.Approval;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic expense data for the benchmarks, so runs before and after a change see the same input.
+ * Row i always has the same employee, amount, description, date and review state.
+ * About a tenth of descriptions and comments need CSV quoting, as in real reports.
+ */
+final class BenchmarkData {
+    static final int EMPLOYEE_COUNT = 50;
+    static final int MANAGER_ID = EMPLOYEE_COUNT + 1;
+
+    private static final String[] DESCRIPTIONS = {
+            "Taxi to client site", "Hotel, 2 nights", "Team lunch", "Flight to Chicago",
+            "Conference ticket", "Office supplies", "Client dinner", "Parking", "Train fare",
+            "Printer toner \"XL\""
+    };
+    private static final String[] COMMENTS = {
+            "ok", "Approved", "Missing receipt", "Over the limit, resubmit", "Fine"
+    };
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return the expenses as ExpenseRepository would return them, newest first
+     */
+    static List<ExpenseWithUser> expenses(int count) {
+        List<User> employees = new ArrayList<>(EMPLOYEE_COUNT);
+        for (int i = 1; i <= EMPLOYEE_COUNT; i++) {
+            employees.add(new User(i, "employee" + i, null, "Employee"));
+        }
+        List<ExpenseWithUser> expenses = new ArrayList<>(count);
+        for (int i = count; i >= 1; i--) {
+            User employee = employees.get(employeeOf(i) - 1);
+            Expense expense = new Expense(i, employee.getId(), amountOf(i), descriptionOf(i), dateOf(i));
+            String status = statusOf(i);
+            Approval approval = status.equals("pending")
+                    ? new Approval(i, i, status, null, null, null)
+                    : new Approval(i, i, status, MANAGER_ID, commentOf(i), dateOf(i) + " 09:30:00", 1);
+            expenses.add(new ExpenseWithUser(expense, employee, approval));
+        }
+        return expenses;
+    }
+
+    /**
+     * Create a database in the given directory, holding the same rows as expenses(count),
+     * with the manager's schema migrations applied.
+     */
+    static DatabaseConnection database(Path dir, int count) {
+        DatabaseConnection db = new DatabaseConnection("jdbc:sqlite:" + dir.resolve("benchmark.db"));
+        try {
+            populate(db, count);
+        } catch (SQLException e) {
+            db.close();
+            throw new RuntimeException("Error creating benchmark database", e);
+        }
+        new MigrationRunner(db).migrate();
+        return db;
+    }
+
+    static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("manager-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete a directory made by createTempDirectory, with the database files in it.
+     */
+    static void deleteDirectory(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+            Files.delete(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void populate(DatabaseConnection db, int count) throws SQLException {
+        try (Connection conn = db.getWriteConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                        CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                        CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                        """);
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement users = conn.prepareStatement("INSERT INTO users VALUES (?, ?, 'password123', ?)");
+                 PreparedStatement expenses = conn.prepareStatement("INSERT INTO expenses VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement approvals = conn.prepareStatement(
+                         "INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= MANAGER_ID; i++) {
+                    users.setInt(1, i);
+                    users.setString(2, i == MANAGER_ID ? "manager1" : "employee" + i);
+                    users.setString(3, i == MANAGER_ID ? "Manager" : "Employee");
+                    users.addBatch();
+                }
+                users.executeBatch();
+                for (int i = 1; i <= count; i++) {
+                    expenses.setInt(1, i);
+                    expenses.setInt(2, employeeOf(i));
+                    expenses.setDouble(3, amountOf(i));
+                    expenses.setString(4, descriptionOf(i));
+                    expenses.setString(5, dateOf(i));
+                    expenses.addBatch();
+
+                    boolean pending = statusOf(i).equals("pending");
+                    approvals.setInt(1, i);
+                    approvals.setInt(2, i);
+                    approvals.setString(3, statusOf(i));
+                    approvals.setObject(4, pending ? null : MANAGER_ID);
+                    approvals.setString(5, pending ? null : commentOf(i));
+                    approvals.setString(6, pending ? null : dateOf(i) + " 09:30:00");
+                    approvals.addBatch();
+                    if (i % 10_000 == 0) {
+                        expenses.executeBatch();
+                        approvals.executeBatch();
+                    }
+                }
+                expenses.executeBatch();
+                approvals.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int employeeOf(int i) {
+        return i % EMPLOYEE_COUNT + 1;
+    }
+
+    private static double amountOf(int i) {
+        return (i * 7919L % 50_000) / 100.0;
+    }
+
+    private static String descriptionOf(int i) {
+        return DESCRIPTIONS[i % DESCRIPTIONS.length];
+    }
+
+    private static String commentOf(int i) {
+        return COMMENTS[i % COMMENTS.length];
+    }
+
+    private static String dateOf(int i) {
+        return FIRST_DATE.plusDays(i / 20).toString();
+    }
+
+    private static String statusOf(int i) {
+        return switch (i % 4) {
+            case 0 -> "pending";
+            case 1, 2 -> "approved";
+            default -> "denied";
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.revature.benchmarks;
+
+import com.revature.service.ExpenseCsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of escaping one CSV field, for the common case that needs nothing and the cases that quote.
+ * Called up to three times per report row.
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="CsvEscape -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CsvEscapeBenchmark {
+
+    @Param({"plain", "comma", "quote"})
+    public String kind;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        value = switch (kind) {
+            case "plain" -> "Taxi from the airport to the client site";
+            case "comma" -> "Hotel, two nights at the conference venue";
+            case "quote" -> "Printer toner \"XL\" for the second floor";
+            default -> throw new IllegalArgumentException("Unknown value kind: " + kind);
+        };
+    }
+
+    @Benchmark
+    public String escapeCsvValue() {
+        return ExpenseCsvWriter.escapeCsvValue(value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.revature.benchmarks;
+
+import com.revature.repository.ExpenseWithUser;
+import com.revature.service.ExpenseCsvWriter;
+import com.revature.service.ExpenseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to render an in-memory list of expenses as a CSV report, as the non-streaming report path does.
+ * generateCsvReport builds the whole report as one String; writeToStream encodes the same rows
+ * through ExpenseCsvWriter's fixed buffer, showing what holding the report in memory costs.
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="CsvReport -f 1 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// A million-row report needs a few hundred MB for the rows and the String it is built into
+@Fork(jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class CsvReportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ExpenseService expenseService;
+    private List<ExpenseWithUser> expenses;
+
+    @Setup
+    public void setUp() {
+        expenseService = new ExpenseService(null, null);
+        expenses = BenchmarkData.expenses(rows);
+    }
+
+    @Benchmark
+    public String generateCsvReport() {
+        return expenseService.generateCsvReport(expenses);
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        ExpenseCsvWriter csv = ExpenseCsvWriter.forStream(OutputStream.nullOutputStream());
+        csv.writeHeader();
+        for (ExpenseWithUser expense : expenses) {
+            csv.writeRow(expense);
+        }
+        csv.flush();
+    }
+}
@@ -0,0 +1,371 @@
+package com.revature.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.revature.repository.AnalyticsRepository;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ExpenseQuery;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.PageCursor;
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.UserRepository;
+import com.revature.service.ExpenseService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Times every repository query and CSV report at several dataset sizes, on databases written
+ * by DatasetGenerator, and writes the timings to a JSON file that later runs can be compared with.
+ *
+ * Unlike the JMH benchmarks this measures whole queries against realistic data, a few samples each,
+ * so it shows how each query scales rather than nanosecond differences. Generated databases are kept
+ * in the data directory and reused by later runs with the same sizes and seed; each run works on a
+ * copy, since the review timings change approvals.
+ *
+ * Run with: mvn -P jmh test-compile exec:exec@dataset
+ *           -Ddataset.args="--sizes 10000,100000,1000000 --compare target/dataset-benchmark-before.json"
+ * Options: --sizes (expense counts), --users (default one per hundred expenses, 100 to 10000), --seed,
+ * --warmup, --iterations, --data-dir, --out, --compare (a results file from an earlier run).
+ */
+public final class DatasetBenchmark {
+    // Point lookups are too quick to time one at a time, so each sample makes this many calls
+    private static final int LOOKUPS_PER_SAMPLE = 1000;
+    private static final int REVIEWS_PER_SAMPLE = 20;
+    private static final int PAGE_SIZE = 50;
+    private static final String CATEGORY = "hotel";
+    // The last full month of generated data
+    private static final String MONTH_START = "2025-11-01";
+    private static final String MONTH_END = "2025-11-30";
+
+    /**
+     * One thing to time. Each call returns the rows it produced, so the work cannot be skipped
+     * and the results show how many rows the timing covers.
+     */
+    private record Operation(String name, int callsPerSample, IntSupplier call) {
+    }
+
+    /**
+     * Timings of one operation on one dataset, per call, in milliseconds.
+     */
+    public record Result(String dataset, int users, int expenses, String operation, int rows, int samples,
+                         double minMs, double p50Ms, double p95Ms, double maxMs, double meanMs) {
+    }
+
+    private final int warmup;
+    private final int iterations;
+
+    public DatasetBenchmark(int warmup, int iterations) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = DatasetGenerator.options(args);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "10000,100000,1000000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .toArray();
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path dataDir = Path.of(options.getOrDefault("data-dir", "target/datasets"));
+        Path out = Path.of(options.getOrDefault("out", "target/dataset-benchmark.json"));
+        DatasetBenchmark benchmark = new DatasetBenchmark(
+                Integer.parseInt(options.getOrDefault("warmup", "2")),
+                Integer.parseInt(options.getOrDefault("iterations", "5")));
+
+        List<Result> results = new ArrayList<>();
+        for (int expenses : sizes) {
+            int users = options.containsKey("users")
+                    ? Integer.parseInt(options.get("users"))
+                    : Math.min(10_000, Math.max(100, expenses / 100));
+            DatasetGenerator generator = new DatasetGenerator(users, expenses, seed);
+            results.addAll(benchmark.run(generator, dataDir));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("createdAt", Instant.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("seed", seed);
+        report.put("warmup", benchmark.warmup);
+        report.put("iterations", benchmark.iterations);
+        report.put("results", results);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        objectMapper.writeValue(out.toFile(), report);
+        System.out.println("Results written to " + out.toAbsolutePath());
+
+        if (options.containsKey("compare")) {
+            printComparison(objectMapper.readTree(Path.of(options.get("compare")).toFile()), results);
+        }
+    }
+
+    /**
+     * Time every operation against a fresh copy of the generator's dataset, generating it first
+     * if the data directory does not have it yet.
+     */
+    public List<Result> run(DatasetGenerator generator, Path dataDir) {
+        Path dataset = dataDir.resolve("expenses-" + generator.getExpenseCount() + "-users-" + generator.getUserCount()
+                + "-seed-" + generator.getSeed() + ".db");
+        if (!Files.exists(dataset)) {
+            System.out.println("Generating " + generator + " ...");
+            generator.writeTo(dataset);
+        }
+        Path workFile = dataDir.resolve("benchmark-run.db");
+        copy(dataset, workFile);
+
+        String name = generator.getExpenseCount() + " expenses / " + generator.getUserCount() + " users";
+        System.out.println();
+        System.out.println("== " + name);
+        System.out.printf("%-56s %9s %11s %11s%n", "operation", "rows", "p50 ms", "p95 ms");
+
+        List<Result> results = new ArrayList<>();
+        try (DatabaseConnection db = new DatabaseConnection("jdbc:sqlite:" + workFile)) {
+            // Datasets cached by an earlier build may predate the newest migrations
+            new MigrationRunner(db).migrate();
+            for (Operation operation : operations(db, generator)) {
+                Result result = time(name, generator, operation);
+                System.out.printf("%-56s %9d %11.3f %11.3f%n",
+                        result.operation(), result.rows(), result.p50Ms(), result.p95Ms());
+                results.add(result);
+            }
+        } finally {
+            deleteDatabase(workFile);
+        }
+        return results;
+    }
+
+    private List<Operation> operations(DatabaseConnection db, DatasetGenerator generator) {
+        ExpenseRepository expenseRepository = new ExpenseRepository(db);
+        ApprovalRepository approvalRepository = new ApprovalRepository(db);
+        UserRepository userRepository = new UserRepository(db);
+        AnalyticsRepository analyticsRepository = new AnalyticsRepository(db);
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+
+        int expenses = generator.getExpenseCount();
+        int users = generator.getUserCount();
+        int employees = users - generator.getManagerCount();
+        List<Integer> activeEmployees = employeesByActivity(db);
+        int busiestEmployee = activeEmployees.get(0);
+        int typicalEmployee = activeEmployees.get(activeEmployees.size() / 2);
+        PageCursor middle = cursorAt(db, Math.max(1, expenses / 2));
+        List<Integer> pending = pendingExpenseIds(db);
+        int reviewsPerSample = Math.min(REVIEWS_PER_SAMPLE, pending.size() / (warmup + iterations));
+        int[] lookup = {0};
+        int[] review = {0};
+
+        List<Operation> operations = new ArrayList<>(List.of(
+                new Operation("ExpenseRepository.findById", LOOKUPS_PER_SAMPLE,
+                        () -> expenseRepository.findById(spread(lookup, expenses)).isPresent() ? 1 : 0),
+                new Operation("ExpenseRepository.findExpensesWithUsers(all)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.all()).size()),
+                new Operation("ExpenseRepository.findExpensesWithUsers(pending)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.pending()).size()),
+                new Operation("ExpenseRepository.findExpensesWithUsers(busiest user)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.byUser(busiestEmployee)).size()),
+                new Operation("ExpenseRepository.findExpensesWithUsers(typical user)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.byUser(typicalEmployee)).size()),
+                new Operation("ExpenseRepository.findExpensesWithUsers(month)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.byDateRange(MONTH_START, MONTH_END)).size()),
+                new Operation("ExpenseRepository.findExpensesWithUsers(category)", 1,
+                        () -> expenseRepository.findExpensesWithUsers(ExpenseQuery.byCategory(CATEGORY)).size()),
+                new Operation("ExpenseRepository.findExpensesPage(first page)", 1,
+                        () -> expenseRepository.findExpensesPage(ExpenseQuery.all(), null, PAGE_SIZE).getItems().size()),
+                new Operation("ExpenseRepository.findExpensesPage(middle page)", 1,
+                        () -> expenseRepository.findExpensesPage(ExpenseQuery.all(), middle, PAGE_SIZE).getItems().size()),
+                new Operation("ExpenseRepository.forEachExpense(all)", 1,
+                        () -> expenseRepository.forEachExpense(ExpenseQuery.all(), row -> { })),
+                new Operation("ApprovalRepository.findByExpenseId", LOOKUPS_PER_SAMPLE,
+                        () -> approvalRepository.findByExpenseId(spread(lookup, expenses)).isPresent() ? 1 : 0),
+                new Operation("UserRepository.findById", LOOKUPS_PER_SAMPLE,
+                        () -> userRepository.findById(spread(lookup, users)).isPresent() ? 1 : 0),
+                new Operation("UserRepository.findByUsername", LOOKUPS_PER_SAMPLE,
+                        () -> userRepository.findByUsername("employee" + spread(lookup, employees)).isPresent() ? 1 : 0),
+                new Operation("AnalyticsRepository.summarizeSpend(employee)", 1,
+                        () -> analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, null).size()),
+                new Operation("AnalyticsRepository.summarizeSpend(status)", 1,
+                        () -> analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null).size()),
+                new Operation("AnalyticsRepository.summarizeSpend(month)", 1,
+                        () -> analyticsRepository.summarizeSpend(SpendGrouping.MONTH, null, null, null).size()),
+                new Operation("AnalyticsRepository.summarizeSpend(category)", 1,
+                        () -> analyticsRepository.summarizeSpend(SpendGrouping.CATEGORY, null, null, null).size()),
+                new Operation("report /api/reports/expenses/csv", 1,
+                        () -> expenseService.writeCsvReport(ExpenseQuery.all(), OutputStream.nullOutputStream())),
+                new Operation("report /api/reports/expenses/pending/csv", 1,
+                        () -> expenseService.writeCsvReport(ExpenseQuery.pending(), OutputStream.nullOutputStream())),
+                new Operation("report /api/reports/expenses/employee/{id}/csv", 1,
+                        () -> expenseService.writeCsvReport(ExpenseQuery.byUser(busiestEmployee), OutputStream.nullOutputStream())),
+                new Operation("report /api/reports/expenses/category/{c}/csv", 1,
+                        () -> expenseService.writeCsvReport(ExpenseQuery.byCategory(CATEGORY), OutputStream.nullOutputStream())),
+                new Operation("report /api/reports/expenses/daterange/csv", 1,
+                        () -> expenseService.writeCsvReport(ExpenseQuery.byDateRange(MONTH_START, MONTH_END),
+                                OutputStream.nullOutputStream()))));
+        // Each review takes a pending expense out of the pool, so this one runs last
+        if (reviewsPerSample > 0) {
+            operations.add(new Operation("ApprovalRepository.reviewApproval", reviewsPerSample,
+                    () -> approvalRepository.reviewApproval(new ApprovalDecision(
+                            pending.get(review[0]++), "approved", 1, "Approved")).isApplied() ? 1 : 0));
+        }
+        return operations;
+    }
+
+    private Result time(String dataset, DatasetGenerator generator, Operation operation) {
+        int rows = 0;
+        for (int i = 0; i < warmup; i++) {
+            rows = sample(operation);
+        }
+        double[] millis = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            rows = sample(operation);
+            millis[i] = (System.nanoTime() - start) / 1e6 / operation.callsPerSample();
+        }
+        Arrays.sort(millis);
+        return new Result(dataset, generator.getUserCount(), generator.getExpenseCount(), operation.name(), rows,
+                iterations, millis[0], percentile(millis, 0.5), percentile(millis, 0.95), millis[millis.length - 1],
+                Arrays.stream(millis).average().orElse(0));
+    }
+
+    /**
+     * @return the rows produced by the sample's last call
+     */
+    private static int sample(Operation operation) {
+        int rows = 0;
+        for (int call = 0; call < operation.callsPerSample(); call++) {
+            rows = operation.call().getAsInt();
+        }
+        return rows;
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted[(int) Math.ceil(fraction * sorted.length) - 1];
+    }
+
+    /**
+     * Step through IDs 1 to max in a fixed, scattered order, so lookups do not all hit the same pages.
+     */
+    private static int spread(int[] counter, int max) {
+        return (int) ((counter[0]++ * 7919L) % max) + 1;
+    }
+
+    /**
+     * Print how each result's median compares with the same dataset and operation in an earlier run.
+     */
+    private static void printComparison(JsonNode previous, List<Result> results) {
+        Map<String, Double> before = new HashMap<>();
+        for (JsonNode result : previous.path("results")) {
+            before.put(result.path("dataset").asText() + "|" + result.path("operation").asText(),
+                    result.path("p50Ms").asDouble());
+        }
+        System.out.println();
+        System.out.printf("%-34s %-56s %11s %11s %8s%n", "dataset", "operation", "before ms", "after ms", "change");
+        for (Result result : results) {
+            Double previousMs = before.get(result.dataset() + "|" + result.operation());
+            if (previousMs == null) {
+                continue;
+            }
+            double change = previousMs == 0 ? 0 : (result.p50Ms() - previousMs) / previousMs * 100;
+            System.out.printf("%-34s %-56s %11.3f %11.3f %+7.1f%%%n",
+                    result.dataset(), result.operation(), previousMs, result.p50Ms(), change);
+        }
+    }
+
+    /**
+     * @return the IDs of employees with expenses, most expenses first
+     */
+    private static List<Integer> employeesByActivity(DatabaseConnection db) {
+        List<Integer> employees = new ArrayList<>();
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT user_id FROM expenses GROUP BY user_id ORDER BY COUNT(*) DESC, user_id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                employees.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error ranking employees by activity", e);
+        }
+        if (employees.isEmpty()) {
+            throw new IllegalStateException("Dataset has no expenses to benchmark");
+        }
+        return employees;
+    }
+
+    private static PageCursor cursorAt(DatabaseConnection db, int expenseId) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT date, id FROM expenses WHERE id = ?")) {
+            stmt.setInt(1, expenseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("Dataset has no expense " + expenseId);
+                }
+                return new PageCursor(rs.getString("date"), rs.getInt("id"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading expense " + expenseId, e);
+        }
+    }
+
+    private static List<Integer> pendingExpenseIds(DatabaseConnection db) {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT expense_id FROM approvals WHERE status = 'pending' ORDER BY expense_id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading pending expenses", e);
+        }
+        return ids;
+    }
+
+    /**
+     * Copy a database file with its WAL file, if it has one, so the copy holds every committed write.
+     */
+    private static void copy(Path from, Path to) {
+        try {
+            deleteDatabase(to);
+            for (String suffix : List.of("", "-wal")) {
+                Path source = from.resolveSibling(from.getFileName() + suffix);
+                if (Files.exists(source)) {
+                    Files.copy(source, to.resolveSibling(to.getFileName() + suffix), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete a database file with its WAL and shared memory files.
+     */
+    private static void deleteDatabase(Path file) {
+        try {
+            for (String suffix : List.of("", "-wal", "-shm")) {
+                Files.deleteIfExists(file.resolveSibling(file.getFileName() + suffix));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
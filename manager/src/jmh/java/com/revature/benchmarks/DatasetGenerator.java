@@ -0,0 +1,388 @@
+package com.revature.benchmarks;
+
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.MigrationRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a realistic expense database of any size to a new SQLite file, for seeing how the
+ * repositories and reports behave at production volumes. The same sizes and seed always
+ * produce the same rows, so two runs against the same dataset are comparable.
+ *
+ * One user in fifty is a manager; the rest are employees whose activity follows a Zipf-like
+ * curve, so a few employees file a large share of the expenses. Expenses span five years,
+ * growing in volume towards the end; recent ones are mostly pending and older ones mostly
+ * reviewed, about one in seven of those denied.
+ *
+ * Run with: mvn -P jmh test-compile exec:exec@dataset -Ddataset.main=com.revature.benchmarks.DatasetGenerator
+ *           -Ddataset.args="--file target/datasets/big.db --users 10000 --expenses 1000000 --seed 42"
+ */
+public final class DatasetGenerator {
+    static final LocalDate FIRST_DATE = LocalDate.of(2021, 1, 1);
+    static final LocalDate LAST_DATE = LocalDate.of(2025, 12, 31);
+    static final String PASSWORD = "password123";
+
+    private static final int USERS_PER_MANAGER = 50;
+    // Zipf exponent of employee activity; 0 would spread expenses evenly
+    private static final double ACTIVITY_SKEW = 0.8;
+    // Expenses per day rise linearly to this many times the rate on the first day
+    private static final double VOLUME_GROWTH = 3.0;
+    private static final int BATCH_SIZE = 10_000;
+    private static final DateTimeFormatter REVIEW_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] CITIES = {
+            "Chicago", "Austin", "Denver", "Boston", "Seattle", "New York", "Atlanta", "San Jose", "Toronto", "London"
+    };
+    private static final String[] CLIENTS = {
+            "Acme Corp", "Globex", "Initech", "Umbrella", "Stark Industries", "Wayne Enterprises", "Hooli", "Vandelay"
+    };
+    private static final String[] CONFERENCES = {
+            "JavaOne", "QCon", "KubeCon", "Devoxx", "re:Invent", "SpringOne"
+    };
+    private static final String[] SOFTWARE = {
+            "IntelliJ IDEA", "Slack", "Zoom", "Figma", "GitHub Copilot", "Adobe Acrobat"
+    };
+    private static final String[] APPROVAL_COMMENTS = {
+            "Approved", "ok", "Fine", "Approved, thanks", "Within policy", "Approved - receipt attached"
+    };
+    private static final String[] DENIAL_COMMENTS = {
+            "Missing receipt", "Over the limit, resubmit", "Not a business expense", "Duplicate of an earlier claim",
+            "Needs pre-approval", "Personal expense"
+    };
+
+    /**
+     * A kind of expense: how its description is built and the range its amount falls in.
+     * Kinds listed more often below are filed more often.
+     */
+    private record ExpenseKind(String template, double minAmount, double maxAmount) {
+    }
+
+    private static final ExpenseKind[] KINDS = {
+            new ExpenseKind("Taxi to {client} office", 12, 90),
+            new ExpenseKind("Taxi to {client} office", 12, 90),
+            new ExpenseKind("Taxi from the airport", 25, 120),
+            new ExpenseKind("Flight to {city}", 150, 1200),
+            new ExpenseKind("Hotel, {nights} nights in {city}", 120, 900),
+            new ExpenseKind("Train fare to {city}", 20, 180),
+            new ExpenseKind("Rental car, {city}", 60, 500),
+            new ExpenseKind("Parking", 5, 40),
+            new ExpenseKind("Parking", 5, 40),
+            new ExpenseKind("Client dinner with {client}", 40, 400),
+            new ExpenseKind("Team lunch", 30, 250),
+            new ExpenseKind("Team lunch", 30, 250),
+            new ExpenseKind("Coffee with {client}", 4, 30),
+            new ExpenseKind("Office supplies", 5, 120),
+            new ExpenseKind("Printer toner \"XL\"", 40, 160),
+            new ExpenseKind("Monitor for home office", 120, 450),
+            new ExpenseKind("Conference ticket: {conference}", 200, 1500),
+            new ExpenseKind("Books", 15, 120),
+            new ExpenseKind("{software} subscription", 10, 100),
+            new ExpenseKind("Mobile phone bill", 30, 120)
+    };
+
+    private final int userCount;
+    private final int expenseCount;
+    private final long seed;
+
+    /**
+     * @param userCount managers and employees together; at least two, so there is one of each
+     * @param expenseCount expenses to file, each with its approval
+     * @param seed the random seed; the same sizes and seed always produce the same rows
+     */
+    public DatasetGenerator(int userCount, int expenseCount, long seed) {
+        if (userCount < 2) {
+            throw new IllegalArgumentException("A dataset needs at least one manager and one employee");
+        }
+        if (expenseCount < 0) {
+            throw new IllegalArgumentException("Expense count must not be negative");
+        }
+        this.userCount = userCount;
+        this.expenseCount = expenseCount;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = options(args);
+        Path file = Path.of(options.getOrDefault("file", "target/datasets/dataset.db"));
+        DatasetGenerator generator = new DatasetGenerator(
+                Integer.parseInt(options.getOrDefault("users", "10000")),
+                Integer.parseInt(options.getOrDefault("expenses", "1000000")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+
+        long start = System.nanoTime();
+        generator.writeTo(file);
+        System.out.printf("Wrote %s in %d ms%n", generator, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Log in as manager1 / " + PASSWORD + " with DATABASE_PATH=" + file.toAbsolutePath());
+    }
+
+    /**
+     * Create the database file with the base schema, fill it and apply the manager's migrations.
+     * @param file where to create the database; it must not exist yet
+     */
+    public void writeTo(Path file) {
+        if (Files.exists(file)) {
+            throw new IllegalStateException("Refusing to overwrite existing database: " + file);
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new RuntimeException("Error creating directory for dataset: " + file, e);
+        }
+
+        try (DatabaseConnection db = new DatabaseConnection("jdbc:sqlite:" + file)) {
+            try (Connection conn = db.getWriteConnection()) {
+                createSchema(conn);
+                populate(conn);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error generating dataset: " + file, e);
+            }
+            new MigrationRunner(db).migrate();
+        }
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getManagerCount() {
+        return Math.max(1, userCount / USERS_PER_MANAGER);
+    }
+
+    @Override
+    public String toString() {
+        return userCount + " users, " + expenseCount + " expenses, seed " + seed;
+    }
+
+    /**
+     * Parse "--name value" pairs; anything else is an error.
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + String.join(" ", args));
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE users (
+                        id INTEGER PRIMARY KEY,
+                        username TEXT UNIQUE NOT NULL,
+                        password TEXT NOT NULL,
+                        role TEXT NOT NULL
+                    );
+                    CREATE TABLE expenses (
+                        id INTEGER PRIMARY KEY,
+                        user_id INTEGER NOT NULL,
+                        amount REAL NOT NULL,
+                        description TEXT NOT NULL,
+                        date TEXT NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users (id)
+                    );
+                    CREATE TABLE approvals (
+                        id INTEGER PRIMARY KEY,
+                        expense_id INTEGER NOT NULL,
+                        status TEXT NOT NULL,
+                        reviewer INTEGER,
+                        comment TEXT,
+                        review_date TEXT,
+                        FOREIGN KEY (expense_id) REFERENCES expenses (id)
+                    );
+                    """);
+        }
+    }
+
+    private void populate(Connection conn) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int managerCount = getManagerCount();
+        int[] employeeIds = shuffledEmployeeIds(random, managerCount);
+        double[] activity = cumulativeActivity(employeeIds.length);
+        long days = ChronoUnit.DAYS.between(FIRST_DATE, LAST_DATE);
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement users = conn.prepareStatement("INSERT INTO users (id, username, password, role) VALUES (?, ?, ?, ?)");
+             PreparedStatement expenses = conn.prepareStatement(
+                     "INSERT INTO expenses (id, user_id, amount, description, date) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement approvals = conn.prepareStatement(
+                     "INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            for (int id = 1; id <= userCount; id++) {
+                boolean manager = id <= managerCount;
+                users.setInt(1, id);
+                users.setString(2, manager ? "manager" + id : "employee" + (id - managerCount));
+                users.setString(3, PASSWORD);
+                users.setString(4, manager ? "Manager" : "Employee");
+                users.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    users.executeBatch();
+                }
+            }
+            users.executeBatch();
+
+            for (int id = 1; id <= expenseCount; id++) {
+                LocalDate date = dateOf(random, id, days);
+                ExpenseKind kind = KINDS[random.nextInt(KINDS.length)];
+                expenses.setInt(1, id);
+                expenses.setInt(2, employeeIds[pick(activity, random.nextDouble())]);
+                expenses.setDouble(3, amount(random, kind));
+                expenses.setString(4, describe(random, kind));
+                expenses.setString(5, date.toString());
+                expenses.addBatch();
+
+                String status = status(random, date);
+                boolean pending = status.equals("pending");
+                approvals.setInt(1, id);
+                approvals.setInt(2, id);
+                approvals.setString(3, status);
+                approvals.setObject(4, pending ? null : 1 + random.nextInt(managerCount));
+                approvals.setString(5, pending ? null : comment(random, status));
+                approvals.setString(6, pending ? null : reviewDate(random, date));
+                approvals.addBatch();
+
+                if (id % BATCH_SIZE == 0) {
+                    expenses.executeBatch();
+                    approvals.executeBatch();
+                }
+            }
+            expenses.executeBatch();
+            approvals.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Employee IDs in activity order, most active first. Shuffled so the busiest employees
+     * are spread over the ID range rather than being the first few rows of the users table.
+     */
+    private int[] shuffledEmployeeIds(SplittableRandom random, int managerCount) {
+        int[] ids = new int[userCount - managerCount];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = managerCount + 1 + i;
+        }
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    /**
+     * Cumulative share of expenses filed by the employees up to each activity rank,
+     * where the employee at rank k files in proportion to 1 / k^ACTIVITY_SKEW.
+     */
+    private static double[] cumulativeActivity(int employees) {
+        double[] cumulative = new double[employees];
+        double total = 0;
+        for (int rank = 0; rank < employees; rank++) {
+            total += 1.0 / Math.pow(rank + 1, ACTIVITY_SKEW);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < employees; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double value) {
+        int index = Arrays.binarySearch(cumulative, value);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Dates rise with the expense ID, as they do for expenses filed over time, with the daily
+     * volume growing linearly by VOLUME_GROWTH over the whole range.
+     */
+    private LocalDate dateOf(SplittableRandom random, int id, long days) {
+        double share = (id - 1 + random.nextDouble()) / expenseCount;
+        // Inverse of the cumulative share of expenses filed by fraction x of the range,
+        // (x + (g - 1) / 2 * x^2) / ((g + 1) / 2) for a growth factor g
+        double a = (VOLUME_GROWTH - 1) / 2;
+        double b = share * (VOLUME_GROWTH + 1) / 2;
+        double x = (-1 + Math.sqrt(1 + 4 * a * b)) / (2 * a);
+        return FIRST_DATE.plusDays(Math.min(days, (long) (x * (days + 1))));
+    }
+
+    /**
+     * Log-uniform within the kind's range, so small amounts are commoner than large ones, rounded to cents.
+     */
+    private static double amount(SplittableRandom random, ExpenseKind kind) {
+        double amount = kind.minAmount() * Math.pow(kind.maxAmount() / kind.minAmount(), random.nextDouble());
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private static String describe(SplittableRandom random, ExpenseKind kind) {
+        String description = kind.template();
+        if (description.indexOf('{') < 0) {
+            return description;
+        }
+        return description
+                .replace("{city}", CITIES[random.nextInt(CITIES.length)])
+                .replace("{client}", CLIENTS[random.nextInt(CLIENTS.length)])
+                .replace("{conference}", CONFERENCES[random.nextInt(CONFERENCES.length)])
+                .replace("{software}", SOFTWARE[random.nextInt(SOFTWARE.length)])
+                .replace("{nights}", Integer.toString(1 + random.nextInt(6)));
+    }
+
+    /**
+     * Most expenses from the last month are still pending, a few older ones were never reviewed.
+     */
+    private static String status(SplittableRandom random, LocalDate date) {
+        long age = ChronoUnit.DAYS.between(date, LAST_DATE);
+        double pendingShare = age < 30 ? 0.7 : age < 90 ? 0.15 : 0.02;
+        if (random.nextDouble() < pendingShare) {
+            return "pending";
+        }
+        return random.nextDouble() < 0.85 ? "approved" : "denied";
+    }
+
+    private static String comment(SplittableRandom random, String status) {
+        if (status.equals("denied")) {
+            return DENIAL_COMMENTS[random.nextInt(DENIAL_COMMENTS.length)];
+        }
+        return random.nextBoolean() ? null : APPROVAL_COMMENTS[random.nextInt(APPROVAL_COMMENTS.length)];
+    }
+
+    private static String reviewDate(SplittableRandom random, LocalDate date) {
+        LocalDate reviewed = date.plusDays(1 + random.nextInt(10));
+        if (reviewed.isAfter(LAST_DATE)) {
+            reviewed = LAST_DATE;
+        }
+        LocalDateTime time = reviewed.atTime(8 + random.nextInt(10), random.nextInt(60), random.nextInt(60));
+        return time.format(REVIEW_DATE_FORMATTER);
+    }
+}
@@ -0,0 +1,51 @@
+package com.revature.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.repository.ExpenseWithUser;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of expense lists with the mapper Javalin's ctx.json() uses,
+ * i.e. the cost of every non-streamed expense list response after the query.
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="ExpenseJson -f 1 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpenseJsonBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<ExpenseWithUser> expenses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JavalinJackson.defaultMapper();
+        expenses = BenchmarkData.expenses(rows);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), expenses);
+    }
+}
@@ -0,0 +1,74 @@
+package com.revature.benchmarks;
+
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ExpenseQuery;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.service.ExpenseCsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning result set rows into ExpenseWithUser objects (ExpenseRepository.mapRowToExpenseWithUser),
+ * measured against a real SQLite file so the driver's column reads are included.
+ * cursorOnly steps through the same query without reading a column; findExpensesWithUsers maps
+ * every row, so the difference between the two is the mapping. streamCsv reads the same columns
+ * through the reused ExpenseRow view instead, as the streamed CSV report does.
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="ExpenseRowMapping -f 1 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExpenseRowMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private Path dir;
+    private DatabaseConnection db;
+    private ExpenseRepository expenseRepository;
+
+    @Setup
+    public void setUp() {
+        dir = BenchmarkData.createTempDirectory();
+        db = BenchmarkData.database(dir, rows);
+        expenseRepository = new ExpenseRepository(db);
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+        BenchmarkData.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public int cursorOnly() {
+        return expenseRepository.forEachExpense(ExpenseQuery.all(), row -> { });
+    }
+
+    @Benchmark
+    public List<ExpenseWithUser> findExpensesWithUsers() {
+        return expenseRepository.findExpensesWithUsers(ExpenseQuery.all());
+    }
+
+    @Benchmark
+    public void streamCsv(Blackhole blackhole) throws IOException {
+        ExpenseCsvWriter csv = ExpenseCsvWriter.forStream(OutputStream.nullOutputStream());
+        blackhole.consume(expenseRepository.forEachExpense(ExpenseQuery.all(), csv::writeRow));
+        csv.flush();
+    }
+}
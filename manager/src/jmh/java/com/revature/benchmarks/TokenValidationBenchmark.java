@@ -0,0 +1,58 @@
+package com.revature.benchmarks;
+
+import com.revature.repository.User;
+import com.revature.repository.UserRepository;
+import com.revature.service.AuthenticationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of JWT validation with and without the verified-token cache.
+ * The user lookup is stubbed out, so the numbers isolate token verification.
+ * Run with: mvn -P jmh test-compile exec:exec -Djmh.args="TokenValidation -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenValidationBenchmark {
+
+    @Param({"0", "10000"})
+    public int verifiedTokenCacheSize;
+
+    private AuthenticationService authenticationService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User manager = new User(3, "manager1", "password123", "Manager");
+        UserRepository userRepository = new UserRepository(null) {
+            @Override
+            public Optional<User> findById(int userId) {
+                return Optional.of(manager);
+            }
+        };
+        authenticationService = new AuthenticationService(userRepository, verifiedTokenCacheSize);
+        token = authenticationService.createJwtToken(manager);
+    }
+
+    @Benchmark
+    public Optional<User> validateJwtToken() {
+        return authenticationService.validateJwtToken(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<User> validateJwtTokenContended() {
+        return authenticationService.validateJwtToken(token);
+    }
+}
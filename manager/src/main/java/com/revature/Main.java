@@ -1,19 +1,42 @@
 package com.revature;
 
+import com.revature.api.AdminController;
+import com.revature.api.AnalyticsController;
 import com.revature.api.AuthenticationMiddleware;
+import com.revature.api.Bulkhead;
+import com.revature.api.BulkheadSizing;
 import com.revature.api.ExpenseController;
+import com.revature.api.MetricsController;
+import com.revature.api.PendingExpenseStreamController;
 import com.revature.api.ReportController;
+import com.revature.api.RequestMetrics;
+import com.revature.assets.StaticAssets;
+import com.revature.metrics.QueryMetrics;
+import com.revature.repository.AnalyticsRepository;
+import com.revature.repository.CachedUserRepository;
+import com.revature.repository.ChangeFeed;
 import com.revature.repository.DatabaseConnection;
-import com.revature.repository.UserRepository;
+import com.revature.repository.ExpenseProjection;
 import com.revature.repository.ExpenseRepository;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.ProjectedApprovalRepository;
+import com.revature.repository.ProjectedExpenseRepository;
 import com.revature.repository.User;
 import com.revature.repository.ApprovalRepository;
+import com.revature.service.AnalyticsService;
+import com.revature.service.ApprovalWriteQueue;
 import com.revature.service.AuthenticationService;
 import com.revature.service.ExpenseService;
+import com.revature.service.PendingExpenseFeed;
+import com.revature.service.ReportCache;
+import com.revature.service.ReportJobService;
 
 import io.javalin.Javalin;
 import io.javalin.http.staticfiles.Location;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,22 +50,145 @@ public class Main {
         // Initialize dependencies using constructor dependency injection
         DatabaseConnection databaseConnection = new DatabaseConnection();
 
-        // Repository layer
-        UserRepository userRepository = new UserRepository(databaseConnection);
-        ExpenseRepository expenseRepository = new ExpenseRepository(databaseConnection);
-        ApprovalRepository approvalRepository = new ApprovalRepository(databaseConnection);
+        // Bring the schema up to date before serving any requests
+        MigrationRunner migrationRunner = new MigrationRunner(databaseConnection);
+        migrationRunner.migrate();
+
+        // Repository layer, timing every query for /metrics
+        QueryMetrics queryMetrics = new QueryMetrics();
+        CachedUserRepository userRepository = new CachedUserRepository(databaseConnection,
+                databaseConnection.intSetting("USER_CACHE_MAX_SIZE", 1000),
+                Duration.ofSeconds(databaseConnection.longSetting("USER_CACHE_TTL_SECONDS", 60)),
+                Duration.ofSeconds(databaseConnection.longSetting("USER_CACHE_NEGATIVE_TTL_SECONDS", 10)),
+                queryMetrics);
+        // Optionally answer expense list queries from an in-memory copy of the tables
+        ExpenseProjection expenseProjection = databaseConnection.booleanSetting("READ_MODEL_ENABLED", false)
+                ? new ExpenseProjection(databaseConnection)
+                : null;
+        ExpenseRepository expenseRepository = expenseProjection != null
+                ? new ProjectedExpenseRepository(databaseConnection, expenseProjection, queryMetrics)
+                : new ExpenseRepository(databaseConnection, queryMetrics);
+        ApprovalRepository approvalRepository = expenseProjection != null
+                ? new ProjectedApprovalRepository(databaseConnection, expenseProjection, queryMetrics)
+                : new ApprovalRepository(databaseConnection, queryMetrics);
+        AnalyticsRepository analyticsRepository = new AnalyticsRepository(databaseConnection, queryMetrics);
 
         // Service layer
-        AuthenticationService authenticationService = new AuthenticationService(userRepository);
-        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository);
+        AuthenticationService authenticationService = new AuthenticationService(userRepository,
+                databaseConnection.intSetting("AUTH_TOKEN_CACHE_SIZE", AuthenticationService.DEFAULT_VERIFIED_TOKEN_CACHE_SIZE));
+        // Optionally commit concurrent reviews in groups instead of one transaction each
+        ApprovalWriteQueue approvalWriteQueue = databaseConnection.booleanSetting("APPROVAL_GROUP_COMMIT_ENABLED", false)
+                ? new ApprovalWriteQueue(approvalRepository,
+                        databaseConnection.intSetting("APPROVAL_QUEUE_CAPACITY", ApprovalWriteQueue.DEFAULT_CAPACITY),
+                        databaseConnection.intSetting("APPROVAL_GROUP_MAX_SIZE", ApprovalWriteQueue.DEFAULT_MAX_GROUP_SIZE),
+                        Duration.ofMillis(databaseConnection.longSetting("APPROVAL_GROUP_MAX_DELAY_MS",
+                                ApprovalWriteQueue.DEFAULT_MAX_GROUP_DELAY.toMillis())))
+                : null;
+        ExpenseService expenseService = new ExpenseService(expenseRepository, approvalRepository,
+                Duration.ofMillis(databaseConnection.longSetting("QUERY_COALESCE_TTL_MS", 0)), approvalWriteQueue);
+        AnalyticsService analyticsService = new AnalyticsService(analyticsRepository);
+        // Long exports run here, off the request threads, and are kept on disk until downloaded
+        String reportJobDir = databaseConnection.setting("REPORT_JOB_DIR");
+        int reportJobWorkers = databaseConnection.intSetting("REPORT_JOB_WORKERS", ReportJobService.DEFAULT_WORKERS);
+        ReportJobService reportJobService = new ReportJobService(expenseService,
+                reportJobDir != null && !reportJobDir.isBlank() ? Path.of(reportJobDir)
+                        : Path.of(System.getProperty("java.io.tmpdir"), "manager-report-jobs"),
+                reportJobWorkers,
+                databaseConnection.intSetting("REPORT_JOB_QUEUE_SIZE", ReportJobService.DEFAULT_QUEUE_CAPACITY),
+                Duration.ofMinutes(databaseConnection.longSetting("REPORT_JOB_TTL_MINUTES",
+                        ReportJobService.DEFAULT_TTL.toMinutes())));
+        // Repeated report downloads are served from here until the data changes; 0 MB disables it,
+        // and 0 MB on disk keeps only the reports small enough to hold in memory
+        long reportCacheMb = databaseConnection.longSetting("REPORT_CACHE_MAX_MB", 64);
+        long reportCacheDiskMb = databaseConnection.longSetting("REPORT_CACHE_DISK_MAX_MB", 1024);
+        String reportCacheDir = databaseConnection.setting("REPORT_CACHE_DIR");
+        ReportCache reportCache = reportCacheMb > 0
+                ? new ReportCache(expenseService, reportCacheMb << 20,
+                        databaseConnection.longSetting("REPORT_CACHE_MAX_ENTRY_MB", 8) << 20,
+                        reportCacheDiskMb <= 0 ? null
+                                : reportCacheDir != null && !reportCacheDir.isBlank() ? Path.of(reportCacheDir)
+                                : Path.of(System.getProperty("java.io.tmpdir"), "manager-report-cache"),
+                        reportCacheDiskMb << 20)
+                : null;
+        PendingExpenseFeed pendingExpenseFeed = new PendingExpenseFeed(expenseService,
+                databaseConnection.intSetting("PENDING_FEED_HISTORY_SIZE", PendingExpenseFeed.DEFAULT_HISTORY_SIZE),
+                databaseConnection.intSetting("SSE_CLIENT_BUFFER_SIZE", PendingExpenseFeed.DEFAULT_CLIENT_BUFFER_SIZE));
+
+        // Tail the change log so caches and push clients see writes from both apps
+        ChangeFeed changeFeed = new ChangeFeed(databaseConnection,
+                Duration.ofMillis(databaseConnection.longSetting("CHANGE_FEED_POLL_MS", 250)),
+                databaseConnection.longSetting("CHANGE_LOG_RETAINED", 100_000));
+        changeFeed.addListener(userRepository);
+        if (expenseProjection != null) {
+            // Ahead of the service and the pending feed, so their next reads see the updated projection
+            changeFeed.addListener(expenseProjection);
+        }
+        changeFeed.addListener(expenseService);
+        if (reportCache != null) {
+            changeFeed.addListener(reportCache);
+        }
+        changeFeed.addListener(pendingExpenseFeed);
+        changeFeed.start();
+        // The manager's own reviews reach push clients and caches without waiting for the next poll
+        expenseService.addChangeListener(expenseId -> changeFeed.pollSoon());
+        if (expenseProjection != null) {
+            // Loaded after the feed starts, so no change falls between the two
+            expenseProjection.load();
+            System.out.println("Expense projection loaded: " + expenseProjection.getStats().getExpenseCount() + " expenses");
+        }
 
         // API layer
         AuthenticationMiddleware authMiddleware = new AuthenticationMiddleware(authenticationService);
         ExpenseController expenseController = new ExpenseController(expenseService);
-        ReportController reportController = new ReportController(expenseService);
+        ReportController reportController = new ReportController(expenseService, reportJobService, reportCache);
+        AnalyticsController analyticsController = new AnalyticsController(analyticsService);
+        PendingExpenseStreamController pendingExpenseStreamController = new PendingExpenseStreamController(pendingExpenseFeed,
+                Duration.ofSeconds(databaseConnection.longSetting("SSE_HEARTBEAT_SECONDS", 15)));
+
+        // Cap concurrent requests per class of work, so slow exports cannot take every database connection
+        Duration bulkheadMaxWait = Duration.ofMillis(databaseConnection.longSetting("BULKHEAD_MAX_WAIT_MS", 2000));
+        // Reads, reports and report jobs each hold a reader connection, so the defaults follow the pool and the cores
+        boolean virtualThreads = databaseConnection.booleanSetting("VIRTUAL_THREADS_ENABLED", true);
+        BulkheadSizing bulkheadSizing = new BulkheadSizing(virtualThreads, BulkheadSizing.carrierCount(),
+                databaseConnection.getReadPoolMaxSize(), reportJobWorkers);
+        Bulkhead readBulkhead = new Bulkhead("reads",
+                databaseConnection.intSetting("BULKHEAD_READS_MAX", bulkheadSizing.defaultReadsMax()), bulkheadMaxWait);
+        Bulkhead writeBulkhead = new Bulkhead("writes", databaseConnection.intSetting("BULKHEAD_WRITES_MAX", 32), bulkheadMaxWait);
+        Bulkhead reportBulkhead = new Bulkhead("reports",
+                databaseConnection.intSetting("BULKHEAD_REPORTS_MAX", bulkheadSizing.defaultReportsMax()), bulkheadMaxWait);
+        List<Bulkhead> bulkheads = List.of(readBulkhead, writeBulkhead, reportBulkhead);
+        for (String warning : bulkheadSizing.check(readBulkhead.getStats().getMaxConcurrent(),
+                reportBulkhead.getStats().getMaxConcurrent())) {
+            System.err.println("Warning: " + warning);
+        }
+        System.out.println("Bulkheads: " + readBulkhead.getStats().getMaxConcurrent() + " reads, "
+                + reportBulkhead.getStats().getMaxConcurrent() + " reports, " + writeBulkhead.getStats().getMaxConcurrent()
+                + " writes");
+        AdminController adminController = new AdminController(databaseConnection, migrationRunner, userRepository,
+                authenticationService, expenseService, analyticsService, expenseProjection, reportCache, bulkheads);
+        RequestMetrics requestMetrics = new RequestMetrics();
+        MetricsController metricsController = new MetricsController(requestMetrics, queryMetrics, databaseConnection, bulkheads);
+
+        // Frontend files, read and compressed once
+        StaticAssets staticAssets = new StaticAssets(Main.class.getClassLoader(),
+                List.of("manager.html", "login.html", "manager.js", "auth.js"));
+
+        // Stop background work and release pooled database connections on shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (approvalWriteQueue != null) {
+                approvalWriteQueue.close();
+            }
+            changeFeed.close();
+            pendingExpenseFeed.close();
+            reportJobService.close();
+            databaseConnection.close();
+        }));
 
         // Configure and start Javalin application
         Javalin app = Javalin.create(config -> {
+            // Handlers block on SQLite; on virtual threads a blocked request no longer holds a pool thread
+            config.useVirtualThreads = virtualThreads;
+
             // Enable CORS for cross-origin requests from frontend
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(it -> {
@@ -74,60 +220,22 @@ public class Main {
             ));
         });
 
+        // Time every request, including those rejected by the handlers registered after these
+        app.before(requestMetrics::start);
+        app.after(requestMetrics::finish);
+
         // Root redirect to manager dashboard
 //        app.get("/", ctx -> ctx.redirect("/manager.html"));
 
         // === STATIC FILE ROUTES - Add these before other routes ===
-        app.get("/", ctx -> {
-            var htmlStream = Main.class.getClassLoader().getResourceAsStream("manager.html");
-            if (htmlStream != null) {
-                ctx.contentType("text/html");
-                ctx.result(htmlStream);
-            } else {
-                ctx.status(404).result("manager.html not found");
-            }
-        });
+        // Pages keep stable URLs; the scripts they load are served under content-hashed URLs
+        app.get("/", ctx -> staticAssets.serve(ctx, "manager.html"));
+        app.get("/manager.html", ctx -> staticAssets.serve(ctx, "manager.html"));
+        app.get("/login.html", ctx -> staticAssets.serve(ctx, "login.html"));
+        app.get("/manager.js", ctx -> staticAssets.serve(ctx, "manager.js"));
+        app.get("/auth.js", ctx -> staticAssets.serve(ctx, "auth.js"));
+        app.get(StaticAssets.VERSIONED_PATH + "{file}", staticAssets::serveVersioned);
 
-        app.get("/manager.html", ctx -> {
-            var htmlStream = Main.class.getClassLoader().getResourceAsStream("manager.html");
-            if (htmlStream != null) {
-                ctx.contentType("text/html");
-                ctx.result(htmlStream);
-            } else {
-                ctx.status(404).result("manager.html not found");
-            }
-        });
-
-        app.get("/login.html", ctx -> {
-            var htmlStream = Main.class.getClassLoader().getResourceAsStream("login.html");
-            if (htmlStream != null) {
-                ctx.contentType("text/html");
-                ctx.result(htmlStream);
-            } else {
-                ctx.status(404).result("login.html not found");
-            }
-        });
-
-        app.get("/manager.js", ctx -> {
-            var jsStream = Main.class.getClassLoader().getResourceAsStream("manager.js");
-            if (jsStream != null) {
-                ctx.contentType("application/javascript");
-                ctx.result(jsStream);
-            } else {
-                ctx.status(404).result("manager.js not found");
-            }
-        });
-
-        app.get("/auth.js", ctx -> {
-            var jsStream = Main.class.getClassLoader().getResourceAsStream("auth.js");
-            if (jsStream != null) {
-                ctx.contentType("application/javascript");
-                ctx.result(jsStream);
-            } else {
-                ctx.status(404).result("auth.js not found");
-            }
-        });
-        
         // Authentication status endpoint (no auth required)
         app.get("/api/auth/status", ctx -> {
             String jwtToken = ctx.cookie("jwt");
@@ -210,7 +318,8 @@ public class Main {
 
         // Manager logout endpoint (no auth required)
         app.post("/api/auth/logout", ctx -> {
-            // Clear the JWT cookie
+            // Forget the cached verification, then clear the JWT cookie
+            authenticationService.invalidateToken(ctx.cookie("jwt"));
             ctx.removeCookie("jwt");
             ctx.json(Map.of(
                     "success", true,
@@ -221,20 +330,51 @@ public class Main {
         // Protected routes - require manager authentication
         app.before("/api/expenses/*", authMiddleware.validateManager());
         app.before("/api/reports/*", authMiddleware.validateManager());
+        app.before("/api/analytics/*", authMiddleware.validateManager());
+        app.before("/api/admin/*", authMiddleware.validateManager());
 
         // Expense management endpoints
-        app.get("/api/expenses", expenseController::getAllExpenses);
-        app.get("/api/expenses/pending", expenseController::getPendingExpenses);
-        app.get("/api/expenses/employee/{employeeId}", expenseController::getExpensesByEmployee);
-        app.post("/api/expenses/{expenseId}/approve", expenseController::approveExpense);
-        app.post("/api/expenses/{expenseId}/deny", expenseController::denyExpense);
+        app.get("/api/expenses", readBulkhead.wrap(expenseController::getAllExpenses));
+        app.get("/api/expenses/pending", readBulkhead.wrap(expenseController::getPendingExpenses));
+        app.sse("/api/expenses/pending/stream", pendingExpenseStreamController::streamPendingExpenses);
+        app.get("/api/expenses/employee/{employeeId}", readBulkhead.wrap(expenseController::getExpensesByEmployee));
+        app.post("/api/expenses/batch", writeBulkhead.wrap(expenseController::reviewExpenses));
+        app.post("/api/expenses/{expenseId}/approve", writeBulkhead.wrap(expenseController::approveExpense));
+        app.post("/api/expenses/{expenseId}/deny", writeBulkhead.wrap(expenseController::denyExpense));
 
         // Report generation endpoints
-        app.get("/api/reports/expenses/csv", reportController::generateAllExpensesReport);
-        app.get("/api/reports/expenses/pending/csv", reportController::generatePendingExpensesReport);
-        app.get("/api/reports/expenses/employee/{employeeId}/csv", reportController::generateEmployeeExpensesReport);
-        app.get("/api/reports/expenses/category/{category}/csv", reportController::generateCategoryExpensesReport);
-        app.get("/api/reports/expenses/daterange/csv", reportController::generateDateRangeExpensesReport);
+        app.get("/api/reports/expenses/csv", reportBulkhead.wrap(reportController::generateAllExpensesReport));
+        app.get("/api/reports/expenses/pending/csv", reportBulkhead.wrap(reportController::generatePendingExpensesReport));
+        app.get("/api/reports/expenses/employee/{employeeId}/csv", reportBulkhead.wrap(reportController::generateEmployeeExpensesReport));
+        app.get("/api/reports/expenses/category/{category}/csv", reportBulkhead.wrap(reportController::generateCategoryExpensesReport));
+        app.get("/api/reports/expenses/daterange/csv", reportBulkhead.wrap(reportController::generateDateRangeExpensesReport));
+        app.post("/api/reports/jobs", reportController::createReportJob);
+        app.get("/api/reports/jobs", reportController::getReportJobs);
+        app.get("/api/reports/jobs/{jobId}", reportController::getReportJob);
+        app.get("/api/reports/jobs/{jobId}/download", reportController::downloadReportJob);
+
+        // Spend analytics endpoints: aggregates computed in SQL, JSON or ?format=csv
+        app.get("/api/analytics/employees", readBulkhead.wrap(analyticsController::getSpendByEmployee));
+        app.get("/api/analytics/statuses", readBulkhead.wrap(analyticsController::getSpendByStatus));
+        app.get("/api/analytics/months", readBulkhead.wrap(analyticsController::getSpendByMonth));
+        app.get("/api/analytics/categories", readBulkhead.wrap(analyticsController::getSpendByCategory));
+
+        // Operational endpoints
+        app.get("/api/admin/db/pool", adminController::getPoolStats);
+        app.get("/api/admin/db/migrations", adminController::getMigrations);
+        app.get("/api/admin/cache", adminController::getCacheStats);
+        app.delete("/api/admin/cache/users", adminController::invalidateUserCache);
+        app.get("/api/admin/cache/reports", adminController::getReportCacheStats);
+        app.get("/api/admin/coalescing", adminController::getCoalescingStats);
+        app.get("/api/admin/write-queue", adminController::getWriteQueueStats);
+        app.get("/api/admin/bulkheads", adminController::getBulkheadStats);
+        app.get("/api/admin/rollups", adminController::getSpendRollupStats);
+        app.post("/api/admin/rollups/rebuild", adminController::rebuildSpendRollups);
+        app.get("/api/admin/projection", adminController::getProjectionStats);
+        app.post("/api/admin/projection/check", adminController::checkProjection);
+
+        // Prometheus scrape endpoint (no auth required, like the health check)
+        app.get("/metrics", metricsController::getMetrics);
 
         // Root route - serve manager dashboard
 
@@ -251,6 +391,7 @@ public class Main {
         System.out.println("   Expense Manager API (Manager App) started successfully!");
         System.out.println("   Server running on: http://localhost:" + PORT);
         System.out.println("   Health check: http://localhost:" + PORT + "/health");
+        System.out.println("   Metrics: http://localhost:" + PORT + "/metrics");
         System.out.println("   API Documentation:");
         System.out.println("   Authentication Status: GET /api/auth/status");
         System.out.println("   Pending Expenses: GET /api/expenses/pending");
@@ -258,7 +399,10 @@ public class Main {
         System.out.println("   Employee Expenses: GET /api/expenses/employee/{employeeId}");
         System.out.println("   Approve Expense: POST /api/expenses/{expenseId}/approve");
         System.out.println("   Deny Expense: POST /api/expenses/{expenseId}/deny");
+        System.out.println("   Batch Review: POST /api/expenses/batch");
         System.out.println("   CSV Reports: GET /api/reports/expenses/csv");
         System.out.println("   More reports available at /api/reports/expenses/...");
+        System.out.println("   Report Jobs: POST /api/reports/jobs?report=..., then GET /api/reports/jobs/{jobId}[/download]");
+        System.out.println("   Spend Analytics: GET /api/analytics/{employees|statuses|months|categories}");
     }
-}
\ No newline at end of file
+}
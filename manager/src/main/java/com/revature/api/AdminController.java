@@ -0,0 +1,218 @@
+package com.revature.api;
+
+import com.revature.cache.CacheStats;
+import com.revature.cache.CoalescingStats;
+import com.revature.repository.CachedUserRepository;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ExpenseProjection;
+import com.revature.repository.MigrationRunner;
+import com.revature.service.AnalyticsService;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportCache;
+import com.revature.service.WriteQueueStats;
+import io.javalin.http.Context;
+import io.javalin.http.NotFoundResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for operational endpoints.
+ * Exposes runtime statistics used to monitor and tune the manager service.
+ */
+public class AdminController {
+    private final DatabaseConnection databaseConnection;
+    private final MigrationRunner migrationRunner;
+    private final CachedUserRepository userRepository;
+    private final AuthenticationService authenticationService;
+    private final ExpenseService expenseService;
+    private final AnalyticsService analyticsService;
+    private final ExpenseProjection expenseProjection;
+    private final ReportCache reportCache;
+    private final List<Bulkhead> bulkheads;
+
+    /**
+     * @param expenseProjection the in-memory expense projection, or null if it is disabled
+     * @param reportCache the cache of rendered reports, or null if it is disabled
+     * @param bulkheads the limits on concurrent requests per class of work
+     */
+    public AdminController(DatabaseConnection databaseConnection, MigrationRunner migrationRunner,
+                           CachedUserRepository userRepository, AuthenticationService authenticationService,
+                           ExpenseService expenseService, AnalyticsService analyticsService,
+                           ExpenseProjection expenseProjection, ReportCache reportCache,
+                           List<Bulkhead> bulkheads) {
+        this.databaseConnection = databaseConnection;
+        this.migrationRunner = migrationRunner;
+        this.userRepository = userRepository;
+        this.authenticationService = authenticationService;
+        this.expenseService = expenseService;
+        this.analyticsService = analyticsService;
+        this.expenseProjection = expenseProjection;
+        this.reportCache = reportCache;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Get connection pool statistics.
+     * GET /api/admin/db/pool
+     */
+    public void getPoolStats(Context ctx) {
+        ctx.json(Map.of(
+                "success", true,
+                "data", databaseConnection.getPoolStats()
+        ));
+    }
+
+    /**
+     * Get the schema migrations applied to the database.
+     * GET /api/admin/db/migrations
+     */
+    public void getMigrations(Context ctx) {
+        ctx.json(Map.of(
+                "success", true,
+                "data", migrationRunner.getAppliedMigrations()
+        ));
+    }
+
+    /**
+     * Get in-memory cache statistics.
+     * GET /api/admin/cache
+     */
+    public void getCacheStats(Context ctx) {
+        List<CacheStats> stats = new ArrayList<>(userRepository.getCacheStats());
+        stats.add(authenticationService.getVerifiedTokenCacheStats());
+        ctx.json(Map.of(
+                "success", true,
+                "data", stats
+        ));
+    }
+
+    /**
+     * Get statistics for the cache of rendered CSV reports.
+     * GET /api/admin/cache/reports
+     */
+    public void getReportCacheStats(Context ctx) {
+        if (reportCache == null) {
+            throw new NotFoundResponse("Report cache is disabled; set REPORT_CACHE_MAX_MB above 0 to enable it");
+        }
+        ctx.json(Map.of(
+                "success", true,
+                "data", reportCache.getStats()
+        ));
+    }
+
+    /**
+     * Drop every cached user, e.g. after users were changed directly in the database.
+     * DELETE /api/admin/cache/users
+     */
+    public void invalidateUserCache(Context ctx) {
+        userRepository.invalidateAll();
+        ctx.json(Map.of(
+                "success", true,
+                "message", "User cache cleared"
+        ));
+    }
+
+    /**
+     * Get per-query counts of expense list calls and report downloads, and how many shared
+     * another call's database read.
+     * GET /api/admin/coalescing
+     */
+    public void getCoalescingStats(Context ctx) {
+        List<CoalescingStats> stats = new ArrayList<>(expenseService.getCoalescingStats());
+        if (reportCache != null) {
+            stats.addAll(reportCache.getCoalescingStats());
+        }
+        ctx.json(Map.of(
+                "success", true,
+                "data", stats
+        ));
+    }
+
+    /**
+     * Get approval group commit statistics.
+     * GET /api/admin/write-queue
+     */
+    public void getWriteQueueStats(Context ctx) {
+        WriteQueueStats stats = expenseService.getWriteQueueStats();
+        if (stats == null) {
+            throw new NotFoundResponse("Approval group commit is disabled; set APPROVAL_GROUP_COMMIT_ENABLED=true to enable it");
+        }
+        ctx.json(Map.of(
+                "success", true,
+                "data", stats
+        ));
+    }
+
+    /**
+     * Get concurrent request limits and how often requests waited for or were refused a slot.
+     * GET /api/admin/bulkheads
+     */
+    public void getBulkheadStats(Context ctx) {
+        List<BulkheadStats> stats = new ArrayList<>();
+        for (Bulkhead bulkhead : bulkheads) {
+            stats.add(bulkhead.getStats());
+        }
+        ctx.json(Map.of(
+                "success", true,
+                "data", stats
+        ));
+    }
+
+    /**
+     * Get how many buckets the spend rollups hold and how many expenses they count.
+     * GET /api/admin/rollups
+     */
+    public void getSpendRollupStats(Context ctx) {
+        ctx.json(Map.of(
+                "success", true,
+                "data", analyticsService.getSpendRollupStats()
+        ));
+    }
+
+    /**
+     * Recompute the spend rollups from the expenses, e.g. after they were edited by hand.
+     * POST /api/admin/rollups/rebuild
+     */
+    public void rebuildSpendRollups(Context ctx) {
+        ctx.json(Map.of(
+                "success", true,
+                "message", "Spend rollups rebuilt",
+                "data", analyticsService.rebuildSpendRollups()
+        ));
+    }
+
+    /**
+     * Get in-memory expense projection statistics.
+     * GET /api/admin/projection
+     */
+    public void getProjectionStats(Context ctx) {
+        ctx.json(Map.of(
+                "success", true,
+                "data", requireProjection().getStats()
+        ));
+    }
+
+    /**
+     * Compare the in-memory expense projection with the database, optionally reloading it
+     * if they differ.
+     * POST /api/admin/projection/check?repair=true
+     */
+    public void checkProjection(Context ctx) {
+        ExpenseProjection projection = requireProjection();
+        boolean repair = Boolean.parseBoolean(ctx.queryParam("repair"));
+        ctx.json(Map.of(
+                "success", true,
+                "data", projection.check(repair)
+        ));
+    }
+
+    private ExpenseProjection requireProjection() {
+        if (expenseProjection == null) {
+            throw new NotFoundResponse("Expense projection is disabled; set READ_MODEL_ENABLED=true to enable it");
+        }
+        return expenseProjection;
+    }
+}
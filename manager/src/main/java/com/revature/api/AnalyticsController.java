@@ -0,0 +1,142 @@
+package com.revature.api;
+
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.SpendSummary;
+import com.revature.service.AnalyticsService;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * REST controller for spend analytics.
+ * Each endpoint returns totals, counts and averages per group, computed in the database,
+ * so a manager gets the pivot of a full report without downloading every row.
+ * All endpoints accept ?startDate=YYYY-MM-DD and/or ?endDate=YYYY-MM-DD to limit the expenses
+ * summarized, ?limit=N to return only the first N groups, and ?format=csv to download the
+ * summary as CSV instead of JSON.
+ */
+public class AnalyticsController {
+    private final AnalyticsService analyticsService;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Spend per employee, highest total first.
+     * GET /api/analytics/employees[?startDate=&endDate=&limit=&format=csv]
+     */
+    public void getSpendByEmployee(Context ctx) {
+        respondWithSummary(ctx, SpendGrouping.EMPLOYEE, "spend_by_employee.csv");
+    }
+
+    /**
+     * Spend per approval status.
+     * GET /api/analytics/statuses[?startDate=&endDate=&limit=&format=csv]
+     */
+    public void getSpendByStatus(Context ctx) {
+        respondWithSummary(ctx, SpendGrouping.STATUS, "spend_by_status.csv");
+    }
+
+    /**
+     * Spend per calendar month (YYYY-MM), oldest first.
+     * GET /api/analytics/months[?startDate=&endDate=&limit=&format=csv]
+     */
+    public void getSpendByMonth(Context ctx) {
+        respondWithSummary(ctx, SpendGrouping.MONTH, "spend_by_month.csv");
+    }
+
+    /**
+     * Spend per category, the first word of the description, highest total first.
+     * GET /api/analytics/categories[?startDate=&endDate=&limit=&format=csv]
+     */
+    public void getSpendByCategory(Context ctx) {
+        respondWithSummary(ctx, SpendGrouping.CATEGORY, "spend_by_category.csv");
+    }
+
+    private void respondWithSummary(Context ctx, SpendGrouping grouping, String filename) {
+        try {
+            String format = ctx.queryParam("format");
+            boolean csv = format != null && format.equalsIgnoreCase("csv");
+            if (format != null && !csv && !format.equalsIgnoreCase("json")) {
+                throw new BadRequestResponse("Invalid format. Use json or csv");
+            }
+            String startDate = dateParam(ctx, "startDate");
+            String endDate = dateParam(ctx, "endDate");
+            if (startDate != null && endDate != null && startDate.compareTo(endDate) > 0) {
+                throw new BadRequestResponse("startDate must not be after endDate");
+            }
+            Integer limit = limitParam(ctx);
+
+            List<SpendSummary> summaries = analyticsService.summarizeSpend(grouping, startDate, endDate, limit);
+
+            if (csv) {
+                ctx.contentType("text/csv");
+                ctx.header("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+                try {
+                    analyticsService.writeCsv(grouping, summaries, ctx.outputStream());
+                } catch (UncheckedIOException e) {
+                    System.err.println("Analytics CSV " + filename + " aborted: " + e.getMessage());
+                }
+                return;
+            }
+            ctx.json(Map.of(
+                "success", true,
+                "groupBy", grouping.name().toLowerCase(Locale.ROOT),
+                "data", summaries,
+                "count", summaries.size()
+            ));
+        } catch (BadRequestResponse e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to summarize spend by "
+                    + grouping.getColumnName().toLowerCase(Locale.ROOT) + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the limit query parameter, or null if absent
+     * @throws BadRequestResponse if it is present but not a positive number
+     */
+    private static Integer limitParam(Context ctx) {
+        String value = ctx.queryParam("limit");
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            int limit = Integer.parseInt(value.trim());
+            if (limit > 0) {
+                return limit;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new BadRequestResponse("Invalid limit. Use a positive number");
+    }
+
+    /**
+     * @return the date query parameter, or null if absent
+     * @throws BadRequestResponse if it is present but not a YYYY-MM-DD date
+     */
+    private static String dateParam(Context ctx, String name) {
+        String value = ctx.queryParam(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            LocalDate.parse(value, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestResponse("Invalid " + name + " format. Use YYYY-MM-DD format");
+        }
+        return value;
+    }
+}
@@ -29,20 +29,18 @@ public class AuthenticationMiddleware {
         return ctx -> {
             String jwtToken = ctx.cookie("jwt");
             
-            Optional<User> managerOpt = authenticationService.validateManagerAuthentication(jwtToken);
+            // One token check and user lookup decides between 401 and 403
+            Optional<User> userOpt = authenticationService.validateJwtToken(jwtToken);
             
-            if (managerOpt.isEmpty()) {
-                // Check if user is authenticated but not a manager
-                Optional<User> userOpt = authenticationService.validateJwtToken(jwtToken);
-                if (userOpt.isPresent()) {
-                    throw new ForbiddenResponse("Access denied - managers only");
-                } else {
-                    throw new UnauthorizedResponse("Authentication required");
-                }
+            if (userOpt.isEmpty()) {
+                throw new UnauthorizedResponse("Authentication required");
+            }
+            if (!authenticationService.isManager(userOpt.get())) {
+                throw new ForbiddenResponse("Access denied - managers only");
             }
             
             // Store the authenticated manager in the context for use in handlers
-            ctx.attribute("manager", managerOpt.get());
+            ctx.attribute("manager", userOpt.get());
         };
     }
     
@@ -0,0 +1,82 @@
+package com.revature.api;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one class of work (interactive reads, writes, reports) run at once.
+ * With handlers on virtual threads, every connection gets its own thread, so without a cap a burst
+ * of slow exports would queue unboundedly on the database and delay approvals behind them.
+ * A request waits up to maxWait for a permit and is otherwise turned away with 503.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /**
+     * @param maxConcurrent requests of this class allowed to run at once
+     * @param maxWait how long a request waits for a permit before it is rejected
+     */
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Bulkhead '" + name + "' needs at least one permit");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        // Fair, so a request that has waited longest is admitted first
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * @return a handler that runs the given one while holding a permit of this bulkhead
+     */
+    public Handler wrap(Handler handler) {
+        return ctx -> {
+            acquire(ctx);
+            try {
+                handler.handle(ctx);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private void acquire(Context ctx) throws InterruptedException {
+        // A zero timeout, unlike tryAcquire(), respects fairness and never jumps ahead of waiters
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            admittedCount.increment();
+            return;
+        }
+        queuedCount.increment();
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        totalWaitNanos.add(System.nanoTime() - start);
+        if (!acquired) {
+            rejectedCount.increment();
+            ctx.header("Retry-After", "1");
+            throw new ServiceUnavailableResponse("Server busy (" + name + "), please retry");
+        }
+        admittedCount.increment();
+    }
+
+    public BulkheadStats getStats() {
+        long queued = queuedCount.sum();
+        return new BulkheadStats(name, maxConcurrent, maxConcurrent - permits.availablePermits(),
+                permits.getQueueLength(), admittedCount.sum(), queued, rejectedCount.sum(),
+                queued == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / queued);
+    }
+}
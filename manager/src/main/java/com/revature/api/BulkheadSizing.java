@@ -0,0 +1,83 @@
+package com.revature.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Default limits for the bulkheads whose requests hold a reader connection (reads and reports),
+ * and the startup checks on configured limits.
+ * Two budgets bound them. Each such request holds a pooled reader for its whole run, and other
+ * callers need readers too: report job workers hold one for a whole export, and authentication
+ * cache misses and projection refreshes take one briefly. And on virtual
+ * threads each pins its carrier while SQLite runs, as does the writer, so together they must
+ * leave a carrier free for requests that never touch the database.
+ */
+public final class BulkheadSizing {
+    /** Reader connections kept back for callers no bulkhead covers. */
+    public static final int UNCAPPED_READERS = 2;
+
+    private final boolean virtualThreads;
+    private final int carriers;
+    private final int readPoolSize;
+    private final int reportJobWorkers;
+
+    /**
+     * @param carriers virtual thread carrier count; ignored without virtual threads
+     * @param readPoolSize most connections in the reader pool (DB_POOL_MAX_SIZE)
+     * @param reportJobWorkers report job workers, each holding a reader while it builds a report
+     */
+    public BulkheadSizing(boolean virtualThreads, int carriers, int readPoolSize, int reportJobWorkers) {
+        this.virtualThreads = virtualThreads;
+        this.carriers = carriers;
+        this.readPoolSize = readPoolSize;
+        this.reportJobWorkers = reportJobWorkers;
+    }
+
+    /**
+     * @return carriers of the virtual thread scheduler on this JVM
+     */
+    public static int carrierCount() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return reads and reports that may run at once together, leaving the headroom described above
+     */
+    private int budget() {
+        int readers = readPoolSize - reportJobWorkers - UNCAPPED_READERS;
+        // One carrier for the writer and one for requests that never touch the database
+        int pinnable = virtualThreads ? carriers - 2 : Integer.MAX_VALUE;
+        return Math.max(2, Math.min(readers, pinnable));
+    }
+
+    public int defaultReportsMax() {
+        return Math.max(1, budget() / 3);
+    }
+
+    public int defaultReadsMax() {
+        return Math.max(1, budget() - defaultReportsMax());
+    }
+
+    /**
+     * @return a warning for each budget the configured limits exceed; empty if they fit
+     */
+    public List<String> check(int readsMax, int reportsMax) {
+        List<String> warnings = new ArrayList<>();
+        int readers = readsMax + reportsMax + reportJobWorkers;
+        if (readers > readPoolSize) {
+            warnings.add("up to " + readers + " reads, reports and report jobs can each hold a reader connection, "
+                    + "more than the " + readPoolSize + " in the pool; other readers will time out waiting. Lower "
+                    + "BULKHEAD_READS_MAX / BULKHEAD_REPORTS_MAX / REPORT_JOB_WORKERS or raise DB_POOL_MAX_SIZE");
+        }
+        // sqlite-jdbc's native calls are synchronized, so on JDK 21 a virtual thread pins its carrier
+        // for as long as SQLite runs a statement
+        // Report job workers are platform threads, so only requests and the writer count here
+        int pinnable = readsMax + reportsMax + 1;
+        if (virtualThreads && pinnable >= carriers) {
+            warnings.add("up to " + pinnable + " requests can be inside SQLite at once, pinning that many of the "
+                    + carriers + " virtual thread carriers; lower BULKHEAD_READS_MAX / BULKHEAD_REPORTS_MAX or raise "
+                    + "-Djdk.virtualThreadScheduler.parallelism");
+        }
+        return warnings;
+    }
+}
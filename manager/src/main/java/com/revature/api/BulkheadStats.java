@@ -0,0 +1,89 @@
+package com.revature.api;
+
+/**
+ * Point-in-time counts for one Bulkhead.
+ */
+public class BulkheadStats {
+    private final String name;
+    private final int maxConcurrent;
+    private final int active;
+    private final int waiting;
+    private final long admittedCount;
+    private final long queuedCount;
+    private final long rejectedCount;
+    private final double averageWaitMillis;
+
+    public BulkheadStats(String name, int maxConcurrent, int active, int waiting, long admittedCount,
+                         long queuedCount, long rejectedCount, double averageWaitMillis) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.active = active;
+        this.waiting = waiting;
+        this.admittedCount = admittedCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+        this.averageWaitMillis = averageWaitMillis;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return requests holding a permit right now
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return requests waiting for a permit right now
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * @return requests that got a permit, immediately or after waiting
+     */
+    public long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    /**
+     * @return requests that found every permit taken and had to wait
+     */
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * @return requests turned away with 503 after waiting the maximum time
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return average wait of the requests that had to wait, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadStats{" +
+                "name='" + name + '\'' +
+                ", active=" + active + "/" + maxConcurrent +
+                ", waiting=" + waiting +
+                ", admitted=" + admittedCount +
+                ", rejected=" + rejectedCount +
+                '}';
+    }
+}
@@ -1,19 +1,41 @@
 package com.revature.api;
 
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ExpensePage;
+import com.revature.repository.ExpenseQuery;
 import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.PageCursor;
+import com.revature.repository.PendingExpenseFilter;
 import com.revature.repository.User;
+import com.revature.service.BatchReviewResult;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReviewConflictException;
+import com.revature.service.ReviewTimeoutException;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
 import io.javalin.http.NotFoundResponse;
 import io.javalin.http.InternalServerErrorResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST controller for expense management operations.
  * Handles expense approval, denial, and viewing operations for managers.
+ * List endpoints return everything by default, or one page at a time when called
+ * with ?limit= and/or ?after= (the nextCursor from the previous page).
+ * With ?stream=true the full list is written row by row from the database cursor
+ * instead of being built in memory; "count" then follows the data array.
  */
 public class ExpenseController {
     private final ExpenseService expenseService;
@@ -24,16 +46,25 @@ public class ExpenseController {
     
     /**
      * Get all pending expenses for manager review.
-     * GET /api/expenses/pending
+     * GET /api/expenses/pending[?limit=&after=|?stream=true]
      */
     public void getPendingExpenses(Context ctx) {
         try {
+            if (respondWithPageIfRequested(ctx, ExpenseQuery.pending(), Map.of())) {
+                return;
+            }
+            if (respondWithStreamIfRequested(ctx, ExpenseQuery.pending(), Map.of())) {
+                return;
+            }
+            
             List<ExpenseWithUser> pendingExpenses = expenseService.getPendingExpenses();
             ctx.json(Map.of(
                 "success", true,
                 "data", pendingExpenses,
                 "count", pendingExpenses.size()
             ));
+        } catch (BadRequestResponse e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve pending expenses: " + e.getMessage());
         }
@@ -42,23 +73,28 @@ public class ExpenseController {
     /**
      * Approve an expense.
      * POST /api/expenses/{expenseId}/approve
-     * Request body: { "comment": "optional comment" }
+     * Request body: { "comment": "optional comment", "expectedVersion": 0 }
+     * Responds 409 with the current approval if the expense is no longer pending,
+     * or is no longer at expectedVersion when one is given.
      */
     public void approveExpense(Context ctx) {
         try {
             int expenseId = ctx.pathParamAsClass("expenseId", Integer.class).get();
             User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
             
-            // Get optional comment from request body
+            // Get optional comment and expected approval version from request body
             String comment = null;
+            Object expectedVersion = null;
             try {
                 Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
                 comment = (String) requestBody.get("comment");
+                expectedVersion = requestBody.get("expectedVersion");
             } catch (Exception e) {
-                // Ignore - comment is optional
+                // Ignore - both are optional
             }
             
-            boolean success = expenseService.approveExpense(expenseId, manager.getId(), comment);
+            boolean success = expenseService.approveExpense(expenseId, manager.getId(), comment,
+                    toExpectedVersion(expectedVersion));
             
             if (success) {
                 ctx.json(Map.of(
@@ -71,8 +107,16 @@ public class ExpenseController {
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid expense ID format");
+        } catch (RejectedExecutionException e) {
+            // The approval write queue is full; the review was not recorded
+            throw new ServiceUnavailableResponse("Too many reviews in progress, please retry");
+        } catch (ReviewTimeoutException e) {
+            // The review may still be committed; the client should reload before retrying
+            throw new ServiceUnavailableResponse(e.getMessage());
+        } catch (ReviewConflictException e) {
+            throw conflict(e);
         } catch (Exception e) {
-            if (e instanceof NotFoundResponse) {
+            if (e instanceof NotFoundResponse || e instanceof BadRequestResponse) {
                 throw e;
             }
             throw new InternalServerErrorResponse("Failed to approve expense: " + e.getMessage());
@@ -82,23 +126,28 @@ public class ExpenseController {
     /**
      * Deny an expense.
      * POST /api/expenses/{expenseId}/deny
-     * Request body: { "comment": "optional comment" }
+     * Request body: { "comment": "optional comment", "expectedVersion": 0 }
+     * Responds 409 with the current approval if the expense is no longer pending,
+     * or is no longer at expectedVersion when one is given.
      */
     public void denyExpense(Context ctx) {
         try {
             int expenseId = ctx.pathParamAsClass("expenseId", Integer.class).get();
             User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
             
-            // Get optional comment from request body
+            // Get optional comment and expected approval version from request body
             String comment = null;
+            Object expectedVersion = null;
             try {
                 Map<String, Object> requestBody = ctx.bodyAsClass(Map.class);
                 comment = (String) requestBody.get("comment");
+                expectedVersion = requestBody.get("expectedVersion");
             } catch (Exception e) {
-                // Ignore - comment is optional
+                // Ignore - both are optional
             }
             
-            boolean success = expenseService.denyExpense(expenseId, manager.getId(), comment);
+            boolean success = expenseService.denyExpense(expenseId, manager.getId(), comment,
+                    toExpectedVersion(expectedVersion));
             
             if (success) {
                 ctx.json(Map.of(
@@ -111,26 +160,180 @@ public class ExpenseController {
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid expense ID format");
+        } catch (RejectedExecutionException e) {
+            // The approval write queue is full; the review was not recorded
+            throw new ServiceUnavailableResponse("Too many reviews in progress, please retry");
+        } catch (ReviewTimeoutException e) {
+            // The review may still be committed; the client should reload before retrying
+            throw new ServiceUnavailableResponse(e.getMessage());
+        } catch (ReviewConflictException e) {
+            throw conflict(e);
         } catch (Exception e) {
-            if (e instanceof NotFoundResponse) {
+            if (e instanceof NotFoundResponse || e instanceof BadRequestResponse) {
                 throw e;
             }
             throw new InternalServerErrorResponse("Failed to deny expense: " + e.getMessage());
         }
     }
     
+    /**
+     * Approve or deny many expenses in one request and one database transaction.
+     * POST /api/expenses/batch
+     * Request body, either a list of reviews:
+     *   { "items": [ { "expenseId": 1, "decision": "approve", "comment": "optional", "expectedVersion": 0 }, ... ] }
+     * or a filter over the pending queue, every criterion optional:
+     *   { "filter": { "employeeId": 2, "maxAmount": 50, "startDate": "2025-01-01", "endDate": "2025-01-31" },
+     *     "decision": "approve", "comment": "optional" }
+     * Responds with one result per expense; a review that could not be applied does not fail the others.
+     */
+    @SuppressWarnings("unchecked")
+    public void reviewExpenses(Context ctx) {
+        try {
+            User manager = AuthenticationMiddleware.getAuthenticatedManager(ctx);
+            
+            Map<String, Object> requestBody;
+            try {
+                requestBody = ctx.bodyAsClass(Map.class);
+            } catch (Exception e) {
+                throw new BadRequestResponse("Invalid request format");
+            }
+            Object items = requestBody.get("items");
+            Object filter = requestBody.get("filter");
+            if ((items == null) == (filter == null)) {
+                throw new BadRequestResponse("Provide either items or filter");
+            }
+            
+            List<BatchReviewResult> results;
+            if (items != null) {
+                results = expenseService.reviewExpenses(parseDecisions(items, manager.getId()));
+            } else {
+                if (!(filter instanceof Map)) {
+                    throw new BadRequestResponse("Invalid filter");
+                }
+                results = expenseService.reviewPendingExpenses(parseFilter((Map<String, Object>) filter),
+                        toStatus(requestBody.get("decision")), manager.getId(), optionalString(requestBody.get("comment")));
+            }
+            
+            long succeeded = results.stream().filter(BatchReviewResult::isSuccess).count();
+            ctx.json(Map.of(
+                "success", true,
+                "data", results,
+                "count", results.size(),
+                "succeeded", succeeded,
+                "failed", results.size() - succeeded
+            ));
+            
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse(e.getMessage());
+        } catch (BadRequestResponse e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to review expenses: " + e.getMessage());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<ApprovalDecision> parseDecisions(Object items, int managerId) {
+        if (!(items instanceof List)) {
+            throw new BadRequestResponse("items must be a list");
+        }
+        List<ApprovalDecision> decisions = new ArrayList<>();
+        for (Object item : (List<Object>) items) {
+            if (!(item instanceof Map)) {
+                throw new BadRequestResponse("Each item must be an object");
+            }
+            Map<String, Object> fields = (Map<String, Object>) item;
+            if (!(fields.get("expenseId") instanceof Integer expenseId)) {
+                throw new BadRequestResponse("Each item needs an integer expenseId");
+            }
+            decisions.add(new ApprovalDecision(expenseId, toStatus(fields.get("decision")), managerId,
+                    optionalString(fields.get("comment")), toExpectedVersion(fields.get("expectedVersion"))));
+        }
+        return decisions;
+    }
+    
+    private static Integer toExpectedVersion(Object expectedVersion) {
+        if (expectedVersion != null && !(expectedVersion instanceof Integer)) {
+            throw new BadRequestResponse("Invalid expectedVersion - must be an integer");
+        }
+        return (Integer) expectedVersion;
+    }
+    
+    /**
+     * 409 carrying the approval as it now is, so the client can refresh without another request.
+     */
+    private static ConflictResponse conflict(ReviewConflictException e) {
+        Approval current = e.getCurrent();
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("status", current.getStatus());
+        details.put("version", String.valueOf(current.getVersion()));
+        if (current.getReviewer() != null) {
+            details.put("reviewer", String.valueOf(current.getReviewer()));
+        }
+        if (current.getReviewDate() != null) {
+            details.put("reviewDate", current.getReviewDate());
+        }
+        return new ConflictResponse(e.getMessage(), details);
+    }
+    
+    private static PendingExpenseFilter parseFilter(Map<String, Object> filter) {
+        Object employeeId = filter.get("employeeId");
+        Object maxAmount = filter.get("maxAmount");
+        if (employeeId != null && !(employeeId instanceof Integer)) {
+            throw new BadRequestResponse("Invalid employeeId - must be an integer");
+        }
+        if (maxAmount != null && !(maxAmount instanceof Number)) {
+            throw new BadRequestResponse("Invalid maxAmount - must be a number");
+        }
+        return new PendingExpenseFilter((Integer) employeeId,
+                maxAmount == null ? null : ((Number) maxAmount).doubleValue(),
+                optionalString(filter.get("startDate")),
+                optionalString(filter.get("endDate")));
+    }
+    
+    /**
+     * Map a decision ("approve"/"deny", or the status itself) to an approval status.
+     * Anything else is passed through, to be reported as an invalid decision.
+     */
+    private static String toStatus(Object decision) {
+        String value = decision == null ? "" : decision.toString().trim().toLowerCase();
+        switch (value) {
+            case "approve":
+            case "approved":
+                return "approved";
+            case "deny":
+            case "denied":
+                return "denied";
+            default:
+                return value.isEmpty() ? null : value;
+        }
+    }
+    
+    private static String optionalString(Object value) {
+        return value == null ? null : value.toString();
+    }
+    
     /**
      * Get all expenses (for general viewing).
-     * GET /api/expenses
+     * GET /api/expenses[?limit=&after=|?stream=true]
      */
     public void getAllExpenses(Context ctx) {
         try {
+            if (respondWithPageIfRequested(ctx, ExpenseQuery.all(), Map.of())) {
+                return;
+            }
+            if (respondWithStreamIfRequested(ctx, ExpenseQuery.all(), Map.of())) {
+                return;
+            }
+            
             List<ExpenseWithUser> allExpenses = expenseService.getAllExpenses();
             ctx.json(Map.of(
                 "success", true,
                 "data", allExpenses,
                 "count", allExpenses.size()
             ));
+        } catch (BadRequestResponse e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve expenses: " + e.getMessage());
         }
@@ -138,11 +341,18 @@ public class ExpenseController {
     
     /**
      * Get expenses for a specific employee.
-     * GET /api/expenses/employee/{employeeId}
+     * GET /api/expenses/employee/{employeeId}[?limit=&after=|?stream=true]
      */
     public void getExpensesByEmployee(Context ctx) {
         try {
             int employeeId = ctx.pathParamAsClass("employeeId", Integer.class).get();
+            if (respondWithPageIfRequested(ctx, ExpenseQuery.byUser(employeeId), Map.of("employeeId", employeeId))) {
+                return;
+            }
+            if (respondWithStreamIfRequested(ctx, ExpenseQuery.byUser(employeeId), Map.of("employeeId", employeeId))) {
+                return;
+            }
+            
             List<ExpenseWithUser> expenses = expenseService.getExpensesByEmployee(employeeId);
             
             ctx.json(Map.of(
@@ -154,8 +364,98 @@ public class ExpenseController {
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid employee ID format");
+        } catch (BadRequestResponse e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to retrieve expenses for employee: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Respond with one page of expenses and the cursor for the next page,
+     * if the client asked for paging with ?limit= or ?after=.
+     * @return true if a page was sent, false if the caller should send the full list
+     */
+    private boolean respondWithPageIfRequested(Context ctx, ExpenseQuery query, Map<String, Object> extraFields) {
+        String limitParam = ctx.queryParam("limit");
+        String afterParam = ctx.queryParam("after");
+        if (limitParam == null && afterParam == null) {
+            return false;
+        }
+        
+        int limit = parseLimit(limitParam);
+        PageCursor after = parseCursor(afterParam);
+        
+        ExpensePage page = expenseService.getExpensesPage(query, after, limit);
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("data", page.getItems());
+        response.put("count", page.getItems().size());
+        response.putAll(extraFields);
+        response.put("limit", Math.min(limit, ExpenseService.MAX_PAGE_SIZE));
+        response.put("hasMore", page.hasMore());
+        response.put("nextCursor", page.hasMore() ? page.getNextCursor().encode() : null);
+        ctx.json(response);
+        return true;
+    }
+    
+    /**
+     * Stream the full list straight from the database cursor to the response,
+     * if the client asked for it with ?stream=true.
+     * @return true if the list was streamed, false if the caller should send it as usual
+     */
+    private boolean respondWithStreamIfRequested(Context ctx, ExpenseQuery query, Map<String, Object> extraFields) {
+        if (!"true".equalsIgnoreCase(ctx.queryParam("stream"))) {
+            return false;
+        }
+        
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        ExpenseJsonWriter writer = null;
+        try {
+            writer = new ExpenseJsonWriter(ctx.outputStream());
+            int count = expenseService.streamExpenses(query, writer::writeRow);
+            writer.writeEnd(count, extraFields);
+            writer.close();
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away mid-response; the query has already been abandoned
+            System.err.println("Streaming " + query.getDescription() + " aborted: " + e.getMessage());
+        } catch (RuntimeException e) {
+            if (writer == null || !writer.isCommitted()) {
+                // Nothing has been sent, so the caller can still answer with a clean error
+                throw e;
+            }
+            // A 200 and part of the list are already out; an error body appended to them would
+            // read as part of the document, so cut the connection and let the client see it fail
+            System.err.println("Streaming " + query.getDescription() + " failed mid-response: " + e.getMessage());
+            ResponseOutputStream.abort(ctx, e);
+        }
+        return true;
+    }
+    
+    private static int parseLimit(String limitParam) {
+        if (limitParam == null || limitParam.isBlank()) {
+            return ExpenseService.DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int limit = Integer.parseInt(limitParam.trim());
+            if (limit < 1) {
+                throw new BadRequestResponse("Invalid limit - must be a positive integer");
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new BadRequestResponse("Invalid limit - must be a positive integer");
+        }
+    }
+    
+    private static PageCursor parseCursor(String afterParam) {
+        if (afterParam == null || afterParam.isBlank()) {
+            return null;
+        }
+        try {
+            return PageCursor.decode(afterParam.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestResponse("Invalid page cursor");
+        }
+    }
+}
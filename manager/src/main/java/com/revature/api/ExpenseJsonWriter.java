@@ -0,0 +1,144 @@
+package com.revature.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.revature.repository.ExpenseRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Writes an expense list response incrementally with Jackson's streaming generator.
+ * Produces the same document as ctx.json() on a list of ExpenseWithUser, except that
+ * "count" comes after "data" because it is only known once the last row is written.
+ * Nothing reaches the stream until the first row has been written, so a query that fails
+ * before producing a row can still be answered with a clean error instead.
+ */
+public class ExpenseJsonWriter implements AutoCloseable {
+    // Leave the servlet stream open for Javalin, and never auto-complete a document
+    // that was cut short by an error: a truncated response must not parse as valid JSON.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+    private final JsonGenerator generator;
+    private boolean started;
+    private boolean committed;
+
+    public ExpenseJsonWriter(OutputStream out) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    /**
+     * @return whether any of the response has been sent; until then an error can still
+     *         replace it
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Open the response object and its data array, once.
+     */
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        generator.writeArrayFieldStart("data");
+    }
+
+    /**
+     * Write one expense with its user and approval.
+     * The first row is flushed immediately so the client receives bytes
+     * as soon as the query produces them.
+     */
+    public void writeRow(ExpenseRow row) throws IOException, SQLException {
+        start();
+        generator.writeStartObject();
+
+        generator.writeObjectFieldStart("expense");
+        generator.writeNumberField("id", row.getExpenseId());
+        generator.writeNumberField("userId", row.getUserId());
+        generator.writeNumberField("amount", row.getAmount());
+        generator.writeStringField("description", row.getDescription());
+        generator.writeStringField("date", row.getDate());
+        generator.writeEndObject();
+
+        String role = row.getRole();
+        generator.writeObjectFieldStart("user");
+        generator.writeNumberField("id", row.getUserId());
+        generator.writeStringField("username", row.getUsername());
+        generator.writeNullField("password");
+        generator.writeStringField("role", role);
+        generator.writeBooleanField("manager", "manager".equalsIgnoreCase(role));
+        generator.writeEndObject();
+
+        generator.writeObjectFieldStart("approval");
+        generator.writeNumberField("id", row.getApprovalId());
+        generator.writeNumberField("expenseId", row.getExpenseId());
+        String status = row.getStatus();
+        generator.writeStringField("status", status);
+        Integer reviewer = row.getReviewer();
+        if (reviewer != null) {
+            generator.writeNumberField("reviewer", reviewer);
+        } else {
+            generator.writeNullField("reviewer");
+        }
+        generator.writeStringField("comment", row.getComment());
+        generator.writeStringField("reviewDate", row.getReviewDate());
+        generator.writeNumberField("version", row.getVersion());
+        generator.writeBooleanField("pending", "pending".equalsIgnoreCase(status));
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+
+        if (!committed) {
+            committed = true;
+            generator.flush();
+        }
+    }
+
+    /**
+     * Close the data array and write the trailing fields.
+     * @param count number of rows written
+     * @param extraFields additional top-level fields, e.g. employeeId
+     */
+    public void writeEnd(int count, Map<String, Object> extraFields) throws IOException {
+        start();
+        generator.writeEndArray();
+        generator.writeNumberField("count", count);
+        for (Map.Entry<String, Object> field : extraFields.entrySet()) {
+            generator.writeFieldName(field.getKey());
+            writeScalar(field.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeScalar(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Flush the finished document. Not called after a failure, so that an unfinished
+     * document still in the buffer is never sent.
+     */
+    @Override
+    public void close() throws IOException {
+        committed = true;
+        generator.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.revature.api;
+
+import com.revature.metrics.PrometheusWriter;
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.PoolStats;
+import io.javalin.http.Context;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves request, database and concurrency metrics for a Prometheus scraper.
+ */
+public class MetricsController {
+    private final RequestMetrics requestMetrics;
+    private final QueryMetrics queryMetrics;
+    private final DatabaseConnection databaseConnection;
+    private final List<Bulkhead> bulkheads;
+
+    public MetricsController(RequestMetrics requestMetrics, QueryMetrics queryMetrics,
+                             DatabaseConnection databaseConnection, List<Bulkhead> bulkheads) {
+        this.requestMetrics = requestMetrics;
+        this.queryMetrics = queryMetrics;
+        this.databaseConnection = databaseConnection;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Get every metric in the Prometheus text format.
+     * GET /metrics
+     */
+    public void getMetrics(Context ctx) {
+        PrometheusWriter writer = new PrometheusWriter();
+        writeRequestMetrics(writer);
+        writeQueryMetrics(writer);
+        writeConcurrencyMetrics(writer);
+        ctx.contentType(PrometheusWriter.CONTENT_TYPE);
+        ctx.result(writer.toString());
+    }
+
+    private void writeRequestMetrics(PrometheusWriter writer) {
+        List<RouteMetrics> routes = requestMetrics.getRoutes();
+        writer.header("http_requests_in_flight", "gauge", "Requests being handled, including open event streams")
+                .sample("http_requests_in_flight", requestMetrics.getInFlightCount());
+
+        writer.header("http_request_duration_seconds", "histogram", "Time to handle a request, by route");
+        for (RouteMetrics route : routes) {
+            writer.histogram("http_request_duration_seconds", route.getLatency(),
+                    "method", route.getMethod(), "route", route.getRoute());
+        }
+
+        writer.header("http_responses_total", "counter", "Responses sent, by route and status code");
+        for (RouteMetrics route : routes) {
+            for (Map.Entry<Integer, Long> status : route.getStatusCounts().entrySet()) {
+                writer.sample("http_responses_total", status.getValue(),
+                        "method", route.getMethod(), "route", route.getRoute(), "status", String.valueOf(status.getKey()));
+            }
+        }
+    }
+
+    private void writeQueryMetrics(PrometheusWriter writer) {
+        List<QueryTimer> timers = queryMetrics.getTimers();
+        writer.header("db_query_duration_seconds", "histogram", "Time SQLite spent executing the statements of a repository method");
+        for (QueryTimer timer : timers) {
+            writer.histogram("db_query_duration_seconds", timer.getLatency(),
+                    "repository", timer.getRepository(), "method", timer.getMethod());
+        }
+
+        writer.header("db_query_errors_total", "counter", "Repository statements that failed");
+        for (QueryTimer timer : timers) {
+            writer.sample("db_query_errors_total", timer.getErrorCount(),
+                    "repository", timer.getRepository(), "method", timer.getMethod());
+        }
+    }
+
+    private void writeConcurrencyMetrics(PrometheusWriter writer) {
+        List<BulkheadStats> bulkheadStats = bulkheads.stream().map(Bulkhead::getStats).toList();
+        writer.header("bulkhead_active", "gauge", "Requests running inside a bulkhead");
+        for (BulkheadStats stats : bulkheadStats) {
+            writer.sample("bulkhead_active", stats.getActive(), "bulkhead", stats.getName());
+        }
+        writer.header("bulkhead_waiting", "gauge", "Requests waiting for a bulkhead permit");
+        for (BulkheadStats stats : bulkheadStats) {
+            writer.sample("bulkhead_waiting", stats.getWaiting(), "bulkhead", stats.getName());
+        }
+        writer.header("bulkhead_rejected_total", "counter", "Requests turned away by a full bulkhead");
+        for (BulkheadStats stats : bulkheadStats) {
+            writer.sample("bulkhead_rejected_total", stats.getRejectedCount(), "bulkhead", stats.getName());
+        }
+
+        List<PoolStats> poolStats = databaseConnection.getPoolStats();
+        writer.header("db_pool_active_connections", "gauge", "Pooled connections lent out");
+        for (PoolStats stats : poolStats) {
+            writer.sample("db_pool_active_connections", stats.getActiveConnections(), "pool", stats.getName());
+        }
+        writer.header("db_pool_waiting_threads", "gauge", "Threads waiting for a pooled connection");
+        for (PoolStats stats : poolStats) {
+            writer.sample("db_pool_waiting_threads", stats.getWaitingThreads(), "pool", stats.getName());
+        }
+    }
+}
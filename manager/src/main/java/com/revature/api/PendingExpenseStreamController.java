@@ -0,0 +1,51 @@
+package com.revature.api;
+
+import com.revature.service.PendingExpenseEvent;
+import com.revature.service.PendingExpenseFeed;
+import io.javalin.http.sse.SseClient;
+
+import java.time.Duration;
+
+/**
+ * Server-sent events endpoint for the pending expense queue.
+ * Clients receive the current queue, then add/update/remove events as it changes.
+ * A comment line is sent when there has been nothing to say for a while, so proxies
+ * keep the connection open and dead clients are noticed.
+ */
+public class PendingExpenseStreamController {
+    private final PendingExpenseFeed feed;
+    private final Duration heartbeatInterval;
+
+    public PendingExpenseStreamController(PendingExpenseFeed feed, Duration heartbeatInterval) {
+        this.feed = feed;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Stream pending expense changes until the client disconnects or falls too far behind.
+     * SSE /api/expenses/pending/stream (honours Last-Event-ID)
+     */
+    public void streamPendingExpenses(SseClient client) {
+        PendingExpenseFeed.Subscription subscription = feed.subscribe(client.ctx().header("Last-Event-ID"));
+        client.onClose(subscription::close);
+        try {
+            while (!client.terminated()) {
+                PendingExpenseEvent event = subscription.next(heartbeatInterval);
+                if (subscription.isDropped()) {
+                    // Closing makes the browser reconnect and resume from the last event it saw
+                    break;
+                }
+                if (event == null) {
+                    client.sendComment("heartbeat");
+                } else {
+                    client.sendEvent(event.getType(), event.getData(), event.getId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+            client.close();
+        }
+    }
+}
@@ -1,26 +1,62 @@
 package com.revature.api;
 
-import com.revature.repository.ExpenseWithUser;
+import com.revature.assets.StaticAssets;
+import com.revature.cache.ContentCache;
+import com.revature.repository.ExpenseQuery;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReportCache;
+import com.revature.service.ReportJob;
+import com.revature.service.ReportJobService;
 import io.javalin.http.Context;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
+import io.javalin.http.HttpStatus;
 import io.javalin.http.InternalServerErrorResponse;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST controller for expense reporting operations.
  * Handles CSV report generation by various criteria.
+ * Reports are streamed: rows are written to the response as they are read from the
+ * database, so a full-history export never sits in memory.
+ * With a report cache, each report carries an ETag for the data version it was rendered at:
+ * a client holding the current version gets 304 Not Modified, and a repeated download is
+ * served from the cache until expenses, approvals or users change.
+ * Any report can also be built as a background job, for exports that take longer than a
+ * proxy will hold a request open: the job writes the report to disk, and the finished file
+ * can be downloaded (and downloaded again) until it expires.
  */
 public class ReportController {
     private final ExpenseService expenseService;
+    private final ReportJobService reportJobService;
+    private final ReportCache reportCache;
+    private static final String ALL_EXPENSES_FILENAME = "all_expenses_report.csv";
+    private static final String PENDING_EXPENSES_FILENAME = "pending_expenses_report.csv";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
-    public ReportController(ExpenseService expenseService) {
+    public ReportController(ExpenseService expenseService, ReportJobService reportJobService) {
+        this(expenseService, reportJobService, null);
+    }
+    
+    /**
+     * @param reportCache cache of rendered reports, or null to render every download
+     */
+    public ReportController(ExpenseService expenseService, ReportJobService reportJobService,
+                            ReportCache reportCache) {
         this.expenseService = expenseService;
+        this.reportJobService = reportJobService;
+        this.reportCache = reportCache;
     }
     
     /**
@@ -29,12 +65,7 @@ public class ReportController {
      */
     public void generateAllExpensesReport(Context ctx) {
         try {
-            List<ExpenseWithUser> expenses = expenseService.getAllExpenses();
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"all_expenses_report.csv\"");
-            ctx.result(csvContent);
+            streamCsvReport(ctx, ExpenseQuery.all(), ALL_EXPENSES_FILENAME);
             
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to generate expenses report: " + e.getMessage());
@@ -48,12 +79,7 @@ public class ReportController {
     public void generateEmployeeExpensesReport(Context ctx) {
         try {
             int employeeId = ctx.pathParamAsClass("employeeId", Integer.class).get();
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByEmployee(employeeId);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"employee_" + employeeId + "_expenses_report.csv\"");
-            ctx.result(csvContent);
+            streamCsvReport(ctx, ExpenseQuery.byUser(employeeId), employeeFilename(employeeId));
             
         } catch (NumberFormatException e) {
             throw new BadRequestResponse("Invalid employee ID format");
@@ -68,19 +94,8 @@ public class ReportController {
      */
     public void generateCategoryExpensesReport(Context ctx) {
         try {
-            String category = ctx.pathParam("category");
-            
-            if (category == null || category.trim().isEmpty()) {
-                throw new BadRequestResponse("Category parameter is required");
-            }
-            
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByCategory(category);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            String safeCategory = category.replaceAll("[^a-zA-Z0-9_-]", "_");
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"category_" + safeCategory + "_expenses_report.csv\"");
-            ctx.result(csvContent);
+            String category = requireCategory(ctx.pathParam("category"));
+            streamCsvReport(ctx, ExpenseQuery.byCategory(category), categoryFilename(category));
             
         } catch (Exception e) {
             if (e instanceof BadRequestResponse) {
@@ -98,25 +113,10 @@ public class ReportController {
         try {
             String startDateStr = ctx.queryParam("startDate");
             String endDateStr = ctx.queryParam("endDate");
+            validateDateRange(startDateStr, endDateStr);
             
-            if (startDateStr == null || endDateStr == null) {
-                throw new BadRequestResponse("Both startDate and endDate query parameters are required (format: YYYY-MM-DD)");
-            }
-            
-            // Validate date format
-            try {
-                LocalDate.parse(startDateStr, DATE_FORMATTER);
-                LocalDate.parse(endDateStr, DATE_FORMATTER);
-            } catch (DateTimeParseException e) {
-                throw new BadRequestResponse("Invalid date format. Use YYYY-MM-DD format");
-            }
-            
-            List<ExpenseWithUser> expenses = expenseService.getExpensesByDateRange(startDateStr, endDateStr);
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"expenses_" + startDateStr + "_to_" + endDateStr + "_report.csv\"");
-            ctx.result(csvContent);
+            streamCsvReport(ctx, ExpenseQuery.byDateRange(startDateStr, endDateStr),
+                    dateRangeFilename(startDateStr, endDateStr));
             
         } catch (Exception e) {
             if (e instanceof BadRequestResponse) {
@@ -132,15 +132,217 @@ public class ReportController {
      */
     public void generatePendingExpensesReport(Context ctx) {
         try {
-            List<ExpenseWithUser> expenses = expenseService.getPendingExpenses();
-            String csvContent = expenseService.generateCsvReport(expenses);
-            
-            ctx.contentType("text/csv");
-            ctx.header("Content-Disposition", "attachment; filename=\"pending_expenses_report.csv\"");
-            ctx.result(csvContent);
+            streamCsvReport(ctx, ExpenseQuery.pending(), PENDING_EXPENSES_FILENAME);
             
         } catch (Exception e) {
             throw new InternalServerErrorResponse("Failed to generate pending expenses report: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Start building a CSV report in the background and respond 202 with the job.
+     * POST /api/reports/jobs?report=all|pending|employee|category|daterange
+     *      [&employeeId=][&category=][&startDate=YYYY-MM-DD&endDate=YYYY-MM-DD]
+     * The Location header names the job's status endpoint.
+     */
+    public void createReportJob(Context ctx) {
+        try {
+            String report = ctx.queryParam("report");
+            ReportJob job = switch (report == null ? "" : report) {
+                case "all" -> reportJobService.submit(ExpenseQuery.all(), ALL_EXPENSES_FILENAME);
+                case "pending" -> reportJobService.submit(ExpenseQuery.pending(), PENDING_EXPENSES_FILENAME);
+                case "employee" -> {
+                    int employeeId = Integer.parseInt(String.valueOf(ctx.queryParam("employeeId")));
+                    yield reportJobService.submit(ExpenseQuery.byUser(employeeId), employeeFilename(employeeId));
+                }
+                case "category" -> {
+                    String category = requireCategory(ctx.queryParam("category"));
+                    yield reportJobService.submit(ExpenseQuery.byCategory(category), categoryFilename(category));
+                }
+                case "daterange" -> {
+                    String startDate = ctx.queryParam("startDate");
+                    String endDate = ctx.queryParam("endDate");
+                    validateDateRange(startDate, endDate);
+                    yield reportJobService.submit(ExpenseQuery.byDateRange(startDate, endDate),
+                            dateRangeFilename(startDate, endDate));
+                }
+                default -> throw new BadRequestResponse("Invalid report. Use all, pending, employee, category or daterange");
+            };
+            
+            ctx.status(202);
+            ctx.header("Location", "/api/reports/jobs/" + job.getId());
+            ctx.json(Map.of(
+                "success", true,
+                "data", job
+            ));
+            
+        } catch (NumberFormatException e) {
+            throw new BadRequestResponse("Invalid employee ID format");
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableResponse("Too many report jobs in progress, please retry");
+        } catch (BadRequestResponse e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalServerErrorResponse("Failed to create report job: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * List report jobs that have not expired, newest first.
+     * GET /api/reports/jobs
+     */
+    public void getReportJobs(Context ctx) {
+        var jobs = reportJobService.getJobs();
+        ctx.json(Map.of(
+            "success", true,
+            "data", jobs,
+            "count", jobs.size()
+        ));
+    }
+    
+    /**
+     * Get a report job's status and progress (rows written so far).
+     * GET /api/reports/jobs/{jobId}
+     */
+    public void getReportJob(Context ctx) {
+        ctx.json(Map.of(
+            "success", true,
+            "data", requireJob(ctx.pathParam("jobId"))
+        ));
+    }
+    
+    /**
+     * Download the report a job has finished. It can be downloaded again until the job expires;
+     * the report itself is not rebuilt.
+     * GET /api/reports/jobs/{jobId}/download
+     */
+    public void downloadReportJob(Context ctx) {
+        ReportJob job = requireJob(ctx.pathParam("jobId"));
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            throw new ConflictResponse("Report job " + job.getId() + " is " + job.getStatus().value()
+                    + (job.getError() != null ? ": " + job.getError() : ""));
+        }
+        
+        InputStream in;
+        try {
+            in = Files.newInputStream(job.getFile());
+        } catch (IOException e) {
+            // Expired and deleted between the lookup and now
+            throw new NotFoundResponse("Report job not found or expired: " + job.getId());
+        }
+        ctx.contentType("text/csv");
+        ctx.header("Content-Disposition", "attachment; filename=\"" + job.getFilename() + "\"");
+        ctx.result(in);
+    }
+    
+    private ReportJob requireJob(String jobId) {
+        return reportJobService.getJob(jobId)
+                .orElseThrow(() -> new NotFoundResponse("Report job not found or expired: " + jobId));
+    }
+    
+    private static String requireCategory(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new BadRequestResponse("Category parameter is required");
+        }
+        return category;
+    }
+    
+    private static void validateDateRange(String startDate, String endDate) {
+        if (startDate == null || endDate == null) {
+            throw new BadRequestResponse("Both startDate and endDate query parameters are required (format: YYYY-MM-DD)");
+        }
+        try {
+            LocalDate.parse(startDate, DATE_FORMATTER);
+            LocalDate.parse(endDate, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestResponse("Invalid date format. Use YYYY-MM-DD format");
+        }
+    }
+    
+    private static String employeeFilename(int employeeId) {
+        return "employee_" + employeeId + "_expenses_report.csv";
+    }
+    
+    private static String categoryFilename(String category) {
+        return "category_" + category.replaceAll("[^a-zA-Z0-9_-]", "_") + "_expenses_report.csv";
+    }
+    
+    private static String dateRangeFilename(String startDate, String endDate) {
+        return "expenses_" + startDate + "_to_" + endDate + "_report.csv";
+    }
+    
+    /**
+     * Stream a CSV report to the response as an attachment.
+     * The response is sent with chunked transfer encoding since its length is not known up front.
+     * If the client disconnects, the query is abandoned and nothing further is sent.
+     * If the query fails, the error is thrown while nothing has been sent yet, so the caller can
+     * answer with a clean error; after that the connection is aborted instead.
+     * With a report cache, a report already rendered at the current data version is sent from
+     * memory or disk instead, and a client that already holds it gets 304 Not Modified.
+     */
+    private void streamCsvReport(Context ctx, ExpenseQuery query, String filename) {
+        if (reportCache == null) {
+            ctx.contentType("text/csv");
+            ctx.header("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+            ResponseOutputStream out = new ResponseOutputStream(ctx.outputStream());
+            try {
+                expenseService.writeCsvReport(query, out);
+            } catch (UncheckedIOException e) {
+                System.err.println("CSV report " + filename + " aborted: " + e.getMessage());
+            } catch (RuntimeException e) {
+                failReport(ctx, out, filename, e);
+            }
+            return;
+        }
+        
+        long version = reportCache.getDataVersion();
+        String etag = ReportCache.etag(query, version);
+        // Clients may keep the report but must revalidate it, since any write changes it
+        ctx.header("ETag", etag);
+        ctx.header("Cache-Control", "no-cache");
+        if (StaticAssets.matchesETag(ctx.header("If-None-Match"), etag)) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+        
+        ctx.contentType("text/csv");
+        ctx.header("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        ContentCache.Content cached = reportCache.get(query, version);
+        if (cached != null) {
+            if (cached.getBytes() != null) {
+                // Written directly: ctx.result() copies a byte array far more slowly than a file
+                try {
+                    ctx.outputStream().write(cached.getBytes());
+                } catch (IOException e) {
+                    System.err.println("CSV report " + filename + " aborted: " + e.getMessage());
+                }
+                return;
+            }
+            try {
+                ctx.result(cached.open());
+                return;
+            } catch (IOException e) {
+                // Evicted since the lookup; render it again
+            }
+        }
+        ResponseOutputStream out = new ResponseOutputStream(ctx.outputStream());
+        try {
+            reportCache.writeCsvReport(query, version, out);
+        } catch (UncheckedIOException e) {
+            System.err.println("CSV report " + filename + " aborted: " + e.getMessage());
+        } catch (RuntimeException e) {
+            failReport(ctx, out, filename, e);
+        }
+    }
+    
+    private static void failReport(Context ctx, ResponseOutputStream out, String filename, RuntimeException e) {
+        if (!out.isWritten()) {
+            // Nothing has been sent, so the handler can still answer with a clean error
+            throw e;
+        }
+        // A 200 and part of the report are already out; an error body appended to them would
+        // read as more CSV, so cut the connection and let the client see the download fail
+        System.err.println("CSV report " + filename + " failed mid-response: " + e.getMessage());
+        ResponseOutputStream.abort(ctx, e);
+    }
+}
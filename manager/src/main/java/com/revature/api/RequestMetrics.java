@@ -0,0 +1,77 @@
+package com.revature.api;
+
+import io.javalin.http.Context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency and status of every request, per route, and how many are in flight.
+ * start() runs as the first before-handler and finish() as an after-handler, which Javalin runs
+ * even when a handler threw, so rejected and failed requests are counted too.
+ * Routes are labelled by their path pattern rather than the concrete path, so IDs in URLs
+ * do not create a new series each.
+ * Recording takes no locks: only the first request to a route or status allocates.
+ */
+public class RequestMetrics {
+    /** Label for requests no route matched, whatever their path. */
+    static final String UNMATCHED_ROUTE = "(unmatched)";
+    private static final String STARTED_AT = "requestMetrics.startedAt";
+
+    private final LongAdder inFlight = new LongAdder();
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Before-handler for every path.
+     */
+    public void start(Context ctx) {
+        ctx.attribute(STARTED_AT, System.nanoTime());
+        inFlight.increment();
+    }
+
+    /**
+     * After-handler for every path.
+     */
+    public void finish(Context ctx) {
+        Long startedAt = ctx.attribute(STARTED_AT);
+        if (startedAt == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        inFlight.decrement();
+
+        // With no matching endpoint Javalin reports a placeholder, or the last before-handler's "*"
+        String route = ctx.endpointHandlerPath();
+        if (route == null || !route.startsWith("/")) {
+            route = UNMATCHED_ROUTE;
+        }
+        String method = ctx.method().name();
+        String key = method + " " + route;
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            String matched = route;
+            metrics = routes.computeIfAbsent(key, k -> new RouteMetrics(method, matched));
+        }
+        metrics.record(ctx.statusCode(), elapsed);
+    }
+
+    /**
+     * @return requests started but not yet finished, including open event streams
+     */
+    public long getInFlightCount() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return metrics of every route that has served a request, by route then method
+     */
+    public List<RouteMetrics> getRoutes() {
+        List<RouteMetrics> sorted = new ArrayList<>(routes.values());
+        sorted.sort(Comparator.comparing(RouteMetrics::getRoute).thenComparing(RouteMetrics::getMethod));
+        return sorted;
+    }
+}
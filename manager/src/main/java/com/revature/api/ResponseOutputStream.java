@@ -0,0 +1,62 @@
+package com.revature.api;
+
+import io.javalin.http.Context;
+import org.eclipse.jetty.server.Request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The body of a streamed response, recording whether any of it has been handed to the servlet.
+ * Until then a failure can still be answered with a clean error; afterwards a 200 and part of
+ * the body may already be with the client, and the only honest answer is to cut the connection.
+ */
+final class ResponseOutputStream extends OutputStream {
+    private final OutputStream out;
+    private boolean written;
+
+    ResponseOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * @return true once any bytes have been written to the response
+     */
+    boolean isWritten() {
+        return written;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        written = true;
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len > 0) {
+            written = true;
+        }
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        // The response belongs to Javalin, which finishes it after the handler returns
+    }
+
+    /**
+     * Abort the connection under a response that has already started, so the client sees the
+     * download fail instead of an error body appended to a truncated document.
+     */
+    static void abort(Context ctx, Throwable cause) {
+        if (ctx.req() != null) {
+            Request.getBaseRequest(ctx.req()).getHttpChannel().abort(cause);
+        }
+    }
+}
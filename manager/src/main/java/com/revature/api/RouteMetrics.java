@@ -0,0 +1,56 @@
+package com.revature.api;
+
+import com.revature.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and response status counts for one route, i.e. one method and path pattern.
+ */
+public class RouteMetrics {
+    private final String method;
+    private final String route;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+    RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    void record(int status, long nanos) {
+        latency.record(nanos);
+        LongAdder count = statusCounts.get(status);
+        if (count == null) {
+            count = statusCounts.computeIfAbsent(status, s -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the path pattern the request matched, e.g. /api/expenses/{expenseId}/approve
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return responses sent so far, by status code
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
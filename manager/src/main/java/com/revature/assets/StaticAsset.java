@@ -0,0 +1,65 @@
+package com.revature.assets;
+
+/**
+ * A static file held in memory with its precompressed variants.
+ * Immutable once loaded.
+ */
+public class StaticAsset {
+    private final String name;
+    private final String contentType;
+    private final String hash;
+    private final byte[] content;
+    private final byte[] gzipContent;
+
+    /**
+     * @param name classpath resource name, e.g. manager.js
+     * @param contentType value for the Content-Type header
+     * @param hash content hash, used for the ETag and the versioned URL
+     * @param content uncompressed bytes
+     * @param gzipContent gzip-encoded bytes, or null if compression does not pay off
+     */
+    public StaticAsset(String name, String contentType, String hash, byte[] content, byte[] gzipContent) {
+        this.name = name;
+        this.contentType = contentType;
+        this.hash = hash;
+        this.content = content;
+        this.gzipContent = gzipContent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public byte[] getGzipContent() {
+        return gzipContent;
+    }
+
+    /**
+     * @return the content-hashed file name, e.g. manager.3f2a9c1b0d4e5f67.js
+     */
+    public String getVersionedName() {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name + "." + hash : name.substring(0, dot) + "." + hash + name.substring(dot);
+    }
+
+    /**
+     * Strong entity tag for one encoding of this asset. Each encoding is a different
+     * representation, so each gets its own tag.
+     * @param encoding "identity" or "gzip"
+     */
+    public String getETag(String encoding) {
+        return "identity".equals(encoding) ? "\"" + hash + "\"" : "\"" + hash + "-" + encoding + "\"";
+    }
+}
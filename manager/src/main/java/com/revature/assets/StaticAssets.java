@@ -0,0 +1,260 @@
+package com.revature.assets;
+
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the frontend files from memory.
+ * Each classpath resource is read, hashed and gzip-compressed once at startup.
+ * Pages keep their stable URLs (/manager.html) and are revalidated with their ETag;
+ * the scripts they reference are rewritten to content-hashed URLs under /assets/
+ * that browsers may cache forever, since any change to a file changes its URL.
+ */
+public class StaticAssets {
+    public static final String VERSIONED_PATH = "/assets/";
+
+    static final String CACHE_REVALIDATE = "no-cache";
+    static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final int HASH_LENGTH = 16;
+    // A src="..." or href="..." pointing at a file name with no directory part
+    private static final Pattern LOCAL_REFERENCE = Pattern.compile("(src|href)=\"([^\"/:?#]+)\"");
+
+    private final Map<String, StaticAsset> byName = new LinkedHashMap<>();
+    private final Map<String, StaticAsset> byVersionedName = new LinkedHashMap<>();
+
+    /**
+     * Load the given classpath resources. Scripts and styles are loaded before pages,
+     * so pages can be rewritten to point at their versioned URLs.
+     * Missing resources are skipped and answered with 404.
+     * @param classLoader where to find the resources
+     * @param names resource names, e.g. manager.html
+     */
+    public StaticAssets(ClassLoader classLoader, List<String> names) {
+        for (String name : names) {
+            if (!isHtml(name)) {
+                load(classLoader, name);
+            }
+        }
+        for (String name : names) {
+            if (isHtml(name)) {
+                load(classLoader, name);
+            }
+        }
+    }
+
+    private void load(ClassLoader classLoader, String name) {
+        byte[] content;
+        try (InputStream in = classLoader.getResourceAsStream(name)) {
+            if (in == null) {
+                System.err.println("Static asset not found on classpath: " + name);
+                return;
+            }
+            content = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading static asset " + name, e);
+        }
+
+        if (isHtml(name)) {
+            content = rewriteReferences(new String(content, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] gzipContent = gzip(content);
+        StaticAsset asset = new StaticAsset(name, contentType(name), hash(content), content,
+                gzipContent.length < content.length ? gzipContent : null);
+        byName.put(name, asset);
+        byVersionedName.put(asset.getVersionedName(), asset);
+    }
+
+    /**
+     * Point references to already-loaded assets at their versioned URLs.
+     */
+    private String rewriteReferences(String html) {
+        Matcher matcher = LOCAL_REFERENCE.matcher(html);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            StaticAsset referenced = byName.get(matcher.group(2));
+            String replacement = referenced == null
+                    ? matcher.group()
+                    : matcher.group(1) + "=\"" + VERSIONED_PATH + referenced.getVersionedName() + "\"";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * @return the asset loaded under this name, or null
+     */
+    public StaticAsset get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return the versioned URL of an asset, e.g. /assets/manager.3f2a9c1b0d4e5f67.js, or null
+     */
+    public String getVersionedPath(String name) {
+        StaticAsset asset = byName.get(name);
+        return asset == null ? null : VERSIONED_PATH + asset.getVersionedName();
+    }
+
+    /**
+     * Serve an asset at its stable URL. Browsers must revalidate it on every use,
+     * which costs a 304 with no body while it is unchanged.
+     * GET /manager.html, /login.html, ...
+     */
+    public void serve(Context ctx, String name) {
+        send(ctx, byName.get(name), name, CACHE_REVALIDATE);
+    }
+
+    /**
+     * Serve an asset at its content-hashed URL, cacheable without revalidation.
+     * GET /assets/{file}
+     */
+    public void serveVersioned(Context ctx) {
+        String file = ctx.pathParam("file");
+        send(ctx, byVersionedName.get(file), file, CACHE_IMMUTABLE);
+    }
+
+    private void send(Context ctx, StaticAsset asset, String requestedName, String cacheControl) {
+        if (asset == null) {
+            ctx.status(HttpStatus.NOT_FOUND).result(requestedName + " not found");
+            return;
+        }
+
+        boolean useGzip = asset.getGzipContent() != null && acceptsGzip(ctx.header("Accept-Encoding"));
+        String etag = asset.getETag(useGzip ? "gzip" : "identity");
+
+        ctx.header("Cache-Control", cacheControl);
+        ctx.header("ETag", etag);
+        ctx.header("Vary", "Accept-Encoding");
+
+        if (matchesETag(ctx.header("If-None-Match"), etag)) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+
+        // The encoding was chosen above; Javalin must not compress the response again
+        ctx.disableCompression();
+        ctx.contentType(asset.getContentType());
+        if (useGzip) {
+            ctx.header("Content-Encoding", "gzip");
+            ctx.result(asset.getGzipContent());
+        } else {
+            ctx.result(asset.getContent());
+        }
+    }
+
+    /**
+     * @return true unless the client did not list gzip (or *) or gave it q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            boolean accepted = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so W/"tag" matches "tag" and the reverse.
+     */
+    public static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHtml(String name) {
+        return name.endsWith(".html");
+    }
+
+    private static String contentType(String name) {
+        if (isHtml(name)) {
+            return "text/html; charset=utf-8";
+        }
+        if (name.endsWith(".js")) {
+            return "application/javascript; charset=utf-8";
+        }
+        if (name.endsWith(".css")) {
+            return "text/css; charset=utf-8";
+        }
+        return "application/octet-stream";
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error compressing static asset", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.revature.cache;
+
+/**
+ * Point-in-time call counts for one key of a SingleFlight.
+ * Shows how many calls shared another call's execution instead of running their own.
+ */
+public class CoalescingStats {
+    private final String name;
+    private final String key;
+    private final long callCount;
+    private final long executionCount;
+    private final long collapsedCount;
+    private final long cachedCount;
+
+    public CoalescingStats(String name, String key, long callCount, long executionCount,
+                           long collapsedCount, long cachedCount) {
+        this.name = name;
+        this.key = key;
+        this.callCount = callCount;
+        this.executionCount = executionCount;
+        this.collapsedCount = collapsedCount;
+        this.cachedCount = cachedCount;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return calls that ran the loader
+     */
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * @return calls that waited for an execution already in flight
+     */
+    public long getCollapsedCount() {
+        return collapsedCount;
+    }
+
+    /**
+     * @return calls answered with a finished result still within its time to live
+     */
+    public long getCachedCount() {
+        return cachedCount;
+    }
+
+    /**
+     * @return fraction of calls that did not run the loader, between 0 and 1
+     */
+    public double getSavedRate() {
+        return callCount == 0 ? 0.0 : (double) (collapsedCount + cachedCount) / callCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingStats{" +
+                "name='" + name + '\'' +
+                ", key='" + key + '\'' +
+                ", calls=" + callCount +
+                ", executions=" + executionCount +
+                ", collapsed=" + collapsedCount +
+                ", cached=" + cachedCount +
+                '}';
+    }
+}
@@ -0,0 +1,391 @@
+package com.revature.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of rendered content, sized in bytes rather than entries.
+ * Entries up to a size limit are held in memory; larger ones are written to files in a spill
+ * directory, which has its own byte budget. When a tier is full, its least recently used
+ * entries are evicted (and their files deleted). Content too large for its tier is not cached.
+ * Captures reserve disk space as they spill, so captures running at the same time share the
+ * disk budget instead of each writing up to all of it.
+ * Content is captured as it is produced, through an OutputStream, so a response can be
+ * streamed to a client and cached in the same pass.
+ * All operations are thread-safe. Evictions delete files, so they run under a ReentrantLock
+ * rather than the object's monitor, which would pin a virtual thread's carrier on JDK 21.
+ */
+public class ContentCache<K> {
+    private static final String FILE_SUFFIX = ".cached";
+    private static final String FILE_PATTERN = "[0-9a-f-]{36}\\.cached";
+
+    private final String name;
+    private final long maxMemoryBytes;
+    private final long maxMemoryEntryBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<K, Content> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long memoryBytes;
+    private long diskBytes;
+    private long reservedDiskBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * @param maxMemoryBytes total size of the entries held in memory
+     * @param maxMemoryEntryBytes largest entry held in memory; larger ones go to disk
+     * @param directory where larger entries are written, or null to cache only in memory
+     * @param maxDiskBytes total size of the entries on disk
+     */
+    public ContentCache(String name, long maxMemoryBytes, long maxMemoryEntryBytes, Path directory, long maxDiskBytes) {
+        if (maxMemoryBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1 byte");
+        }
+        this.name = name;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxMemoryEntryBytes = Math.min(maxMemoryEntryBytes, maxMemoryBytes);
+        this.directory = directory;
+        this.maxDiskBytes = directory != null ? maxDiskBytes : 0;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        deleteLeftoverFiles();
+    }
+
+    /**
+     * @return the cached content, or null if the key is absent
+     */
+    public Content get(K key) {
+        lock.lock();
+        try {
+            Content content = entries.get(key);
+            if (content == null) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return content;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start capturing content for a key. Nothing is cached until the capture is committed.
+     */
+    public Capture capture(K key) {
+        return new Capture(key);
+    }
+
+    /**
+     * Drop every entry, e.g. because the data they were rendered from changed.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidationCount += entries.size();
+            for (Content content : entries.values()) {
+                content.delete();
+            }
+            entries.clear();
+            memoryBytes = 0;
+            diskBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ContentCacheStats getStats() {
+        lock.lock();
+        try {
+            return new ContentCacheStats(name, entries.size(), memoryBytes, maxMemoryBytes, diskBytes, maxDiskBytes,
+                    hitCount, missCount, evictionCount, invalidationCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param reserved disk space the capture reserved for this content, now taken by it
+     * @return the content if it was cached, or null if it is too large for its tier
+     */
+    private Content put(K key, Content content, long reserved) {
+        lock.lock();
+        try {
+            reservedDiskBytes -= reserved;
+            Content previous = entries.remove(key);
+            if (previous != null) {
+                release(previous);
+            }
+            boolean onDisk = content.file != null;
+            long budget = onDisk ? maxDiskBytes : maxMemoryBytes;
+            if (content.size > budget) {
+                content.delete();
+                return null;
+            }
+            // Evict the least recently used entries of the same tier until the new one fits
+            Iterator<Map.Entry<K, Content>> iterator = entries.entrySet().iterator();
+            while ((onDisk ? diskBytes : memoryBytes) + content.size > budget && iterator.hasNext()) {
+                Content candidate = iterator.next().getValue();
+                if ((candidate.file != null) == onDisk) {
+                    iterator.remove();
+                    release(candidate);
+                    evictionCount++;
+                }
+            }
+            entries.put(key, content);
+            if (onDisk) {
+                diskBytes += content.size;
+            } else {
+                memoryBytes += content.size;
+            }
+            return content;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set aside disk space for a capture, evicting the least recently used files if needed.
+     * @return false if the space is held by other captures and cannot be freed
+     */
+    private boolean reserveDisk(long bytes) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<K, Content>> iterator = entries.entrySet().iterator();
+            while (diskBytes + reservedDiskBytes + bytes > maxDiskBytes && iterator.hasNext()) {
+                Content candidate = iterator.next().getValue();
+                if (candidate.file != null) {
+                    iterator.remove();
+                    release(candidate);
+                    evictionCount++;
+                }
+            }
+            if (diskBytes + reservedDiskBytes + bytes > maxDiskBytes) {
+                return false;
+            }
+            reservedDiskBytes += bytes;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseDisk(long bytes) {
+        lock.lock();
+        try {
+            reservedDiskBytes -= bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Content content) {
+        if (content.file != null) {
+            diskBytes -= content.size;
+        } else {
+            memoryBytes -= content.size;
+        }
+        content.delete();
+    }
+
+    /**
+     * Delete files spilled by a previous run; their entries did not survive the restart.
+     */
+    private void deleteLeftoverFiles() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().matches(FILE_PATTERN)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error cleaning cache directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cached content, held either in memory or in a file.
+     */
+    public static final class Content {
+        private final byte[] bytes;
+        private final Path file;
+        private final long size;
+
+        private Content(byte[] bytes, Path file, long size) {
+            this.bytes = bytes;
+            this.file = file;
+            this.size = size;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the content if it is held in memory, otherwise null
+         */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Open the content for reading. A file that is evicted while open stays readable
+         * until the stream is closed.
+         * @throws IOException if the content was on disk and has since been evicted
+         */
+        public InputStream open() throws IOException {
+            return bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+        }
+
+        private void delete() {
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Error deleting cached content " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Receives content as it is produced. Content that grows past the in-memory limit moves to
+     * a file, reserving disk space for every byte it writes there; content that cannot reserve
+     * space, or cannot be written, is dropped.
+     * Writes never fail, so a capture can sit beside a client response without affecting it.
+     */
+    public final class Capture extends OutputStream {
+        private final K key;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+        private long size;
+        private long reserved;
+        private boolean dropped;
+
+        private Capture(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (dropped) {
+                return;
+            }
+            size += len;
+            try {
+                if (fileOut == null && size > maxMemoryEntryBytes) {
+                    if (size > maxDiskBytes || !reserve(size - len)) {
+                        discard();
+                        return;
+                    }
+                    spill();
+                }
+                if (fileOut != null) {
+                    if (size > maxDiskBytes || !reserve(len)) {
+                        discard();
+                        return;
+                    }
+                    fileOut.write(b, off, len);
+                } else {
+                    buffer.write(b, off, len);
+                }
+            } catch (IOException e) {
+                System.err.println("Cache " + name + " stopped capturing " + key + ": " + e.getMessage());
+                discard();
+            }
+        }
+
+        private boolean reserve(long bytes) {
+            if (!reserveDisk(bytes)) {
+                return false;
+            }
+            reserved += bytes;
+            return true;
+        }
+
+        private void spill() throws IOException {
+            Files.createDirectories(directory);
+            file = directory.resolve(UUID.randomUUID() + FILE_SUFFIX);
+            fileOut = Files.newOutputStream(file);
+            buffer.writeTo(fileOut);
+            buffer = null;
+        }
+
+        /**
+         * Cache the captured content, unless it was dropped.
+         * @return the cached content, or null if it was dropped or does not fit
+         */
+        public Content commit() {
+            if (dropped) {
+                return null;
+            }
+            try {
+                Content content;
+                if (fileOut != null) {
+                    fileOut.close();
+                    content = put(key, new Content(null, file, size), reserved);
+                } else {
+                    content = put(key, new Content(buffer.toByteArray(), null, size), 0);
+                }
+                dropped = true;
+                reserved = 0;
+                return content;
+            } catch (IOException e) {
+                System.err.println("Cache " + name + " could not store " + key + ": " + e.getMessage());
+                discard();
+                return null;
+            }
+        }
+
+        /**
+         * Drop the captured content, e.g. because it is incomplete or already out of date.
+         */
+        public void discard() {
+            dropped = true;
+            buffer = null;
+            if (reserved > 0) {
+                releaseDisk(reserved);
+                reserved = 0;
+            }
+            if (fileOut != null) {
+                try {
+                    fileOut.close();
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("Error deleting cached content " + file + ": " + e.getMessage());
+                }
+                fileOut = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            // Committed or discarded explicitly; closing alone changes nothing
+        }
+    }
+}
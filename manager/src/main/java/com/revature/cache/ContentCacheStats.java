@@ -0,0 +1,99 @@
+package com.revature.cache;
+
+/**
+ * Point-in-time statistics for a ContentCache.
+ * Used to size its memory and disk budgets.
+ */
+public class ContentCacheStats {
+    private final String name;
+    private final int entries;
+    private final long memoryBytes;
+    private final long maxMemoryBytes;
+    private final long diskBytes;
+    private final long maxDiskBytes;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long invalidationCount;
+
+    public ContentCacheStats(String name, int entries, long memoryBytes, long maxMemoryBytes, long diskBytes,
+                             long maxDiskBytes, long hitCount, long missCount, long evictionCount,
+                             long invalidationCount) {
+        this.name = name;
+        this.entries = entries;
+        this.memoryBytes = memoryBytes;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.diskBytes = diskBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.invalidationCount = invalidationCount;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public long getMaxDiskBytes() {
+        return maxDiskBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return entries dropped because the data they were rendered from changed
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * @return fraction of lookups served from the cache, between 0 and 1
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentCacheStats{" +
+                "name='" + name + '\'' +
+                ", entries=" + entries +
+                ", memory=" + memoryBytes + "/" + maxMemoryBytes +
+                ", disk=" + diskBytes + "/" + maxDiskBytes +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", invalidations=" + invalidationCount +
+                '}';
+    }
+}
@@ -0,0 +1,180 @@
+package com.revature.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution whose result they all share.
+ * The first caller for a key runs the loader; callers arriving while it runs wait for its result
+ * instead of running their own. With a time to live, a finished result is also handed to callers
+ * for that long afterwards. invalidateAll() makes later callers start over, so a write is never
+ * hidden behind a read that began before it.
+ * Failures are not shared beyond the callers already waiting, and are never kept.
+ * Call counts are kept per key, up to a limit, for tuning.
+ */
+public class SingleFlight<K, V> {
+    /** Keys tracked individually in the statistics; calls for any further keys are pooled. */
+    public static final int DEFAULT_MAX_TRACKED_KEYS = 200;
+    static final String OTHER_KEYS = "(other)";
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxTrackedKeys;
+    private final LongSupplier clock;
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public SingleFlight(String name, Duration ttl) {
+        this(name, ttl, DEFAULT_MAX_TRACKED_KEYS, System::nanoTime);
+    }
+
+    /**
+     * @param ttl how long a finished result is shared with later callers; zero shares only in-flight calls
+     * @param maxTrackedKeys keys given their own statistics
+     * @param clock source of nanosecond timestamps, replaceable in tests
+     */
+    public SingleFlight(String name, Duration ttl, int maxTrackedKeys, LongSupplier clock) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the value for a key, joining a call already in flight for it if there is one.
+     * @param loader runs at most once per flight, on the calling thread
+     * @throws RuntimeException whatever the loader threw, for every caller of that flight
+     */
+    public V execute(K key, Supplier<V> loader) {
+        Counters keyCounters = countersFor(key);
+        keyCounters.calls.increment();
+        while (true) {
+            Flight<V> existing = flights.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone()) {
+                    keyCounters.collapsed.increment();
+                    return await(existing);
+                }
+                if (isFresh(existing)) {
+                    keyCounters.cached.increment();
+                    return existing.future.join();
+                }
+                flights.remove(key, existing);
+            }
+
+            Flight<V> flight = new Flight<>();
+            if (flights.putIfAbsent(key, flight) != null) {
+                // Lost the race to start a flight; join the winner
+                continue;
+            }
+            keyCounters.executions.increment();
+            return run(key, flight, loader);
+        }
+    }
+
+    private V run(K key, Flight<V> flight, Supplier<V> loader) {
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        flight.completedAt = clock.getAsLong();
+        if (ttlNanos == 0) {
+            flights.remove(key, flight);
+        }
+        flight.future.complete(value);
+        return value;
+    }
+
+    private boolean isFresh(Flight<V> flight) {
+        return ttlNanos > 0
+                && !flight.future.isCompletedExceptionally()
+                && clock.getAsLong() - flight.completedAt < ttlNanos;
+    }
+
+    private static <V> V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Forget finished results and detach calls in flight, so every later call runs the loader again.
+     * Callers already waiting on a flight still get its result.
+     */
+    public void invalidateAll() {
+        flights.clear();
+    }
+
+    private Counters countersFor(K key) {
+        String keyName = String.valueOf(key);
+        Counters existing = counters.get(keyName);
+        if (existing != null) {
+            return existing;
+        }
+        if (counters.size() >= maxTrackedKeys) {
+            return counters.computeIfAbsent(OTHER_KEYS, k -> new Counters());
+        }
+        return counters.computeIfAbsent(keyName, k -> new Counters());
+    }
+
+    /**
+     * @return per-key statistics, most called first
+     */
+    public List<CoalescingStats> getStats() {
+        List<CoalescingStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            stats.add(new CoalescingStats(name, entry.getKey(), c.calls.sum(), c.executions.sum(),
+                    c.collapsed.sum(), c.cached.sum()));
+        }
+        stats.sort(Comparator.comparingLong(CoalescingStats::getCallCount).reversed());
+        return stats;
+    }
+
+    public int getInFlightCount() {
+        int inFlight = 0;
+        for (Flight<V> flight : flights.values()) {
+            if (!flight.future.isDone()) {
+                inFlight++;
+            }
+        }
+        return inFlight;
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder collapsed = new LongAdder();
+        private final LongAdder cached = new LongAdder();
+    }
+}
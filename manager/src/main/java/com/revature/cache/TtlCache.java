@@ -0,0 +1,172 @@
+package com.revature.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache whose entries expire a fixed time after they are written.
+ * When the cache is full, the least recently used entry is evicted.
+ * Null values cannot be cached; wrap them (e.g. in Optional) to cache a miss.
+ * All operations are thread-safe. They take a ReentrantLock rather than the object's monitor,
+ * so a virtual thread waiting for it on JDK 21 does not pin its carrier.
+ */
+public class TtlCache<K, V> {
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expiredCount;
+
+    public TtlCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param clock source of nanosecond timestamps, replaceable in tests
+     */
+    public TtlCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cached value, or null if the key is absent or its entry has expired
+     */
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                missCount++;
+                return null;
+            }
+            if (clock.getAsLong() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                expiredCount++;
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cache a value for the default time to live.
+     */
+    public void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * Cache a value for a specific time to live, e.g. a shorter one for negative entries.
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    private void put(K key, V value, long entryTtlNanos) {
+        lock.lock();
+        try {
+            if (value == null) {
+                throw new IllegalArgumentException("Cannot cache a null value");
+            }
+            entries.put(key, new Entry<>(value, clock.getAsLong() + entryTtlNanos));
+            if (entries.size() > maxSize) {
+                evictOne();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop the entry for a key.
+     * @return the value that was cached (possibly expired), or null if there was none
+     */
+    public V invalidate(K key) {
+        lock.lock();
+        try {
+            Entry<V> removed = entries.remove(key);
+            return removed == null ? null : removed.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        lock.lock();
+        try {
+            return new CacheStats(name, maxSize, entries.size(), hitCount, missCount, evictionCount, expiredCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Make room by dropping an expired entry if there is one, otherwise the least recently used.
+     */
+    private void evictOne() {
+        long now = clock.getAsLong();
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        Map.Entry<K, Entry<V>> eldest = it.next();
+        // Only look a few entries deep, so a full cache never costs a full scan
+        for (int i = 0; i < 8 && it.hasNext(); i++) {
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            if (now - candidate.getValue().expiresAt >= 0) {
+                it.remove();
+                expiredCount++;
+                return;
+            }
+        }
+        entries.remove(eldest.getKey());
+        evictionCount++;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.revature.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations over fixed, log-spaced buckets (1-2.5-5 per decade, 100µs to 10s).
+ * Every bucket is a striped LongAdder, so concurrent record() calls never contend on one counter
+ * and never take a lock; reads sum the stripes and may miss a value being recorded at that moment.
+ * The bucket bounds are the same for every histogram, so their counts can be compared and summed.
+ */
+public class LatencyHistogram {
+    /** Upper bounds of the buckets, in seconds; a value equal to a bound falls in that bucket. */
+    private static final double[] BOUNDS_SECONDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025,
+            0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = Math.round(BOUNDS_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    // One bucket per bound, plus one for values beyond the last bound
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos the duration to record; negative durations count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        int index = Arrays.binarySearch(BOUNDS_NANOS, value);
+        buckets[index >= 0 ? index : -index - 1].increment();
+        sumNanos.add(value);
+    }
+
+    /**
+     * Record the time elapsed since a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return upper bound of each bucket in seconds, excluding the unbounded last bucket
+     */
+    public static double[] getBoundsSeconds() {
+        return BOUNDS_SECONDS.clone();
+    }
+
+    /**
+     * @return values recorded in each bucket (not cumulative); the last entry counts values above every bound
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+}
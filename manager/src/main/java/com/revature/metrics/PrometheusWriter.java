@@ -0,0 +1,101 @@
+package com.revature.metrics;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds a scrape response in the Prometheus text exposition format (version 0.0.4).
+ * Each metric family is introduced with header() and followed by its samples;
+ * labels are passed as alternating names and values and escaped here.
+ */
+public class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] BUCKET_LABELS;
+
+    static {
+        double[] bounds = LatencyHistogram.getBoundsSeconds();
+        BUCKET_LABELS = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(bounds[i]).stripTrailingZeros().toPlainString();
+        }
+        BUCKET_LABELS[bounds.length] = "+Inf";
+    }
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    /**
+     * Start a metric family.
+     * @param type "counter", "gauge" or "histogram"
+     */
+    public PrometheusWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Write one sample of the current family.
+     * @param labels label names and values, alternating
+     */
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null);
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Write a histogram's cumulative buckets, sum (in seconds) and count.
+     * @param labels label names and values, alternating
+     */
+    public PrometheusWriter histogram(String name, LatencyHistogram histogram, String... labels) {
+        long[] counts = histogram.getBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket");
+            appendLabels(labels, BUCKET_LABELS[i]);
+            out.append(' ').append(cumulative).append('\n');
+        }
+        sample(name + "_sum", histogram.getSumNanos() / 1_000_000_000.0, labels);
+        // The count is the +Inf bucket, so it agrees with the buckets read above
+        sample(name + "_count", cumulative, labels);
+        return this;
+    }
+
+    private void appendLabels(String[] labels, String le) {
+        if (labels.length == 0 && le == null) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        if (le != null) {
+            if (labels.length > 0) {
+                out.append(',');
+            }
+            out.append("le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.revature.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database timings for every repository method, shared by the repositories that report into it.
+ * A repository asks for its timers once; asking twice for the same method returns the same timer,
+ * so repositories built over the same metrics add up.
+ */
+public class QueryMetrics {
+    private final Map<String, QueryTimer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param repository the repository class, e.g. "ExpenseRepository"
+     * @param method the method running the query
+     */
+    public QueryTimer timer(String repository, String method) {
+        return timers.computeIfAbsent(repository + "." + method, key -> new QueryTimer(repository, method));
+    }
+
+    /**
+     * @return every timer, by repository then method
+     */
+    public List<QueryTimer> getTimers() {
+        List<QueryTimer> sorted = new ArrayList<>(timers.values());
+        sorted.sort(Comparator.comparing(QueryTimer::getRepository).thenComparing(QueryTimer::getMethod));
+        return sorted;
+    }
+}
@@ -0,0 +1,101 @@
+package com.revature.metrics;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Times the statements one repository method runs: a latency histogram plus a count of failures.
+ * Repositories execute their statements through it, so what is recorded is the time SQLite spends
+ * on them, not the wait for a pooled connection, nor mapping rows or writing them to a client.
+ * Obtained from QueryMetrics once, when the repository is built, so timing a statement
+ * costs two clock reads and a few striped counter increments.
+ */
+public class QueryTimer {
+    private final String repository;
+    private final String method;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errorCount = new LongAdder();
+
+    QueryTimer(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+
+    /**
+     * Run a whole operation, e.g. several statements and their commit, and record how long it took,
+     * whether it returned or threw.
+     * @return whatever the operation returned
+     */
+    public <T> T time(Supplier<T> query) {
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } catch (RuntimeException | Error e) {
+            errorCount.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Execute a query, timing it until its first row is ready.
+     * Reading the remaining rows is left to the caller and not timed.
+     */
+    public ResultSet executeQuery(PreparedStatement stmt) throws SQLException {
+        return timeStatement(stmt::executeQuery);
+    }
+
+    /**
+     * @return the number of rows changed
+     */
+    public int executeUpdate(PreparedStatement stmt) throws SQLException {
+        return timeStatement(stmt::executeUpdate);
+    }
+
+    /**
+     * Execute a batch, recording it once however many statements it holds.
+     * @return the number of rows changed by each statement
+     */
+    public int[] executeBatch(PreparedStatement stmt) throws SQLException {
+        return timeStatement(stmt::executeBatch);
+    }
+
+    private <T> T timeStatement(SqlCall<T> call) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } catch (SQLException | RuntimeException | Error e) {
+            errorCount.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return calls and statements that ended with an exception
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+}
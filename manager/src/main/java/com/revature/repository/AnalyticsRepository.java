@@ -0,0 +1,255 @@
+package com.revature.repository;
+
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Repository for spend analytics.
+ * Spend by status and by month is read from the spend_daily rollup, and spend by employee from
+ * the spend_monthly rollup, which triggers keep current on every write (see V6__spend_rollups.sql).
+ * A summary then reads one row per bucket in the date range, however many expenses there are.
+ * Categories have no rollup, and spend by employee over a range that does not cover whole months
+ * cannot be read from monthly buckets; both are computed by SQLite with GROUP BY over the expenses.
+ * Either way a summary counts the same expenses, those with an approval record, and adds their
+ * amounts in whole cents, so the same rows give the same totals whichever path serves them.
+ * Groups are aggregated before they are labelled, so e.g. usernames are looked up once per
+ * employee rather than once per expense.
+ */
+public class AnalyticsRepository {
+    private static final String REBUILD_DAILY = """
+        INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT e.date, a.status, COUNT(*), SUM(CAST(round(e.amount * 100) AS INTEGER))
+        FROM expenses e JOIN approvals a ON e.id = a.expense_id
+        GROUP BY e.date, a.status
+        """;
+    private static final String REBUILD_MONTHLY = """
+        INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT e.user_id, substr(e.date, 1, 7), a.status, COUNT(*), SUM(CAST(round(e.amount * 100) AS INTEGER))
+        FROM expenses e JOIN approvals a ON e.id = a.expense_id
+        GROUP BY e.user_id, substr(e.date, 1, 7), a.status
+        """;
+    private static final String ROLLUP_STATS = """
+        SELECT (SELECT COUNT(*) FROM spend_daily) AS daily_buckets,
+               (SELECT COUNT(*) FROM spend_monthly) AS monthly_buckets,
+               (SELECT COALESCE(SUM(expense_count), 0) FROM spend_daily) AS expense_count
+        """;
+
+    private final DatabaseConnection databaseConnection;
+    private final Map<SpendGrouping, QueryTimer> summarizeSpendTimers = new EnumMap<>(SpendGrouping.class);
+    private final QueryTimer rebuildSpendRollupsTimer;
+
+    public AnalyticsRepository(DatabaseConnection databaseConnection) {
+        this(databaseConnection, new QueryMetrics());
+    }
+
+    /**
+     * @param queryMetrics where the time spent in each query is recorded, per grouping
+     */
+    public AnalyticsRepository(DatabaseConnection databaseConnection, QueryMetrics queryMetrics) {
+        this.databaseConnection = databaseConnection;
+        for (SpendGrouping grouping : SpendGrouping.values()) {
+            String name = grouping.name().charAt(0) + grouping.name().substring(1).toLowerCase(Locale.ROOT);
+            summarizeSpendTimers.put(grouping, queryMetrics.timer("AnalyticsRepository", "summarizeSpendBy" + name));
+        }
+        this.rebuildSpendRollupsTimer = queryMetrics.timer("AnalyticsRepository", "rebuildSpendRollups");
+    }
+
+    /**
+     * Summarize spend per group, optionally within a date range.
+     * @param grouping how to group the expenses
+     * @param startDate first date to include (YYYY-MM-DD), or null for no lower bound
+     * @param endDate last date to include (YYYY-MM-DD), or null for no upper bound
+     * @param limit the most groups to return, or null for all
+     * @return one summary per group that has expenses, in the grouping's order
+     */
+    public List<SpendSummary> summarizeSpend(SpendGrouping grouping, String startDate, String endDate, Integer limit) {
+        if (grouping == SpendGrouping.CATEGORY
+                || (grouping == SpendGrouping.EMPLOYEE && !coversWholeMonths(startDate, endDate))) {
+            return aggregateExpenses(grouping, startDate, endDate, limit);
+        }
+        return readRollups(grouping, startDate, endDate, limit);
+    }
+
+    /**
+     * Recompute both spend rollups from the expenses and approvals, in one transaction.
+     * The triggers keep them current, so this is only needed to recover, e.g. after the
+     * tables were edited by hand or written with the triggers missing.
+     * @return the rollups as rebuilt
+     */
+    public SpendRollupStats rebuildSpendRollups() {
+        return rebuildSpendRollupsTimer.time(() -> {
+            try (Connection conn = databaseConnection.getWriteConnection()) {
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM spend_daily");
+                    stmt.executeUpdate("DELETE FROM spend_monthly");
+                    stmt.executeUpdate(REBUILD_DAILY);
+                    stmt.executeUpdate(REBUILD_MONTHLY);
+                    SpendRollupStats stats = readRollupStats(conn);
+                    conn.commit();
+                    return stats;
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rebuilding spend rollups", e);
+            }
+        });
+    }
+
+    /**
+     * @return how many buckets the spend rollups hold and how many expenses they count
+     */
+    public SpendRollupStats getSpendRollupStats() {
+        try (Connection conn = databaseConnection.getReadConnection()) {
+            return readRollupStats(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading spend rollup statistics", e);
+        }
+    }
+
+    private List<SpendSummary> readRollups(SpendGrouping grouping, String startDate, String endDate, Integer limit) {
+        // Daily buckets are bounded by date, monthly ones by the month the dates fall in
+        String bucket = grouping == SpendGrouping.EMPLOYEE ? "month" : "day";
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (startDate != null) {
+            conditions.add(bucket + " >= ?");
+            parameters.add(grouping == SpendGrouping.EMPLOYEE ? startDate.substring(0, 7) : startDate);
+        }
+        if (endDate != null) {
+            conditions.add(bucket + " <= ?");
+            parameters.add(grouping == SpendGrouping.EMPLOYEE ? endDate.substring(0, 7) : endDate);
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        String totals = "SUM(expense_count) AS expense_count, SUM(total_cents) AS total_cents";
+
+        String sql = switch (grouping) {
+            case EMPLOYEE -> "SELECT g.group_key, u.username AS label, g.expense_count, g.total_cents "
+                    + "FROM (SELECT user_id AS group_key, " + totals + " FROM spend_monthly" + where
+                    + " GROUP BY user_id) g JOIN users u ON u.id = g.group_key ORDER BY g.total_cents DESC, g.group_key";
+            case STATUS -> "SELECT status AS group_key, status AS label, " + totals + " FROM spend_daily" + where
+                    + " GROUP BY status ORDER BY label";
+            case MONTH -> "SELECT substr(day, 1, 7) AS group_key, substr(day, 1, 7) AS label, " + totals
+                    + " FROM spend_daily" + where + " GROUP BY substr(day, 1, 7) ORDER BY label";
+            case CATEGORY -> throw new IllegalArgumentException("No spend rollup for " + grouping);
+        };
+        if (limit != null) {
+            sql += " LIMIT ?";
+            parameters.add(limit);
+        }
+
+        try (Connection conn = databaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            return readSummaries(grouping, stmt);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error summarizing spend by " + grouping.getColumnName().toLowerCase(Locale.ROOT), e);
+        }
+    }
+
+    private List<SpendSummary> aggregateExpenses(SpendGrouping grouping, String startDate, String endDate, Integer limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (startDate != null) {
+            conditions.add("e.date >= ?");
+            parameters.add(startDate);
+        }
+        if (endDate != null) {
+            conditions.add("e.date <= ?");
+            parameters.add(endDate);
+        }
+
+        // The same join and cent arithmetic as the rollup triggers, so totals agree with readRollups
+        String sql = "SELECT g.group_key, " + grouping.getLabel() + " AS label, g.expense_count, g.total_cents "
+                + "FROM (SELECT " + grouping.getGroupBy() + " AS group_key, COUNT(*) AS expense_count, "
+                + "SUM(CAST(round(e.amount * 100) AS INTEGER)) AS total_cents "
+                + "FROM expenses e JOIN approvals a ON e.id = a.expense_id"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " GROUP BY " + grouping.getGroupBy() + ") g " + grouping.getLabelJoin()
+                + " ORDER BY " + grouping.getOrderBy()
+                + (limit != null ? " LIMIT ?" : "");
+        if (limit != null) {
+            parameters.add(limit);
+        }
+
+        try (Connection conn = databaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            return readSummaries(grouping, stmt);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error summarizing spend by " + grouping.getColumnName().toLowerCase(Locale.ROOT), e);
+        }
+    }
+
+    /**
+     * @return whether the date range starts on the first and ends on the last day of a month,
+     * where a missing bound counts as covering
+     */
+    private static boolean coversWholeMonths(String startDate, String endDate) {
+        if (startDate != null && LocalDate.parse(startDate).getDayOfMonth() != 1) {
+            return false;
+        }
+        if (endDate != null) {
+            LocalDate end = LocalDate.parse(endDate);
+            return end.equals(end.with(TemporalAdjusters.lastDayOfMonth()));
+        }
+        return true;
+    }
+
+    private static SpendRollupStats readRollupStats(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ROLLUP_STATS);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new SpendRollupStats(rs.getLong("daily_buckets"), rs.getLong("monthly_buckets"),
+                    rs.getLong("expense_count"));
+        }
+    }
+
+    /**
+     * Totals are summed in cents; as BigDecimal with two decimals they are written as 118004535.47
+     * rather than 1.1800453547E8 in JSON and CSV.
+     */
+    private List<SpendSummary> readSummaries(SpendGrouping grouping, PreparedStatement stmt) throws SQLException {
+        List<SpendSummary> summaries = new ArrayList<>();
+        try (ResultSet rs = summarizeSpendTimers.get(grouping).executeQuery(stmt)) {
+            while (rs.next()) {
+                long count = rs.getLong("expense_count");
+                BigDecimal total = BigDecimal.valueOf(rs.getLong("total_cents"), 2);
+                summaries.add(new SpendSummary(
+                        rs.getString("label"),
+                        grouping == SpendGrouping.EMPLOYEE ? rs.getInt("group_key") : null,
+                        count,
+                        total,
+                        total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)));
+            }
+        }
+        return summaries;
+    }
+}
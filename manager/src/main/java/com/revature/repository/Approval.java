@@ -10,6 +10,7 @@ public class Approval {
     private Integer reviewer;
     private String comment;
     private String reviewDate;
+    private int version;
     
     public Approval() {}
     
@@ -22,6 +23,12 @@ public class Approval {
         this.reviewDate = reviewDate;
     }
     
+    public Approval(int id, int expenseId, String status, Integer reviewer, String comment, String reviewDate,
+                    int version) {
+        this(id, expenseId, status, reviewer, comment, reviewDate);
+        this.version = version;
+    }
+    
     // Getters and setters
     public int getId() {
         return id;
@@ -71,6 +78,17 @@ public class Approval {
         this.reviewDate = reviewDate;
     }
     
+    /**
+     * @return incremented on every change to this approval; a review can require the version it was based on
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public boolean isPending() {
         return "pending".equalsIgnoreCase(status);
     }
@@ -84,6 +102,7 @@ public class Approval {
                 ", reviewer=" + reviewer +
                 ", comment='" + comment + '\'' +
                 ", reviewDate='" + reviewDate + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.revature.repository;
+
+/**
+ * One review to apply: the approval status a manager set on an expense, with an optional comment.
+ * Reviews only apply to pending approvals; an expected version narrows that to the approval
+ * as the manager last saw it.
+ */
+public class ApprovalDecision {
+    private final int expenseId;
+    private final String status;
+    private final int reviewerId;
+    private final String comment;
+    private final Integer expectedVersion;
+
+    public ApprovalDecision(int expenseId, String status, int reviewerId, String comment) {
+        this(expenseId, status, reviewerId, comment, null);
+    }
+
+    /**
+     * @param status the new approval status ("approved" or "denied")
+     * @param reviewerId the manager's user ID
+     * @param expectedVersion the approval version the review is based on, or null for any pending version
+     */
+    public ApprovalDecision(int expenseId, String status, int reviewerId, String comment, Integer expectedVersion) {
+        this.expenseId = expenseId;
+        this.status = status;
+        this.reviewerId = reviewerId;
+        this.comment = comment;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public int getExpenseId() {
+        return expenseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getReviewerId() {
+        return reviewerId;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public Integer getExpectedVersion() {
+        return expectedVersion;
+    }
+}
@@ -1,23 +1,59 @@
 package com.revature.repository;
 
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for approval data access operations.
  * Handles database interactions for expense approval management.
+ * Every status change here also moves the expense between spend rollup buckets, through the
+ * triggers in V6__spend_rollups.sql, within the same statement and transaction as the review.
  */
 public class ApprovalRepository {
+    // Reviews are compare-and-set: only a pending approval changes, and the version moves on with it
+    // in the same statement, so each review is one row change (and one change_log entry)
+    private static final String REVIEW_APPROVAL = """
+        UPDATE approvals 
+        SET status = ?, reviewer = ?, comment = ?, review_date = ?, version = version + 1
+        WHERE expense_id = ? AND status = 'pending'
+        AND (? IS NULL OR version = ?)
+        """;
+    private static final String SELECT_APPROVAL =
+        "SELECT id, expense_id, status, reviewer, comment, review_date, version FROM approvals WHERE expense_id = ?";
+    
     private final DatabaseConnection databaseConnection;
+    private final QueryTimer findByExpenseIdTimer;
+    private final QueryTimer reviewApprovalTimer;
+    private final QueryTimer updateApprovalStatusesTimer;
+    private final QueryTimer updatePendingApprovalsTimer;
+    private final QueryTimer createApprovalTimer;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public ApprovalRepository(DatabaseConnection databaseConnection) {
+        this(databaseConnection, new QueryMetrics());
+    }
+    
+    /**
+     * @param queryMetrics where the time spent in each query is recorded
+     */
+    public ApprovalRepository(DatabaseConnection databaseConnection, QueryMetrics queryMetrics) {
         this.databaseConnection = databaseConnection;
+        this.findByExpenseIdTimer = queryMetrics.timer("ApprovalRepository", "findByExpenseId");
+        this.reviewApprovalTimer = queryMetrics.timer("ApprovalRepository", "reviewApproval");
+        this.updateApprovalStatusesTimer = queryMetrics.timer("ApprovalRepository", "updateApprovalStatuses");
+        this.updatePendingApprovalsTimer = queryMetrics.timer("ApprovalRepository", "updatePendingApprovals");
+        this.createApprovalTimer = queryMetrics.timer("ApprovalRepository", "createApproval");
     }
     
     /**
@@ -26,13 +62,11 @@ public class ApprovalRepository {
      * @return Optional containing the approval if found, empty otherwise
      */
     public Optional<Approval> findByExpenseId(int expenseId) {
-        String sql = "SELECT id, expense_id, status, reviewer, comment, review_date FROM approvals WHERE expense_id = ?";
-        
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = databaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_APPROVAL)) {
             
             stmt.setInt(1, expenseId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = findByExpenseIdTimer.executeQuery(stmt);
             
             if (rs.next()) {
                 return Optional.of(mapRowToApproval(rs));
@@ -46,36 +80,171 @@ public class ApprovalRepository {
     }
     
     /**
-     * Update approval status for an expense.
+     * Update approval status for an expense, if it is still pending.
+     * This is reviewApproval without an expected version.
      * @param expenseId the expense ID
      * @param status the new approval status ("approved" or "denied")
      * @param reviewerId the manager's user ID
      * @param comment optional comment from the manager
-     * @return true if update was successful
+     * @return true if update was successful, false if there is no pending approval for the expense
      */
     public boolean updateApprovalStatus(int expenseId, String status, int reviewerId, String comment) {
-        String sql = """
-            UPDATE approvals 
-            SET status = ?, reviewer = ?, comment = ?, review_date = ?
-            WHERE expense_id = ?
-            """;
-        
+        return reviewApproval(new ApprovalDecision(expenseId, status, reviewerId, comment)).isApplied();
+    }
+    
+    /**
+     * Apply one review as a single conditional UPDATE: it only takes effect if the approval is
+     * still pending and, when the decision names one, still at the expected version.
+     * Concurrent reviews of the same expense therefore have exactly one winner, without reading first.
+     * @param decision the review to apply
+     * @return APPLIED, NOT_FOUND if the expense has no approval, or CONFLICT with the approval as it now is
+     */
+    public ReviewOutcome reviewApproval(ApprovalDecision decision) {
         String reviewDate = LocalDateTime.now().format(DATE_FORMATTER);
         
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status);
-            stmt.setInt(2, reviewerId);
-            stmt.setString(3, comment);
-            stmt.setString(4, reviewDate);
-            stmt.setInt(5, expenseId);
+        try (Connection conn = databaseConnection.getWriteConnection();
+             PreparedStatement stmt = conn.prepareStatement(REVIEW_APPROVAL)) {
             
-            int updatedRows = stmt.executeUpdate();
-            return updatedRows > 0;
+            bindReview(stmt, decision, reviewDate);
+            if (reviewApprovalTimer.executeUpdate(stmt) > 0) {
+                return ReviewOutcome.applied();
+            }
+            // Only a refused review pays for a read, to tell the caller what it lost to
+            return findRefusal(conn, decision.getExpenseId());
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error updating approval for expense: " + expenseId, e);
+            throw new RuntimeException("Error updating approval for expense: " + decision.getExpenseId(), e);
+        }
+    }
+    
+    /**
+     * Apply several reviews as one JDBC batch in a single transaction,
+     * so the whole batch costs one commit instead of one per expense.
+     * Each review is conditional, as in reviewApproval.
+     * @param decisions the reviews to apply, in order
+     * @return for each decision, its outcome
+     */
+    public List<ReviewOutcome> updateApprovalStatuses(List<ApprovalDecision> decisions) {
+        if (decisions.isEmpty()) {
+            return List.of();
+        }
+        String reviewDate = LocalDateTime.now().format(DATE_FORMATTER);
+        
+        try (Connection conn = databaseConnection.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean[] updated = executeBatch(conn, decisions, reviewDate, updateApprovalStatusesTimer);
+                List<ReviewOutcome> outcomes = new ArrayList<>(decisions.size());
+                for (int i = 0; i < updated.length; i++) {
+                    outcomes.add(updated[i] ? ReviewOutcome.applied()
+                            : findRefusal(conn, decisions.get(i).getExpenseId()));
+                }
+                conn.commit();
+                return outcomes;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating approvals for " + decisions.size() + " expenses", e);
+        }
+    }
+    
+    /**
+     * Review every pending expense matching a filter in a single transaction.
+     * The matching expenses are selected and updated under the same write lock,
+     * so an expense reviewed elsewhere in the meantime is never overwritten.
+     * @param filter which pending expenses to review
+     * @param status the new approval status ("approved" or "denied")
+     * @param reviewerId the manager's user ID
+     * @param comment optional comment from the manager
+     * @param maxCount the most expenses one call may review
+     * @return IDs of the reviewed expenses, oldest first
+     * @throws IllegalArgumentException if more than maxCount expenses match; nothing is changed
+     */
+    public List<Integer> updatePendingApprovals(PendingExpenseFilter filter, String status, int reviewerId,
+                                                String comment, int maxCount) {
+        String sql = "SELECT e.id FROM expenses e JOIN approvals a ON e.id = a.expense_id WHERE "
+                + filter.getCondition() + " ORDER BY e.date, e.id LIMIT ?";
+        String reviewDate = LocalDateTime.now().format(DATE_FORMATTER);
+        
+        try (Connection conn = databaseConnection.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> expenseIds = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = filter.bind(stmt, 1);
+                    // One extra row tells us the filter matches too many
+                    stmt.setInt(index, maxCount + 1);
+                    try (ResultSet rs = updatePendingApprovalsTimer.executeQuery(stmt)) {
+                        while (rs.next()) {
+                            expenseIds.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (expenseIds.size() > maxCount) {
+                    throw new IllegalArgumentException("Filter matches more than " + maxCount + " pending expenses");
+                }
+                
+                List<ApprovalDecision> decisions = new ArrayList<>(expenseIds.size());
+                for (Integer expenseId : expenseIds) {
+                    decisions.add(new ApprovalDecision(expenseId, status, reviewerId, comment));
+                }
+                executeBatch(conn, decisions, reviewDate, updatePendingApprovalsTimer);
+                conn.commit();
+                return expenseIds;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating approvals for " + filter, e);
+        }
+    }
+    
+    private boolean[] executeBatch(Connection conn, List<ApprovalDecision> decisions, String reviewDate,
+                                   QueryTimer timer) throws SQLException {
+        boolean[] updated = new boolean[decisions.size()];
+        if (decisions.isEmpty()) {
+            return updated;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(REVIEW_APPROVAL)) {
+            for (ApprovalDecision decision : decisions) {
+                bindReview(stmt, decision, reviewDate);
+                stmt.addBatch();
+            }
+            int[] counts = timer.executeBatch(stmt);
+            for (int i = 0; i < counts.length; i++) {
+                updated[i] = counts[i] > 0;
+            }
+        }
+        return updated;
+    }
+    
+    private static void bindReview(PreparedStatement stmt, ApprovalDecision decision, String reviewDate)
+            throws SQLException {
+        stmt.setString(1, decision.getStatus());
+        stmt.setInt(2, decision.getReviewerId());
+        stmt.setString(3, decision.getComment());
+        stmt.setString(4, reviewDate);
+        stmt.setInt(5, decision.getExpenseId());
+        stmt.setObject(6, decision.getExpectedVersion(), Types.INTEGER);
+        stmt.setObject(7, decision.getExpectedVersion(), Types.INTEGER);
+    }
+    
+    /**
+     * Explain why a review changed nothing, reading on the connection that tried it.
+     */
+    private ReviewOutcome findRefusal(Connection conn, int expenseId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_APPROVAL)) {
+            stmt.setInt(1, expenseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? ReviewOutcome.conflict(mapRowToApproval(rs)) : ReviewOutcome.notFound();
+            }
         }
     }
     
@@ -89,13 +258,13 @@ public class ApprovalRepository {
     public Approval createApproval(int expenseId, String status) {
         String sql = "INSERT INTO approvals (expense_id, status) VALUES (?, ?)";
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getWriteConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, expenseId);
             stmt.setString(2, status);
             
-            int affectedRows = stmt.executeUpdate();
+            int affectedRows = createApprovalTimer.executeUpdate(stmt);
             if (affectedRows == 0) {
                 throw new RuntimeException("Creating approval failed, no rows affected.");
             }
@@ -125,6 +294,7 @@ public class ApprovalRepository {
         approval.setReviewer((Integer) rs.getObject("reviewer"));
         approval.setComment(rs.getString("comment"));
         approval.setReviewDate(rs.getString("review_date"));
+        approval.setVersion(rs.getInt("version"));
         return approval;
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.revature.repository;
+
+import com.revature.cache.CacheStats;
+import com.revature.cache.TtlCache;
+import com.revature.metrics.QueryMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserRepository that serves lookups from a bounded, time-limited in-memory cache.
+ * Every authenticated request looks up its user, almost always one of a handful of managers,
+ * so caching avoids a database round trip per request.
+ * Unknown IDs and usernames are cached too (negative entries) for a shorter time,
+ * so bad tokens cannot be used to hammer the database.
+ * Subscribed to a ChangeFeed, the cache is cleared whenever the users table changes;
+ * the TTL bounds staleness if the feed is not running.
+ * A lookup that overlaps an invalidation does not cache what it read, since the row
+ * may have been read before the change that caused the invalidation.
+ */
+public class CachedUserRepository extends UserRepository implements ChangeListener {
+    private final TtlCache<Integer, Optional<User>> usersById;
+    private final TtlCache<String, Optional<User>> usersByUsername;
+    private final Duration negativeTtl;
+    // Bumped by every invalidation; a load caches its result only if this is unchanged
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param maxSize maximum number of entries per lookup type
+     * @param ttl how long a found user is cached
+     * @param negativeTtl how long a missing user is cached
+     */
+    public CachedUserRepository(DatabaseConnection databaseConnection, int maxSize, Duration ttl, Duration negativeTtl) {
+        this(databaseConnection, maxSize, ttl, negativeTtl, new QueryMetrics());
+    }
+
+    /**
+     * @param queryMetrics where the time spent in lookups that miss the cache is recorded
+     */
+    public CachedUserRepository(DatabaseConnection databaseConnection, int maxSize, Duration ttl, Duration negativeTtl,
+                                QueryMetrics queryMetrics) {
+        super(databaseConnection, queryMetrics);
+        this.usersById = new TtlCache<>("usersById", maxSize, ttl);
+        this.usersByUsername = new TtlCache<>("usersByUsername", maxSize, ttl);
+        this.negativeTtl = negativeTtl;
+    }
+
+    @Override
+    public Optional<User> findById(int userId) {
+        Optional<User> cached = usersById.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> user = super.findById(userId);
+        lock.lock();
+        try {
+            if (generation.get() == loadGeneration) {
+                if (user.isPresent()) {
+                    usersById.put(userId, user);
+                    usersByUsername.put(user.get().getUsername(), user);
+                } else {
+                    usersById.put(userId, user, negativeTtl);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        Optional<User> cached = usersByUsername.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> user = super.findByUsername(username);
+        lock.lock();
+        try {
+            if (generation.get() == loadGeneration) {
+                if (user.isPresent()) {
+                    usersByUsername.put(username, user);
+                    usersById.put(user.get().getId(), user);
+                } else {
+                    usersByUsername.put(username, user, negativeTtl);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return user;
+    }
+
+    /**
+     * Forget a user by ID, e.g. after their role or password changed or they were created.
+     * @param userId the user ID
+     */
+    public void invalidate(int userId) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            Optional<User> removed = usersById.invalidate(userId);
+            if (removed != null && removed.isPresent()) {
+                usersByUsername.invalidate(removed.get().getUsername());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget a user by username, e.g. after a user with that name was created.
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            Optional<User> removed = usersByUsername.invalidate(username);
+            if (removed != null && removed.isPresent()) {
+                usersById.invalidate(removed.get().getId());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget every cached user.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            usersById.invalidateAll();
+            usersByUsername.invalidateAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clear the cache when any user is created, changed or deleted.
+     * Clearing everything is simpler than mapping an ID to every username it may be cached
+     * under (including negative entries), and users change rarely.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> changes) {
+        if (ChangeEvent.anyFor(changes, ChangeEvent.USERS)) {
+            invalidateAll();
+        }
+    }
+
+    public List<CacheStats> getCacheStats() {
+        return List.of(usersById.getStats(), usersByUsername.getStats());
+    }
+}
@@ -0,0 +1,86 @@
+package com.revature.repository;
+
+import java.util.List;
+
+/**
+ * One row change recorded in the change_log table.
+ */
+public class ChangeEvent {
+    public static final String USERS = "users";
+    public static final String EXPENSES = "expenses";
+    public static final String APPROVALS = "approvals";
+
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    private final long version;
+    private final String table;
+    private final String operation;
+    private final int rowId;
+    private final Integer expenseId;
+
+    /**
+     * @param version position in the change log; strictly increasing
+     * @param table "users", "expenses" or "approvals"
+     * @param operation "insert", "update" or "delete"
+     * @param rowId primary key of the changed row
+     * @param expenseId the expense the row belongs to, or null for users
+     */
+    public ChangeEvent(long version, String table, String operation, int rowId, Integer expenseId) {
+        this.version = version;
+        this.table = table;
+        this.operation = operation;
+        this.rowId = rowId;
+        this.expenseId = expenseId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    public Integer getExpenseId() {
+        return expenseId;
+    }
+
+    public boolean isFor(String tableName) {
+        return table.equals(tableName);
+    }
+
+    /**
+     * @return true if any of the changes is to one of the given tables
+     */
+    public static boolean anyFor(List<ChangeEvent> changes, String... tableNames) {
+        for (ChangeEvent change : changes) {
+            for (String tableName : tableNames) {
+                if (change.isFor(tableName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "version=" + version +
+                ", table='" + table + '\'' +
+                ", operation='" + operation + '\'' +
+                ", rowId=" + rowId +
+                ", expenseId=" + expenseId +
+                '}';
+    }
+}
@@ -0,0 +1,268 @@
+package com.revature.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tails the change_log table and hands new changes to registered listeners, so in-process
+ * caches and push endpoints learn about writes from any process, including the employee app.
+ * Each poll first asks SQLite for PRAGMA data_version on a dedicated connection; that value
+ * only moves when another connection commits, so an idle database costs one pragma per poll
+ * and the log itself is read only when something changed.
+ * Old log rows are pruned once the feed is well past them.
+ * Writes made by this process can ask for an early poll, so its own listeners do not wait
+ * out the interval for them.
+ */
+public class ChangeFeed implements AutoCloseable {
+    /** Log rows read per query while catching up. */
+    static final int BATCH_SIZE = 500;
+
+    private final DatabaseConnection databaseConnection;
+    private final Duration pollInterval;
+    private final long retainedChanges;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller;
+    // Held for a whole poll, database reads included; request threads reading the counters wait
+    // on it without pinning a carrier, as they would on the object's monitor
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+
+    private Connection connection;
+    private long lastDataVersion = -1;
+    private long lastVersion = -1;
+    private long prunedThrough;
+    private long pollCount;
+    private long changeCount;
+
+    /**
+     * @param pollInterval how often to check for new changes
+     * @param retainedChanges log rows kept behind the feed's position before pruning, 0 to never prune
+     */
+    public ChangeFeed(DatabaseConnection databaseConnection, Duration pollInterval, long retainedChanges) {
+        this.databaseConnection = databaseConnection;
+        this.pollInterval = pollInterval;
+        this.retainedChanges = retainedChanges;
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Start from the current end of the log and poll in the background.
+     * Changes already in the log are not replayed.
+     */
+    public void start() {
+        poll();
+        long millis = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::pollSafely, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Poll on the feed's thread as soon as it is free instead of at the next interval.
+     * Requests made while one is already waiting are merged into it.
+     */
+    public void pollSoon() {
+        if (!pollRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            poller.execute(() -> {
+                pollRequested.set(false);
+                pollSafely();
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed; there is nobody left to tell
+            pollRequested.set(false);
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Keep polling; the connection is reopened on the next attempt
+            System.err.println("Change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check for new changes and deliver them to the listeners.
+     * The first call only records the current end of the log.
+     * @return the number of changes delivered
+     */
+    public int poll() {
+        lock.lock();
+        try {
+            try {
+                if (connection == null) {
+                    connection = databaseConnection.openDedicatedReadConnection();
+                }
+                pollCount++;
+
+                long dataVersion = dataVersion();
+                if (dataVersion == lastDataVersion) {
+                    return 0;
+                }
+                lastDataVersion = dataVersion;
+
+                if (lastVersion < 0) {
+                    lastVersion = latestVersion();
+                    return 0;
+                }
+
+                int delivered = 0;
+                List<ChangeEvent> batch;
+                do {
+                    batch = readAfter(lastVersion);
+                    if (!batch.isEmpty()) {
+                        lastVersion = batch.get(batch.size() - 1).getVersion();
+                        changeCount += batch.size();
+                        delivered += batch.size();
+                        deliver(batch);
+                    }
+                } while (batch.size() == BATCH_SIZE);
+
+                pruneIfDue();
+                return delivered;
+            } catch (SQLException e) {
+                closeConnection();
+                throw new RuntimeException("Error reading change log", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long dataVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private long latestVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM change_log")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private List<ChangeEvent> readAfter(long version) throws SQLException {
+        String sql = "SELECT version, table_name, operation, row_id, expense_id FROM change_log " +
+                "WHERE version > ? ORDER BY version LIMIT ?";
+        List<ChangeEvent> changes = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, version);
+            stmt.setInt(2, BATCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int expenseId = rs.getInt(5);
+                    Integer expense = rs.wasNull() ? null : expenseId;
+                    changes.add(new ChangeEvent(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4), expense));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private void deliver(List<ChangeEvent> changes) {
+        List<ChangeEvent> unmodifiable = List.copyOf(changes);
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChanges(unmodifiable);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete log rows far enough behind the feed, in steps so the writer is not held for long.
+     */
+    private void pruneIfDue() throws SQLException {
+        if (retainedChanges <= 0) {
+            return;
+        }
+        long pruneThrough = lastVersion - retainedChanges;
+        if (pruneThrough - prunedThrough < Math.max(1, retainedChanges / 10)) {
+            return;
+        }
+        try (Connection writer = databaseConnection.getWriteConnection();
+             PreparedStatement stmt = writer.prepareStatement("DELETE FROM change_log WHERE version <= ?")) {
+            stmt.setLong(1, pruneThrough);
+            stmt.executeUpdate();
+        }
+        prunedThrough = pruneThrough;
+    }
+
+    public long getLastVersion() {
+        lock.lock();
+        try {
+            return lastVersion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPollCount() {
+        lock.lock();
+        try {
+            return pollCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getChangeCount() {
+        lock.lock();
+        try {
+            return changeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing change feed connection: " + e.getMessage());
+            }
+            connection = null;
+            lastDataVersion = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+        lock.lock();
+        try {
+            closeConnection();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.revature.repository;
+
+import java.util.List;
+
+/**
+ * Receives batches of database changes from a ChangeFeed, in version order.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * Called on the change feed thread; slow work should be handed off.
+     * @param changes one or more changes, oldest first
+     */
+    void onChanges(List<ChangeEvent> changes);
+}
@@ -0,0 +1,425 @@
+package com.revature.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool.
+ * Hands out proxied connections whose close() returns the physical connection to the pool,
+ * validates connections on borrow, and reports connections held longer than the leak threshold.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long idleTimeoutMillis;
+
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Statistics
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder reclaimedStatementCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String name, ConnectionFactory factory, int minSize, int maxSize,
+                          long acquireTimeoutMillis, long leakThresholdMillis, long idleTimeoutMillis) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size for '" + name + "': min=" + minSize + ", max=" + maxSize);
+        }
+        this.name = name;
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-" + name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(leakThresholdMillis > 0 ? leakThresholdMillis / 2 : 30000, 30000));
+        housekeeper.scheduleAtFixedRate(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting up to the acquire timeout.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return pooled connection
+     * @throws SQLException if the pool is closed, the timeout elapses or a connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        return acquire(true);
+    }
+
+    /**
+     * Borrow a connection that may legitimately be held for as long as a client takes to read
+     * a streamed response, e.g. a CSV export. It is never reported as a possible leak.
+     *
+     * @return pooled connection
+     * @throws SQLException if the pool is closed, the timeout elapses or a connection cannot be opened
+     */
+    public Connection getStreamingConnection() throws SQLException {
+        return acquire(false);
+    }
+
+    private Connection acquire(boolean leakDetected) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long start = System.nanoTime();
+        waitingThreads.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection from pool '" + name + "'", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLException("Timed out after " + acquireTimeoutMillis + "ms waiting for a connection from pool '"
+                    + name + "' (active=" + active.size() + ", max=" + maxSize + ")");
+        }
+
+        try {
+            Connection physical = borrowPhysical();
+            PooledConnection pooled = new PooledConnection(physical, leakDetected);
+            active.add(pooled);
+            acquiredCount.increment();
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Snapshot of pool usage for sizing and monitoring.
+     * @return current pool statistics
+     */
+    public PoolStats getStats() {
+        long acquired = acquiredCount.sum();
+        return new PoolStats(
+                name,
+                minSize,
+                maxSize,
+                active.size(),
+                idle.size(),
+                totalConnections.get(),
+                waitingThreads.get(),
+                acquired,
+                timeoutCount.sum(),
+                createdCount.sum(),
+                validationFailureCount.sum(),
+                leakCount.sum(),
+                reclaimedStatementCount.sum(),
+                acquired == 0 ? 0.0 : totalWaitNanos.sum() / (double) acquired / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Close all idle connections and stop the housekeeping task.
+     * Connections still checked out are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.connection);
+        }
+    }
+
+    private Connection borrowPhysical() throws SQLException {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry.connection)) {
+                return entry.connection;
+            }
+            validationFailureCount.increment();
+            discard(entry.connection);
+        }
+        return openPhysical();
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = factory.create();
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return connection;
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+        try {
+            Connection physical = pooled.physical;
+            boolean reusable = !closed && resetForReuse(pooled);
+            if (reusable) {
+                // LIFO keeps the most recently used (warm) connections in rotation
+                idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            } else {
+                discard(physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetForReuse(PooledConnection pooled) {
+        try {
+            int reclaimed = pooled.closeOpenStatements();
+            if (reclaimed > 0) {
+                reclaimedStatementCount.add(reclaimed);
+                System.err.println("Warning: pool '" + name + "' closed " + reclaimed
+                        + " statement(s) left open by the previous borrower");
+            }
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Connection connection) {
+        totalConnections.decrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Ignore - the connection is being thrown away
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                idle.offerLast(new IdleConnection(openPhysical(), System.currentTimeMillis()));
+            } catch (SQLException e) {
+                System.err.println("Warning: pool '" + name + "' could not open connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : active) {
+                if (pooled.leakDetected && !pooled.leakReported && now - pooled.checkedOutAt > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    leakCount.increment();
+                    reportLeak(pooled, now);
+                }
+            }
+        }
+
+        // Retire connections that sat idle too long, but never drop below the minimum
+        if (idleTimeoutMillis > 0) {
+            List<IdleConnection> expired = new ArrayList<>();
+            for (IdleConnection entry : idle) {
+                if (now - entry.idleSince > idleTimeoutMillis && totalConnections.get() - expired.size() > minSize) {
+                    expired.add(entry);
+                }
+            }
+            for (IdleConnection entry : expired) {
+                if (idle.remove(entry)) {
+                    discard(entry.connection);
+                }
+            }
+        }
+
+        fillToMinimum();
+    }
+
+    /**
+     * Log a connection held past the leak threshold, with where its borrower is now.
+     * The stack is only taken here, so borrowing a connection never pays for one.
+     */
+    private void reportLeak(PooledConnection pooled, long now) {
+        Thread owner = pooled.owner;
+        StringBuilder message = new StringBuilder("Warning: possible connection leak in pool '").append(name)
+                .append("': connection held for ").append(now - pooled.checkedOutAt).append("ms by thread '")
+                .append(owner.getName()).append("'");
+        if (owner.isAlive()) {
+            message.append(", which is now at:");
+            for (StackTraceElement frame : owner.getStackTrace()) {
+                message.append(System.lineSeparator()).append("\tat ").append(frame);
+            }
+        } else {
+            message.append(", which has ended without returning it");
+        }
+        System.err.println(message);
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Logical connection handed to callers. Tracks the statements it creates so that anything
+     * left open (and the result sets hanging off it) is closed before the connection is reused.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final List<Statement> statements = new ArrayList<>();
+        private final long checkedOutAt = System.currentTimeMillis();
+        private final Thread owner = Thread.currentThread();
+        private final boolean leakDetected;
+        private volatile boolean leakReported;
+        private boolean logicallyClosed;
+
+        private PooledConnection(Connection physical, boolean leakDetected) {
+            this.physical = physical;
+            this.leakDetected = leakDetected;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            switch (methodName) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    break;
+            }
+
+            if (logicallyClosed) {
+                throw new SQLException("Connection has already been returned to pool '" + name + "'");
+            }
+
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof Statement) {
+                synchronized (statements) {
+                    statements.add((Statement) result);
+                }
+            }
+            return result;
+        }
+
+        private int closeOpenStatements() {
+            int reclaimed = 0;
+            synchronized (statements) {
+                for (Statement statement : statements) {
+                    try {
+                        if (!statement.isClosed()) {
+                            statement.close();
+                            reclaimed++;
+                        }
+                    } catch (SQLException e) {
+                        // Ignore - the statement is unusable either way
+                    }
+                }
+                statements.clear();
+            }
+            return reclaimed;
+        }
+    }
+}
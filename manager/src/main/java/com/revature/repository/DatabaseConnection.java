@@ -3,33 +3,53 @@ package com.revature.repository;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 import io.github.cdimascio.dotenv.Dotenv;
+import org.sqlite.SQLiteConfig;
 
 /**
  * Database connection utility for SQLite database. Handles connection
  * management for the shared expense manager database.
+ * Connections are served from bounded pools; closing a connection returns it to its pool.
+ * The database runs in WAL mode: reads use a pool of query-only connections and every
+ * mutation goes through a single writer connection, so readers never block behind writers.
  */
-public class DatabaseConnection {
+public class DatabaseConnection implements AutoCloseable {
+
+    private static final int DEFAULT_POOL_MIN_SIZE = 1;
+    private static final int DEFAULT_POOL_MAX_SIZE = 10;
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 5000;
+    private static final long DEFAULT_LEAK_THRESHOLD_MS = 30000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 600000;
+    private static final long DEFAULT_WRITE_ACQUIRE_TIMEOUT_MS = 10000;
+    private static final int DEFAULT_BUSY_TIMEOUT_MS = 5000;
+    private static final long DEFAULT_MMAP_SIZE = 268435456;  // 256 MiB
+    private static final int DEFAULT_CACHE_SIZE = -16000;     // negative = KiB, i.e. ~16 MiB per connection
 
     private final String databasePath;
+    private final Dotenv dotenv;
+    private final ConnectionPool writePool;
+    private final ConnectionPool readPool;
 
     public DatabaseConnection() {
         // Try environment variables first (for Docker), then .env file (for local dev)
         String testMode = System.getenv("TEST_MODE");
         String dbPath = System.getenv("DATABASE_PATH");
         String testDbPath = System.getenv("TEST_DATABASE_PATH");
+        Dotenv loadedDotenv = null;
 
         // Fallback to .env file if environment variables not set
         if (testMode == null || dbPath == null) {
             try {
-                Dotenv dotenv = Dotenv.configure()
+                loadedDotenv = Dotenv.configure()
                         .ignoreIfMissing()  // Don't throw exception if .env doesn't exist
                         .load();
 
-                testMode = testMode != null ? testMode : dotenv.get("TEST_MODE", "false");
-                dbPath = dbPath != null ? dbPath : dotenv.get("DATABASE_PATH");
-                testDbPath = testDbPath != null ? testDbPath : dotenv.get("TEST_DATABASE_PATH");
+                testMode = testMode != null ? testMode : loadedDotenv.get("TEST_MODE", "false");
+                dbPath = dbPath != null ? dbPath : loadedDotenv.get("DATABASE_PATH");
+                testDbPath = testDbPath != null ? testDbPath : loadedDotenv.get("TEST_DATABASE_PATH");
             } catch (Exception e) {
                 // If .env doesn't exist and no env vars, use defaults or fail gracefully
                 System.err.println("Warning: Could not load .env file: " + e.getMessage());
@@ -47,24 +67,211 @@ public class DatabaseConnection {
         }
 
         this.databasePath = "jdbc:sqlite:" + path;
+        this.dotenv = loadedDotenv;
+        // The writer opens first so WAL mode is in place before any reader connects
+        this.writePool = createWritePool();
+        this.readPool = createReadPool();
         System.out.println("Database configured at: " + this.databasePath);
     }
 
     public DatabaseConnection(String databasePath) {
         this.databasePath = databasePath;
+        this.dotenv = null;
+        this.writePool = createWritePool();
+        this.readPool = createReadPool();
     }
 
     /**
-     * Get a database connection.
+     * Get a read-write database connection.
+     * Equivalent to {@link #getWriteConnection()}.
      *
      * @return SQLite database connection
-     * @throws SQLException if connection fails
+     * @throws SQLException if the writer does not become available within the acquire timeout
      */
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(databasePath);
+        return getWriteConnection();
+    }
+
+    /**
+     * Get a query-only connection from the reader pool.
+     * The caller must close it (try-with-resources) to return it to the pool.
+     *
+     * @return read-only SQLite database connection
+     * @throws SQLException if no connection becomes available within the acquire timeout
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readPool.getConnection();
+    }
+
+    /**
+     * Get a query-only connection from the reader pool for a response streamed to a client,
+     * which holds it for as long as the client takes to read. It is exempt from leak warnings.
+     * The caller must close it (try-with-resources) to return it to the pool.
+     *
+     * @return read-only SQLite database connection
+     * @throws SQLException if no connection becomes available within the acquire timeout
+     */
+    public Connection getStreamingReadConnection() throws SQLException {
+        return readPool.getStreamingConnection();
+    }
+
+    /**
+     * Get the single writer connection. All inserts, updates and deletes go through it,
+     * so in-process writers queue here instead of failing with "database is locked".
+     * The caller must close it promptly to let the next writer in.
+     *
+     * @return read-write SQLite database connection
+     * @throws SQLException if the writer does not become available within the acquire timeout
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return writePool.getConnection();
+    }
+
+    /**
+     * Open a query-only connection outside the pools, for a long-lived consumer that
+     * needs the same connection every time (e.g. to watch PRAGMA data_version).
+     * The caller owns the connection and must close it.
+     *
+     * @return read-only SQLite database connection
+     * @throws SQLException if the database cannot be opened
+     */
+    public Connection openDedicatedReadConnection() throws SQLException {
+        return openQueryOnlyConnection(baseConfig());
+    }
+
+    /**
+     * @return most connections the reader pool will open
+     */
+    public int getReadPoolMaxSize() {
+        return readPool.getStats().getMaxSize();
     }
 
     public String getDatabasePath() {
         return databasePath;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get usage statistics for the reader and writer pools.
+     * @return current pool statistics
+     */
+    public List<PoolStats> getPoolStats() {
+        return List.of(readPool.getStats(), writePool.getStats());
+    }
+
+    /**
+     * Close the connection pools and all idle connections.
+     */
+    @Override
+    public void close() {
+        readPool.close();
+        writePool.close();
+    }
+
+    private ConnectionPool createWritePool() {
+        SQLiteConfig config = baseConfig();
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        // Take the write lock when a transaction starts rather than on its first write
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        if ("WAL".equalsIgnoreCase(journalMode())) {
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        }
+
+        return new ConnectionPool(
+                "writer",
+                () -> DriverManager.getConnection(databasePath, config.toProperties()),
+                1,
+                1,
+                longSetting("DB_WRITE_ACQUIRE_TIMEOUT_MS", DEFAULT_WRITE_ACQUIRE_TIMEOUT_MS),
+                longSetting("DB_POOL_LEAK_THRESHOLD_MS", DEFAULT_LEAK_THRESHOLD_MS),
+                0
+        );
+    }
+
+    private ConnectionPool createReadPool() {
+        SQLiteConfig config = baseConfig();
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(longSetting("DB_MMAP_SIZE", DEFAULT_MMAP_SIZE)));
+
+        int minSize = intSetting("DB_POOL_MIN_SIZE", DEFAULT_POOL_MIN_SIZE);
+        int maxSize = intSetting("DB_POOL_MAX_SIZE", DEFAULT_POOL_MAX_SIZE);
+        return new ConnectionPool(
+                "reader",
+                () -> openQueryOnlyConnection(config),
+                Math.min(minSize, maxSize),
+                maxSize,
+                longSetting("DB_POOL_ACQUIRE_TIMEOUT_MS", DEFAULT_ACQUIRE_TIMEOUT_MS),
+                longSetting("DB_POOL_LEAK_THRESHOLD_MS", DEFAULT_LEAK_THRESHOLD_MS),
+                longSetting("DB_POOL_IDLE_TIMEOUT_MS", DEFAULT_IDLE_TIMEOUT_MS)
+        );
+    }
+
+    private Connection openQueryOnlyConnection(SQLiteConfig config) throws SQLException {
+        Connection connection = DriverManager.getConnection(databasePath, config.toProperties());
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        // Wait for locks held by other processes (the employee app) instead of failing immediately
+        config.setBusyTimeout(intSetting("DB_BUSY_TIMEOUT_MS", DEFAULT_BUSY_TIMEOUT_MS));
+        config.setCacheSize(intSetting("DB_CACHE_SIZE", DEFAULT_CACHE_SIZE));
+        return config;
+    }
+
+    private String journalMode() {
+        String mode = setting("DB_JOURNAL_MODE");
+        return mode == null || mode.isBlank() ? "WAL" : mode.trim();
+    }
+
+    /**
+     * Read a setting from the environment, falling back to the .env file.
+     * @param key the setting name
+     * @return the configured value, or null if unset
+     */
+    public String setting(String key) {
+        String value = System.getenv(key);
+        if (value == null && dotenv != null) {
+            value = dotenv.get(key);
+        }
+        return value;
+    }
+
+    /**
+     * Read a numeric setting, falling back to a default when it is unset or invalid.
+     */
+    public int intSetting(String key, int defaultValue) {
+        return (int) longSetting(key, defaultValue);
+    }
+
+    /**
+     * Read a numeric setting, falling back to a default when it is unset or invalid.
+     */
+    public long longSetting(String key, long defaultValue) {
+        String value = setting(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Read a true/false setting, falling back to a default when it is unset.
+     */
+    public boolean booleanSetting(String key, boolean defaultValue) {
+        String value = setting(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+}
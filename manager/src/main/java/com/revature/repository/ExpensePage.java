@@ -0,0 +1,31 @@
+package com.revature.repository;
+
+import java.util.List;
+
+/**
+ * One page of expenses in newest-first order, with the cursor for the next page.
+ */
+public class ExpensePage {
+    private final List<ExpenseWithUser> items;
+    private final PageCursor nextCursor;
+
+    public ExpensePage(List<ExpenseWithUser> items, PageCursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExpenseWithUser> getItems() {
+        return items;
+    }
+
+    /**
+     * @return cursor for the following page, or null if this is the last page
+     */
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,521 @@
+package com.revature.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the users, expenses and approvals tables, indexed by date, user and
+ * approval status so the dashboard's list queries are answered without SQL.
+ * Loaded once, then kept current by re-reading the rows named in change feed events and,
+ * right after they commit, the approvals this app writes. Because changed rows are always
+ * re-read from the database, the copy converges on the database whatever order updates
+ * arrive in. Results match ExpenseRepository's: the same inner join, newest first.
+ * Reads share a lock; loading and applying changes take it exclusively.
+ */
+public class ExpenseProjection implements ChangeListener {
+    private static final String SELECT_USERS = "SELECT id, username, role FROM users";
+    private static final String SELECT_EXPENSES = "SELECT id, user_id, amount, description, date FROM expenses";
+    private static final String SELECT_APPROVALS = "SELECT id, expense_id, status, reviewer, comment, review_date, version FROM approvals";
+    private static final String SELECT_LOG_VERSION = "SELECT COALESCE(MAX(version), 0) FROM change_log";
+    /** Largest IN list used when re-reading changed rows. */
+    private static final int RELOAD_CHUNK_SIZE = 500;
+    /** Differences listed in a consistency check before the rest are only counted. */
+    private static final int MAX_REPORTED_DIFFERENCES = 20;
+
+    // Same order as ExpenseRepository: e.date DESC, e.id DESC
+    private static final Comparator<ExpenseRecord> NEWEST_FIRST =
+            Comparator.comparing(ExpenseRecord::date).thenComparingInt(ExpenseRecord::id).reversed();
+
+    private final DatabaseConnection databaseConnection;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Tables tables = new Tables();
+    private boolean loaded;
+    private long appliedVersion;
+    private long changesApplied;
+    private long rowsReloaded;
+    private long lastLoadMillis;
+
+    public ExpenseProjection(DatabaseConnection databaseConnection) {
+        this.databaseConnection = databaseConnection;
+    }
+
+    /**
+     * Replace the projection with a fresh copy of the database.
+     * Start the change feed first, so no change falls between the copy and the feed.
+     */
+    public void load() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try (Connection conn = databaseConnection.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // One read transaction, so the tables and the log version are a consistent snapshot
+                appliedVersion = readLogVersion(conn);
+                tables = readTables(conn);
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            loaded = true;
+            lastLoadMillis = (System.nanoTime() - started) / 1_000_000;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading expense projection", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply changes from the change feed by re-reading the changed rows.
+     * Changes already covered by the last load or check are skipped.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> changes) {
+        lock.writeLock().lock();
+        try (Connection conn = databaseConnection.getReadConnection()) {
+            if (!loaded) {
+                return;
+            }
+            applyChanges(conn, changes);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error applying changes to expense projection", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read the approval for one expense, e.g. straight after this app reviewed it,
+     * so the next read reflects the review without waiting for the change feed.
+     * @param expenseId the expense whose approval changed
+     */
+    public void refreshApproval(int expenseId) {
+        refreshApprovals(List.of(expenseId));
+    }
+
+    /**
+     * Re-read the approvals for several expenses, e.g. after a batch review.
+     * @param expenseIds the expenses whose approvals changed
+     */
+    public void refreshApprovals(Collection<Integer> expenseIds) {
+        lock.writeLock().lock();
+        try (Connection conn = databaseConnection.getReadConnection()) {
+            if (!loaded || expenseIds.isEmpty()) {
+                return;
+            }
+            reload(conn, SELECT_APPROVALS, "expense_id", new LinkedHashSet<>(expenseIds),
+                    rs -> tables.putApproval(mapApproval(rs)), tables::removeApprovalForExpense);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error refreshing approvals for " + expenseIds.size() + " expenses", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Answer an expense query from memory.
+     * @return the matching expenses newest first, or null if the query needs SQL
+     *         (category searches) or the projection is not loaded
+     */
+    public List<ExpenseWithUser> find(ExpenseQuery query) {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return null;
+            }
+            List<Object> parameters = query.getParameters();
+            switch (query.getType()) {
+                case ALL:
+                    return join(tables.byDate);
+                case PENDING:
+                    return join(tables.byStatus.getOrDefault("pending", emptySet()));
+                case USER:
+                    return join(tables.byUser.getOrDefault((Integer) parameters.get(0), emptySet()));
+                case DATE_RANGE:
+                    return join(dateRange((String) parameters.get(0), (String) parameters.get(1)));
+                default:
+                    return null;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableSet<ExpenseRecord> dateRange(String startDate, String endDate) {
+        if (startDate.compareTo(endDate) > 0) {
+            return emptySet();
+        }
+        // Newest first, so the range runs from the end date down to the start date
+        return tables.byDate.subSet(new ExpenseRecord(Integer.MAX_VALUE, 0, 0, null, endDate), true,
+                new ExpenseRecord(Integer.MIN_VALUE, 0, 0, null, startDate), true);
+    }
+
+    private List<ExpenseWithUser> join(Collection<ExpenseRecord> expenses) {
+        List<ExpenseWithUser> results = new ArrayList<>(expenses.size());
+        for (ExpenseRecord expense : expenses) {
+            UserRecord user = tables.users.get(expense.userId());
+            ApprovalRecord approval = tables.approvalsByExpense.get(expense.id());
+            // Inner join, as in SQL: skip expenses whose user or approval is missing
+            if (user != null && approval != null) {
+                results.add(toExpenseWithUser(expense, user, approval));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Compare the projection with the database. Changes logged since the last applied
+     * version are applied first, so only real divergence is reported.
+     * @param repair if true and differences are found, reload the projection from the same snapshot
+     */
+    public ProjectionCheckResult check(boolean repair) {
+        lock.writeLock().lock();
+        try (Connection conn = databaseConnection.getReadConnection()) {
+            if (!loaded) {
+                throw new IllegalStateException("Expense projection is not loaded");
+            }
+            conn.setAutoCommit(false);
+            try {
+                long version = readLogVersion(conn);
+                applyChanges(conn, readLogSince(conn, appliedVersion));
+
+                Tables database = readTables(conn);
+                List<String> differences = new ArrayList<>();
+                int differenceCount = compare("user", tables.users, database.users, differences)
+                        + compare("expense", tables.expenses, database.expenses, differences)
+                        + compare("approval", tables.approvalsByExpense, database.approvalsByExpense, differences)
+                        + checkIndexes(differences);
+
+                boolean repaired = false;
+                if (differenceCount > 0 && repair) {
+                    tables = database;
+                    appliedVersion = version;
+                    repaired = true;
+                }
+                return new ProjectionCheckResult(differenceCount == 0, version, database.expenses.size(),
+                        differenceCount, differences, repaired);
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking expense projection", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <K, V> int compare(String kind, Map<K, V> inMemory, Map<K, V> inDatabase, List<String> differences) {
+        int count = 0;
+        for (Map.Entry<K, V> entry : inDatabase.entrySet()) {
+            V held = inMemory.get(entry.getKey());
+            if (held == null) {
+                count += report(differences, kind + " " + entry.getKey() + " missing from projection");
+            } else if (!held.equals(entry.getValue())) {
+                count += report(differences, kind + " " + entry.getKey() + " differs: projection " + held
+                        + ", database " + entry.getValue());
+            }
+        }
+        for (K key : inMemory.keySet()) {
+            if (!inDatabase.containsKey(key)) {
+                count += report(differences, kind + " " + key + " no longer in database");
+            }
+        }
+        return count;
+    }
+
+    private int checkIndexes(List<String> differences) {
+        int count = 0;
+        if (tables.byDate.size() != tables.expenses.size()) {
+            count += report(differences, "date index has " + tables.byDate.size() + " entries for "
+                    + tables.expenses.size() + " expenses");
+        }
+        int byUser = tables.byUser.values().stream().mapToInt(Set::size).sum();
+        if (byUser != tables.expenses.size()) {
+            count += report(differences, "user index has " + byUser + " entries for " + tables.expenses.size() + " expenses");
+        }
+        long withApproval = tables.expenses.keySet().stream().filter(tables.approvalsByExpense::containsKey).count();
+        int byStatus = tables.byStatus.values().stream().mapToInt(Set::size).sum();
+        if (byStatus != withApproval) {
+            count += report(differences, "status index has " + byStatus + " entries for " + withApproval
+                    + " expenses with approvals");
+        }
+        return count;
+    }
+
+    private static int report(List<String> differences, String difference) {
+        if (differences.size() < MAX_REPORTED_DIFFERENCES) {
+            differences.add(difference);
+        }
+        return 1;
+    }
+
+    public ProjectionStats getStats() {
+        lock.readLock().lock();
+        try {
+            return new ProjectionStats(loaded, tables.users.size(), tables.expenses.size(),
+                    tables.approvalsByExpense.size(), tables.byStatus.getOrDefault("pending", emptySet()).size(),
+                    appliedVersion, changesApplied, rowsReloaded, lastLoadMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Applying changes (caller holds the write lock) ---
+
+    private void applyChanges(Connection conn, List<ChangeEvent> changes) throws SQLException {
+        Set<Integer> userIds = new LinkedHashSet<>();
+        Set<Integer> expenseIds = new LinkedHashSet<>();
+        Set<Integer> approvalIds = new LinkedHashSet<>();
+        long newestVersion = appliedVersion;
+        for (ChangeEvent change : changes) {
+            if (change.getVersion() <= appliedVersion) {
+                continue;
+            }
+            newestVersion = Math.max(newestVersion, change.getVersion());
+            changesApplied++;
+            if (change.isFor(ChangeEvent.USERS)) {
+                userIds.add(change.getRowId());
+            } else if (change.isFor(ChangeEvent.EXPENSES)) {
+                expenseIds.add(change.getRowId());
+            } else if (change.isFor(ChangeEvent.APPROVALS)) {
+                approvalIds.add(change.getRowId());
+            }
+        }
+
+        // Expenses before approvals, so a new approval finds its expense for the status index
+        reload(conn, SELECT_USERS, "id", userIds, rs -> tables.users.put(rs.getInt(1), mapUser(rs)), tables.users::remove);
+        reload(conn, SELECT_EXPENSES, "id", expenseIds, rs -> tables.putExpense(mapExpense(rs)), tables::removeExpense);
+        reload(conn, SELECT_APPROVALS, "id", approvalIds, rs -> tables.putApproval(mapApproval(rs)), tables::removeApproval);
+        appliedVersion = newestVersion;
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowRemover {
+        void remove(int id);
+    }
+
+    /**
+     * Re-read rows by an integer key column; keys with no row any more are removed.
+     */
+    private void reload(Connection conn, String select, String keyColumn, Set<Integer> ids, RowConsumer upsert,
+                        RowRemover remove) throws SQLException {
+        List<Integer> pending = new ArrayList<>(ids);
+        for (int start = 0; start < pending.size(); start += RELOAD_CHUNK_SIZE) {
+            List<Integer> chunk = pending.subList(start, Math.min(start + RELOAD_CHUNK_SIZE, pending.size()));
+            String sql = select + " WHERE " + keyColumn + " IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            Set<Integer> missing = new HashSet<>(chunk);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        missing.remove(rs.getInt(keyColumn));
+                        upsert.accept(rs);
+                    }
+                }
+            }
+            for (Integer id : missing) {
+                remove.remove(id);
+            }
+            rowsReloaded += chunk.size();
+        }
+    }
+
+    private static long readLogVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_LOG_VERSION)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static List<ChangeEvent> readLogSince(Connection conn, long version) throws SQLException {
+        String sql = "SELECT version, table_name, operation, row_id, expense_id FROM change_log WHERE version > ? ORDER BY version";
+        List<ChangeEvent> changes = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int expenseId = rs.getInt(5);
+                    Integer expense = rs.wasNull() ? null : expenseId;
+                    changes.add(new ChangeEvent(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4), expense));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private static Tables readTables(Connection conn) throws SQLException {
+        Tables tables = new Tables();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(SELECT_USERS)) {
+                while (rs.next()) {
+                    tables.users.put(rs.getInt(1), mapUser(rs));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(SELECT_EXPENSES)) {
+                while (rs.next()) {
+                    tables.putExpense(mapExpense(rs));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(SELECT_APPROVALS)) {
+                while (rs.next()) {
+                    tables.putApproval(mapApproval(rs));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static UserRecord mapUser(ResultSet rs) throws SQLException {
+        return new UserRecord(rs.getInt(1), rs.getString(2), rs.getString(3));
+    }
+
+    private static ExpenseRecord mapExpense(ResultSet rs) throws SQLException {
+        return new ExpenseRecord(rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getString(4), rs.getString(5));
+    }
+
+    private static ApprovalRecord mapApproval(ResultSet rs) throws SQLException {
+        int reviewer = rs.getInt(4);
+        Integer reviewerId = rs.wasNull() ? null : reviewer;
+        return new ApprovalRecord(rs.getInt(1), rs.getInt(2), rs.getString(3), reviewerId, rs.getString(5),
+                rs.getString(6), rs.getInt(7));
+    }
+
+    // Fresh objects per result, as from ExpenseRepository, so callers cannot change the projection
+    private static ExpenseWithUser toExpenseWithUser(ExpenseRecord e, UserRecord u, ApprovalRecord a) {
+        User user = new User();
+        user.setId(u.id());
+        user.setUsername(u.username());
+        user.setRole(u.role());
+        return new ExpenseWithUser(
+                new Expense(e.id(), e.userId(), e.amount(), e.description(), e.date()),
+                user,
+                new Approval(a.id(), a.expenseId(), a.status(), a.reviewer(), a.comment(), a.reviewDate(),
+                        a.version()));
+    }
+
+    private static NavigableSet<ExpenseRecord> emptySet() {
+        return Collections.emptyNavigableSet();
+    }
+
+    private record UserRecord(int id, String username, String role) {
+    }
+
+    private record ExpenseRecord(int id, int userId, double amount, String description, String date) {
+    }
+
+    private record ApprovalRecord(int id, int expenseId, String status, Integer reviewer, String comment,
+                                  String reviewDate, int version) {
+    }
+
+    /**
+     * Rows keyed by primary key (approvals by expense), plus the secondary indexes.
+     * Every expense is in the date and user indexes; an expense with an approval is
+     * also in the index for that approval's status.
+     */
+    private static final class Tables {
+        private final Map<Integer, UserRecord> users = new HashMap<>();
+        private final Map<Integer, ExpenseRecord> expenses = new HashMap<>();
+        private final Map<Integer, ApprovalRecord> approvalsByExpense = new HashMap<>();
+        private final Map<Integer, Integer> expenseIdsByApproval = new HashMap<>();
+        private final NavigableSet<ExpenseRecord> byDate = new TreeSet<>(NEWEST_FIRST);
+        private final Map<Integer, NavigableSet<ExpenseRecord>> byUser = new HashMap<>();
+        private final Map<String, NavigableSet<ExpenseRecord>> byStatus = new HashMap<>();
+
+        void putExpense(ExpenseRecord expense) {
+            removeExpense(expense.id());
+            expenses.put(expense.id(), expense);
+            byDate.add(expense);
+            byUser.computeIfAbsent(expense.userId(), k -> new TreeSet<>(NEWEST_FIRST)).add(expense);
+            ApprovalRecord approval = approvalsByExpense.get(expense.id());
+            if (approval != null) {
+                addToStatus(approval.status(), expense);
+            }
+        }
+
+        void removeExpense(int expenseId) {
+            ExpenseRecord old = expenses.remove(expenseId);
+            if (old == null) {
+                return;
+            }
+            byDate.remove(old);
+            removeFrom(byUser, old.userId(), old);
+            ApprovalRecord approval = approvalsByExpense.get(expenseId);
+            if (approval != null) {
+                removeFrom(byStatus, approval.status(), old);
+            }
+        }
+
+        void putApproval(ApprovalRecord approval) {
+            removeApproval(approval.id());
+            ApprovalRecord displaced = approvalsByExpense.get(approval.expenseId());
+            if (displaced != null) {
+                removeApproval(displaced.id());
+            }
+            approvalsByExpense.put(approval.expenseId(), approval);
+            expenseIdsByApproval.put(approval.id(), approval.expenseId());
+            ExpenseRecord expense = expenses.get(approval.expenseId());
+            if (expense != null) {
+                addToStatus(approval.status(), expense);
+            }
+        }
+
+        void removeApprovalForExpense(int expenseId) {
+            ApprovalRecord current = approvalsByExpense.get(expenseId);
+            if (current != null) {
+                removeApproval(current.id());
+            }
+        }
+
+        void removeApproval(int approvalId) {
+            Integer expenseId = expenseIdsByApproval.remove(approvalId);
+            if (expenseId == null) {
+                return;
+            }
+            ApprovalRecord old = approvalsByExpense.remove(expenseId);
+            ExpenseRecord expense = expenses.get(expenseId);
+            if (old != null && expense != null) {
+                removeFrom(byStatus, old.status(), expense);
+            }
+        }
+
+        private void addToStatus(String status, ExpenseRecord expense) {
+            byStatus.computeIfAbsent(status, k -> new TreeSet<>(NEWEST_FIRST)).add(expense);
+        }
+
+        private static <K> void removeFrom(Map<K, NavigableSet<ExpenseRecord>> index, K key, ExpenseRecord expense) {
+            NavigableSet<ExpenseRecord> set = index.get(key);
+            if (set != null) {
+                set.remove(expense);
+                if (set.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.revature.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filter for the expense-with-user queries in ExpenseRepository.
+ * Each query contributes an optional WHERE condition over the aliases e (expenses),
+ * u (users) and a (approvals), plus the parameters it binds. A query may also join
+ * extra tables and rank its results ahead of the default newest-first order.
+ * Queries are value objects, so they can be used as cache and coalescing keys.
+ */
+public final class ExpenseQuery {
+
+    public enum Type {
+        ALL, PENDING, USER, DATE_RANGE, CATEGORY
+    }
+
+    // Runs of letters and digits in a category, e.g. "Hotel, Paris" -> [Hotel, Paris]
+    private static final Pattern SEARCH_TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private final Type type;
+    private final String join;
+    private final String condition;
+    private final String ranking;
+    private final List<Object> parameters;
+    private final String description;
+
+    private ExpenseQuery(Type type, String condition, List<Object> parameters, String description) {
+        this(type, null, condition, null, parameters, description);
+    }
+
+    private ExpenseQuery(Type type, String join, String condition, String ranking, List<Object> parameters, String description) {
+        this.type = type;
+        this.join = join;
+        this.condition = condition;
+        this.ranking = ranking;
+        this.parameters = parameters;
+        this.description = description;
+    }
+
+    /**
+     * All expenses.
+     */
+    public static ExpenseQuery all() {
+        return new ExpenseQuery(Type.ALL, null, List.of(), "all expenses");
+    }
+
+    /**
+     * Expenses whose approval is still pending.
+     */
+    public static ExpenseQuery pending() {
+        return new ExpenseQuery(Type.PENDING, "a.status = 'pending'", List.of(), "pending expenses");
+    }
+
+    /**
+     * Expenses submitted by one user.
+     * @param userId the user ID
+     */
+    public static ExpenseQuery byUser(int userId) {
+        return new ExpenseQuery(Type.USER, "e.user_id = ?", List.of(userId), "expenses for user: " + userId);
+    }
+
+    /**
+     * Expenses dated within a range.
+     * @param startDate start date (inclusive)
+     * @param endDate end date (inclusive)
+     */
+    public static ExpenseQuery byDateRange(String startDate, String endDate) {
+        return new ExpenseQuery(Type.DATE_RANGE, "e.date >= ? AND e.date <= ?", List.of(startDate, endDate),
+                "expenses by date range: " + startDate + " to " + endDate);
+    }
+
+    /**
+     * Expenses whose description matches the category text, best matches first.
+     * Each word of the category matches description words starting with it, so "hot"
+     * finds "Hotel stay"; every word must match. Uses the expenses_fts full-text index.
+     * A category with no letters or digits falls back to a substring match.
+     * @param category the description/category to filter by
+     */
+    public static ExpenseQuery byCategory(String category) {
+        String description = "expenses by category: " + category;
+        String match = toMatchExpression(category);
+        if (match == null) {
+            return new ExpenseQuery(Type.CATEGORY, "e.description LIKE ?", List.of("%" + category + "%"), description);
+        }
+        return new ExpenseQuery(Type.CATEGORY, "JOIN expenses_fts f ON f.rowid = e.id", "f.expenses_fts MATCH ?",
+                "f.rank", List.of(match), description);
+    }
+
+    /**
+     * Build an FTS5 prefix query from free text: each token is quoted, so FTS5 operators and
+     * punctuation in the input are treated as plain text.
+     * @return the MATCH expression, or null if the text has no searchable tokens
+     */
+    static String toMatchExpression(String text) {
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = SEARCH_TOKEN.matcher(text);
+        while (matcher.find()) {
+            terms.add("\"" + matcher.group() + "\"*");
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return extra JOIN clause needed by the condition, or null if none
+     */
+    public String getJoin() {
+        return join;
+    }
+
+    /**
+     * @return the SQL condition for this query, or null if it matches every row
+     */
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return expression to order by ahead of newest-first (lower ranks first), or null
+     */
+    public String getRanking() {
+        return ranking;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return human-readable description, used in error messages and logs
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Bind this query's parameters to a statement.
+     * @param stmt the statement
+     * @param startIndex index of the first parameter placeholder
+     * @return index of the next free placeholder
+     */
+    public int bind(PreparedStatement stmt, int startIndex) throws SQLException {
+        int index = startIndex;
+        for (Object parameter : parameters) {
+            if (parameter instanceof Integer) {
+                stmt.setInt(index++, (Integer) parameter);
+            } else {
+                stmt.setString(index++, (String) parameter);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpenseQuery)) return false;
+        ExpenseQuery that = (ExpenseQuery) o;
+        return type == that.type && parameters.equals(that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, parameters);
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseQuery{" + description + '}';
+    }
+}
@@ -1,11 +1,19 @@
 package com.revature.repository;
 
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -13,10 +21,58 @@ import java.util.Optional;
  * Handles database interactions for expense management and reporting.
  */
 public class ExpenseRepository {
+    private static final String SELECT_EXPENSES_WITH_USERS = """
+        SELECT e.id, e.user_id, e.amount, e.description, e.date,
+               u.username, u.role,
+               a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date, a.version
+        FROM expenses e
+        JOIN users u ON e.user_id = u.id
+        JOIN approvals a ON e.id = a.expense_id
+        """;
+    private static final String NEWEST_FIRST = "ORDER BY e.date DESC, e.id DESC";
+    
     private final DatabaseConnection databaseConnection;
+    private final QueryTimer findByIdTimer;
+    private final Map<ExpenseQuery.Type, QueryTimer> findExpensesWithUsersTimers;
+    private final Map<ExpenseQuery.Type, QueryTimer> forEachExpenseTimers;
+    private final Map<ExpenseQuery.Type, QueryTimer> findExpensesPageTimers;
+    private final QueryTimer getDataVersionTimer;
     
     public ExpenseRepository(DatabaseConnection databaseConnection) {
+        this(databaseConnection, new QueryMetrics());
+    }
+    
+    /**
+     * @param queryMetrics where the time spent in each query is recorded, per query type for
+     * the methods that take an ExpenseQuery, e.g. findExpensesWithUsers:pending
+     */
+    public ExpenseRepository(DatabaseConnection databaseConnection, QueryMetrics queryMetrics) {
         this.databaseConnection = databaseConnection;
+        this.findByIdTimer = queryMetrics.timer("ExpenseRepository", "findById");
+        this.findExpensesWithUsersTimers = timersByType(queryMetrics, "findExpensesWithUsers");
+        this.forEachExpenseTimers = timersByType(queryMetrics, "forEachExpense");
+        this.findExpensesPageTimers = timersByType(queryMetrics, "findExpensesPage");
+        this.getDataVersionTimer = queryMetrics.timer("ExpenseRepository", "getDataVersion");
+    }
+    
+    /**
+     * Get a stamp that changes whenever users, expenses or approvals change, from either app.
+     * It is the last version handed out by the change log, which keeps growing even after old
+     * log rows are pruned, so equal stamps mean no write happened in between.
+     * @return the current data version, 0 before the first change
+     */
+    public long getDataVersion() {
+        String sql = "SELECT COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'change_log'), 0)";
+        
+        try (Connection conn = databaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = getDataVersionTimer.executeQuery(stmt)) {
+            
+            return rs.next() ? rs.getLong(1) : 0L;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading data version", e);
+        }
     }
     
     /**
@@ -27,11 +83,11 @@ public class ExpenseRepository {
     public Optional<Expense> findById(int expenseId) {
         String sql = "SELECT id, user_id, amount, description, date FROM expenses WHERE id = ?";
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, expenseId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = findByIdTimer.executeQuery(stmt);
             
             if (rs.next()) {
                 return Optional.of(mapRowToExpense(rs));
@@ -49,33 +105,7 @@ public class ExpenseRepository {
      * @return List of ExpenseWithUser objects for pending expenses
      */
     public List<ExpenseWithUser> findPendingExpensesWithUsers() {
-        String sql = """
-            SELECT e.id, e.user_id, e.amount, e.description, e.date,
-                   u.username, u.role,
-                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
-            FROM expenses e
-            JOIN users u ON e.user_id = u.id
-            JOIN approvals a ON e.id = a.expense_id
-            WHERE a.status = 'pending'
-            ORDER BY e.date DESC
-            """;
-        
-        List<ExpenseWithUser> results = new ArrayList<>();
-        
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                results.add(mapRowToExpenseWithUser(rs));
-            }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding pending expenses", e);
-        }
-        
-        return results;
+        return findExpensesWithUsers(ExpenseQuery.pending());
     }
     
     /**
@@ -84,34 +114,7 @@ public class ExpenseRepository {
      * @return List of ExpenseWithUser objects
      */
     public List<ExpenseWithUser> findExpensesByUser(int userId) {
-        String sql = """
-            SELECT e.id, e.user_id, e.amount, e.description, e.date,
-                   u.username, u.role,
-                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
-            FROM expenses e
-            JOIN users u ON e.user_id = u.id
-            JOIN approvals a ON e.id = a.expense_id
-            WHERE e.user_id = ?
-            ORDER BY e.date DESC
-            """;
-        
-        List<ExpenseWithUser> results = new ArrayList<>();
-        
-        try (Connection conn = databaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                results.add(mapRowToExpenseWithUser(rs));
-            }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding expenses for user: " + userId, e);
-        }
-        
-        return results;
+        return findExpensesWithUsers(ExpenseQuery.byUser(userId));
     }
     
     /**
@@ -121,104 +124,153 @@ public class ExpenseRepository {
      * @return List of ExpenseWithUser objects
      */
     public List<ExpenseWithUser> findExpensesByDateRange(String startDate, String endDate) {
-        String sql = """
-            SELECT e.id, e.user_id, e.amount, e.description, e.date,
-                   u.username, u.role,
-                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
-            FROM expenses e
-            JOIN users u ON e.user_id = u.id
-            JOIN approvals a ON e.id = a.expense_id
-            WHERE e.date >= ? AND e.date <= ?
-            ORDER BY e.date DESC
-            """;
+        return findExpensesWithUsers(ExpenseQuery.byDateRange(startDate, endDate));
+    }
+    
+    /**
+     * Get expenses grouped by description (category).
+     * @param category the description/category to filter by
+     * @return List of ExpenseWithUser objects
+     */
+    public List<ExpenseWithUser> findExpensesByCategory(String category) {
+        return findExpensesWithUsers(ExpenseQuery.byCategory(category));
+    }
+    
+    /**
+     * Get all expenses with their user and approval information.
+     * @return List of all ExpenseWithUser objects
+     */
+    public List<ExpenseWithUser> findAllExpensesWithUsers() {
+        return findExpensesWithUsers(ExpenseQuery.all());
+    }
+    
+    /**
+     * Get every expense matching a query, best ranked first for ranked queries, then newest first.
+     * @param query the expense filter
+     * @return List of ExpenseWithUser objects
+     */
+    public List<ExpenseWithUser> findExpensesWithUsers(ExpenseQuery query) {
+        String sql = select(query) + where(query.getCondition()) + orderBy(query);
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, startDate);
-            stmt.setString(2, endDate);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                results.add(mapRowToExpenseWithUser(rs));
+            query.bind(stmt, 1);
+            try (ResultSet rs = findExpensesWithUsersTimers.get(query.getType()).executeQuery(stmt)) {
+                while (rs.next()) {
+                    results.add(mapRowToExpenseWithUser(rs));
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding expenses by date range: " + startDate + " to " + endDate, e);
+            throw new RuntimeException("Error finding " + query.getDescription(), e);
         }
         
         return results;
     }
     
     /**
-     * Get expenses grouped by description (category).
-     * @param category the description/category to filter by
-     * @return List of ExpenseWithUser objects
+     * Stream every expense matching a query, in the same order as findExpensesWithUsers,
+     * without materializing the rows.
+     * The handler sees each row while the cursor is positioned on it.
+     * @param query the expense filter
+     * @param handler callback invoked once per row
+     * @return number of rows handled
+     * @throws UncheckedIOException if the handler fails to write a row; the query is abandoned
      */
-    public List<ExpenseWithUser> findExpensesByCategory(String category) {
-        String sql = """
-            SELECT e.id, e.user_id, e.amount, e.description, e.date,
-                   u.username, u.role,
-                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
-            FROM expenses e
-            JOIN users u ON e.user_id = u.id
-            JOIN approvals a ON e.id = a.expense_id
-            WHERE e.description LIKE ?
-            ORDER BY e.date DESC
-            """;
+    public int forEachExpense(ExpenseQuery query, ExpenseRowHandler handler) {
+        String sql = select(query) + where(query.getCondition()) + orderBy(query);
         
-        List<ExpenseWithUser> results = new ArrayList<>();
-        
-        try (Connection conn = databaseConnection.getConnection();
+        // Held while a slow client reads, so not reported as a leak
+        try (Connection conn = databaseConnection.getStreamingReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, "%" + category + "%");
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                results.add(mapRowToExpenseWithUser(rs));
+            query.bind(stmt, 1);
+            try (ResultSet rs = forEachExpenseTimers.get(query.getType()).executeQuery(stmt)) {
+                ExpenseRow row = new ExpenseRow(rs);
+                int count = 0;
+                while (rs.next()) {
+                    handler.handle(row);
+                    count++;
+                }
+                return count;
             }
             
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error streaming " + query.getDescription(), e);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding expenses by category: " + category, e);
+            throw new RuntimeException("Error finding " + query.getDescription(), e);
         }
-        
-        return results;
     }
     
     /**
-     * Get all expenses with their user and approval information.
-     * @return List of all ExpenseWithUser objects
+     * Get one page of expenses matching a query, newest first.
+     * Uses a keyset seek on (date, id), so the cost of a page does not grow with its position.
+     * Pages are always newest first, even for ranked queries, so the seek stays valid.
+     * @param query the expense filter
+     * @param after cursor from the previous page, or null for the first page
+     * @param limit maximum number of expenses to return
+     * @return the page and the cursor for the next one
      */
-    public List<ExpenseWithUser> findAllExpensesWithUsers() {
-        String sql = """
-            SELECT e.id, e.user_id, e.amount, e.description, e.date,
-                   u.username, u.role,
-                   a.id as approval_id, a.status, a.reviewer, a.comment, a.review_date
-            FROM expenses e
-            JOIN users u ON e.user_id = u.id
-            JOIN approvals a ON e.id = a.expense_id
-            ORDER BY e.date DESC
-            """;
+    public ExpensePage findExpensesPage(ExpenseQuery query, PageCursor after, int limit) {
+        String condition = query.getCondition();
+        if (after != null) {
+            String seek = "(e.date < ? OR (e.date = ? AND e.id < ?))";
+            condition = condition == null ? seek : condition + " AND " + seek;
+        }
+        String sql = select(query) + where(condition) + NEWEST_FIRST + " LIMIT ?";
         
         List<ExpenseWithUser> results = new ArrayList<>();
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            ResultSet rs = stmt.executeQuery();
+            int index = query.bind(stmt, 1);
+            if (after != null) {
+                stmt.setString(index++, after.getDate());
+                stmt.setString(index++, after.getDate());
+                stmt.setInt(index++, after.getId());
+            }
+            // Fetch one extra row to learn whether another page exists
+            stmt.setInt(index, limit + 1);
             
-            while (rs.next()) {
-                results.add(mapRowToExpenseWithUser(rs));
+            try (ResultSet rs = findExpensesPageTimers.get(query.getType()).executeQuery(stmt)) {
+                while (rs.next()) {
+                    results.add(mapRowToExpenseWithUser(rs));
+                }
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding all expenses", e);
+            throw new RuntimeException("Error finding page of " + query.getDescription(), e);
         }
         
-        return results;
+        if (results.size() > limit) {
+            results.remove(limit);
+            return new ExpensePage(results, PageCursor.after(results.get(limit - 1).getExpense()));
+        }
+        return new ExpensePage(results, null);
+    }
+    
+    private static Map<ExpenseQuery.Type, QueryTimer> timersByType(QueryMetrics queryMetrics, String method) {
+        Map<ExpenseQuery.Type, QueryTimer> timers = new EnumMap<>(ExpenseQuery.Type.class);
+        for (ExpenseQuery.Type type : ExpenseQuery.Type.values()) {
+            timers.put(type, queryMetrics.timer("ExpenseRepository", method + ":" + type.name().toLowerCase(Locale.ROOT)));
+        }
+        return timers;
+    }
+    
+    private static String select(ExpenseQuery query) {
+        return query.getJoin() == null ? SELECT_EXPENSES_WITH_USERS : SELECT_EXPENSES_WITH_USERS + query.getJoin() + "\n";
+    }
+    
+    private static String orderBy(ExpenseQuery query) {
+        return query.getRanking() == null ? NEWEST_FIRST : "ORDER BY " + query.getRanking() + ", e.date DESC, e.id DESC";
+    }
+    
+    private static String where(String condition) {
+        return condition == null ? "" : "WHERE " + condition + "\n";
     }
     
     private Expense mapRowToExpense(ResultSet rs) throws SQLException {
@@ -254,6 +306,7 @@ public class ExpenseRepository {
         approval.setReviewer((Integer) rs.getObject("reviewer"));
         approval.setComment(rs.getString("comment"));
         approval.setReviewDate(rs.getString("review_date"));
+        approval.setVersion(rs.getInt("version"));
         
         return new ExpenseWithUser(expense, user, approval);
     }
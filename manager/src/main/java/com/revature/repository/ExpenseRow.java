@@ -0,0 +1,89 @@
+package com.revature.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Read-only view of the current row of an expense-with-user query.
+ * One instance is reused for every row of a cursor, so streaming a result set
+ * does not allocate Expense/User/Approval objects per row.
+ * Only valid inside the ExpenseRowHandler call it was passed to.
+ */
+public final class ExpenseRow {
+    // Column positions in ExpenseRepository's expense-with-user SELECT
+    private static final int EXPENSE_ID = 1;
+    private static final int USER_ID = 2;
+    private static final int AMOUNT = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int DATE = 5;
+    private static final int USERNAME = 6;
+    private static final int ROLE = 7;
+    private static final int APPROVAL_ID = 8;
+    private static final int STATUS = 9;
+    private static final int REVIEWER = 10;
+    private static final int COMMENT = 11;
+    private static final int REVIEW_DATE = 12;
+    private static final int VERSION = 13;
+
+    private final ResultSet rs;
+
+    public ExpenseRow(ResultSet rs) {
+        this.rs = rs;
+    }
+
+    public int getExpenseId() throws SQLException {
+        return rs.getInt(EXPENSE_ID);
+    }
+
+    public int getUserId() throws SQLException {
+        return rs.getInt(USER_ID);
+    }
+
+    public double getAmount() throws SQLException {
+        return rs.getDouble(AMOUNT);
+    }
+
+    public String getDescription() throws SQLException {
+        return rs.getString(DESCRIPTION);
+    }
+
+    public String getDate() throws SQLException {
+        return rs.getString(DATE);
+    }
+
+    public String getUsername() throws SQLException {
+        return rs.getString(USERNAME);
+    }
+
+    public String getRole() throws SQLException {
+        return rs.getString(ROLE);
+    }
+
+    public int getApprovalId() throws SQLException {
+        return rs.getInt(APPROVAL_ID);
+    }
+
+    public String getStatus() throws SQLException {
+        return rs.getString(STATUS);
+    }
+
+    /**
+     * @return reviewer user ID, or null for expenses that have not been reviewed
+     */
+    public Integer getReviewer() throws SQLException {
+        int reviewer = rs.getInt(REVIEWER);
+        return rs.wasNull() ? null : reviewer;
+    }
+
+    public String getComment() throws SQLException {
+        return rs.getString(COMMENT);
+    }
+
+    public String getReviewDate() throws SQLException {
+        return rs.getString(REVIEW_DATE);
+    }
+
+    public int getVersion() throws SQLException {
+        return rs.getInt(VERSION);
+    }
+}
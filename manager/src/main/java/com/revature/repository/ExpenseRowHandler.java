@@ -0,0 +1,13 @@
+package com.revature.repository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Callback invoked once per row when streaming expenses from the database.
+ * Throwing an IOException (e.g. the client disconnected) stops the query.
+ */
+@FunctionalInterface
+public interface ExpenseRowHandler {
+    void handle(ExpenseRow row) throws IOException, SQLException;
+}
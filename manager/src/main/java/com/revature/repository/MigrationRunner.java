@@ -0,0 +1,208 @@
+package com.revature.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies versioned, checksummed schema migrations at startup.
+ * Migrations are SQL scripts under db/migration on the classpath named V{version}__{description}.sql.
+ * Each one runs in its own transaction and is recorded in the schema_migrations table;
+ * a script that changes after it was applied fails startup instead of being silently skipped.
+ */
+public class MigrationRunner {
+    private static final String MIGRATION_LOCATION = "db/migration/";
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Migrations shipped with the manager, in any order (they are applied by version).
+     */
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__query_indexes.sql",
+            "V2__expense_description_fts.sql",
+            "V3__change_log.sql",
+            "V4__approval_version.sql",
+            "V5__covering_amount_indexes.sql",
+            "V6__spend_rollups.sql",
+            "V7__approval_version_in_update.sql"
+    );
+
+    private final DatabaseConnection databaseConnection;
+    private final List<String> migrationFiles;
+
+    public MigrationRunner(DatabaseConnection databaseConnection) {
+        this(databaseConnection, MIGRATIONS);
+    }
+
+    public MigrationRunner(DatabaseConnection databaseConnection, List<String> migrationFiles) {
+        this.databaseConnection = databaseConnection;
+        this.migrationFiles = migrationFiles;
+    }
+
+    /**
+     * Apply every migration that has not been applied yet.
+     * @return the migrations applied by this call
+     */
+    public List<SchemaMigration> migrate() {
+        List<SchemaMigration> applied = new ArrayList<>();
+
+        try (Connection conn = databaseConnection.getWriteConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS schema_migrations (
+                        version INTEGER PRIMARY KEY,
+                        description TEXT NOT NULL,
+                        checksum TEXT NOT NULL,
+                        applied_at TEXT NOT NULL
+                    )
+                    """);
+            }
+
+            for (Map.Entry<Integer, String> entry : loadMigrations().entrySet()) {
+                SchemaMigration migration = applyIfNeeded(conn, entry.getKey(), entry.getValue());
+                if (migration != null) {
+                    applied.add(migration);
+                    System.out.println("Applied migration V" + migration.getVersion() + " (" + migration.getDescription() + ")");
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error applying schema migrations", e);
+        }
+
+        return applied;
+    }
+
+    /**
+     * Get the migrations recorded in the database.
+     * @return applied migrations ordered by version
+     */
+    public List<SchemaMigration> getAppliedMigrations() {
+        String sql = "SELECT version, description, checksum, applied_at FROM schema_migrations ORDER BY version";
+        List<SchemaMigration> results = new ArrayList<>();
+
+        try (Connection conn = databaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                results.add(new SchemaMigration(
+                        rs.getInt("version"),
+                        rs.getString("description"),
+                        rs.getString("checksum"),
+                        rs.getString("applied_at")
+                ));
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading applied migrations", e);
+        }
+
+        return results;
+    }
+
+    private SchemaMigration applyIfNeeded(Connection conn, int version, String fileName) throws SQLException {
+        String script = readScript(fileName);
+        String checksum = checksum(script);
+        String description = MIGRATION_NAME.matcher(fileName).replaceFirst("$2").replace('_', ' ');
+
+        conn.setAutoCommit(false);
+        try {
+            String recordedChecksum = findChecksum(conn, version);
+            if (recordedChecksum != null && !recordedChecksum.equals(checksum)) {
+                throw new IllegalStateException("Checksum mismatch for migration " + fileName
+                        + ": it was modified after being applied");
+            }
+            if (recordedChecksum != null) {
+                conn.rollback();
+                return null;
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(script);
+            }
+
+            String appliedAt = LocalDateTime.now().format(DATE_FORMATTER);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_migrations (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+                stmt.setInt(1, version);
+                stmt.setString(2, description);
+                stmt.setString(3, checksum);
+                stmt.setString(4, appliedAt);
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+            return new SchemaMigration(version, description, checksum, appliedAt);
+
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private String findChecksum(Connection conn, int version) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT checksum FROM schema_migrations WHERE version = ?")) {
+            stmt.setInt(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("checksum") : null;
+            }
+        }
+    }
+
+    private Map<Integer, String> loadMigrations() {
+        Map<Integer, String> byVersion = new TreeMap<>();
+        for (String fileName : migrationFiles) {
+            Matcher matcher = MIGRATION_NAME.matcher(fileName);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration file name: " + fileName);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            String previous = byVersion.put(version, fileName);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate migration version " + version + ": " + previous + ", " + fileName);
+            }
+        }
+        return byVersion;
+    }
+
+    private String readScript(String fileName) {
+        try (InputStream is = MigrationRunner.class.getClassLoader().getResourceAsStream(MIGRATION_LOCATION + fileName)) {
+            if (is == null) {
+                throw new IllegalStateException("Migration not found on classpath: " + MIGRATION_LOCATION + fileName);
+            }
+            // Normalize line endings so the checksum does not depend on the checkout platform
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading migration: " + fileName, e);
+        }
+    }
+
+    private static String checksum(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
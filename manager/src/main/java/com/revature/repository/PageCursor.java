@@ -0,0 +1,73 @@
+package com.revature.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the newest-first (date DESC, id DESC) expense ordering.
+ * Clients only ever see the opaque token form produced by {@link #encode()}.
+ */
+public final class PageCursor {
+    private static final String VERSION_PREFIX = "v1|";
+
+    private final String date;
+    private final int id;
+
+    public PageCursor(String date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Cursor positioned after the given expense.
+     * @param expense the last expense on the current page
+     */
+    public static PageCursor after(Expense expense) {
+        return new PageCursor(expense.getDate(), expense.getId());
+    }
+
+    /**
+     * Decode an opaque continuation token.
+     * @param token the token from a previous page
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(VERSION_PREFIX)) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            int separator = raw.lastIndexOf('|');
+            String date = raw.substring(VERSION_PREFIX.length(), separator);
+            int id = Integer.parseInt(raw.substring(separator + 1));
+            return new PageCursor(date, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * @return opaque, URL-safe continuation token
+     */
+    public String encode() {
+        String raw = VERSION_PREFIX + date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "date='" + date + '\'' +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+package com.revature.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects pending expenses for a bulk review, e.g. "everything pending under $50 for employee 2".
+ * Every criterion is optional; a filter with none matches the whole pending queue.
+ */
+public class PendingExpenseFilter {
+    private final Integer employeeId;
+    private final Double maxAmount;
+    private final String startDate;
+    private final String endDate;
+
+    /**
+     * @param employeeId only this employee's expenses, or null
+     * @param maxAmount only expenses of at most this amount, or null
+     * @param startDate only expenses dated on or after this date (YYYY-MM-DD), or null
+     * @param endDate only expenses dated on or before this date (YYYY-MM-DD), or null
+     */
+    public PendingExpenseFilter(Integer employeeId, Double maxAmount, String startDate, String endDate) {
+        this.employeeId = employeeId;
+        this.maxAmount = maxAmount;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public Double getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return a WHERE condition over the aliases e (expenses) and a (approvals)
+     */
+    String getCondition() {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("a.status = 'pending'");
+        if (employeeId != null) {
+            conditions.add("e.user_id = ?");
+        }
+        if (maxAmount != null) {
+            conditions.add("e.amount <= ?");
+        }
+        if (startDate != null) {
+            conditions.add("e.date >= ?");
+        }
+        if (endDate != null) {
+            conditions.add("e.date <= ?");
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * Bind the condition's parameters starting at the given index.
+     * @return the next free parameter index
+     */
+    int bind(PreparedStatement stmt, int index) throws SQLException {
+        if (employeeId != null) {
+            stmt.setInt(index++, employeeId);
+        }
+        if (maxAmount != null) {
+            stmt.setDouble(index++, maxAmount);
+        }
+        if (startDate != null) {
+            stmt.setString(index++, startDate);
+        }
+        if (endDate != null) {
+            stmt.setString(index++, endDate);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingExpenseFilter{employeeId=" + employeeId + ", maxAmount=" + maxAmount
+                + ", startDate=" + startDate + ", endDate=" + endDate + '}';
+    }
+}
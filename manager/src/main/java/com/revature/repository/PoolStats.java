@@ -0,0 +1,127 @@
+package com.revature.repository;
+
+/**
+ * Point-in-time statistics for a connection pool.
+ * Used to size the pool under load (saturation, wait times, timeouts and leaks).
+ */
+public class PoolStats {
+    private final String name;
+    private final int minSize;
+    private final int maxSize;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int waitingThreads;
+    private final long acquiredCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long validationFailureCount;
+    private final long leakCount;
+    private final long reclaimedStatementCount;
+    private final double averageWaitMillis;
+    private final double maxWaitMillis;
+
+    public PoolStats(String name, int minSize, int maxSize, int activeConnections, int idleConnections,
+                     int totalConnections, int waitingThreads, long acquiredCount, long timeoutCount,
+                     long createdCount, long validationFailureCount, long leakCount, long reclaimedStatementCount,
+                     double averageWaitMillis, double maxWaitMillis) {
+        this.name = name;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.waitingThreads = waitingThreads;
+        this.acquiredCount = acquiredCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.validationFailureCount = validationFailureCount;
+        this.leakCount = leakCount;
+        this.reclaimedStatementCount = reclaimedStatementCount;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailureCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public long getReclaimedStatementCount() {
+        return reclaimedStatementCount;
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Fraction of the pool currently checked out (1.0 means every connection is in use).
+     * @return active connections divided by the maximum pool size
+     */
+    public double getSaturation() {
+        return maxSize == 0 ? 0.0 : activeConnections / (double) maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "name='" + name + '\'' +
+                ", active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", total=" + totalConnections +
+                ", max=" + maxSize +
+                ", waiting=" + waitingThreads +
+                ", timeouts=" + timeoutCount +
+                ", leaks=" + leakCount +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.revature.repository;
+
+import com.revature.metrics.QueryMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ApprovalRepository that updates the in-memory ExpenseProjection as soon as a write commits,
+ * so a manager sees their own review on the next read instead of after the next change feed poll.
+ */
+public class ProjectedApprovalRepository extends ApprovalRepository {
+    private final ExpenseProjection projection;
+
+    public ProjectedApprovalRepository(DatabaseConnection databaseConnection, ExpenseProjection projection) {
+        this(databaseConnection, projection, new QueryMetrics());
+    }
+
+    public ProjectedApprovalRepository(DatabaseConnection databaseConnection, ExpenseProjection projection,
+                                       QueryMetrics queryMetrics) {
+        super(databaseConnection, queryMetrics);
+        this.projection = projection;
+    }
+
+    @Override
+    public ReviewOutcome reviewApproval(ApprovalDecision decision) {
+        ReviewOutcome outcome = super.reviewApproval(decision);
+        if (outcome.isApplied()) {
+            projection.refreshApproval(decision.getExpenseId());
+        }
+        return outcome;
+    }
+
+    @Override
+    public Approval createApproval(int expenseId, String status) {
+        Approval approval = super.createApproval(expenseId, status);
+        projection.refreshApproval(expenseId);
+        return approval;
+    }
+
+    @Override
+    public List<ReviewOutcome> updateApprovalStatuses(List<ApprovalDecision> decisions) {
+        List<ReviewOutcome> outcomes = super.updateApprovalStatuses(decisions);
+        List<Integer> expenseIds = new ArrayList<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (outcomes.get(i).isApplied()) {
+                expenseIds.add(decisions.get(i).getExpenseId());
+            }
+        }
+        projection.refreshApprovals(expenseIds);
+        return outcomes;
+    }
+
+    @Override
+    public List<Integer> updatePendingApprovals(PendingExpenseFilter filter, String status, int reviewerId,
+                                                String comment, int maxCount) {
+        List<Integer> expenseIds = super.updatePendingApprovals(filter, status, reviewerId, comment, maxCount);
+        projection.refreshApprovals(expenseIds);
+        return expenseIds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.revature.repository;
+
+import com.revature.metrics.QueryMetrics;
+
+import java.util.List;
+
+/**
+ * ExpenseRepository that answers list queries from an in-memory ExpenseProjection.
+ * Queries the projection cannot answer (category searches, or anything before it has loaded)
+ * go to the database as usual; paging and streaming always do.
+ */
+public class ProjectedExpenseRepository extends ExpenseRepository {
+    private final ExpenseProjection projection;
+
+    public ProjectedExpenseRepository(DatabaseConnection databaseConnection, ExpenseProjection projection) {
+        this(databaseConnection, projection, new QueryMetrics());
+    }
+
+    public ProjectedExpenseRepository(DatabaseConnection databaseConnection, ExpenseProjection projection,
+                                      QueryMetrics queryMetrics) {
+        super(databaseConnection, queryMetrics);
+        this.projection = projection;
+    }
+
+    @Override
+    public List<ExpenseWithUser> findExpensesWithUsers(ExpenseQuery query) {
+        List<ExpenseWithUser> projected = projection.find(query);
+        return projected != null ? projected : super.findExpensesWithUsers(query);
+    }
+}
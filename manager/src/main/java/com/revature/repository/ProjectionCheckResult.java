@@ -0,0 +1,55 @@
+package com.revature.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of comparing the in-memory expense projection with the database.
+ */
+public class ProjectionCheckResult {
+    private final boolean consistent;
+    private final long version;
+    private final int expenseCount;
+    private final int differenceCount;
+    private final List<String> differences;
+    private final boolean repaired;
+
+    /**
+     * @param version the change_log version the comparison was made at
+     * @param differences the first differences found, at most a few dozen
+     * @param repaired true if the projection was reloaded to fix the differences
+     */
+    public ProjectionCheckResult(boolean consistent, long version, int expenseCount, int differenceCount,
+                                 List<String> differences, boolean repaired) {
+        this.consistent = consistent;
+        this.version = version;
+        this.expenseCount = expenseCount;
+        this.differenceCount = differenceCount;
+        this.differences = List.copyOf(differences);
+        this.repaired = repaired;
+    }
+
+    // Getters
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public int getDifferenceCount() {
+        return differenceCount;
+    }
+
+    public List<String> getDifferences() {
+        return differences;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+}
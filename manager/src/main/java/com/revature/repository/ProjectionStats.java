@@ -0,0 +1,69 @@
+package com.revature.repository;
+
+/**
+ * Point-in-time statistics for the in-memory expense projection.
+ */
+public class ProjectionStats {
+    private final boolean loaded;
+    private final int userCount;
+    private final int expenseCount;
+    private final int approvalCount;
+    private final int pendingCount;
+    private final long appliedVersion;
+    private final long changesApplied;
+    private final long rowsReloaded;
+    private final long loadMillis;
+
+    public ProjectionStats(boolean loaded, int userCount, int expenseCount, int approvalCount, int pendingCount,
+                           long appliedVersion, long changesApplied, long rowsReloaded, long loadMillis) {
+        this.loaded = loaded;
+        this.userCount = userCount;
+        this.expenseCount = expenseCount;
+        this.approvalCount = approvalCount;
+        this.pendingCount = pendingCount;
+        this.appliedVersion = appliedVersion;
+        this.changesApplied = changesApplied;
+        this.rowsReloaded = rowsReloaded;
+        this.loadMillis = loadMillis;
+    }
+
+    // Getters
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public int getApprovalCount() {
+        return approvalCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return the last change_log version reflected in the projection
+     */
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    public long getChangesApplied() {
+        return changesApplied;
+    }
+
+    public long getRowsReloaded() {
+        return rowsReloaded;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+}
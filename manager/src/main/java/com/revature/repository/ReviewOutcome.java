@@ -0,0 +1,62 @@
+package com.revature.repository;
+
+/**
+ * Result of a conditional review: the approval was still pending (and at the expected version)
+ * and was updated, the expense has no approval, or the approval had already moved on.
+ */
+public class ReviewOutcome {
+    public enum Result {
+        APPLIED,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    private static final ReviewOutcome APPLIED = new ReviewOutcome(Result.APPLIED, null);
+    private static final ReviewOutcome NOT_FOUND = new ReviewOutcome(Result.NOT_FOUND, null);
+
+    private final Result result;
+    private final Approval current;
+
+    private ReviewOutcome(Result result, Approval current) {
+        this.result = result;
+        this.current = current;
+    }
+
+    public static ReviewOutcome applied() {
+        return APPLIED;
+    }
+
+    public static ReviewOutcome notFound() {
+        return NOT_FOUND;
+    }
+
+    /**
+     * @param current the approval as it was when the review was refused
+     */
+    public static ReviewOutcome conflict(Approval current) {
+        return new ReviewOutcome(Result.CONFLICT, current);
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public boolean isApplied() {
+        return result == Result.APPLIED;
+    }
+
+    /**
+     * @return the approval that prevented the review, or null unless the result is CONFLICT
+     */
+    public Approval getCurrent() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewOutcome{" +
+                "result=" + result +
+                ", current=" + current +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.revature.repository;
+
+/**
+ * SchemaMigration model representing a row of the schema_migrations table.
+ */
+public class SchemaMigration {
+    private int version;
+    private String description;
+    private String checksum;
+    private String appliedAt;
+
+    public SchemaMigration() {}
+
+    public SchemaMigration(int version, String description, String checksum, String appliedAt) {
+        this.version = version;
+        this.description = description;
+        this.checksum = checksum;
+        this.appliedAt = appliedAt;
+    }
+
+    // Getters and setters
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(String appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaMigration{" +
+                "version=" + version +
+                ", description='" + description + '\'' +
+                ", checksum='" + checksum + '\'' +
+                ", appliedAt='" + appliedAt + '\'' +
+                '}';
+    }
+}
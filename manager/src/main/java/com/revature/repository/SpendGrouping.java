@@ -0,0 +1,59 @@
+package com.revature.repository;
+
+/**
+ * How AnalyticsRepository groups expenses when summarizing spend.
+ * When a summary is computed from the expenses rather than the spend rollups, each grouping
+ * supplies the SQL that names its groups: the grouping key over the aliases e (expenses) and
+ * a (approvals), and the label of each aggregated group g, which may join further tables once
+ * per group rather than once per expense.
+ */
+public enum SpendGrouping {
+    EMPLOYEE("Employee", "e.user_id", "JOIN users u ON u.id = g.group_key", "u.username", "g.total_cents DESC, g.group_key"),
+    STATUS("Status", "a.status", "", "g.group_key", "label"),
+    MONTH("Month", "substr(e.date, 1, 7)", "", "g.group_key", "label"),
+    // Expenses have no category column; the first word of the description stands in for one,
+    // lower-cased and without trailing punctuation, e.g. "Hotel, 2 nights" -> hotel
+    CATEGORY("Category",
+            "lower(rtrim(substr(trim(e.description), 1, instr(trim(e.description) || ' ', ' ') - 1), ',.:;'))",
+            "", "g.group_key", "g.total_cents DESC, label");
+
+    private final String columnName;
+    private final String groupBy;
+    private final String labelJoin;
+    private final String label;
+    private final String orderBy;
+
+    SpendGrouping(String columnName, String groupBy, String labelJoin, String label, String orderBy) {
+        this.columnName = columnName;
+        this.groupBy = groupBy;
+        this.labelJoin = labelJoin;
+        this.label = label;
+        this.orderBy = orderBy;
+    }
+
+    /**
+     * @return the heading of the group column in CSV output, e.g. "Employee"
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * @return the join needed to label the aggregated groups, or empty
+     */
+    public String getLabelJoin() {
+        return labelJoin;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getOrderBy() {
+        return orderBy;
+    }
+}
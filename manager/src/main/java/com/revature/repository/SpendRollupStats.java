@@ -0,0 +1,30 @@
+package com.revature.repository;
+
+/**
+ * Point-in-time size of the spend rollups: how many buckets each holds and how many
+ * expenses (counted once per approval) they cover.
+ */
+public class SpendRollupStats {
+    private final long dailyBuckets;
+    private final long monthlyBuckets;
+    private final long expenseCount;
+
+    public SpendRollupStats(long dailyBuckets, long monthlyBuckets, long expenseCount) {
+        this.dailyBuckets = dailyBuckets;
+        this.monthlyBuckets = monthlyBuckets;
+        this.expenseCount = expenseCount;
+    }
+
+    // Getters
+    public long getDailyBuckets() {
+        return dailyBuckets;
+    }
+
+    public long getMonthlyBuckets() {
+        return monthlyBuckets;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+}
@@ -0,0 +1,62 @@
+package com.revature.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * Spend of one group of expenses: how many there are, their total and their average amount,
+ * rounded to cents.
+ * The employee ID is only set when grouping by employee.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SpendSummary {
+    private final String group;
+    private final Integer employeeId;
+    private final long count;
+    private final BigDecimal total;
+    private final BigDecimal average;
+
+    public SpendSummary(String group, long count, BigDecimal total, BigDecimal average) {
+        this(group, null, count, total, average);
+    }
+
+    public SpendSummary(String group, Integer employeeId, long count, BigDecimal total, BigDecimal average) {
+        this.group = group;
+        this.employeeId = employeeId;
+        this.count = count;
+        this.total = total;
+        this.average = average;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public BigDecimal getAverage() {
+        return average;
+    }
+
+    @Override
+    public String toString() {
+        return "SpendSummary{" +
+                "group='" + group + '\'' +
+                ", employeeId=" + employeeId +
+                ", count=" + count +
+                ", total=" + total +
+                ", average=" + average +
+                '}';
+    }
+}
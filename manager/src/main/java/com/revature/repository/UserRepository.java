@@ -1,5 +1,8 @@
 package com.revature.repository;
 
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -12,9 +15,20 @@ import java.util.Optional;
  */
 public class UserRepository {
     private final DatabaseConnection databaseConnection;
+    private final QueryTimer findByIdTimer;
+    private final QueryTimer findByUsernameTimer;
     
     public UserRepository(DatabaseConnection databaseConnection) {
+        this(databaseConnection, new QueryMetrics());
+    }
+    
+    /**
+     * @param queryMetrics where the time spent in each query is recorded
+     */
+    public UserRepository(DatabaseConnection databaseConnection, QueryMetrics queryMetrics) {
         this.databaseConnection = databaseConnection;
+        this.findByIdTimer = queryMetrics.timer("UserRepository", "findById");
+        this.findByUsernameTimer = queryMetrics.timer("UserRepository", "findByUsername");
     }
     
     /**
@@ -25,11 +39,11 @@ public class UserRepository {
     public Optional<User> findById(int userId) {
         String sql = "SELECT id, username, password, role FROM users WHERE id = ?";
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = findByIdTimer.executeQuery(stmt);
             
             if (rs.next()) {
                 User user = new User();
@@ -55,11 +69,11 @@ public class UserRepository {
     public Optional<User> findByUsername(String username) {
         String sql = "SELECT id, username, password, role FROM users WHERE username = ?";
         
-        try (Connection conn = databaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
+            ResultSet rs = findByUsernameTimer.executeQuery(stmt);
             
             if (rs.next()) {
                 User user = new User();
@@ -0,0 +1,87 @@
+package com.revature.service;
+
+import com.revature.repository.AnalyticsRepository;
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.SpendRollupStats;
+import com.revature.repository.SpendSummary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Service layer for spend analytics: aggregates computed in the database, returned as
+ * objects for JSON responses or written as CSV in place of pivoting a full expense report.
+ */
+public class AnalyticsService {
+    private final AnalyticsRepository analyticsRepository;
+
+    public AnalyticsService(AnalyticsRepository analyticsRepository) {
+        this.analyticsRepository = analyticsRepository;
+    }
+
+    /**
+     * Summarize spend per group, optionally within a date range.
+     * @param grouping how to group the expenses
+     * @param startDate first date to include (YYYY-MM-DD), or null
+     * @param endDate last date to include (YYYY-MM-DD), or null
+     * @param limit the most groups to return, or null for all
+     * @return one summary per group that has expenses
+     */
+    public List<SpendSummary> summarizeSpend(SpendGrouping grouping, String startDate, String endDate, Integer limit) {
+        return analyticsRepository.summarizeSpend(grouping, startDate, endDate, limit);
+    }
+
+    /**
+     * Recompute the spend rollups from the expenses, e.g. to recover after they were edited by hand.
+     * @return the rollups as rebuilt
+     */
+    public SpendRollupStats rebuildSpendRollups() {
+        return analyticsRepository.rebuildSpendRollups();
+    }
+
+    /**
+     * @return the current size of the spend rollups
+     */
+    public SpendRollupStats getSpendRollupStats() {
+        return analyticsRepository.getSpendRollupStats();
+    }
+
+    /**
+     * Write spend summaries as CSV, one row per group.
+     * Grouped by employee, the employee ID comes first so rows can be matched to employee reports.
+     * @param grouping the grouping the summaries were made with, which names the group column
+     * @param summaries the summaries to write
+     * @param out the stream to write to; left open
+     * @throws UncheckedIOException if writing fails
+     */
+    public void writeCsv(SpendGrouping grouping, List<SpendSummary> summaries, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean byEmployee = grouping == SpendGrouping.EMPLOYEE;
+        try {
+            writer.write((byEmployee ? "Employee ID," : "") + grouping.getColumnName() + ",Expenses,Total,Average\n");
+            for (SpendSummary summary : summaries) {
+                if (byEmployee) {
+                    writer.write(String.valueOf(summary.getEmployeeId()));
+                    writer.write(',');
+                }
+                writer.write(ExpenseCsvWriter.escapeCsvValue(summary.getGroup()));
+                writer.write(',');
+                writer.write(String.valueOf(summary.getCount()));
+                writer.write(',');
+                writer.write(summary.getTotal().toPlainString());
+                writer.write(',');
+                writer.write(summary.getAverage().toPlainString());
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
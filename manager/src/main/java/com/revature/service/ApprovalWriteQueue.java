@@ -0,0 +1,212 @@
+package com.revature.service;
+
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.ReviewOutcome;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for approval decisions. Request threads queue their decision and wait on a
+ * future; one writer thread takes whatever has queued up, up to a group size or a short
+ * delay after the first decision, and commits the group as one batch in one transaction.
+ * Concurrent reviews therefore share a commit (and its fsync) instead of queueing for the
+ * writer connection one transaction at a time. Each future completes once its group has
+ * committed, or fails with the group's error.
+ */
+public class ApprovalWriteQueue implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final int DEFAULT_MAX_GROUP_SIZE = 256;
+    public static final Duration DEFAULT_MAX_GROUP_DELAY = Duration.ofMillis(2);
+
+    private final ApprovalRepository approvalRepository;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int maxGroupSize;
+    private final long maxGroupDelayNanos;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    // Only written by the writer thread
+    private volatile long groupCount;
+    private volatile long committedCount;
+    private volatile int largestGroup;
+
+    /**
+     * @param capacity decisions that may wait before new ones are rejected
+     * @param maxGroupSize most decisions committed together
+     * @param maxGroupDelay how long the writer waits for more decisions after the first of a group
+     */
+    public ApprovalWriteQueue(ApprovalRepository approvalRepository, int capacity, int maxGroupSize,
+                              Duration maxGroupDelay) {
+        if (capacity < 1 || maxGroupSize < 1) {
+            throw new IllegalArgumentException("Queue capacity and group size must be at least 1");
+        }
+        this.approvalRepository = approvalRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxGroupSize = maxGroupSize;
+        this.maxGroupDelayNanos = maxGroupDelay.toNanos();
+        this.writer = new Thread(this::writeLoop, "approval-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a decision for the next group commit.
+     * @return completes with the decision's outcome once its group is committed;
+     *         fails with the commit's error if the group could not be written
+     * @throws RejectedExecutionException if the queue is full or closed
+     */
+    public CompletableFuture<ReviewOutcome> submit(ApprovalDecision decision) {
+        if (closed) {
+            throw new RejectedExecutionException("Approval write queue is closed");
+        }
+        PendingWrite write = new PendingWrite(decision);
+        if (!queue.offer(write)) {
+            rejectedCount.increment();
+            throw new RejectedExecutionException("Approval write queue is full");
+        }
+        // Closed while offering: the writer and close() may both have finished draining already.
+        // If the decision is still queued nobody will take it, so withdraw it; if it is gone, one
+        // of them has it and will complete its future.
+        if (closed && queue.remove(write)) {
+            throw new RejectedExecutionException("Approval write queue is closed");
+        }
+        submittedCount.increment();
+        return write.result;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> group = new ArrayList<>(maxGroupSize);
+        while (true) {
+            PendingWrite first = take();
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            group.add(first);
+            try {
+                fillGroup(group);
+                commit(group);
+            } catch (Throwable e) {
+                // Never leave a request waiting on a decision the writer dropped
+                fail(group, e);
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * @return the next decision, or null if none arrived within a short wait
+     */
+    private PendingWrite take() {
+        try {
+            return closed ? queue.poll() : queue.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            // Interrupted: stop waiting, but still commit what is already queued
+            closed = true;
+            return queue.poll();
+        }
+    }
+
+    /**
+     * Take whatever is already queued, then wait up to the group delay for more.
+     */
+    private void fillGroup(List<PendingWrite> group) {
+        queue.drainTo(group, maxGroupSize - group.size());
+        long deadline = System.nanoTime() + maxGroupDelayNanos;
+        while (group.size() < maxGroupSize && !closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                group.add(next);
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+            queue.drainTo(group, maxGroupSize - group.size());
+        }
+    }
+
+    private void commit(List<PendingWrite> group) {
+        List<ApprovalDecision> decisions = new ArrayList<>(group.size());
+        for (PendingWrite write : group) {
+            decisions.add(write.decision);
+        }
+        List<ReviewOutcome> outcomes;
+        try {
+            outcomes = approvalRepository.updateApprovalStatuses(decisions);
+        } catch (Throwable e) {
+            // Errors too: the writer thread carries on, and every request in the group hears back
+            fail(group, e);
+            return;
+        }
+        groupCount++;
+        committedCount += group.size();
+        largestGroup = Math.max(largestGroup, group.size());
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result.complete(outcomes.get(i));
+        }
+    }
+
+    private void fail(List<PendingWrite> group, Throwable e) {
+        for (PendingWrite write : group) {
+            if (write.result.completeExceptionally(e)) {
+                failedCount.increment();
+            }
+        }
+    }
+
+    public WriteQueueStats getStats() {
+        long groups = groupCount;
+        long committed = committedCount;
+        return new WriteQueueStats(queue.size(), queue.size() + queue.remainingCapacity(), maxGroupSize,
+                submittedCount.sum(), committed, groups, rejectedCount.sum(), failedCount.sum(),
+                largestGroup, groups == 0 ? 0.0 : (double) committed / groups);
+    }
+
+    /**
+     * Stop accepting decisions and wait for the queued ones to be committed.
+     */
+    @Override
+    public void close() {
+        // The writer notices within its poll interval; interrupting it could fail a commit in progress
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Decisions that slipped in as the writer stopped are refused rather than left waiting
+        PendingWrite stranded;
+        while ((stranded = queue.poll()) != null) {
+            stranded.result.completeExceptionally(new RejectedExecutionException("Approval write queue is closed"));
+        }
+    }
+
+    private static final class PendingWrite {
+        private final ApprovalDecision decision;
+        private final CompletableFuture<ReviewOutcome> result = new CompletableFuture<>();
+
+        private PendingWrite(ApprovalDecision decision) {
+            this.decision = decision;
+        }
+    }
+}
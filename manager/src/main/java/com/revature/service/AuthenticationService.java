@@ -5,26 +5,56 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.revature.cache.CacheStats;
 import com.revature.repository.User;
 import com.revature.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service for handling authentication and authorization logic.
  * Uses JWT tokens stored in HTTP-only cookies for secure authentication.
+ * Tokens that pass verification are remembered until they expire, so a session presenting
+ * the same cookie on every request pays for the HMAC check and claim parsing only once.
  */
 public class AuthenticationService {
+    /** Upper bound on remembered tokens; roughly one per active session. */
+    public static final int DEFAULT_VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+    private static final long PURGE_INTERVAL_MILLIS = 1_000;
+    
     private final UserRepository userRepository;
     private final Algorithm jwtAlgorithm;
     private final JWTVerifier jwtVerifier;
     private static final String JWT_SECRET = "your-secret-key-change-in-production";
     private static final String JWT_ISSUER = "expense-manager";
     
+    // Keyed by SHA-256 fingerprint so raw bearer tokens are not kept in memory
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final int verifiedTokenCacheSize;
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+    private final LongAdder tokenCacheHits = new LongAdder();
+    private final LongAdder tokenCacheMisses = new LongAdder();
+    private final LongAdder tokenCacheExpired = new LongAdder();
+    
     public AuthenticationService(UserRepository userRepository) {
+        this(userRepository, DEFAULT_VERIFIED_TOKEN_CACHE_SIZE);
+    }
+    
+    /**
+     * @param verifiedTokenCacheSize maximum number of verified tokens to remember; 0 disables the cache
+     */
+    public AuthenticationService(UserRepository userRepository, int verifiedTokenCacheSize) {
         this.userRepository = userRepository;
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
         this.jwtAlgorithm = Algorithm.HMAC256(JWT_SECRET);
         this.jwtVerifier = JWT.require(jwtAlgorithm)
                 .withIssuer(JWT_ISSUER)
@@ -57,13 +87,116 @@ public class AuthenticationService {
             return Optional.empty();
         }
         
+        Integer userId = verifiedUserId(jwtToken);
+        return userId == null ? Optional.empty() : userRepository.findById(userId);
+    }
+    
+    /**
+     * Forget a token's cached verification, e.g. on logout.
+     * The token itself stays valid until it expires; it will simply be verified again if presented.
+     * @param jwtToken the JWT token from HTTP-only cookie
+     */
+    public void invalidateToken(String jwtToken) {
+        if (jwtToken != null && !jwtToken.trim().isEmpty()) {
+            verifiedTokens.remove(fingerprint(jwtToken));
+        }
+    }
+    
+    /**
+     * @return statistics for the verified-token cache
+     */
+    public CacheStats getVerifiedTokenCacheStats() {
+        return new CacheStats("verifiedTokens", verifiedTokenCacheSize, verifiedTokens.size(),
+                tokenCacheHits.sum(), tokenCacheMisses.sum(), 0, tokenCacheExpired.sum());
+    }
+    
+    /**
+     * Verify a token, consulting the cache of already-verified tokens first.
+     * @return the user ID from the token's subject, or null if the token is invalid or expired
+     */
+    private Integer verifiedUserId(String jwtToken) {
+        if (verifiedTokenCacheSize <= 0) {
+            return verify(jwtToken, null);
+        }
+        
+        String fingerprint = fingerprint(jwtToken);
+        VerifiedToken cached = verifiedTokens.get(fingerprint);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAtMillis) {
+                tokenCacheHits.increment();
+                return cached.userId;
+            }
+            verifiedTokens.remove(fingerprint, cached);
+            tokenCacheExpired.increment();
+        }
+        tokenCacheMisses.increment();
+        return verify(jwtToken, fingerprint);
+    }
+    
+    private Integer verify(String jwtToken, String fingerprint) {
         try {
             DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
             String userIdStr = decodedJWT.getSubject();
             int userId = Integer.parseInt(userIdStr);
-            return userRepository.findById(userId);
+            // Tokens without an expiry are verified every time rather than cached forever
+            if (fingerprint != null && decodedJWT.getExpiresAt() != null) {
+                remember(fingerprint, new VerifiedToken(userId, decodedJWT.getExpiresAt().getTime()));
+            }
+            return userId;
         } catch (JWTVerificationException | NumberFormatException e) {
-            return Optional.empty();
+            return null;
+        }
+    }
+    
+    private void remember(String fingerprint, VerifiedToken token) {
+        if (verifiedTokens.size() >= verifiedTokenCacheSize) {
+            purgeExpiredTokens();
+            if (verifiedTokens.size() >= verifiedTokenCacheSize) {
+                // Full of live sessions: skip caching rather than evict someone else's entry
+                return;
+            }
+        }
+        verifiedTokens.put(fingerprint, token);
+    }
+    
+    /**
+     * Drop expired entries. Runs at most once per interval, so a cache full of live
+     * tokens does not trigger a scan on every request.
+     */
+    private void purgeExpiredTokens() {
+        long now = System.currentTimeMillis();
+        long purgeAt = nextPurgeAt.get();
+        if (now < purgeAt || !nextPurgeAt.compareAndSet(purgeAt, now + PURGE_INTERVAL_MILLIS)) {
+            return;
+        }
+        verifiedTokens.values().removeIf(token -> {
+            boolean expired = now >= token.expiresAtMillis;
+            if (expired) {
+                tokenCacheExpired.increment();
+            }
+            return expired;
+        });
+    }
+    
+    private static String fingerprint(String jwtToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwtToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Claims kept for a token that passed verification.
+     */
+    private static final class VerifiedToken {
+        private final int userId;
+        private final long expiresAtMillis;
+        
+        private VerifiedToken(int userId, long expiresAtMillis) {
+            this.userId = userId;
+            this.expiresAtMillis = expiresAtMillis;
         }
     }
     
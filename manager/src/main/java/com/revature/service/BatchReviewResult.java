@@ -0,0 +1,68 @@
+package com.revature.service;
+
+import com.revature.repository.Approval;
+
+/**
+ * Outcome of one review in a batch review request.
+ */
+public class BatchReviewResult {
+    private final int expenseId;
+    private final String status;
+    private final boolean success;
+    private final String error;
+    private final Approval current;
+
+    private BatchReviewResult(int expenseId, String status, boolean success, String error, Approval current) {
+        this.expenseId = expenseId;
+        this.status = status;
+        this.success = success;
+        this.error = error;
+        this.current = current;
+    }
+
+    /**
+     * @param status the approval status now set on the expense
+     */
+    public static BatchReviewResult succeeded(int expenseId, String status) {
+        return new BatchReviewResult(expenseId, status, true, null, null);
+    }
+
+    /**
+     * @param status the approval status that was requested, or null if it was not understood
+     * @param error why the review was not applied
+     */
+    public static BatchReviewResult failed(int expenseId, String status, String error) {
+        return new BatchReviewResult(expenseId, status, false, error, null);
+    }
+
+    /**
+     * @param status the approval status that was requested
+     * @param current the approval that was no longer pending, or had changed, when the review was tried
+     */
+    public static BatchReviewResult conflicted(int expenseId, String status, Approval current) {
+        return new BatchReviewResult(expenseId, status, false, ReviewConflictException.describe(current), current);
+    }
+
+    public int getExpenseId() {
+        return expenseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the approval as it was when a conflicting review was refused, otherwise null
+     */
+    public Approval getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,10 @@
+package com.revature.service;
+
+/**
+ * Notified after the manager app changes an expense, e.g. approves or denies it.
+ * The change feed reports the same write later; this only lets it be heard sooner.
+ */
+@FunctionalInterface
+public interface ExpenseChangeListener {
+    void expenseChanged(int expenseId);
+}
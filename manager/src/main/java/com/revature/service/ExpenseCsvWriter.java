@@ -0,0 +1,126 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseRow;
+import com.revature.repository.ExpenseWithUser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Writes expense report rows in CSV format.
+ * Used both for in-memory reports and for reports streamed row by row to an HTTP response.
+ */
+public class ExpenseCsvWriter {
+    public static final String HEADER = "Expense ID,Employee,Amount,Description,Date,Status,Reviewer,Comment,Review Date\n";
+
+    /** Characters buffered before encoded bytes are pushed to the underlying stream. */
+    static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final Writer out;
+
+    public ExpenseCsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Create a writer that encodes UTF-8 into the stream through a fixed-size buffer,
+     * so memory use does not depend on the size of the report.
+     * @param out the stream to write to
+     */
+    public static ExpenseCsvWriter forStream(OutputStream out) {
+        return new ExpenseCsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+    }
+
+    public void writeHeader() throws IOException {
+        out.write(HEADER);
+    }
+
+    public void writeRow(ExpenseWithUser expenseWithUser) throws IOException {
+        writeRow(expenseWithUser.getExpense().getId(),
+                expenseWithUser.getUser().getUsername(),
+                expenseWithUser.getExpense().getAmount(),
+                expenseWithUser.getExpense().getDescription(),
+                expenseWithUser.getExpense().getDate(),
+                expenseWithUser.getApproval().getStatus(),
+                expenseWithUser.getApproval().getReviewer(),
+                expenseWithUser.getApproval().getComment(),
+                expenseWithUser.getApproval().getReviewDate());
+    }
+
+    public void writeRow(ExpenseRow row) throws IOException, SQLException {
+        writeRow(row.getExpenseId(),
+                row.getUsername(),
+                row.getAmount(),
+                row.getDescription(),
+                row.getDate(),
+                row.getStatus(),
+                row.getReviewer(),
+                row.getComment(),
+                row.getReviewDate());
+    }
+
+    private void writeRow(int expenseId, String username, double amount, String description, String date,
+                          String status, Integer reviewerId, String comment, String reviewDate) throws IOException {
+        out.write(String.valueOf(expenseId));
+        out.write(',');
+        out.write(escapeCsvValue(username));
+        out.write(',');
+        out.write(String.valueOf(amount));
+        out.write(',');
+        out.write(escapeCsvValue(description));
+        out.write(',');
+        out.write(String.valueOf(date));
+        out.write(',');
+        out.write(String.valueOf(status));
+        out.write(',');
+
+        // Reviewer (might be null for pending expenses)
+        if (reviewerId != null) {
+            out.write(String.valueOf(reviewerId));
+        }
+        out.write(',');
+
+        // Comment (might be null)
+        if (comment != null) {
+            out.write(escapeCsvValue(comment));
+        }
+        out.write(',');
+
+        // Review Date (might be null for pending expenses)
+        if (reviewDate != null) {
+            out.write(reviewDate);
+        }
+
+        out.write('\n');
+    }
+
+    /**
+     * Push any buffered rows to the underlying stream.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Escape CSV values to handle commas, quotes, and newlines.
+     * @param value the value to escape
+     * @return escaped CSV value
+     */
+    public static String escapeCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        // If value contains comma, quote, or newline, wrap in quotes and escape internal quotes
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
@@ -1,25 +1,119 @@
 package com.revature.service;
 
+import com.revature.cache.CoalescingStats;
+import com.revature.cache.SingleFlight;
+import com.revature.repository.ApprovalDecision;
 import com.revature.repository.ApprovalRepository;
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.ChangeListener;
+import com.revature.repository.ExpensePage;
+import com.revature.repository.ExpenseQuery;
 import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseRowHandler;
 import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.PageCursor;
+import com.revature.repository.PendingExpenseFilter;
+import com.revature.repository.ReviewOutcome;
 import com.revature.repository.User;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 /**
  * Service for expense management business logic.
  * Handles expense approvals, reporting, and related operations.
+ * Identical list queries running at the same time share one database call and its
+ * (unmodifiable) result, e.g. when every manager opens the dashboard at the start of a shift.
+ * Reviews made here, and writes reported by the change feed, start later queries afresh.
+ * Single reviews can optionally go through an ApprovalWriteQueue, which commits concurrent
+ * reviews together instead of one transaction each.
  */
-public class ExpenseService {
+public class ExpenseService implements ChangeListener {
+    /** Page size used when a client asks for a page without a limit. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Largest page the server will return, whatever the client asks for. */
+    public static final int MAX_PAGE_SIZE = 200;
+    /** Most expenses one batch review may change. */
+    public static final int MAX_BATCH_SIZE = 1000;
+    /** Longest a request waits for its queued review to be committed. */
+    public static final Duration REVIEW_COMMIT_TIMEOUT = Duration.ofSeconds(10);
+    
     private final ExpenseRepository expenseRepository;
     private final ApprovalRepository approvalRepository;
+    private final SingleFlight<ExpenseQuery, List<ExpenseWithUser>> listQueries;
+    private final ApprovalWriteQueue approvalWriteQueue;
+    private final List<ExpenseChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     
     public ExpenseService(ExpenseRepository expenseRepository, ApprovalRepository approvalRepository) {
+        this(expenseRepository, approvalRepository, Duration.ZERO);
+    }
+    
+    /**
+     * @param resultTtl how long a finished list query is reused by later identical calls;
+     *                  zero or null only shares calls that overlap
+     */
+    public ExpenseService(ExpenseRepository expenseRepository, ApprovalRepository approvalRepository, Duration resultTtl) {
+        this(expenseRepository, approvalRepository, resultTtl, null);
+    }
+    
+    /**
+     * @param resultTtl how long a finished list query is reused by later identical calls;
+     *                  zero or null only shares calls that overlap
+     * @param approvalWriteQueue group commit for single reviews, or null to write each one directly
+     */
+    public ExpenseService(ExpenseRepository expenseRepository, ApprovalRepository approvalRepository, Duration resultTtl,
+                          ApprovalWriteQueue approvalWriteQueue) {
         this.expenseRepository = expenseRepository;
         this.approvalRepository = approvalRepository;
+        this.listQueries = new SingleFlight<>("expenseQueries", resultTtl == null ? Duration.ZERO : resultTtl);
+        this.approvalWriteQueue = approvalWriteQueue;
+    }
+    
+    /**
+     * Register a listener to be told about every expense this service changes.
+     * @param listener called on the request thread after the change is committed
+     */
+    public void addChangeListener(ExpenseChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    private void notifyChanged(int expenseId) {
+        for (ExpenseChangeListener listener : changeListeners) {
+            try {
+                listener.expenseChanged(expenseId);
+            } catch (RuntimeException e) {
+                // The change is already committed; a failing listener must not turn it into an error
+                System.err.println("Expense change listener failed for expense " + expenseId + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Called by the change feed; writes from either app make later list queries read again.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> changes) {
+        if (ChangeEvent.anyFor(changes, ChangeEvent.EXPENSES, ChangeEvent.APPROVALS, ChangeEvent.USERS)) {
+            listQueries.invalidateAll();
+        }
+    }
+    
+    private List<ExpenseWithUser> coalesce(ExpenseQuery query, Supplier<List<ExpenseWithUser>> loader) {
+        return listQueries.execute(query, () -> Collections.unmodifiableList(loader.get()));
     }
     
     /**
@@ -27,7 +121,7 @@ public class ExpenseService {
      * @return List of pending expenses with user information
      */
     public List<ExpenseWithUser> getPendingExpenses() {
-        return expenseRepository.findPendingExpensesWithUsers();
+        return coalesce(ExpenseQuery.pending(), expenseRepository::findPendingExpensesWithUsers);
     }
     
     /**
@@ -38,7 +132,17 @@ public class ExpenseService {
      * @return true if approval was successful
      */
     public boolean approveExpense(int expenseId, int managerId, String comment) {
-        return approvalRepository.updateApprovalStatus(expenseId, "approved", managerId, comment);
+        return approveExpense(expenseId, managerId, comment, null);
+    }
+    
+    /**
+     * Approve an expense if it is still pending.
+     * @param expectedVersion approval version the manager saw, or null to accept any pending version
+     * @return true if approval was successful, false if the expense was not found
+     * @throws ReviewConflictException if the expense was already reviewed or has changed
+     */
+    public boolean approveExpense(int expenseId, int managerId, String comment, Integer expectedVersion) {
+        return review(new ApprovalDecision(expenseId, "approved", managerId, comment, expectedVersion));
     }
     
     /**
@@ -49,7 +153,136 @@ public class ExpenseService {
      * @return true if denial was successful
      */
     public boolean denyExpense(int expenseId, int managerId, String comment) {
-        return approvalRepository.updateApprovalStatus(expenseId, "denied", managerId, comment);
+        return denyExpense(expenseId, managerId, comment, null);
+    }
+    
+    /**
+     * Deny an expense if it is still pending.
+     * @param expectedVersion approval version the manager saw, or null to accept any pending version
+     * @return true if denial was successful, false if the expense was not found
+     * @throws ReviewConflictException if the expense was already reviewed or has changed
+     */
+    public boolean denyExpense(int expenseId, int managerId, String comment, Integer expectedVersion) {
+        return review(new ApprovalDecision(expenseId, "denied", managerId, comment, expectedVersion));
+    }
+    
+    /**
+     * Write one review, through the write queue if there is one, and wait until it is committed.
+     * @throws RejectedExecutionException if the write queue is full
+     * @throws ReviewTimeoutException if the queued review is not committed within REVIEW_COMMIT_TIMEOUT
+     */
+    private boolean review(ApprovalDecision decision) {
+        ReviewOutcome outcome;
+        if (approvalWriteQueue == null) {
+            outcome = approvalRepository.reviewApproval(decision);
+        } else {
+            try {
+                outcome = approvalWriteQueue.submit(decision)
+                        .get(REVIEW_COMMIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new ReviewTimeoutException("Review of expense " + decision.getExpenseId()
+                        + " was not confirmed within " + REVIEW_COMMIT_TIMEOUT.toSeconds() + " seconds");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReviewTimeoutException("Interrupted waiting for review of expense " + decision.getExpenseId());
+            }
+        }
+        if (outcome.getResult() == ReviewOutcome.Result.CONFLICT) {
+            throw new ReviewConflictException(outcome.getCurrent());
+        }
+        if (outcome.isApplied()) {
+            listQueries.invalidateAll();
+            notifyChanged(decision.getExpenseId());
+        }
+        return outcome.isApplied();
+    }
+    
+    /**
+     * @return group commit statistics, or null if reviews are written directly
+     */
+    public WriteQueueStats getWriteQueueStats() {
+        return approvalWriteQueue == null ? null : approvalWriteQueue.getStats();
+    }
+    
+    /**
+     * Review several expenses at once, in one database transaction.
+     * Decisions with an unknown status, and expenses that are no longer pending,
+     * are reported as failed and not applied.
+     * @param decisions the reviews to apply; status "approved" or "denied"
+     * @return one result per decision, in order
+     * @throws IllegalArgumentException if there are no decisions or more than MAX_BATCH_SIZE
+     */
+    public List<BatchReviewResult> reviewExpenses(List<ApprovalDecision> decisions) {
+        if (decisions.isEmpty() || decisions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " reviews");
+        }
+        
+        List<ApprovalDecision> valid = new ArrayList<>(decisions.size());
+        for (ApprovalDecision decision : decisions) {
+            if (isReviewStatus(decision.getStatus())) {
+                valid.add(decision);
+            }
+        }
+        List<ReviewOutcome> outcomes = approvalRepository.updateApprovalStatuses(valid);
+        if (!valid.isEmpty()) {
+            listQueries.invalidateAll();
+        }
+        
+        List<BatchReviewResult> results = new ArrayList<>(decisions.size());
+        int next = 0;
+        for (ApprovalDecision decision : decisions) {
+            if (!isReviewStatus(decision.getStatus())) {
+                results.add(BatchReviewResult.failed(decision.getExpenseId(), decision.getStatus(),
+                        "Decision must be approve or deny"));
+                continue;
+            }
+            ReviewOutcome outcome = outcomes.get(next++);
+            switch (outcome.getResult()) {
+                case APPLIED -> {
+                    results.add(BatchReviewResult.succeeded(decision.getExpenseId(), decision.getStatus()));
+                    notifyChanged(decision.getExpenseId());
+                }
+                case CONFLICT -> results.add(BatchReviewResult.conflicted(decision.getExpenseId(), decision.getStatus(),
+                        outcome.getCurrent()));
+                default -> results.add(BatchReviewResult.failed(decision.getExpenseId(), decision.getStatus(),
+                        "Expense not found"));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Approve or deny every pending expense matching a filter, in one database transaction.
+     * @param filter which pending expenses to review
+     * @param status "approved" or "denied"
+     * @param managerId the manager's user ID
+     * @param comment optional comment applied to every expense
+     * @return one result per reviewed expense, oldest first
+     * @throws IllegalArgumentException if the status is unknown or more than MAX_BATCH_SIZE expenses match
+     */
+    public List<BatchReviewResult> reviewPendingExpenses(PendingExpenseFilter filter, String status, int managerId,
+                                                         String comment) {
+        if (!isReviewStatus(status)) {
+            throw new IllegalArgumentException("Decision must be approve or deny");
+        }
+        List<Integer> expenseIds = approvalRepository.updatePendingApprovals(filter, status, managerId, comment,
+                MAX_BATCH_SIZE);
+        if (!expenseIds.isEmpty()) {
+            listQueries.invalidateAll();
+        }
+        
+        List<BatchReviewResult> results = new ArrayList<>(expenseIds.size());
+        for (Integer expenseId : expenseIds) {
+            results.add(BatchReviewResult.succeeded(expenseId, status));
+            notifyChanged(expenseId);
+        }
+        return results;
+    }
+    
+    private static boolean isReviewStatus(String status) {
+        return "approved".equals(status) || "denied".equals(status);
     }
     
     /**
@@ -58,16 +291,16 @@ public class ExpenseService {
      * @return List of expenses for the employee
      */
     public List<ExpenseWithUser> getExpensesByEmployee(int employeeId) {
-        return expenseRepository.findExpensesByUser(employeeId);
+        return coalesce(ExpenseQuery.byUser(employeeId), () -> expenseRepository.findExpensesByUser(employeeId));
     }
     
     /**
-     * Get expenses by category (description contains the category text).
+     * Get expenses by category (description words starting with the category words), best matches first.
      * @param category the category to filter by
      * @return List of expenses matching the category
      */
     public List<ExpenseWithUser> getExpensesByCategory(String category) {
-        return expenseRepository.findExpensesByCategory(category);
+        return coalesce(ExpenseQuery.byCategory(category), () -> expenseRepository.findExpensesByCategory(category));
     }
     
     /**
@@ -77,7 +310,8 @@ public class ExpenseService {
      * @return List of expenses within the date range
      */
     public List<ExpenseWithUser> getExpensesByDateRange(String startDate, String endDate) {
-        return expenseRepository.findExpensesByDateRange(startDate, endDate);
+        return coalesce(ExpenseQuery.byDateRange(startDate, endDate),
+                () -> expenseRepository.findExpensesByDateRange(startDate, endDate));
     }
     
     /**
@@ -85,7 +319,39 @@ public class ExpenseService {
      * @return List of all expenses with user information
      */
     public List<ExpenseWithUser> getAllExpenses() {
-        return expenseRepository.findAllExpensesWithUsers();
+        return coalesce(ExpenseQuery.all(), expenseRepository::findAllExpensesWithUsers);
+    }
+    
+    /**
+     * Get per-query statistics for the list query coalescing: calls made, and how many
+     * shared another call's database read.
+     */
+    public List<CoalescingStats> getCoalescingStats() {
+        return listQueries.getStats();
+    }
+    
+    /**
+     * Get one page of expenses, newest first.
+     * @param query the expense filter
+     * @param after cursor from the previous page, or null for the first page
+     * @param limit requested page size; capped at MAX_PAGE_SIZE
+     * @return the page of expenses and the cursor for the next page
+     */
+    public ExpensePage getExpensesPage(ExpenseQuery query, PageCursor after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return expenseRepository.findExpensesPage(query, after, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Stream expenses newest first, one row at a time, straight from the database cursor.
+     * @param query the expense filter
+     * @param handler callback invoked once per row
+     * @return number of rows streamed
+     */
+    public int streamExpenses(ExpenseQuery query, ExpenseRowHandler handler) {
+        return expenseRepository.forEachExpense(query, handler);
     }
     
     /**
@@ -95,60 +361,63 @@ public class ExpenseService {
      */
     public String generateCsvReport(List<ExpenseWithUser> expenses) {
         StringWriter csvWriter = new StringWriter();
+        ExpenseCsvWriter csv = new ExpenseCsvWriter(csvWriter);
         
-        // CSV Header
-        csvWriter.append("Expense ID,Employee,Amount,Description,Date,Status,Reviewer,Comment,Review Date\n");
-        
-        // CSV Data
-        for (ExpenseWithUser expenseWithUser : expenses) {
-            csvWriter.append(String.valueOf(expenseWithUser.getExpense().getId())).append(",");
-            csvWriter.append(escapeCsvValue(expenseWithUser.getUser().getUsername())).append(",");
-            csvWriter.append(String.valueOf(expenseWithUser.getExpense().getAmount())).append(",");
-            csvWriter.append(escapeCsvValue(expenseWithUser.getExpense().getDescription())).append(",");
-            csvWriter.append(expenseWithUser.getExpense().getDate()).append(",");
-            csvWriter.append(expenseWithUser.getApproval().getStatus()).append(",");
-            
-            // Reviewer (might be null for pending expenses)
-            Integer reviewerId = expenseWithUser.getApproval().getReviewer();
-            if (reviewerId != null) {
-                csvWriter.append(String.valueOf(reviewerId));
-            }
-            csvWriter.append(",");
-            
-            // Comment (might be null)
-            String comment = expenseWithUser.getApproval().getComment();
-            if (comment != null) {
-                csvWriter.append(escapeCsvValue(comment));
-            }
-            csvWriter.append(",");
-            
-            // Review Date (might be null for pending expenses)
-            String reviewDate = expenseWithUser.getApproval().getReviewDate();
-            if (reviewDate != null) {
-                csvWriter.append(reviewDate);
+        try {
+            csv.writeHeader();
+            for (ExpenseWithUser expenseWithUser : expenses) {
+                csv.writeRow(expenseWithUser);
             }
-            
-            csvWriter.append("\n");
+        } catch (IOException e) {
+            // StringWriter never throws
+            throw new UncheckedIOException(e);
         }
         
         return csvWriter.toString();
     }
     
     /**
-     * Escape CSV values to handle commas, quotes, and newlines.
-     * @param value the value to escape
-     * @return escaped CSV value
+     * @return a stamp that changes whenever users, expenses or approvals change
      */
-    private String escapeCsvValue(String value) {
-        if (value == null) {
-            return "";
-        }
-        
-        // If value contains comma, quote, or newline, wrap in quotes and escape internal quotes
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    public long getDataVersion() {
+        return expenseRepository.getDataVersion();
+    }
+    
+    /**
+     * Write a CSV report of the expenses matching a query straight to a stream.
+     * Rows go from the database cursor to the stream through a fixed-size buffer,
+     * so memory use does not grow with the size of the report.
+     * @param query the expense filter
+     * @param out the stream to write to; left open
+     * @return number of expense rows written
+     * @throws UncheckedIOException if writing fails, e.g. the client disconnected;
+     *         the query is abandoned
+     */
+    public int writeCsvReport(ExpenseQuery query, OutputStream out) {
+        return writeCsvReport(query, out, rowsWritten -> { });
+    }
+    
+    /**
+     * Write a CSV report of the expenses matching a query straight to a stream, reporting progress.
+     * @param query the expense filter
+     * @param out the stream to write to; left open
+     * @param progress called after each row with the number of rows written so far
+     * @return number of expense rows written
+     * @throws UncheckedIOException if writing fails; the query is abandoned
+     */
+    public int writeCsvReport(ExpenseQuery query, OutputStream out, IntConsumer progress) {
+        ExpenseCsvWriter csv = ExpenseCsvWriter.forStream(out);
+        int[] rowsWritten = new int[1];
+        try {
+            csv.writeHeader();
+            int count = expenseRepository.forEachExpense(query, row -> {
+                csv.writeRow(row);
+                progress.accept(++rowsWritten[0]);
+            });
+            csv.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        return value;
     }
-}
\ No newline at end of file
+}
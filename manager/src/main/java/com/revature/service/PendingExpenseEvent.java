@@ -0,0 +1,47 @@
+package com.revature.service;
+
+/**
+ * One change to the pending expense queue, as sent to server-sent event clients.
+ * The data is serialized once and shared by every client.
+ */
+public class PendingExpenseEvent {
+    /** Full queue: {"data": [...], "count": n}. Sent on connect when events cannot be replayed. */
+    public static final String SNAPSHOT = "snapshot";
+    /** An expense became pending; data is the expense with its user and approval. */
+    public static final String ADD = "add";
+    /** A pending expense was edited; data is the expense with its user and approval. */
+    public static final String UPDATE = "update";
+    /** An expense left the queue (reviewed or deleted); data is {"expenseId": n}. */
+    public static final String REMOVE = "remove";
+
+    private final String id;
+    private final long sequence;
+    private final String type;
+    private final String data;
+
+    public PendingExpenseEvent(String id, long sequence, String type, String data) {
+        this.id = id;
+        this.sequence = sequence;
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * @return the event ID clients send back in Last-Event-ID to resume
+     */
+    public String getId() {
+        return id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getData() {
+        return data;
+    }
+}
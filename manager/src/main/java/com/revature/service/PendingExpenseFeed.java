@@ -0,0 +1,263 @@
+package com.revature.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.ChangeListener;
+import com.revature.repository.ExpenseWithUser;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps one server-wide copy of the pending expense queue and turns changes to it
+ * into add/update/remove events for push clients, so connected dashboards do not
+ * each re-run the pending query.
+ * The queue is re-read when the change feed reports a write to expenses, approvals or users,
+ * from this app or the employee app, and only while someone is subscribed.
+ * Recent events are kept so a reconnecting client can resume where it left off.
+ */
+public class PendingExpenseFeed implements ChangeListener, AutoCloseable {
+    public static final int DEFAULT_HISTORY_SIZE = 1000;
+    public static final int DEFAULT_CLIENT_BUFFER_SIZE = 256;
+
+    private final ExpenseService expenseService;
+    private final int historySize;
+    private final int clientBufferSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService refresher;
+    // Event IDs are only meaningful to this instance; a client resuming across a restart gets a snapshot
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ArrayDeque<PendingExpenseEvent> history = new ArrayDeque<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // Held while the pending queue is read, which subscribe does on a request's virtual thread;
+    // unlike a monitor, waiting for it or querying under it does not pin the carrier on JDK 21
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Integer, String> pending;  // expense ID -> JSON, in queue order; null until first refresh
+    private long lastSequence;
+    private long droppedCount;
+
+    /**
+     * @param historySize events kept for clients resuming with Last-Event-ID
+     * @param clientBufferSize events queued per client before it is dropped as too slow
+     */
+    public PendingExpenseFeed(ExpenseService expenseService, int historySize, int clientBufferSize) {
+        if (historySize < 1 || clientBufferSize < 1) {
+            throw new IllegalArgumentException("History and client buffer sizes must be at least 1");
+        }
+        this.expenseService = expenseService;
+        this.historySize = historySize;
+        this.clientBufferSize = clientBufferSize;
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "pending-expense-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Called by the change feed; refreshes on a separate thread so other listeners are not held up.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> changes) {
+        // Usernames are part of each event, so user changes count too
+        if (ChangeEvent.anyFor(changes, ChangeEvent.EXPENSES, ChangeEvent.APPROVALS, ChangeEvent.USERS)
+                && !refresher.isShutdown()) {
+            refresher.execute(this::refreshIfSubscribed);
+        }
+    }
+
+    private void refreshIfSubscribed() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // The next change retries; a locked or briefly unavailable database should not end the feed
+            System.err.println("Pending expense feed refresh failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read the pending queue and publish an event for every difference from the last read.
+     */
+    public void refresh() {
+        lock.lock();
+        try {
+            Map<Integer, String> current = new LinkedHashMap<>();
+            for (ExpenseWithUser expense : expenseService.getPendingExpenses()) {
+                current.put(expense.getExpense().getId(), toJson(expense));
+            }
+
+            if (pending != null) {
+                for (Integer expenseId : pending.keySet()) {
+                    if (!current.containsKey(expenseId)) {
+                        publish(PendingExpenseEvent.REMOVE, "{\"expenseId\":" + expenseId + "}");
+                    }
+                }
+                for (Map.Entry<Integer, String> entry : current.entrySet()) {
+                    String previous = pending.get(entry.getKey());
+                    if (previous == null) {
+                        publish(PendingExpenseEvent.ADD, entry.getValue());
+                    } else if (!previous.equals(entry.getValue())) {
+                        publish(PendingExpenseEvent.UPDATE, entry.getValue());
+                    }
+                }
+            }
+            pending = current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subscribe to the feed. The first events queued are either the ones the client missed
+     * since lastEventId, or a snapshot of the whole queue if those are no longer available.
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, or null
+     */
+    public Subscription subscribe(String lastEventId) {
+        lock.lock();
+        try {
+            if (pending == null || subscriptions.isEmpty()) {
+                // Changes are ignored while nobody is subscribed; catch up first
+                refresh();
+            }
+
+            Subscription subscription = new Subscription();
+            List<PendingExpenseEvent> missed = eventsAfter(lastEventId);
+            if (missed != null && missed.size() <= clientBufferSize) {
+                missed.forEach(subscription.queue::offer);
+            } else {
+                subscription.queue.offer(snapshot());
+            }
+            subscriptions.add(subscription);
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return events after the given ID, or null if the ID is unknown or too old to resume from
+     */
+    private List<PendingExpenseEvent> eventsAfter(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(streamId + "-")) {
+            return null;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(streamId.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldestAvailable = history.isEmpty() ? lastSequence + 1 : history.peekFirst().getSequence();
+        if (after > lastSequence || after < oldestAvailable - 1) {
+            return null;
+        }
+
+        List<PendingExpenseEvent> missed = new ArrayList<>();
+        for (PendingExpenseEvent event : history) {
+            if (event.getSequence() > after) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private PendingExpenseEvent snapshot() {
+        String data = "{\"data\":[" + String.join(",", pending.values()) + "],\"count\":" + pending.size() + "}";
+        return new PendingExpenseEvent(eventId(lastSequence), lastSequence, PendingExpenseEvent.SNAPSHOT, data);
+    }
+
+    private void publish(String type, String data) {
+        long sequence = ++lastSequence;
+        PendingExpenseEvent event = new PendingExpenseEvent(eventId(sequence), sequence, type, data);
+
+        history.addLast(event);
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.queue.offer(event)) {
+                // Too far behind; it will reconnect and resume or start over from a snapshot
+                subscription.dropped = true;
+                subscriptions.remove(subscription);
+                droppedCount++;
+                System.err.println("Dropped slow pending expense subscriber after " + clientBufferSize + " queued events");
+            }
+        }
+    }
+
+    private String eventId(long sequence) {
+        return streamId + "-" + sequence;
+    }
+
+    private String toJson(ExpenseWithUser expense) {
+        try {
+            return objectMapper.writeValueAsString(expense);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing expense " + expense.getExpense().getId(), e);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * One client's view of the feed: a bounded queue of events waiting to be sent.
+     */
+    public class Subscription implements AutoCloseable {
+        private final BlockingQueue<PendingExpenseEvent> queue = new ArrayBlockingQueue<>(clientBufferSize);
+        private volatile boolean dropped;
+
+        /**
+         * Wait for the next event.
+         * @return the event, or null if none arrived in time
+         */
+        public PendingExpenseEvent next(Duration timeout) throws InterruptedException {
+            return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return true if the feed gave up on this subscriber because its queue filled up
+         */
+        public boolean isDropped() {
+            return dropped;
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
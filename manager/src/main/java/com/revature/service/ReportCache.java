@@ -0,0 +1,198 @@
+package com.revature.service;
+
+import com.revature.cache.CoalescingStats;
+import com.revature.cache.ContentCache;
+import com.revature.cache.ContentCacheStats;
+import com.revature.cache.SingleFlight;
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.ChangeListener;
+import com.revature.repository.ExpenseQuery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps rendered CSV reports so that downloading the same report again, before the data
+ * changes, is served from memory (or from disk, for large reports) instead of the database.
+ * Reports are keyed by their query and the data version they were rendered at, so an entry
+ * can never be served once users, expenses or approvals have changed; entries are also
+ * dropped as soon as the change feed reports such a change, to free their space.
+ * A report is cached while it streams to the first client that asks for it, and only if it
+ * rendered completely with no change to the data in between. Clients asking for the same report
+ * while it renders wait for it and are sent the cached copy, rather than each running the query.
+ */
+public class ReportCache implements ChangeListener {
+    private final ExpenseService expenseService;
+    private final ContentCache<ReportKey> cache;
+    private final SingleFlight<ReportKey, Render> renders = new SingleFlight<>("reportRenders", Duration.ZERO);
+
+    /**
+     * @param maxMemoryBytes total size of the reports held in memory
+     * @param maxMemoryEntryBytes largest report held in memory; larger ones go to disk
+     * @param directory where larger reports are written, or null to cache only in memory
+     * @param maxDiskBytes total size of the reports on disk
+     */
+    public ReportCache(ExpenseService expenseService, long maxMemoryBytes, long maxMemoryEntryBytes,
+                       Path directory, long maxDiskBytes) {
+        this.expenseService = expenseService;
+        this.cache = new ContentCache<>("reports", maxMemoryBytes, maxMemoryEntryBytes, directory, maxDiskBytes);
+    }
+
+    /**
+     * @return the version reports are currently rendered at
+     */
+    public long getDataVersion() {
+        return expenseService.getDataVersion();
+    }
+
+    /**
+     * Entity tag for a report at a data version. It is weak because the response may be
+     * compressed on the way out.
+     */
+    public static String etag(ExpenseQuery query, long version) {
+        return "W/\"" + Integer.toHexString(query.getDescription().hashCode()) + "-" + version + "\"";
+    }
+
+    /**
+     * @return the report rendered at this data version, or null if it is not cached
+     */
+    public ContentCache.Content get(ExpenseQuery query, long version) {
+        return cache.get(new ReportKey(query, version));
+    }
+
+    /**
+     * Render a report to a stream, caching it on the way through. If the same report is already
+     * rendering for another client, wait for it and send the cached copy instead; if that render
+     * was not cached, render it again here.
+     * @param version the data version read before rendering
+     * @return number of expense rows written
+     * @throws UncheckedIOException if writing to the stream fails; nothing is cached
+     */
+    public int writeCsvReport(ExpenseQuery query, long version, OutputStream out) {
+        ReportKey key = new ReportKey(query, version);
+        Render[] own = new Render[1];
+        Render shared = renders.execute(key, () -> own[0] = render(key, out));
+        Render render = own[0];
+        if (render == null) {
+            if (shared.content() != null) {
+                InputStream in = open(shared.content());
+                if (in != null) {
+                    try (in) {
+                        in.transferTo(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return shared.rows();
+                }
+            }
+            render = render(key, out);
+        }
+        if (render.clientFailure() != null) {
+            throw render.clientFailure();
+        }
+        return render.rows();
+    }
+
+    /**
+     * Stream a report to one client and capture it. A failure writing to the client is returned
+     * rather than thrown, so clients waiting on this render go on to render it themselves.
+     */
+    private Render render(ReportKey key, OutputStream out) {
+        ContentCache<ReportKey>.Capture capture = cache.capture(key);
+        int rows;
+        try {
+            rows = expenseService.writeCsvReport(key.query(), new TeeOutputStream(out, capture));
+        } catch (UncheckedIOException e) {
+            capture.discard();
+            return new Render(0, null, e);
+        } catch (RuntimeException | Error e) {
+            capture.discard();
+            throw e;
+        }
+        // A write that landed while rendering may or may not be in the report
+        if (expenseService.getDataVersion() != key.version()) {
+            capture.discard();
+            return new Render(rows, null, null);
+        }
+        return new Render(rows, capture.commit(), null);
+    }
+
+    /**
+     * @return the content to read, or null if it was evicted since it was rendered
+     */
+    private static InputStream open(ContentCache.Content content) {
+        try {
+            return content.open();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> changes) {
+        if (ChangeEvent.anyFor(changes, ChangeEvent.EXPENSES, ChangeEvent.APPROVALS, ChangeEvent.USERS)) {
+            cache.invalidateAll();
+        }
+    }
+
+    public ContentCacheStats getStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * @return per-report counts of renders, and of downloads that waited for another's render
+     */
+    public List<CoalescingStats> getCoalescingStats() {
+        return renders.getStats();
+    }
+
+    private record ReportKey(ExpenseQuery query, long version) {
+        @Override
+        public String toString() {
+            // Statistics are kept per report, across data versions
+            return query.getDescription();
+        }
+    }
+
+    /**
+     * @param content the cached report, or null if it was not cached
+     * @param clientFailure the error writing to the rendering client, if any
+     */
+    private record Render(int rows, ContentCache.Content content, UncheckedIOException clientFailure) {
+    }
+
+    /**
+     * Writes to the client and the cache together. Only the client can fail a write.
+     */
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream client;
+        private final OutputStream capture;
+
+        TeeOutputStream(OutputStream client, OutputStream capture) {
+            this.client = client;
+            this.capture = capture;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            client.write(b);
+            capture.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            client.write(b, off, len);
+            capture.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            client.flush();
+        }
+    }
+}
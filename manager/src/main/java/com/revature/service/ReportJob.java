@@ -0,0 +1,154 @@
+package com.revature.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.revature.repository.ExpenseQuery;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * A CSV report built in the background by ReportJobService.
+ * The worker building it updates the status and the rows written as it goes, so request
+ * threads can read progress at any time; the finished file stays on disk until the job expires.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJob {
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED;
+
+        @JsonValue
+        public String value() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String id;
+    private final ExpenseQuery query;
+    private final String filename;
+    private final Path file;
+    private final Instant createdAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile int rowsWritten;
+    private volatile long sizeBytes;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Instant expiresAt;
+    private volatile String error;
+
+    /**
+     * @param filename the name the report is downloaded as
+     * @param file where the finished report is stored
+     */
+    public ReportJob(String id, ExpenseQuery query, String filename, Path file, Instant createdAt) {
+        this.id = id;
+        this.query = query;
+        this.filename = filename;
+        this.file = file;
+        this.createdAt = createdAt;
+    }
+
+    void started(Instant now) {
+        startedAt = now;
+        status = Status.RUNNING;
+    }
+
+    void progressed(int rows) {
+        rowsWritten = rows;
+    }
+
+    void completed(int rows, long size, Instant now, Instant expires) {
+        rowsWritten = rows;
+        sizeBytes = size;
+        completedAt = now;
+        expiresAt = expires;
+        status = Status.COMPLETED;
+    }
+
+    void failed(String message, Instant now, Instant expires) {
+        error = message;
+        completedAt = now;
+        expiresAt = expires;
+        status = Status.FAILED;
+    }
+
+    Instant createdInstant() {
+        return createdAt;
+    }
+
+    /**
+     * @return whether the job has finished and its result may be discarded
+     */
+    boolean isExpired(Instant now) {
+        Instant expires = expiresAt;
+        return expires != null && !now.isBefore(expires);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return what the report covers, e.g. "expenses by date range: 2021-01-01 to 2025-12-31"
+     */
+    public String getReport() {
+        return query.getDescription();
+    }
+
+    @JsonIgnore
+    public ExpenseQuery getQuery() {
+        return query;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    @JsonIgnore
+    public Path getFile() {
+        return file;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * @return size of the finished report in bytes, or null until it is complete
+     */
+    public Long getSizeBytes() {
+        return status == Status.COMPLETED ? sizeBytes : null;
+    }
+
+    public String getCreatedAt() {
+        return createdAt.toString();
+    }
+
+    public String getStartedAt() {
+        return startedAt != null ? startedAt.toString() : null;
+    }
+
+    public String getCompletedAt() {
+        return completedAt != null ? completedAt.toString() : null;
+    }
+
+    /**
+     * @return when the result is deleted, or null while the job has not finished
+     */
+    public String getExpiresAt() {
+        return expiresAt != null ? expiresAt.toString() : null;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
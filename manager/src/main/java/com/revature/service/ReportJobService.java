@@ -0,0 +1,229 @@
+package com.revature.service;
+
+import com.revature.repository.ExpenseQuery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds CSV reports in the background, so a long export holds a worker thread and a file
+ * instead of an HTTP request.
+ * A fixed pool of workers takes jobs from a bounded queue; when it is full, new jobs are rejected.
+ * Each worker holds a reader connection for a whole export, outside any bulkhead; the default
+ * bulkhead limits leave the reader pool room for every worker (see BulkheadSizing).
+ * Each report is written to a temporary file in the job directory and renamed into place once
+ * complete, so a download never sees half a report. Finished jobs, and their files, are
+ * discarded once their time to live has passed.
+ * Jobs are held in memory: report files left over from a previous run are deleted at startup.
+ */
+public class ReportJobService implements AutoCloseable {
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private static final String REPORT_SUFFIX = ".csv";
+    private static final String PARTIAL_SUFFIX = ".csv.part";
+    private static final String REPORT_FILE_PATTERN = "[0-9a-f-]{36}\\.csv(\\.part)?";
+
+    private final ExpenseService expenseService;
+    private final Path directory;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService cleaner;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory where reports are written; created if missing
+     * @param workerCount reports built at the same time
+     * @param queueCapacity jobs that may wait for a worker before new ones are rejected
+     * @param ttl how long a finished job and its report are kept
+     */
+    public ReportJobService(ExpenseService expenseService, Path directory, int workerCount, int queueCapacity,
+                            Duration ttl) {
+        this(expenseService, directory, workerCount, queueCapacity, ttl, Clock.systemUTC());
+    }
+
+    public ReportJobService(ExpenseService expenseService, Path directory, int workerCount, int queueCapacity,
+                            Duration ttl, Clock clock) {
+        if (workerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Report job workers and queue capacity must be at least 1");
+        }
+        this.expenseService = expenseService;
+        this.directory = directory;
+        this.ttl = ttl;
+        this.clock = clock;
+        deleteLeftoverReports();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "report-job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Check often enough that a result outlives its TTL by at most a minute
+        long cleanupMillis = Math.max(1000, Math.min(ttl.toMillis(), Duration.ofMinutes(1).toMillis()));
+        cleaner.scheduleWithFixedDelay(this::purgeExpiredSafely, cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a report for a worker to build.
+     * @param query the expenses to report
+     * @param filename the name the report is downloaded as
+     * @return the queued job
+     * @throws RejectedExecutionException if too many jobs are already waiting, or the service is closed
+     */
+    public ReportJob submit(ExpenseQuery query, String filename) {
+        String id = UUID.randomUUID().toString();
+        ReportJob job = new ReportJob(id, query, filename, directory.resolve(id + REPORT_SUFFIX), clock.instant());
+        jobs.put(id, job);
+        try {
+            workers.execute(() -> build(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            throw new RejectedExecutionException("Too many report jobs queued", e);
+        }
+        return job;
+    }
+
+    /**
+     * @return the job, or empty if there is none with this ID or it has expired
+     */
+    public Optional<ReportJob> getJob(String id) {
+        ReportJob job = id != null ? jobs.get(id) : null;
+        if (job == null || job.isExpired(clock.instant())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * @return jobs that have not expired, newest first
+     */
+    public List<ReportJob> getJobs() {
+        Instant now = clock.instant();
+        List<ReportJob> current = new ArrayList<>();
+        for (ReportJob job : jobs.values()) {
+            if (!job.isExpired(now)) {
+                current.add(job);
+            }
+        }
+        current.sort(Comparator.comparing(ReportJob::createdInstant).reversed());
+        return current;
+    }
+
+    /**
+     * Discard finished jobs past their time to live and delete their reports.
+     * Runs periodically in the background.
+     * @return the number of jobs discarded
+     */
+    public int purgeExpired() {
+        Instant now = clock.instant();
+        int purged = 0;
+        for (ReportJob job : jobs.values()) {
+            if (job.isExpired(now) && jobs.remove(job.getId(), job)) {
+                deleteQuietly(job.getFile());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private void purgeExpiredSafely() {
+        try {
+            purgeExpired();
+        } catch (RuntimeException e) {
+            System.err.println("Report job cleanup failed: " + e.getMessage());
+        }
+    }
+
+    private void build(ReportJob job) {
+        job.started(clock.instant());
+        Path partial = directory.resolve(job.getId() + PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            int rows;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                rows = expenseService.writeCsvReport(job.getQuery(), out, job::progressed);
+            }
+            Files.move(partial, job.getFile(), StandardCopyOption.ATOMIC_MOVE);
+            Instant now = clock.instant();
+            job.completed(rows, Files.size(job.getFile()), now, now.plus(ttl));
+        } catch (IOException | UncheckedIOException e) {
+            fail(job, partial, "Error writing report: " + e.getMessage());
+        } catch (RuntimeException e) {
+            fail(job, partial, e.getMessage());
+        } catch (Error e) {
+            // The job must not stay RUNNING forever; the worker dies with the error and is replaced
+            fail(job, partial, e.toString());
+            throw e;
+        }
+    }
+
+    private void fail(ReportJob job, Path partial, String message) {
+        System.err.println("Report job " + job.getId() + " (" + job.getReport() + ") failed: " + message);
+        deleteQuietly(partial);
+        Instant now = clock.instant();
+        job.failed(message, now, now.plus(ttl));
+    }
+
+    /**
+     * Delete reports written by a previous run; their jobs did not survive the restart.
+     */
+    private void deleteLeftoverReports() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().matches(REPORT_FILE_PATTERN)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error cleaning report directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Error deleting report " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        cleaner.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package com.revature.service;
+
+import com.revature.repository.Approval;
+
+/**
+ * Thrown when a review loses to another: the expense was no longer pending,
+ * or its approval had changed since the version the reviewer expected.
+ */
+public class ReviewConflictException extends RuntimeException {
+    private final Approval current;
+
+    public ReviewConflictException(Approval current) {
+        super(describe(current));
+        this.current = current;
+    }
+
+    /**
+     * @return a short reason for a refused review, e.g. "Expense was already approved by reviewer 3"
+     */
+    public static String describe(Approval current) {
+        if (current.isPending()) {
+            return "Expense changed since it was loaded (now at version " + current.getVersion() + ")";
+        }
+        return "Expense was already " + current.getStatus()
+                + (current.getReviewer() == null ? "" : " by reviewer " + current.getReviewer());
+    }
+
+    /**
+     * @return the approval as it was when the review was refused
+     */
+    public Approval getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,11 @@
+package com.revature.service;
+
+/**
+ * Thrown when a queued review is not confirmed in time. The review may still be committed
+ * later, so a client should reload the expense before retrying.
+ */
+public class ReviewTimeoutException extends RuntimeException {
+    public ReviewTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,77 @@
+package com.revature.service;
+
+/**
+ * Point-in-time statistics for the approval write queue.
+ * Used to tune the group size and delay: a large average group means commits are being shared.
+ */
+public class WriteQueueStats {
+    private final int queued;
+    private final int capacity;
+    private final int maxGroupSize;
+    private final long submittedCount;
+    private final long committedCount;
+    private final long groupCount;
+    private final long rejectedCount;
+    private final long failedCount;
+    private final int largestGroup;
+    private final double averageGroupSize;
+
+    public WriteQueueStats(int queued, int capacity, int maxGroupSize, long submittedCount, long committedCount,
+                           long groupCount, long rejectedCount, long failedCount, int largestGroup,
+                           double averageGroupSize) {
+        this.queued = queued;
+        this.capacity = capacity;
+        this.maxGroupSize = maxGroupSize;
+        this.submittedCount = submittedCount;
+        this.committedCount = committedCount;
+        this.groupCount = groupCount;
+        this.rejectedCount = rejectedCount;
+        this.failedCount = failedCount;
+        this.largestGroup = largestGroup;
+        this.averageGroupSize = averageGroupSize;
+    }
+
+    // Getters
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public long getCommittedCount() {
+        return committedCount;
+    }
+
+    /**
+     * @return transactions committed; one per group
+     */
+    public long getGroupCount() {
+        return groupCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public int getLargestGroup() {
+        return largestGroup;
+    }
+
+    public double getAverageGroupSize() {
+        return averageGroupSize;
+    }
+}
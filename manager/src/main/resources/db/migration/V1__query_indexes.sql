@@ -0,0 +1,16 @@
+-- Secondary indexes for the manager's hot queries.
+-- SQLite appends the rowid (expenses.id) to every index entry, so (date) also
+-- serves ORDER BY date DESC, id DESC without a sort step.
+
+-- Join from expenses to their approval, and findByExpenseId / updateApprovalStatus
+CREATE INDEX IF NOT EXISTS idx_approvals_expense_status ON approvals (expense_id, status);
+
+-- Pending review queue: only pending rows are indexed, so the index stays small
+-- no matter how much history accumulates
+CREATE INDEX IF NOT EXISTS idx_approvals_pending ON approvals (expense_id) WHERE status = 'pending';
+
+-- Expenses for one employee, newest first
+CREATE INDEX IF NOT EXISTS idx_expenses_user_date ON expenses (user_id, date);
+
+-- All expenses / date range reports, newest first
+CREATE INDEX IF NOT EXISTS idx_expenses_date ON expenses (date);
@@ -0,0 +1,25 @@
+-- Full-text index over expense descriptions, used by category searches and reports.
+-- External-content table: the text lives only in expenses, FTS5 keeps just the index.
+CREATE VIRTUAL TABLE IF NOT EXISTS expenses_fts USING fts5(
+    description,
+    content = 'expenses',
+    content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+-- Keep the index in sync with every writer, including the employee app
+CREATE TRIGGER IF NOT EXISTS expenses_fts_after_insert AFTER INSERT ON expenses BEGIN
+    INSERT INTO expenses_fts(rowid, description) VALUES (new.id, new.description);
+END;
+
+CREATE TRIGGER IF NOT EXISTS expenses_fts_after_delete AFTER DELETE ON expenses BEGIN
+    INSERT INTO expenses_fts(expenses_fts, rowid, description) VALUES ('delete', old.id, old.description);
+END;
+
+CREATE TRIGGER IF NOT EXISTS expenses_fts_after_update AFTER UPDATE OF id, description ON expenses BEGIN
+    INSERT INTO expenses_fts(expenses_fts, rowid, description) VALUES ('delete', old.id, old.description);
+    INSERT INTO expenses_fts(rowid, description) VALUES (new.id, new.description);
+END;
+
+-- Index the expenses that already exist
+INSERT INTO expenses_fts(expenses_fts) VALUES ('rebuild');
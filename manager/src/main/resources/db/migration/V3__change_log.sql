@@ -0,0 +1,47 @@
+-- Ordered record of every row change to users, expenses and approvals.
+-- Written by triggers so changes made by the employee app are recorded too.
+-- AUTOINCREMENT keeps version strictly increasing, even after old rows are pruned.
+CREATE TABLE IF NOT EXISTS change_log (
+    version INTEGER PRIMARY KEY AUTOINCREMENT,
+    table_name TEXT NOT NULL,
+    operation TEXT NOT NULL,
+    row_id INTEGER NOT NULL,
+    expense_id INTEGER,
+    changed_at TEXT NOT NULL DEFAULT (strftime('%Y-%m-%dT%H:%M:%fZ', 'now'))
+);
+
+CREATE TRIGGER IF NOT EXISTS change_log_expenses_insert AFTER INSERT ON expenses BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('expenses', 'insert', new.id, new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_expenses_update AFTER UPDATE ON expenses BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('expenses', 'update', new.id, new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_expenses_delete AFTER DELETE ON expenses BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('expenses', 'delete', old.id, old.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_approvals_insert AFTER INSERT ON approvals BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('approvals', 'insert', new.id, new.expense_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_approvals_update AFTER UPDATE ON approvals BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('approvals', 'update', new.id, new.expense_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_approvals_delete AFTER DELETE ON approvals BEGIN
+    INSERT INTO change_log(table_name, operation, row_id, expense_id) VALUES ('approvals', 'delete', old.id, old.expense_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_users_insert AFTER INSERT ON users BEGIN
+    INSERT INTO change_log(table_name, operation, row_id) VALUES ('users', 'insert', new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_users_update AFTER UPDATE ON users BEGIN
+    INSERT INTO change_log(table_name, operation, row_id) VALUES ('users', 'update', new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS change_log_users_delete AFTER DELETE ON users BEGIN
+    INSERT INTO change_log(table_name, operation, row_id) VALUES ('users', 'delete', old.id);
+END;
@@ -0,0 +1,10 @@
+-- Optimistic concurrency for reviews: every change to an approval bumps its version,
+-- so a review can be made conditional on the version the reviewer last saw.
+ALTER TABLE approvals ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+
+-- The manager bumps the version in its own UPDATE statements; this covers writes
+-- from the employee app, which does not know about the column.
+CREATE TRIGGER IF NOT EXISTS approvals_version_bump AFTER UPDATE ON approvals
+WHEN new.version = old.version BEGIN
+    UPDATE approvals SET version = old.version + 1 WHERE id = new.id;
+END;
@@ -0,0 +1,154 @@
+-- Spend totals kept up to date as expenses and approvals change, so dashboard summaries read
+-- a row per bucket instead of aggregating every expense on each load.
+-- A bucket counts each expense once per approval it has, as the expenses/approvals join does.
+-- Amounts are summed in whole cents so repeated adds and subtracts never drift.
+
+-- Per day and approval status: spend by status or month, over any date range
+CREATE TABLE IF NOT EXISTS spend_daily (
+    day TEXT NOT NULL,
+    status TEXT NOT NULL,
+    expense_count INTEGER NOT NULL,
+    total_cents INTEGER NOT NULL,
+    PRIMARY KEY (day, status)
+) WITHOUT ROWID;
+
+-- Per employee, month and approval status: spend by employee over whole months.
+-- Keyed by employee first, so per-employee totals are read in key order without a sort.
+CREATE TABLE IF NOT EXISTS spend_monthly (
+    user_id INTEGER NOT NULL,
+    month TEXT NOT NULL,
+    status TEXT NOT NULL,
+    expense_count INTEGER NOT NULL,
+    total_cents INTEGER NOT NULL,
+    PRIMARY KEY (user_id, month, status)
+) WITHOUT ROWID;
+
+-- Triggers keep both tables in step with every writer, including the employee app and the
+-- manager's own reviews, inside the transaction that made the change. An expense leaves its
+-- old buckets before it joins its new ones, and buckets left empty are deleted.
+
+CREATE TRIGGER IF NOT EXISTS spend_rollups_expenses_insert AFTER INSERT ON expenses BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT new.date, a.status, 1, CAST(round(new.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = new.id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT new.user_id, substr(new.date, 1, 7), a.status, 1, CAST(round(new.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = new.id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+END;
+
+CREATE TRIGGER IF NOT EXISTS spend_rollups_expenses_delete AFTER DELETE ON expenses BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT old.date, a.status, -1, -CAST(round(old.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = old.id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT old.user_id, substr(old.date, 1, 7), a.status, -1, -CAST(round(old.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = old.id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    DELETE FROM spend_daily WHERE day = old.date AND expense_count = 0;
+    DELETE FROM spend_monthly WHERE user_id = old.user_id AND month = substr(old.date, 1, 7) AND expense_count = 0;
+END;
+
+CREATE TRIGGER IF NOT EXISTS spend_rollups_expenses_update AFTER UPDATE OF id, user_id, amount, date ON expenses BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT old.date, a.status, -1, -CAST(round(old.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = old.id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT old.user_id, substr(old.date, 1, 7), a.status, -1, -CAST(round(old.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = old.id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT new.date, a.status, 1, CAST(round(new.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = new.id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT new.user_id, substr(new.date, 1, 7), a.status, 1, CAST(round(new.amount * 100) AS INTEGER)
+        FROM approvals a WHERE a.expense_id = new.id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    DELETE FROM spend_daily WHERE day = old.date AND expense_count = 0;
+    DELETE FROM spend_monthly WHERE user_id = old.user_id AND month = substr(old.date, 1, 7) AND expense_count = 0;
+END;
+
+CREATE TRIGGER IF NOT EXISTS spend_rollups_approvals_insert AFTER INSERT ON approvals BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT e.date, new.status, 1, CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = new.expense_id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT e.user_id, substr(e.date, 1, 7), new.status, 1, CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = new.expense_id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+END;
+
+CREATE TRIGGER IF NOT EXISTS spend_rollups_approvals_delete AFTER DELETE ON approvals BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT e.date, old.status, -1, -CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = old.expense_id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT e.user_id, substr(e.date, 1, 7), old.status, -1, -CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = old.expense_id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    DELETE FROM spend_daily WHERE expense_count = 0
+        AND day = (SELECT date FROM expenses WHERE id = old.expense_id);
+    DELETE FROM spend_monthly WHERE expense_count = 0
+        AND user_id = (SELECT user_id FROM expenses WHERE id = old.expense_id)
+        AND month = (SELECT substr(date, 1, 7) FROM expenses WHERE id = old.expense_id);
+END;
+
+-- Reviews change only the status (and reviewer, comment, version), so only a change of
+-- status or expense moves the approval's expense between buckets
+CREATE TRIGGER IF NOT EXISTS spend_rollups_approvals_update AFTER UPDATE OF expense_id, status ON approvals
+WHEN new.status IS NOT old.status OR new.expense_id IS NOT old.expense_id BEGIN
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT e.date, old.status, -1, -CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = old.expense_id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT e.user_id, substr(e.date, 1, 7), old.status, -1, -CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = old.expense_id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_daily (day, status, expense_count, total_cents)
+        SELECT e.date, new.status, 1, CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = new.expense_id
+        ON CONFLICT (day, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+        SELECT e.user_id, substr(e.date, 1, 7), new.status, 1, CAST(round(e.amount * 100) AS INTEGER)
+        FROM expenses e WHERE e.id = new.expense_id
+        ON CONFLICT (user_id, month, status) DO UPDATE SET expense_count = expense_count + excluded.expense_count,
+            total_cents = total_cents + excluded.total_cents;
+    DELETE FROM spend_daily WHERE expense_count = 0
+        AND day = (SELECT date FROM expenses WHERE id = old.expense_id);
+    DELETE FROM spend_monthly WHERE expense_count = 0
+        AND user_id = (SELECT user_id FROM expenses WHERE id = old.expense_id)
+        AND month = (SELECT substr(date, 1, 7) FROM expenses WHERE id = old.expense_id);
+END;
+
+-- Fill both tables from the expenses that already exist, as AnalyticsRepository.rebuildSpendRollups does
+INSERT INTO spend_daily (day, status, expense_count, total_cents)
+    SELECT e.date, a.status, COUNT(*), SUM(CAST(round(e.amount * 100) AS INTEGER))
+    FROM expenses e JOIN approvals a ON e.id = a.expense_id
+    GROUP BY e.date, a.status;
+
+INSERT INTO spend_monthly (user_id, month, status, expense_count, total_cents)
+    SELECT e.user_id, substr(e.date, 1, 7), a.status, COUNT(*), SUM(CAST(round(e.amount * 100) AS INTEGER))
+    FROM expenses e JOIN approvals a ON e.id = a.expense_id
+    GROUP BY e.user_id, substr(e.date, 1, 7), a.status;
@@ -0,0 +1,6 @@
+-- Every UPDATE of approvals now bumps version itself (see ApprovalRepository.REVIEW_APPROVAL).
+-- The trigger that covered writers unaware of the column did so with a second UPDATE, which
+-- logged a second change_log entry and re-ran the spend rollup triggers for one change.
+-- The employee app's routes only insert and delete approvals; any other writer that updates
+-- one must set version = version + 1 in the same statement.
+DROP TRIGGER IF EXISTS approvals_version_bump;
@@ -4,6 +4,9 @@ class ManagerDashboard {
     constructor() {
         this.currentUser = null;
         this.currentExpenseId = null;
+        this.currentVersion = null;
+        this.pendingStream = null;
+        this.pendingExpenses = new Map();
         this.init();
     }
 
@@ -175,6 +178,10 @@ class ManagerDashboard {
     }
 
     async logout() {
+        if (this.pendingStream) {
+            this.pendingStream.close();
+            this.pendingStream = null;
+        }
         try {
             // Call logout endpoint to clear HTTP-only cookie
             const response = await fetch('/api/auth/logout', this.getFetchOptions({
@@ -201,23 +208,7 @@ class ManagerDashboard {
 
             if (data && data.success) {
                 // Map server shape { expense, user, approval } -> flat shape expected by displayPendingExpenses
-                const expenses = Array.isArray(data.data) ? data.data.map(item => {
-                    const e = item.expense || {};
-                    const u = item.user || {};
-                    const a = item.approval || {};
-                    return {
-                        id: e.id,
-                        userId: e.userId ?? u.id,
-                        username: u.username ?? 'Unknown',
-                        amount: e.amount ?? 0,
-                        description: e.description ?? '',
-                        date: e.date ?? '',
-                        // include approval fields if you want to reuse displayAllExpenses later
-                        status: a.status,
-                        reviewerUsername: a.reviewer,
-                        comment: a.comment
-                    };
-                }) : [];
+                const expenses = Array.isArray(data.data) ? data.data.map(item => this.toPendingExpense(item)) : [];
 
                 this.displayPendingExpenses(expenses);
             } else {
@@ -228,6 +219,72 @@ class ManagerDashboard {
         }
     }
 
+    // Map server shape { expense, user, approval } -> flat shape expected by displayPendingExpenses
+    toPendingExpense(item) {
+        const e = item.expense || {};
+        const u = item.user || {};
+        const a = item.approval || {};
+        return {
+            id: e.id,
+            userId: e.userId ?? u.id,
+            username: u.username ?? 'Unknown',
+            amount: e.amount ?? 0,
+            description: e.description ?? '',
+            date: e.date ?? '',
+            // include approval fields if you want to reuse displayAllExpenses later
+            status: a.status,
+            reviewerUsername: a.reviewer,
+            comment: a.comment,
+            version: a.version
+        };
+    }
+
+    // Keep the pending list current from server-sent events instead of re-fetching it.
+    // The browser reconnects on its own and resumes from the last event it received.
+    subscribePendingExpenses() {
+        if (!window.EventSource) {
+            this.loadPendingExpenses();
+            return;
+        }
+        if (this.pendingStream) {
+            this.displayPendingExpenses([...this.pendingExpenses.values()]);
+            return;
+        }
+
+        const stream = new EventSource('/api/expenses/pending/stream', { withCredentials: true });
+        this.pendingStream = stream;
+
+        stream.addEventListener('snapshot', (event) => {
+            const data = JSON.parse(event.data);
+            this.pendingExpenses = new Map(data.data.map(item => [item.expense.id, this.toPendingExpense(item)]));
+            this.renderPendingExpenses();
+        });
+        const upsert = (event) => {
+            const item = JSON.parse(event.data);
+            this.pendingExpenses.set(item.expense.id, this.toPendingExpense(item));
+            this.renderPendingExpenses();
+        };
+        stream.addEventListener('add', upsert);
+        stream.addEventListener('update', upsert);
+        stream.addEventListener('remove', (event) => {
+            this.pendingExpenses.delete(JSON.parse(event.data).expenseId);
+            this.renderPendingExpenses();
+        });
+        stream.onerror = () => {
+            // CLOSED means the browser gave up (e.g. the session expired); fall back to fetching
+            if (stream.readyState === EventSource.CLOSED) {
+                this.pendingStream = null;
+                this.loadPendingExpenses();
+            }
+        };
+    }
+
+    renderPendingExpenses() {
+        if (document.getElementById('pending-expenses-section').style.display !== 'none') {
+            this.displayPendingExpenses([...this.pendingExpenses.values()]);
+        }
+    }
+
     async loadAllExpenses() {
         try {
             const response = await fetch('/api/expenses', this.getFetchOptions());
@@ -312,7 +369,7 @@ class ManagerDashboard {
                 <td>$${expense.amount.toFixed(2)}</td>
                 <td>${expense.description}</td>
                 <td>
-                    <button onclick="managerDashboard.reviewExpense(${expense.id}, '${expense.username}', '${expense.date}', ${expense.amount}, '${expense.description}')" 
+                    <button onclick="managerDashboard.reviewExpense(${expense.id}, '${expense.username}', '${expense.date}', ${expense.amount}, '${expense.description}', ${expense.version ?? null})" 
                             style="background-color: #007bff; color: white;">Review</button>
                 </td>
             </tr>`;
@@ -353,8 +410,10 @@ class ManagerDashboard {
         container.innerHTML = html;
     }
 
-    reviewExpense(expenseId, username, date, amount, description) {
+    reviewExpense(expenseId, username, date, amount, description, version) {
         this.currentExpenseId = expenseId;
+        // Sent back with the review, so it is refused if someone else reviewed the expense first
+        this.currentVersion = version;
         
         // Populate expense details in modal
         const detailsHtml = `
@@ -378,7 +437,8 @@ class ManagerDashboard {
         try {
             const response = await fetch(`/api/expenses/${this.currentExpenseId}/approve`, this.getFetchOptions({
                 method: 'POST',
-                body: JSON.stringify({ comment: comment || null }),
+                headers: { 'Accept': 'application/json' },
+                body: JSON.stringify({ comment: comment || null, expectedVersion: this.currentVersion ?? null }),
             }));
 
             const data = await response.json();
@@ -387,10 +447,12 @@ class ManagerDashboard {
                 this.showReviewMessage('Expense approved successfully!', 'success');
                 setTimeout(() => {
                     this.closeReviewModal();
-                    this.loadPendingExpenses();
+                    if (!this.pendingStream) {
+                        this.loadPendingExpenses();
+                    }
                 }, 1500);
             } else {
-                this.showReviewMessage(data.error || 'Failed to approve expense', 'error');
+                this.showReviewMessage(data.title || data.error || 'Failed to approve expense', 'error');
             }
         } catch (error) {
             this.showReviewMessage('Network error. Please try again.', 'error');
@@ -403,7 +465,8 @@ class ManagerDashboard {
         try {
             const response = await fetch(`/api/expenses/${this.currentExpenseId}/deny`, this.getFetchOptions({
                 method: 'POST',
-                body: JSON.stringify({ comment: comment || null }),
+                headers: { 'Accept': 'application/json' },
+                body: JSON.stringify({ comment: comment || null, expectedVersion: this.currentVersion ?? null }),
             }));
 
             const data = await response.json();
@@ -412,10 +475,12 @@ class ManagerDashboard {
                 this.showReviewMessage('Expense denied successfully!', 'success');
                 setTimeout(() => {
                     this.closeReviewModal();
-                    this.loadPendingExpenses();
+                    if (!this.pendingStream) {
+                        this.loadPendingExpenses();
+                    }
                 }, 1500);
             } else {
-                this.showReviewMessage(data.error || 'Failed to deny expense', 'error');
+                this.showReviewMessage(data.title || data.error || 'Failed to deny expense', 'error');
             }
         } catch (error) {
             this.showReviewMessage('Network error. Please try again.', 'error');
@@ -425,6 +490,7 @@ class ManagerDashboard {
     closeReviewModal() {
         document.getElementById('review-modal').style.display = 'none';
         this.currentExpenseId = null;
+        this.currentVersion = null;
     }
 
     async generateReport(url, filename) {
@@ -456,7 +522,7 @@ class ManagerDashboard {
 
     showPendingExpensesSection() {
         this.showSection('pending-expenses-section');
-        this.loadPendingExpenses();
+        this.subscribePendingExpenses();
     }
 
     showAllExpensesSection() {
@@ -0,0 +1,130 @@
+package com.revature.unit_tests.api_tests;
+
+import com.revature.api.AnalyticsController;
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.SpendSummary;
+import com.revature.service.AnalyticsService;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
+import jakarta.servlet.ServletOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestAnalyticsController {
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private Context ctx;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @InjectMocks
+    private AnalyticsController analyticsController;
+
+    private final List<SpendSummary> byEmployee = List.of(
+            new SpendSummary("employee2", 2, 4, new BigDecimal("525.35"), new BigDecimal("131.34")),
+            new SpendSummary("employee1", 1, 3, new BigDecimal("280.00"), new BigDecimal("93.33")));
+
+    @Test
+    @DisplayName("Test spend by employee is returned as JSON by default")
+    @SuppressWarnings("unchecked")
+    public void testGetSpendByEmployee_Json() {
+        when(analyticsService.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, null)).thenReturn(byEmployee);
+
+        analyticsController.getSpendByEmployee(ctx);
+
+        ArgumentCaptor<Object> body = ArgumentCaptor.forClass(Object.class);
+        verify(ctx).json(body.capture());
+        Map<String, Object> response = (Map<String, Object>) body.getValue();
+        assertEquals(true, response.get("success"));
+        assertEquals("employee", response.get("groupBy"));
+        assertEquals(byEmployee, response.get("data"));
+        assertEquals(2, response.get("count"));
+        verify(ctx, never()).contentType(anyString());
+    }
+
+    @Test
+    @DisplayName("Test the date range and limit are passed through to the summary")
+    public void testGetSpendByMonth_DateRange() {
+        when(ctx.queryParam("format")).thenReturn("json");
+        when(ctx.queryParam("startDate")).thenReturn("2025-01-01");
+        when(ctx.queryParam("endDate")).thenReturn("2025-03-31");
+        when(ctx.queryParam("limit")).thenReturn("12");
+        when(analyticsService.summarizeSpend(SpendGrouping.MONTH, "2025-01-01", "2025-03-31", 12)).thenReturn(List.of());
+
+        analyticsController.getSpendByMonth(ctx);
+
+        verify(analyticsService).summarizeSpend(SpendGrouping.MONTH, "2025-01-01", "2025-03-31", 12);
+        verify(ctx).json(any());
+    }
+
+    @Test
+    @DisplayName("Test ?format=csv downloads the summary as CSV")
+    public void testGetSpendByCategory_Csv() {
+        List<SpendSummary> summaries = List.of(new SpendSummary("hotel", 3, new BigDecimal("650.15"), new BigDecimal("216.72")));
+        when(ctx.queryParam("format")).thenReturn("csv");
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(analyticsService.summarizeSpend(SpendGrouping.CATEGORY, null, null, null)).thenReturn(summaries);
+
+        analyticsController.getSpendByCategory(ctx);
+
+        verify(ctx).contentType("text/csv");
+        verify(ctx).header("Content-Disposition", "attachment; filename=\"spend_by_category.csv\"");
+        verify(analyticsService).writeCsv(SpendGrouping.CATEGORY, summaries, outputStream);
+        verify(ctx, never()).json(any());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            ", 01/02/2025, , , Invalid startDate format. Use YYYY-MM-DD format",
+            ", , yesterday, , Invalid endDate format. Use YYYY-MM-DD format",
+            ", 2025-03-01, 2025-02-01, , startDate must not be after endDate",
+            ", , , 0, Invalid limit. Use a positive number",
+            ", , , ten, Invalid limit. Use a positive number",
+            "xml, , , , Invalid format. Use json or csv"
+    })
+    @DisplayName("Test invalid dates, reversed ranges, bad limits and unknown formats are rejected")
+    public void testGetSpendByStatus_BadRequest(String format, String startDate, String endDate, String limit,
+                                                String expectedMessage) {
+        // Only the parameters read before the invalid one is found are looked up
+        lenient().when(ctx.queryParam("format")).thenReturn(format);
+        lenient().when(ctx.queryParam("startDate")).thenReturn(startDate);
+        lenient().when(ctx.queryParam("endDate")).thenReturn(endDate);
+        lenient().when(ctx.queryParam("limit")).thenReturn(limit);
+
+        BadRequestResponse exception = assertThrows(BadRequestResponse.class, () -> analyticsController.getSpendByStatus(ctx));
+
+        assertEquals(expectedMessage, exception.getMessage());
+        verifyNoInteractions(analyticsService);
+    }
+
+    @Test
+    @DisplayName("Test a failing query is reported as a server error")
+    public void testGetSpendByEmployee_Error() {
+        when(analyticsService.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, null))
+                .thenThrow(new RuntimeException("Error summarizing spend by employee"));
+
+        InternalServerErrorResponse exception = assertThrows(InternalServerErrorResponse.class,
+                () -> analyticsController.getSpendByEmployee(ctx));
+        assertTrue(exception.getMessage().startsWith("Failed to summarize spend by employee"));
+    }
+}
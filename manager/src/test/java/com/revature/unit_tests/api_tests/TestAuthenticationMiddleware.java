@@ -38,7 +38,8 @@ public class TestAuthenticationMiddleware {
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 
         when(ctx.cookie("jwt")).thenReturn(jwtToken);
-        when(authService.validateManagerAuthentication(jwtToken)).thenReturn(managerOpt);
+        when(authService.validateJwtToken(jwtToken)).thenReturn(managerOpt);
+        when(authService.isManager(validManager)).thenReturn(true);
 
         //Act
         Handler actualHandler = authMiddleware.validateManager();
@@ -46,6 +47,7 @@ public class TestAuthenticationMiddleware {
 
         //Assert
         verify(ctx, times(1)).cookie("jwt");
+        verify(authService, times(1)).validateJwtToken(jwtToken);
         verify(ctx, times(1)).attribute("manager", validManager);
         verify(ctx).attribute(eq("manager"), userCaptor.capture());
         User actualUser = userCaptor.getValue();
@@ -59,15 +61,14 @@ public class TestAuthenticationMiddleware {
         String jwtToken = "invalidToken";
 
         when(ctx.cookie("jwt")).thenReturn(jwtToken);
-        when(authService.validateManagerAuthentication(jwtToken)).thenReturn(Optional.empty());
         when(authService.validateJwtToken(jwtToken)).thenReturn(Optional.empty());
 
         //Act/Assert
         Handler actualHandler = authMiddleware.validateManager();
         UnauthorizedResponse ex = assertThrows(UnauthorizedResponse.class, ()->actualHandler.handle(ctx));
         assertEquals("Authentication required", ex.getMessage());
-        verify(authService, times(1)).validateManagerAuthentication(jwtToken);
         verify(authService, times(1)).validateJwtToken(jwtToken);
+        verify(authService, never()).isManager(any());
     }
 
     @DisplayName("Testing validate manager, employee found")
@@ -78,15 +79,15 @@ public class TestAuthenticationMiddleware {
         User employee = new User(1,"bob123","password123","Employee");
 
         when(ctx.cookie("jwt")).thenReturn(jwtToken);
-        when(authService.validateManagerAuthentication(jwtToken)).thenReturn(Optional.empty());
         when(authService.validateJwtToken(jwtToken)).thenReturn(Optional.of(employee));
+        when(authService.isManager(employee)).thenReturn(false);
 
         //Act/Assert
         Handler actualHandler = authMiddleware.validateManager();
         ForbiddenResponse ex = assertThrows(ForbiddenResponse.class, ()->actualHandler.handle(ctx));
         assertEquals("Access denied - managers only", ex.getMessage());
-        verify(authService, times(1)).validateManagerAuthentication(jwtToken);
         verify(authService, times(1)).validateJwtToken(jwtToken);
+        verify(ctx, never()).attribute(eq("manager"), any());
     }
 
     @DisplayName("Test get authenticated manager, positive test")
@@ -0,0 +1,127 @@
+package com.revature.unit_tests.api_tests;
+
+import com.revature.api.Bulkhead;
+import com.revature.api.BulkheadStats;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBulkhead {
+    @Mock
+    private Context ctx;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A handler that holds its permit until released.
+     */
+    private static class BlockingHandler implements Handler {
+        private final CountDownLatch started;
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingHandler(int expectedStarts) {
+            this.started = new CountDownLatch(expectedStarts);
+        }
+
+        @Override
+        public void handle(Context ctx) throws Exception {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Test no more than the permitted number of handlers run at once")
+    public void testWrap_CapsConcurrency() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("reads", 3, Duration.ofSeconds(10));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Handler handler = bulkhead.wrap(c -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+        });
+
+        Future<?>[] futures = new Future<?>[50];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.submit(() -> {
+                handler.handle(ctx);
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, maxRunning.get());
+        BulkheadStats stats = bulkhead.getStats();
+        assertEquals(50, stats.getAdmittedCount());
+        assertEquals(0, stats.getRejectedCount());
+        assertEquals(0, stats.getActive());
+        assertTrue(stats.getQueuedCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Test a request that waits too long for a permit is rejected with 503")
+    public void testWrap_RejectsAfterMaxWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("reports", 1, Duration.ofMillis(50));
+        BlockingHandler blocking = new BlockingHandler(1);
+        Future<?> holder = executor.submit(() -> {
+            bulkhead.wrap(blocking).handle(ctx);
+            return null;
+        });
+        assertTrue(blocking.started.await(5, TimeUnit.SECONDS));
+        Handler next = mock(Handler.class);
+
+        ServiceUnavailableResponse ex = assertThrows(ServiceUnavailableResponse.class,
+                () -> bulkhead.wrap(next).handle(ctx));
+
+        assertEquals("Server busy (reports), please retry", ex.getMessage());
+        verify(ctx).header("Retry-After", "1");
+        verify(next, never()).handle(any());
+        assertEquals(1, bulkhead.getStats().getActive());
+        assertEquals(1, bulkhead.getStats().getRejectedCount());
+
+        blocking.release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(0, bulkhead.getStats().getActive());
+    }
+
+    @Test
+    @DisplayName("Test the permit is released when the handler throws")
+    public void testWrap_ReleasesOnFailure() {
+        Bulkhead bulkhead = new Bulkhead("writes", 1, Duration.ZERO);
+        Handler failing = bulkhead.wrap(c -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(IllegalStateException.class, () -> failing.handle(ctx));
+        assertThrows(IllegalStateException.class, () -> failing.handle(ctx));
+
+        assertEquals(0, bulkhead.getStats().getActive());
+        assertEquals(2, bulkhead.getStats().getAdmittedCount());
+    }
+}
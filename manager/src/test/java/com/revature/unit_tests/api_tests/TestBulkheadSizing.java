@@ -0,0 +1,51 @@
+package com.revature.unit_tests.api_tests;
+
+import com.revature.api.BulkheadSizing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBulkheadSizing {
+
+    @ParameterizedTest(name = "virtual threads {0}, {1} carriers, {2} readers")
+    @DisplayName("Test the default limits fit the reader pool and the carriers with no warning")
+    @CsvSource({
+            // virtualThreads, carriers, readPoolSize, reportJobWorkers, reads, reports
+            "true,  2,  10, 2, 1, 1",
+            "true,  4,  10, 2, 1, 1",
+            "true,  8,  10, 2, 4, 2",
+            "true,  32, 10, 2, 4, 2",
+            "true,  32, 10, 0, 6, 2",
+            "true,  32, 40, 2, 20, 10",
+            "false, 2,  10, 2, 4, 2",
+            "false, 2,  4,  4, 1, 1"
+    })
+    public void testDefaults(boolean virtualThreads, int carriers, int readPoolSize, int reportJobWorkers,
+                             int reads, int reports) {
+        BulkheadSizing sizing = new BulkheadSizing(virtualThreads, carriers, readPoolSize, reportJobWorkers);
+
+        assertEquals(reads, sizing.defaultReadsMax());
+        assertEquals(reports, sizing.defaultReportsMax());
+        if ((carriers > 2 || !virtualThreads) && readPoolSize > reportJobWorkers + 1) {
+            assertEquals(0, sizing.check(reads, reports).size(), () -> sizing.check(reads, reports).toString());
+        }
+    }
+
+    @ParameterizedTest(name = "{0} reads and {1} reports")
+    @DisplayName("Test limits past the reader pool or the carriers are warned about")
+    @CsvSource({
+            // reads, reports, reportJobWorkers, warnings
+            "8, 2, 0, 1",
+            "9, 2, 0, 2",
+            "6, 2, 2, 0",
+            "7, 2, 2, 1",
+            "4, 2, 2, 0"
+    })
+    public void testCheck(int reads, int reports, int reportJobWorkers, int warnings) {
+        BulkheadSizing sizing = new BulkheadSizing(true, 11, 10, reportJobWorkers);
+
+        assertEquals(warnings, sizing.check(reads, reports).size());
+    }
+}
@@ -2,24 +2,51 @@ package com.revature.unit_tests.api_tests;
 
 import com.revature.api.AuthenticationMiddleware;
 import com.revature.api.ExpenseController;
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpensePage;
+import com.revature.repository.ExpenseQuery;
+import com.revature.repository.ExpenseRow;
+import com.revature.repository.ExpenseRowHandler;
 import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.PageCursor;
+import com.revature.repository.PendingExpenseFilter;
 import com.revature.repository.User;
+import com.revature.service.BatchReviewResult;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReviewConflictException;
+import com.revature.service.ReviewTimeoutException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.http.InternalServerErrorResponse;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.javalin.json.JavalinJackson;
 import io.javalin.validation.Validator;
-
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -100,7 +127,7 @@ public class TestExpenseController {
             Map<String, Object> exampleBody = new HashMap<String, Object>();
             exampleBody.put("comment", "example comment");
             when(ctx.bodyAsClass(Map.class)).thenReturn(exampleBody);
-            when(expenseService.approveExpense(expenseId, manager.getId(), (String) exampleBody.get("comment"))).thenReturn(true);
+            when(expenseService.approveExpense(expenseId, manager.getId(), (String) exampleBody.get("comment"), null)).thenReturn(true);
             //Act
             expenseController.approveExpense(ctx);
             //Assert
@@ -109,7 +136,7 @@ public class TestExpenseController {
         //Assert
         verify(ctx, times(1)).pathParamAsClass("expenseId", Integer.class);
         verify(ctx, times(1)).bodyAsClass(Map.class);
-        verify(expenseService, times(1)).approveExpense(3, 1, "example comment");
+        verify(expenseService, times(1)).approveExpense(3, 1, "example comment", null);
         verify(ctx, times(1)).json(Map.of(
                 "success", true,
                 "message", "Expense approved successfully"
@@ -128,7 +155,7 @@ public class TestExpenseController {
             when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
             // for comment
             when(ctx.bodyAsClass(Map.class)).thenThrow(BadRequestResponse.class);
-            when(expenseService.approveExpense(expenseId, manager.getId(), null)).thenReturn(true);
+            when(expenseService.approveExpense(expenseId, manager.getId(), null, null)).thenReturn(true);
             //Act
             expenseController.approveExpense(ctx);
             //Assert
@@ -137,7 +164,7 @@ public class TestExpenseController {
         //Assert
         verify(ctx, times(1)).pathParamAsClass("expenseId", Integer.class);
         verify(ctx, times(1)).bodyAsClass(Map.class);
-        verify(expenseService, times(1)).approveExpense(3, 1, null);
+        verify(expenseService, times(1)).approveExpense(3, 1, null, null);
         verify(ctx, times(1)).json(Map.of(
                 "success", true,
                 "message", "Expense approved successfully"
@@ -153,7 +180,7 @@ public class TestExpenseController {
         when(intValidator.get()).thenReturn(expenseId);
         User manager = new User();
         when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
-        when(expenseService.approveExpense(expenseId, manager.getId(), null)).thenReturn(false);
+        when(expenseService.approveExpense(expenseId, manager.getId(), null, null)).thenReturn(false);
         //Act
         NotFoundResponse ex = assertThrows(NotFoundResponse.class, ()->expenseController.approveExpense(ctx));
         //Assert
@@ -161,6 +188,67 @@ public class TestExpenseController {
 
     }
 
+    @DisplayName("Test approve expense, conflicting review returns 409 with the current approval")
+    @Test
+    public void testApproveExpense_Conflict(){
+        try(MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            //Arrange
+            int expenseId = 3;
+            when(ctx.pathParamAsClass("expenseId", Integer.class)).thenReturn(intValidator);
+            when(intValidator.get()).thenReturn(expenseId);
+            User manager = new User(1, "manager1", "password123", "Manager");
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
+            when(ctx.bodyAsClass(Map.class)).thenReturn(Map.of("expectedVersion", 0));
+            Approval current = new Approval(7, expenseId, "denied", 2, null, "2025-01-02 10:00:00", 1);
+            when(expenseService.approveExpense(expenseId, manager.getId(), null, 0))
+                    .thenThrow(new ReviewConflictException(current));
+            //Act
+            ConflictResponse ex = assertThrows(ConflictResponse.class, ()->expenseController.approveExpense(ctx));
+            //Assert
+            assertEquals(409, ex.getStatus());
+            assertEquals("Expense was already denied by reviewer 2", ex.getMessage());
+            assertEquals(Map.of("status", "denied", "version", "1", "reviewer", "2",
+                    "reviewDate", "2025-01-02 10:00:00"), ex.getDetails());
+        }
+    }
+
+    @DisplayName("Test approve expense, review not confirmed in time returns 503")
+    @Test
+    public void testApproveExpense_CommitTimeout(){
+        try(MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            //Arrange
+            int expenseId = 3;
+            when(ctx.pathParamAsClass("expenseId", Integer.class)).thenReturn(intValidator);
+            when(intValidator.get()).thenReturn(expenseId);
+            User manager = new User(1, "manager1", "password123", "Manager");
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
+            when(expenseService.approveExpense(expenseId, manager.getId(), null, null))
+                    .thenThrow(new ReviewTimeoutException("Review of expense 3 was not confirmed within 10 seconds"));
+            //Act
+            ServiceUnavailableResponse ex = assertThrows(ServiceUnavailableResponse.class,
+                    ()->expenseController.approveExpense(ctx));
+            //Assert
+            assertEquals(503, ex.getStatus());
+            assertEquals("Review of expense 3 was not confirmed within 10 seconds", ex.getMessage());
+        }
+    }
+
+    @DisplayName("Test approve expense, expected version that is not an integer")
+    @Test
+    public void testApproveExpense_InvalidExpectedVersion(){
+        try(MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            //Arrange
+            when(ctx.pathParamAsClass("expenseId", Integer.class)).thenReturn(intValidator);
+            when(intValidator.get()).thenReturn(3);
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(new User(1, "manager1", "password123", "Manager"));
+            when(ctx.bodyAsClass(Map.class)).thenReturn(Map.of("expectedVersion", "latest"));
+            //Act/Assert
+            BadRequestResponse ex = assertThrows(BadRequestResponse.class, ()->expenseController.approveExpense(ctx));
+            assertEquals("Invalid expectedVersion - must be an integer", ex.getMessage());
+        }
+        verifyNoInteractions(expenseService);
+    }
+
     @DisplayName("Test approve expense, number format exception for expense id")
     @Test
     public void testApproveExpense_NumberFormatException(){
@@ -194,7 +282,7 @@ public class TestExpenseController {
         when(intValidator.get()).thenReturn(expenseId);
         User manager = new User(1, "manager1", "password123", "Manager");
         when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
-        when(expenseService.approveExpense(expenseId, manager.getId(), null)).thenReturn(true);
+        when(expenseService.approveExpense(expenseId, manager.getId(), null, null)).thenReturn(true);
         when(ctx.json(any())).thenThrow(InternalServerErrorResponse.class);
         //Act/Assert
         InternalServerErrorResponse ex = assertThrows(InternalServerErrorResponse.class, ()->expenseController.approveExpense(ctx));
@@ -215,7 +303,7 @@ public class TestExpenseController {
             Map<String, Object> exampleBody = new HashMap<String, Object>();
             exampleBody.put("comment", "example comment");
             when(ctx.bodyAsClass(Map.class)).thenReturn(exampleBody);
-            when(expenseService.denyExpense(expenseId, manager.getId(), (String) exampleBody.get("comment"))).thenReturn(true);
+            when(expenseService.denyExpense(expenseId, manager.getId(), (String) exampleBody.get("comment"), null)).thenReturn(true);
             //Act
             expenseController.denyExpense(ctx);
             //Assert
@@ -224,7 +312,7 @@ public class TestExpenseController {
         //Assert
         verify(ctx, times(1)).pathParamAsClass("expenseId", Integer.class);
         verify(ctx, times(1)).bodyAsClass(Map.class);
-        verify(expenseService, times(1)).denyExpense(3, 1, "example comment");
+        verify(expenseService, times(1)).denyExpense(3, 1, "example comment", null);
         verify(ctx, times(1)).json(Map.of(
                 "success", true,
                 "message", "Expense denied successfully"
@@ -242,7 +330,7 @@ public class TestExpenseController {
             when(intValidator.get()).thenReturn(expenseId);
             User manager = new User(1, "manager1", "password123", "Manager");
             when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
-            when(expenseService.denyExpense(expenseId, manager.getId(), null)).thenReturn(true);
+            when(expenseService.denyExpense(expenseId, manager.getId(), null, null)).thenReturn(true);
             //Act
             expenseController.denyExpense(ctx);
             //Assert
@@ -250,7 +338,7 @@ public class TestExpenseController {
         }
         //Assert
         verify(ctx, times(1)).pathParamAsClass("expenseId", Integer.class);
-        verify(expenseService, times(1)).denyExpense(3, 1, null);
+        verify(expenseService, times(1)).denyExpense(3, 1, null, null);
         verify(ctx, times(1)).json(Map.of(
                 "success", true,
                 "message", "Expense denied successfully"
@@ -266,7 +354,7 @@ public class TestExpenseController {
         when(intValidator.get()).thenReturn(expenseId);
         User manager = new User();
         when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
-        when(expenseService.denyExpense(expenseId, manager.getId(), null)).thenReturn(false);
+        when(expenseService.denyExpense(expenseId, manager.getId(), null, null)).thenReturn(false);
         //Act
         NotFoundResponse ex = assertThrows(NotFoundResponse.class, ()->expenseController.denyExpense(ctx));
         //Assert
@@ -306,7 +394,7 @@ public class TestExpenseController {
         when(intValidator.get()).thenReturn(expenseId);
         User manager = new User(1, "manager1", "password123", "Manager");
         when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
-        when(expenseService.denyExpense(expenseId, manager.getId(), null)).thenReturn(true);
+        when(expenseService.denyExpense(expenseId, manager.getId(), null, null)).thenReturn(true);
         when(ctx.json(any())).thenThrow(InternalServerErrorResponse.class);
         //Act/Assert
         InternalServerErrorResponse ex = assertThrows(InternalServerErrorResponse.class, ()->expenseController.denyExpense(ctx));
@@ -432,4 +520,309 @@ public class TestExpenseController {
         BadRequestResponse ex = assertThrows(BadRequestResponse.class, ()->expenseController.getExpensesByEmployee(ctx));
         assertEquals("Invalid employee ID format", ex.getMessage());
     }
+
+    @DisplayName("Test get all expenses, paged request returns cursor for next page")
+    @Test
+    public void testGetAllExpenses_Paged(){
+        //Arrange
+        List<ExpenseWithUser> items = List.of(new ExpenseWithUser());
+        PageCursor next = new PageCursor("2025-01-05", 4);
+        when(ctx.queryParam("limit")).thenReturn("1");
+        when(expenseService.getExpensesPage(ExpenseQuery.all(), null, 1)).thenReturn(new ExpensePage(items, next));
+        //Act
+        expenseController.getAllExpenses(ctx);
+        //Assert
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("success", true);
+        expected.put("data", items);
+        expected.put("count", 1);
+        expected.put("limit", 1);
+        expected.put("hasMore", true);
+        expected.put("nextCursor", next.encode());
+        verify(ctx, times(1)).json(expected);
+        verify(expenseService, never()).getAllExpenses();
+    }
+
+    @DisplayName("Test get pending expenses, paged request continues from cursor")
+    @Test
+    public void testGetPendingExpenses_PagedWithCursor(){
+        //Arrange
+        PageCursor after = new PageCursor("2025-01-05", 4);
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(after.encode());
+        when(expenseService.getExpensesPage(eq(ExpenseQuery.pending()), any(PageCursor.class), eq(ExpenseService.DEFAULT_PAGE_SIZE)))
+                .thenReturn(new ExpensePage(List.of(), null));
+        //Act
+        expenseController.getPendingExpenses(ctx);
+        //Assert
+        verify(expenseService).getExpensesPage(eq(ExpenseQuery.pending()),
+                argThat(cursor -> cursor.getId() == 4 && cursor.getDate().equals("2025-01-05")),
+                eq(ExpenseService.DEFAULT_PAGE_SIZE));
+    }
+
+    @DisplayName("Test get all expenses, invalid limit and cursor are rejected")
+    @Test
+    public void testGetAllExpenses_InvalidPageParams(){
+        //Arrange
+        when(ctx.queryParam("limit")).thenReturn("0", "abc", "10");
+        when(ctx.queryParam("after")).thenReturn("not-a-cursor");
+        //Act/Assert
+        assertEquals("Invalid limit - must be a positive integer",
+                assertThrows(BadRequestResponse.class, ()->expenseController.getAllExpenses(ctx)).getMessage());
+        assertEquals("Invalid limit - must be a positive integer",
+                assertThrows(BadRequestResponse.class, ()->expenseController.getAllExpenses(ctx)).getMessage());
+        assertEquals("Invalid page cursor",
+                assertThrows(BadRequestResponse.class, ()->expenseController.getAllExpenses(ctx)).getMessage());
+        verifyNoInteractions(expenseService);
+    }
+
+    @DisplayName("Test get expenses by employee, streamed response is written row by row with count trailer")
+    @Test
+    public void testGetExpensesByEmployee_Streamed() throws Exception {
+        //Arrange
+        int employeeId = 1;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(7);
+        when(rs.getInt(2)).thenReturn(employeeId);
+        when(rs.getDouble(3)).thenReturn(12.5);
+        when(rs.getString(4)).thenReturn("Lunch, \"client\"");
+        when(rs.getString(5)).thenReturn("2025-01-05");
+        when(rs.getString(6)).thenReturn("employee1");
+        when(rs.getString(7)).thenReturn("Employee");
+        when(rs.getInt(8)).thenReturn(9);
+        when(rs.getString(9)).thenReturn("pending");
+        when(rs.getInt(10)).thenReturn(0);
+        when(rs.wasNull()).thenReturn(true);
+        when(ctx.pathParamAsClass("employeeId", Integer.class)).thenReturn(intValidator);
+        when(intValidator.get()).thenReturn(employeeId);
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(null);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+        when(expenseService.streamExpenses(eq(ExpenseQuery.byUser(employeeId)), any(ExpenseRowHandler.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(1, ExpenseRowHandler.class).handle(new ExpenseRow(rs));
+                    return 1;
+                });
+        //Act
+        expenseController.getExpensesByEmployee(ctx);
+        //Assert
+        assertEquals("{\"success\":true,\"data\":[{"
+                + "\"expense\":{\"id\":7,\"userId\":1,\"amount\":12.5,\"description\":\"Lunch, \\\"client\\\"\",\"date\":\"2025-01-05\"},"
+                + "\"user\":{\"id\":1,\"username\":\"employee1\",\"password\":null,\"role\":\"Employee\",\"manager\":false},"
+                + "\"approval\":{\"id\":9,\"expenseId\":7,\"status\":\"pending\",\"reviewer\":null,\"comment\":null,\"reviewDate\":null,\"version\":0,\"pending\":true}"
+                + "}],\"count\":1,\"employeeId\":1}", body.toString(StandardCharsets.UTF_8));
+        verify(ctx, never()).json(any());
+        verify(expenseService, never()).getExpensesByEmployee(anyInt());
+    }
+
+    @DisplayName("Test get all expenses, client disconnect during stream is not reported as a server error")
+    @Test
+    public void testGetAllExpenses_StreamClientDisconnect() throws Exception {
+        //Arrange
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(null);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(new ByteArrayOutputStream()));
+        when(expenseService.streamExpenses(eq(ExpenseQuery.all()), any(ExpenseRowHandler.class)))
+                .thenThrow(new UncheckedIOException(new IOException("Broken pipe")));
+        //Act/Assert
+        assertDoesNotThrow(() -> expenseController.getAllExpenses(ctx));
+        verify(expenseService, never()).getAllExpenses();
+    }
+
+    @DisplayName("Test get all expenses, a query that fails before its first row gets a clean 500")
+    @Test
+    public void testGetAllExpenses_StreamFailsBeforeFirstRow() throws Exception {
+        //Arrange
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(null);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+        when(expenseService.streamExpenses(eq(ExpenseQuery.all()), any(ExpenseRowHandler.class)))
+                .thenThrow(new RuntimeException("Error finding all expenses"));
+        //Act
+        InternalServerErrorResponse ex = assertThrows(InternalServerErrorResponse.class,
+                () -> expenseController.getAllExpenses(ctx));
+        //Assert
+        assertEquals("Failed to retrieve expenses: Error finding all expenses", ex.getMessage());
+        assertEquals(0, body.size());
+    }
+
+    @DisplayName("Test get all expenses, a query that fails mid-stream aborts the connection instead of appending an error")
+    @Test
+    public void testGetAllExpenses_StreamFailsMidResponse() throws Exception {
+        //Arrange
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Request request = mock(Request.class);
+        HttpChannel channel = mock(HttpChannel.class);
+        when(request.getHttpChannel()).thenReturn(channel);
+        when(ctx.req()).thenReturn(request);
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(null);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+        RuntimeException failure = new RuntimeException("Error finding all expenses");
+        when(expenseService.streamExpenses(eq(ExpenseQuery.all()), any(ExpenseRowHandler.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(1, ExpenseRowHandler.class).handle(new ExpenseRow(mock(ResultSet.class)));
+                    throw failure;
+                });
+        //Act
+        assertDoesNotThrow(() -> expenseController.getAllExpenses(ctx));
+        //Assert
+        verify(channel).abort(failure);
+        String sent = body.toString(StandardCharsets.UTF_8);
+        assertTrue(sent.startsWith("{\"success\":true,\"data\":[{"));
+        assertFalse(sent.contains("\"count\""), "A truncated list must not be completed");
+    }
+
+    @DisplayName("Test streamed rows match ctx.json serialization of the same expenses")
+    @Test
+    public void testGetAllExpenses_StreamMatchesJsonMapper() throws Exception {
+        //Arrange
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(7);
+        when(rs.getInt(2)).thenReturn(4);
+        when(rs.getDouble(3)).thenReturn(12.5);
+        when(rs.getString(4)).thenReturn("Taxi \u00e9 \"airport\"");
+        when(rs.getString(5)).thenReturn("2025-01-05");
+        when(rs.getString(6)).thenReturn("manager2");
+        when(rs.getString(7)).thenReturn("Manager");
+        when(rs.getInt(8)).thenReturn(9);
+        when(rs.getString(9)).thenReturn("approved");
+        when(rs.getInt(10)).thenReturn(3);
+        when(rs.getString(11)).thenReturn("ok");
+        when(rs.getString(12)).thenReturn("2025-01-06 09:30:00");
+        when(rs.getInt(13)).thenReturn(2);
+        when(ctx.queryParam("limit")).thenReturn(null);
+        when(ctx.queryParam("after")).thenReturn(null);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+        when(expenseService.streamExpenses(eq(ExpenseQuery.all()), any(ExpenseRowHandler.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(1, ExpenseRowHandler.class).handle(new ExpenseRow(rs));
+                    return 1;
+                });
+        ExpenseWithUser expected = new ExpenseWithUser(
+                new Expense(7, 4, 12.5, "Taxi \u00e9 \"airport\"", "2025-01-05"),
+                new User(4, "manager2", null, "Manager"),
+                new Approval(9, 7, "approved", 3, "ok", "2025-01-06 09:30:00", 2));
+        //Act
+        expenseController.getAllExpenses(ctx);
+        //Assert
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode json = mapper.readTree(new JavalinJackson().toJsonString(
+                Map.of("success", true, "data", List.of(expected), "count", 1), Map.class));
+        assertEquals(json, mapper.readTree(body.toByteArray()));
+    }
+
+    private static ServletOutputStream servletStream(ByteArrayOutputStream target) {
+        return new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                target.write(b);
+            }
+        };
+    }
+
+    @DisplayName("Test batch review, items are mapped to decisions and results are counted")
+    @Test
+    public void testReviewExpenses_Items() {
+        try (MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            User manager = new User(1, "manager1", "password123", "Manager");
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
+            Map<String, Object> body = Map.of("items", List.of(
+                    Map.of("expenseId", 3, "decision", "approve", "comment", "ok"),
+                    Map.of("expenseId", 4, "decision", "DENY"),
+                    Map.of("expenseId", 5, "decision", "maybe")));
+            when(ctx.bodyAsClass(Map.class)).thenReturn(body);
+            List<BatchReviewResult> results = List.of(
+                    BatchReviewResult.succeeded(3, "approved"),
+                    BatchReviewResult.succeeded(4, "denied"),
+                    BatchReviewResult.failed(5, "maybe", "Decision must be approve or deny"));
+            ArgumentCaptor<List<ApprovalDecision>> decisions = ArgumentCaptor.forClass(List.class);
+            when(expenseService.reviewExpenses(decisions.capture())).thenReturn(results);
+
+            expenseController.reviewExpenses(ctx);
+
+            assertEquals(List.of("approved", "denied", "maybe"),
+                    decisions.getValue().stream().map(ApprovalDecision::getStatus).toList());
+            assertEquals("ok", decisions.getValue().get(0).getComment());
+            assertEquals(1, decisions.getValue().get(0).getReviewerId());
+            assertNull(decisions.getValue().get(1).getComment());
+            verify(ctx).json(Map.of(
+                    "success", true,
+                    "data", results,
+                    "count", 3,
+                    "succeeded", 2L,
+                    "failed", 1L
+            ));
+        }
+    }
+
+    @DisplayName("Test batch review, a filter reviews the matching pending expenses")
+    @Test
+    public void testReviewExpenses_Filter() {
+        try (MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            User manager = new User(1, "manager1", "password123", "Manager");
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(manager);
+            when(ctx.bodyAsClass(Map.class)).thenReturn(Map.of(
+                    "filter", Map.of("employeeId", 2, "maxAmount", 50),
+                    "decision", "approve"));
+            ArgumentCaptor<PendingExpenseFilter> filter = ArgumentCaptor.forClass(PendingExpenseFilter.class);
+            List<BatchReviewResult> results = List.of(BatchReviewResult.succeeded(7, "approved"));
+            when(expenseService.reviewPendingExpenses(filter.capture(), eq("approved"), eq(1), isNull()))
+                    .thenReturn(results);
+
+            expenseController.reviewExpenses(ctx);
+
+            assertEquals(2, filter.getValue().getEmployeeId());
+            assertEquals(50.0, filter.getValue().getMaxAmount());
+            assertNull(filter.getValue().getStartDate());
+            verify(ctx).json(Map.of(
+                    "success", true,
+                    "data", results,
+                    "count", 1,
+                    "succeeded", 1L,
+                    "failed", 0L
+            ));
+        }
+    }
+
+    @DisplayName("Test batch review, items and filter together are rejected")
+    @Test
+    public void testReviewExpenses_ItemsAndFilter() {
+        when(ctx.bodyAsClass(Map.class)).thenReturn(Map.of("items", List.of(), "filter", Map.of()));
+
+        BadRequestResponse ex = assertThrows(BadRequestResponse.class, () -> expenseController.reviewExpenses(ctx));
+        assertEquals("Provide either items or filter", ex.getMessage());
+        verifyNoInteractions(expenseService);
+    }
+
+    @DisplayName("Test batch review, service validation errors become bad requests")
+    @Test
+    public void testReviewExpenses_TooMany() {
+        try (MockedStatic<AuthenticationMiddleware> mockedStatic = Mockito.mockStatic(AuthenticationMiddleware.class)) {
+            when(AuthenticationMiddleware.getAuthenticatedManager(ctx)).thenReturn(new User(1, "manager1", null, "Manager"));
+            when(ctx.bodyAsClass(Map.class)).thenReturn(Map.of("filter", Map.of(), "decision", "deny"));
+            when(expenseService.reviewPendingExpenses(any(), eq("denied"), eq(1), isNull()))
+                    .thenThrow(new IllegalArgumentException("Filter matches more than 1000 pending expenses"));
+
+            BadRequestResponse ex = assertThrows(BadRequestResponse.class, () -> expenseController.reviewExpenses(ctx));
+            assertEquals("Filter matches more than 1000 pending expenses", ex.getMessage());
+        }
+    }
 }
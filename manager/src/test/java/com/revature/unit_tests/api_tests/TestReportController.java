@@ -1,20 +1,42 @@
 package com.revature.unit_tests.api_tests;
 
 import com.revature.api.ReportController;
-import com.revature.repository.ExpenseWithUser;
+import com.revature.cache.ContentCache;
+import com.revature.repository.ExpenseQuery;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReportCache;
+import com.revature.service.ReportJob;
+import com.revature.service.ReportJobService;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.ConflictResponse;
 import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
 import io.javalin.http.InternalServerErrorResponse;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.validation.Validator;
+import jakarta.servlet.ServletOutputStream;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,33 +46,40 @@ public class TestReportController {
     @Mock
     private ExpenseService expenseService;
 
+    @Mock
+    private ReportJobService reportJobService;
+
     @Mock
     private Context ctx;
 
+    @Mock
+    private ServletOutputStream outputStream;
+
     @InjectMocks
     private ReportController reportController;
 
     // MU-142
     @DisplayName("Test generateAllExpenseReport Happy Path")
     @Test
-    public void testGenerateAllExpensesReport_positive() {
+    public void testGenerateAllExpensesReport_positive() throws IOException {
         // Arrange
-        List<ExpenseWithUser> expenses = List.of(mock(ExpenseWithUser.class));
-        String csvContent = "Expense ID, Employee, Description\n1, Joe, Test Data";
-
-        when(expenseService.getAllExpenses()).thenReturn(expenses);
-        when(expenseService.generateCsvReport(expenses)).thenReturn(csvContent);
+        byte[] report = "Expense ID\n".getBytes(StandardCharsets.UTF_8);
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(report, 0, report.length);
+            return 1;
+        });
 
         // Act
         reportController.generateAllExpensesReport(ctx);
 
         // Assert
-        verify(expenseService).getAllExpenses();
-        verify(expenseService).generateCsvReport(expenses);
+        verify(expenseService).writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class));
+        verify(outputStream).write(report, 0, report.length);
 
         verify(ctx).contentType("text/csv");
         verify(ctx).header("Content-Disposition", "attachment; filename=\"all_expenses_report.csv\"");
-        verify(ctx).result(csvContent);
+        verify(ctx, never()).result(anyString());
     }
 
     // MU-143
@@ -58,7 +87,8 @@ public class TestReportController {
     @Test
     public void testGenerateAllExpenseReport_negative() {
         // Arrange
-        when(expenseService.getAllExpenses()).thenThrow(new RuntimeException());
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class))).thenThrow(new RuntimeException());
 
         // Act
 
@@ -71,14 +101,12 @@ public class TestReportController {
     @Test
     public void testGenerateEmployeeExpensesReport_positive() {
         // Arrange
-        List<ExpenseWithUser> expenses = List.of(mock(ExpenseWithUser.class));
-        String csvContent = "Expense ID, Employee, Description\n1, Joe, Test Data";
         Validator<Integer> validator = mock(Validator.class);
 
-        when(expenseService.getExpensesByEmployee(1)).thenReturn(expenses);
-        when(expenseService.generateCsvReport(expenses)).thenReturn(csvContent);
         when(ctx.pathParamAsClass("employeeId", Integer.class)).thenReturn(validator);
         when(validator.get()).thenReturn(1);
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.byUser(1)), any(OutputStream.class))).thenReturn(1);
 
         // Act
         reportController.generateEmployeeExpensesReport(ctx);
@@ -86,7 +114,7 @@ public class TestReportController {
         // Assert
         verify(ctx).contentType("text/csv");
         verify(ctx).header("Content-Disposition", "attachment; filename=\"employee_1_expenses_report.csv\"");
-        verify(ctx).result(csvContent);
+        verify(expenseService).writeCsvReport(eq(ExpenseQuery.byUser(1)), any(OutputStream.class));
     }
 
     // MU-145
@@ -97,8 +125,7 @@ public class TestReportController {
         Validator<Integer> validator = mock(Validator.class);
 
         when(ctx.pathParamAsClass("employeeId", Integer.class)).thenReturn(validator);
-        when(validator.get()).thenReturn(1);
-        when(expenseService.getExpensesByEmployee(1)).thenThrow(new NumberFormatException());
+        when(validator.get()).thenThrow(new NumberFormatException());
 
         // Act
 
@@ -116,7 +143,8 @@ public class TestReportController {
 
         when(ctx.pathParamAsClass("employeeId", Integer.class)).thenReturn(validator);
         when(validator.get()).thenReturn(1);
-        when(expenseService.getExpensesByEmployee(1)).thenThrow(new RuntimeException());
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.byUser(1)), any(OutputStream.class))).thenThrow(new RuntimeException());
 
         // Act
 
@@ -130,12 +158,9 @@ public class TestReportController {
     @Test
     public void testGenerateCategoryExpensesReport_positive() {
         // Arrange
-        List<ExpenseWithUser> expenses = List.of(mock(ExpenseWithUser.class));
-        String csvContent = "Expense ID, Employee, Description\n1, Joe, Test Data";
-
-        when(expenseService.getExpensesByCategory("Some Category")).thenReturn(expenses);
-        when(expenseService.generateCsvReport(expenses)).thenReturn(csvContent);
         when(ctx.pathParam("category")).thenReturn("Some Category");
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.byCategory("Some Category")), any(OutputStream.class))).thenReturn(1);
         String safeCategory = "Some Category".replaceAll("[^a-zA-Z0-9_-]", "_");
 
         // Act
@@ -144,7 +169,7 @@ public class TestReportController {
         // Assert
         verify(ctx).contentType("text/csv");
         verify(ctx).header("Content-Disposition", "attachment; filename=\"category_" + safeCategory + "_expenses_report.csv\"");
-        verify(ctx).result(csvContent);
+        verify(expenseService).writeCsvReport(eq(ExpenseQuery.byCategory("Some Category")), any(OutputStream.class));
     }
 
     // MU-148
@@ -180,14 +205,10 @@ public class TestReportController {
     @Test
     public void testGenerateDateRangeExpensesReport_positive() {
         // Arrange
-        List<ExpenseWithUser> expenses = List.of(mock(ExpenseWithUser.class));
-        String csvContent = "Expense ID, Employee, Description\n1, Joe, Test Data";
-
-        when(expenseService.getExpensesByDateRange("2025-12-23", "2025-12-25")).thenReturn(expenses);
-        when(expenseService.generateCsvReport(expenses)).thenReturn(csvContent);
-
         when(ctx.queryParam("startDate")).thenReturn("2025-12-23");
         when(ctx.queryParam("endDate")).thenReturn("2025-12-25");
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.byDateRange("2025-12-23", "2025-12-25")), any(OutputStream.class))).thenReturn(1);
 
         // Act
         reportController.generateDateRangeExpensesReport(ctx);
@@ -195,7 +216,7 @@ public class TestReportController {
         // Assert
         verify(ctx).contentType("text/csv");
         verify(ctx).header("Content-Disposition", "attachment; filename=\"expenses_2025-12-23_to_2025-12-25_report.csv\"");
-        verify(ctx).result(csvContent);
+        verify(expenseService).writeCsvReport(eq(ExpenseQuery.byDateRange("2025-12-23", "2025-12-25")), any(OutputStream.class));
     }
 
     // MU-151
@@ -247,11 +268,8 @@ public class TestReportController {
     @Test
     public void testGeneratePendingExpensesReport_positive() {
         // Arrange
-        List<ExpenseWithUser> expenses = List.of(mock(ExpenseWithUser.class));
-        String csvContent = "Expense ID, Employee, Description\n1, Joe, Test Data";
-
-        when(expenseService.getPendingExpenses()).thenReturn(expenses);
-        when(expenseService.generateCsvReport(expenses)).thenReturn(csvContent);
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.pending()), any(OutputStream.class))).thenReturn(1);
 
         // Act
         reportController.generatePendingExpensesReport(ctx);
@@ -259,7 +277,7 @@ public class TestReportController {
         // Assert
         verify(ctx).contentType("text/csv");
         verify(ctx).header("Content-Disposition", "attachment; filename=\"pending_expenses_report.csv\"");
-        verify(ctx).result(csvContent);
+        verify(expenseService).writeCsvReport(eq(ExpenseQuery.pending()), any(OutputStream.class));
     }
 
     // MU-155
@@ -267,7 +285,8 @@ public class TestReportController {
     @Test
     public void testGeneratePendingExpensesReport_negative() {
         // Arrange
-        when(expenseService.getPendingExpenses()).thenThrow(new RuntimeException());
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.pending()), any(OutputStream.class))).thenThrow(new RuntimeException());
 
         // Act
 
@@ -275,4 +294,239 @@ public class TestReportController {
         Exception exception = assertThrows(InternalServerErrorResponse.class, () -> reportController.generatePendingExpensesReport(ctx));
         assertTrue(exception.getMessage().contains("Failed to generate pending expenses report"));
     }
+
+    @DisplayName("Test generateAllExpensesReport - client disconnect mid-download is not a server error")
+    @Test
+    public void testGenerateAllExpensesReport_clientDisconnect() {
+        // Arrange
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class)))
+                .thenThrow(new UncheckedIOException(new IOException("Broken pipe")));
+
+        // Act
+
+        // Assert
+        assertDoesNotThrow(() -> reportController.generateAllExpensesReport(ctx));
+    }
+
+    @DisplayName("Test generateAllExpensesReport - a query that fails after the first flush aborts the connection")
+    @Test
+    public void testGenerateAllExpensesReport_failsMidResponse() throws IOException {
+        // Arrange
+        Request request = mock(Request.class);
+        HttpChannel channel = mock(HttpChannel.class);
+        when(request.getHttpChannel()).thenReturn(channel);
+        when(ctx.req()).thenReturn(request);
+        when(ctx.outputStream()).thenReturn(outputStream);
+        RuntimeException failure = new RuntimeException("Error finding all expenses");
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class))).thenAnswer(invocation -> {
+            // One full CSV writer buffer, flushed to the client before the query fails
+            byte[] flushed = new byte[8192];
+            invocation.getArgument(1, OutputStream.class).write(flushed, 0, flushed.length);
+            throw failure;
+        });
+
+        // Act
+
+        // Assert
+        assertDoesNotThrow(() -> reportController.generateAllExpensesReport(ctx));
+        verify(channel).abort(failure);
+        verify(outputStream).write(any(byte[].class), eq(0), eq(8192));
+    }
+
+    @DisplayName("Test a cached-path report that fails after the first flush aborts the connection")
+    @Test
+    public void testGenerateAllExpensesReport_cachedPathFailsMidResponse() throws IOException {
+        // Arrange
+        ReportCache reportCache = mock(ReportCache.class);
+        ReportController controller = new ReportController(expenseService, reportJobService, reportCache);
+        Request request = mock(Request.class);
+        HttpChannel channel = mock(HttpChannel.class);
+        when(request.getHttpChannel()).thenReturn(channel);
+        when(ctx.req()).thenReturn(request);
+        when(ctx.outputStream()).thenReturn(outputStream);
+        when(reportCache.getDataVersion()).thenReturn(7L);
+        RuntimeException failure = new RuntimeException("Error finding all expenses");
+        when(reportCache.writeCsvReport(eq(ExpenseQuery.all()), eq(7L), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(new byte[] {'E'}, 0, 1);
+            throw failure;
+        });
+
+        // Act
+
+        // Assert
+        assertDoesNotThrow(() -> controller.generateAllExpensesReport(ctx));
+        verify(channel).abort(failure);
+    }
+
+    @DisplayName("Test createReportJob queues a date range report and responds 202 with the job")
+    @Test
+    public void testCreateReportJob_dateRange() {
+        // Arrange
+        ExpenseQuery query = ExpenseQuery.byDateRange("2021-01-01", "2025-12-31");
+        ReportJob job = new ReportJob("job-1", query, "expenses_2021-01-01_to_2025-12-31_report.csv",
+                Path.of("job-1.csv"), Instant.parse("2026-01-01T00:00:00Z"));
+        when(ctx.queryParam("report")).thenReturn("daterange");
+        when(ctx.queryParam("startDate")).thenReturn("2021-01-01");
+        when(ctx.queryParam("endDate")).thenReturn("2025-12-31");
+        when(reportJobService.submit(query, "expenses_2021-01-01_to_2025-12-31_report.csv")).thenReturn(job);
+
+        // Act
+        reportController.createReportJob(ctx);
+
+        // Assert
+        verify(ctx).status(202);
+        verify(ctx).header("Location", "/api/reports/jobs/job-1");
+        verify(ctx).json(Map.of("success", true, "data", job));
+        verifyNoInteractions(expenseService);
+    }
+
+    @DisplayName("Test createReportJob rejects unknown reports and invalid parameters")
+    @Test
+    public void testCreateReportJob_badRequest() {
+        // Arrange
+        when(ctx.queryParam("report")).thenReturn("everything", "employee", "daterange");
+        when(ctx.queryParam("employeeId")).thenReturn("abc");
+        when(ctx.queryParam("startDate")).thenReturn("2021-01-01");
+        when(ctx.queryParam("endDate")).thenReturn(null);
+
+        // Act
+
+        // Assert
+        assertEquals("Invalid report. Use all, pending, employee, category or daterange",
+                assertThrows(BadRequestResponse.class, () -> reportController.createReportJob(ctx)).getMessage());
+        assertEquals("Invalid employee ID format",
+                assertThrows(BadRequestResponse.class, () -> reportController.createReportJob(ctx)).getMessage());
+        assertEquals("Both startDate and endDate query parameters are required (format: YYYY-MM-DD)",
+                assertThrows(BadRequestResponse.class, () -> reportController.createReportJob(ctx)).getMessage());
+        verifyNoInteractions(reportJobService);
+    }
+
+    @DisplayName("Test createReportJob responds 503 when the job queue is full")
+    @Test
+    public void testCreateReportJob_queueFull() {
+        // Arrange
+        when(ctx.queryParam("report")).thenReturn("all");
+        when(reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv"))
+                .thenThrow(new RejectedExecutionException("Too many report jobs queued"));
+
+        // Act
+
+        // Assert
+        assertThrows(ServiceUnavailableResponse.class, () -> reportController.createReportJob(ctx));
+    }
+
+    @DisplayName("Test getReportJob responds 404 for an unknown or expired job")
+    @Test
+    public void testGetReportJob_notFound() {
+        // Arrange
+        when(ctx.pathParam("jobId")).thenReturn("missing");
+        when(reportJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        // Act
+
+        // Assert
+        assertThrows(NotFoundResponse.class, () -> reportController.getReportJob(ctx));
+    }
+
+    @DisplayName("Test downloadReportJob responds 409 while the report is still being built")
+    @Test
+    public void testDownloadReportJob_notFinished() {
+        // Arrange
+        ReportJob job = new ReportJob("job-1", ExpenseQuery.all(), "all_expenses_report.csv",
+                Path.of("job-1.csv"), Instant.now());
+        when(ctx.pathParam("jobId")).thenReturn("job-1");
+        when(reportJobService.getJob("job-1")).thenReturn(Optional.of(job));
+
+        // Act
+
+        // Assert
+        Exception exception = assertThrows(ConflictResponse.class, () -> reportController.downloadReportJob(ctx));
+        assertEquals("Report job job-1 is queued", exception.getMessage());
+    }
+
+    @DisplayName("Test downloadReportJob sends the finished report as an attachment")
+    @Test
+    public void testDownloadReportJob_completed(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("job-1.csv"), "Expense ID\n");
+        ReportJob job = mock(ReportJob.class);
+        when(job.getStatus()).thenReturn(ReportJob.Status.COMPLETED);
+        when(job.getFile()).thenReturn(file);
+        when(job.getFilename()).thenReturn("all_expenses_report.csv");
+        when(ctx.pathParam("jobId")).thenReturn("job-1");
+        when(reportJobService.getJob("job-1")).thenReturn(Optional.of(job));
+
+        // Act
+        reportController.downloadReportJob(ctx);
+
+        // Assert
+        verify(ctx).contentType("text/csv");
+        verify(ctx).header("Content-Disposition", "attachment; filename=\"all_expenses_report.csv\"");
+        verify(ctx).result(any(InputStream.class));
+    }
+
+    @DisplayName("Test a cached report answers 304 when the client already has the current version")
+    @Test
+    public void testGenerateAllExpensesReport_notModified() {
+        // Arrange
+        ReportCache reportCache = mock(ReportCache.class);
+        ReportController controller = new ReportController(expenseService, reportJobService, reportCache);
+        String etag = ReportCache.etag(ExpenseQuery.all(), 7);
+        when(reportCache.getDataVersion()).thenReturn(7L);
+        lenient().when(ctx.header("If-None-Match")).thenReturn(etag);
+
+        // Act
+        controller.generateAllExpensesReport(ctx);
+
+        // Assert
+        verify(ctx).header("ETag", etag);
+        verify(ctx).status(HttpStatus.NOT_MODIFIED);
+        verify(reportCache, never()).get(any(), anyLong());
+        verify(reportCache, never()).writeCsvReport(any(), anyLong(), any());
+    }
+
+    @DisplayName("Test a cached report is sent from the cache")
+    @Test
+    public void testGenerateAllExpensesReport_cached() throws IOException {
+        // Arrange
+        ReportCache reportCache = mock(ReportCache.class);
+        ReportController controller = new ReportController(expenseService, reportJobService, reportCache);
+        ContentCache.Content content = mock(ContentCache.Content.class);
+        byte[] report = "Expense ID\n".getBytes(StandardCharsets.UTF_8);
+        when(content.getBytes()).thenReturn(report);
+        when(reportCache.getDataVersion()).thenReturn(7L);
+        when(reportCache.get(ExpenseQuery.all(), 7)).thenReturn(content);
+        when(ctx.outputStream()).thenReturn(outputStream);
+
+        // Act
+        controller.generateAllExpensesReport(ctx);
+
+        // Assert
+        verify(ctx).header("ETag", ReportCache.etag(ExpenseQuery.all(), 7));
+        verify(ctx).contentType("text/csv");
+        verify(outputStream).write(report);
+        verify(reportCache, never()).writeCsvReport(any(), anyLong(), any());
+    }
+
+    @DisplayName("Test an uncached report is rendered through the cache")
+    @Test
+    public void testGenerateAllExpensesReport_notCached() {
+        // Arrange
+        ReportCache reportCache = mock(ReportCache.class);
+        ReportController controller = new ReportController(expenseService, reportJobService, reportCache);
+        when(reportCache.getDataVersion()).thenReturn(7L);
+        lenient().when(ctx.header("If-None-Match")).thenReturn(ReportCache.etag(ExpenseQuery.all(), 6));
+        when(ctx.outputStream()).thenReturn(outputStream);
+
+        // Act
+        controller.generateAllExpensesReport(ctx);
+
+        // Assert
+        verify(ctx).contentType("text/csv");
+        verify(ctx).header("Content-Disposition", "attachment; filename=\"all_expenses_report.csv\"");
+        verify(reportCache).writeCsvReport(eq(ExpenseQuery.all()), eq(7L), any(OutputStream.class));
+        verify(ctx, never()).status(HttpStatus.NOT_MODIFIED);
+        verifyNoInteractions(expenseService);
+    }
 }
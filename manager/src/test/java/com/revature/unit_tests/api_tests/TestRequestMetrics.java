@@ -0,0 +1,85 @@
+package com.revature.unit_tests.api_tests;
+
+import com.revature.api.RequestMetrics;
+import com.revature.api.RouteMetrics;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestRequestMetrics {
+    @Mock
+    private Context ctx;
+
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+
+    /**
+     * Run a request through start() and finish(), as Javalin's before- and after-handlers would.
+     */
+    private void handle(HandlerType method, String route, int status) {
+        reset(ctx);
+        requestMetrics.start(ctx);
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> startedAt = ArgumentCaptor.forClass(Object.class);
+        verify(ctx).attribute(key.capture(), startedAt.capture());
+        assertEquals(1, requestMetrics.getInFlightCount());
+
+        when(ctx.attribute(key.getValue())).thenReturn(startedAt.getValue());
+        when(ctx.endpointHandlerPath()).thenReturn(route);
+        when(ctx.method()).thenReturn(method);
+        when(ctx.statusCode()).thenReturn(status);
+        requestMetrics.finish(ctx);
+        assertEquals(0, requestMetrics.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Test requests are counted per route pattern and status")
+    public void testFinish_CountsPerRoute() {
+        handle(HandlerType.POST, "/api/expenses/{expenseId}/approve", 200);
+        handle(HandlerType.POST, "/api/expenses/{expenseId}/approve", 409);
+        handle(HandlerType.POST, "/api/expenses/{expenseId}/approve", 200);
+        handle(HandlerType.GET, "/api/expenses", 200);
+
+        List<RouteMetrics> routes = requestMetrics.getRoutes();
+        assertEquals(2, routes.size());
+        assertEquals("/api/expenses", routes.get(0).getRoute());
+        RouteMetrics approve = routes.get(1);
+        assertEquals("POST", approve.getMethod());
+        assertEquals("/api/expenses/{expenseId}/approve", approve.getRoute());
+        assertEquals(Map.of(200, 2L, 409, 1L), approve.getStatusCounts());
+        assertEquals(3, approve.getLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("Test requests that matched no route share one label")
+    public void testFinish_Unmatched() {
+        handle(HandlerType.GET, "*", 404);
+        handle(HandlerType.GET, "No handler matched request path/method (404/405)", 404);
+        handle(HandlerType.GET, "", 404);
+
+        List<RouteMetrics> routes = requestMetrics.getRoutes();
+        assertEquals(1, routes.size());
+        assertEquals("(unmatched)", routes.get(0).getRoute());
+        assertEquals(Map.of(404, 3L), routes.get(0).getStatusCounts());
+    }
+
+    @Test
+    @DisplayName("Test a request that was never started is not recorded")
+    public void testFinish_NotStarted() {
+        requestMetrics.finish(ctx);
+
+        assertTrue(requestMetrics.getRoutes().isEmpty());
+        assertEquals(0, requestMetrics.getInFlightCount());
+    }
+}
@@ -0,0 +1,126 @@
+package com.revature.unit_tests.assets_tests;
+
+import com.revature.assets.StaticAsset;
+import com.revature.assets.StaticAssets;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestStaticAssets {
+    @Mock
+    private Context ctx;
+
+    private StaticAssets staticAssets;
+
+    @BeforeEach
+    public void setUp() {
+        staticAssets = new StaticAssets(getClass().getClassLoader(),
+                List.of("manager.html", "login.html", "manager.js", "auth.js", "missing.js"));
+    }
+
+    @DisplayName("Pages reference their scripts by content-hashed URL")
+    @Test
+    public void testLoad_RewritesScriptReferences() {
+        String html = new String(staticAssets.get("manager.html").getContent(), StandardCharsets.UTF_8);
+        String versionedPath = staticAssets.getVersionedPath("manager.js");
+
+        assertTrue(versionedPath.matches("/assets/manager\\.[0-9a-f]{16}\\.js"));
+        assertTrue(html.contains("src=\"" + versionedPath + "\""));
+        assertFalse(html.contains("src=\"manager.js\""));
+    }
+
+    @DisplayName("Gzip variant decompresses to the original content")
+    @Test
+    public void testLoad_GzipVariant() throws IOException {
+        StaticAsset asset = staticAssets.get("manager.js");
+
+        assertNotNull(asset.getGzipContent());
+        assertTrue(asset.getGzipContent().length < asset.getContent().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(asset.getGzipContent()))) {
+            assertArrayEquals(asset.getContent(), in.readAllBytes());
+        }
+    }
+
+    @DisplayName("Stable URL sends gzip with a revalidation policy and an encoding-specific ETag")
+    @Test
+    public void testServe_Gzip() {
+        StaticAsset asset = staticAssets.get("manager.html");
+        when(ctx.header("Accept-Encoding")).thenReturn("gzip, deflate, br");
+
+        staticAssets.serve(ctx, "manager.html");
+
+        verify(ctx).header("Cache-Control", "no-cache");
+        verify(ctx).header("ETag", "\"" + asset.getHash() + "-gzip\"");
+        verify(ctx).header("Vary", "Accept-Encoding");
+        verify(ctx).header("Content-Encoding", "gzip");
+        verify(ctx).disableCompression();
+        verify(ctx).result(asset.getGzipContent());
+    }
+
+    @DisplayName("Client refusing gzip with q=0 gets the identity content")
+    @Test
+    public void testServe_GzipRefused() {
+        StaticAsset asset = staticAssets.get("auth.js");
+        when(ctx.header("Accept-Encoding")).thenReturn("gzip;q=0, identity");
+
+        staticAssets.serve(ctx, "auth.js");
+
+        verify(ctx).header("ETag", "\"" + asset.getHash() + "\"");
+        verify(ctx, never()).header(eq("Content-Encoding"), anyString());
+        verify(ctx).result(asset.getContent());
+    }
+
+    @DisplayName("Matching If-None-Match answers 304 without a body")
+    @Test
+    public void testServe_NotModified() {
+        StaticAsset asset = staticAssets.get("login.html");
+        // Read only after the response headers are set, which strict stubbing would flag
+        lenient().when(ctx.header("If-None-Match")).thenReturn("\"stale\", W/\"" + asset.getHash() + "\"");
+
+        staticAssets.serve(ctx, "login.html");
+
+        verify(ctx).status(HttpStatus.NOT_MODIFIED);
+        verify(ctx, never()).result(any(byte[].class));
+    }
+
+    @DisplayName("Versioned URL is cacheable as immutable")
+    @Test
+    public void testServeVersioned_Immutable() {
+        StaticAsset asset = staticAssets.get("manager.js");
+        when(ctx.pathParam("file")).thenReturn(asset.getVersionedName());
+
+        staticAssets.serveVersioned(ctx);
+
+        verify(ctx).header("Cache-Control", "public, max-age=31536000, immutable");
+        verify(ctx).result(asset.getContent());
+    }
+
+    @DisplayName("Unknown versioned file and missing resources are 404")
+    @Test
+    public void testServe_NotFound() {
+        when(ctx.pathParam("file")).thenReturn("manager.0000000000000000.js");
+        when(ctx.status(HttpStatus.NOT_FOUND)).thenReturn(ctx);
+
+        staticAssets.serveVersioned(ctx);
+        staticAssets.serve(ctx, "missing.js");
+
+        assertNull(staticAssets.get("missing.js"));
+        verify(ctx).result("manager.0000000000000000.js not found");
+        verify(ctx).result("missing.js not found");
+    }
+}
@@ -0,0 +1,214 @@
+package com.revature.unit_tests.cache_tests;
+
+import com.revature.cache.ContentCache;
+import com.revature.cache.ContentCacheStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestContentCache {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test committed content is served from memory")
+    public void testCapture_InMemory() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 100);
+
+        store(cache, "a", "12345");
+        ContentCache.Content content = cache.get("a");
+
+        assertEquals(5, content.getSize());
+        assertArrayEquals(bytes("12345"), content.getBytes());
+        assertEquals("12345", read(content));
+        assertNull(cache.get("b"));
+
+        ContentCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getEntries());
+        assertEquals(5, stats.getMemoryBytes());
+        assertEquals(0, stats.getDiskBytes());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Test content larger than the in-memory limit is spilled to disk")
+    public void testCapture_SpillsToDisk() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 100);
+
+        ContentCache<String>.Capture capture = cache.capture("a");
+        capture.write(bytes("123456"));
+        capture.write(bytes("7890abcd"));
+        capture.commit();
+        ContentCache.Content content = cache.get("a");
+
+        assertNull(content.getBytes());
+        assertEquals(14, content.getSize());
+        assertEquals("1234567890abcd", read(content));
+        assertEquals(14, cache.getStats().getDiskBytes());
+        assertEquals(0, cache.getStats().getMemoryBytes());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test content larger than the disk budget is not cached")
+    public void testCapture_TooLarge() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 20);
+
+        store(cache, "a", "123456789012345678901");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getStats().getEntries());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent captures share the disk budget instead of each filling it")
+    public void testCapture_ReservesDisk() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 20);
+
+        ContentCache<String>.Capture first = cache.capture("a");
+        ContentCache<String>.Capture second = cache.capture("b");
+        first.write(bytes("123456789012345"));
+        second.write(bytes("123456789012345"));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+
+        assertNotNull(first.commit());
+        assertNull(second.commit());
+        assertEquals(15, cache.getStats().getDiskBytes());
+    }
+
+    @Test
+    @DisplayName("Test a discarded capture gives its disk reservation back")
+    public void testCapture_DiscardReleasesDisk() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 20);
+
+        ContentCache<String>.Capture first = cache.capture("a");
+        first.write(bytes("123456789012345"));
+        first.discard();
+        store(cache, "b", "123456789012345");
+
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    @DisplayName("Test a spilling capture evicts least recently used files to make room")
+    public void testCapture_ReservationEvicts() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 20);
+        store(cache, "a", "123456789012345");
+
+        ContentCache<String>.Capture capture = cache.capture("b");
+        capture.write(bytes("123456789012345"));
+
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertNotNull(capture.commit());
+    }
+
+    @Test
+    @DisplayName("Test without a directory only content that fits in memory is cached")
+    public void testCapture_MemoryOnly() {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, null, 100);
+
+        store(cache, "small", "12345");
+        store(cache, "large", "12345678901");
+
+        assertNotNull(cache.get("small"));
+        assertNull(cache.get("large"));
+    }
+
+    @Test
+    @DisplayName("Test discarded content is not cached and its file is deleted")
+    public void testCapture_Discard() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 100);
+
+        ContentCache<String>.Capture capture = cache.capture("a");
+        capture.write(bytes("1234567890abcd"));
+        capture.discard();
+
+        assertNull(cache.get("a"));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a full tier evicts its least recently used entries by size")
+    public void testCommit_EvictsLeastRecentlyUsed() {
+        ContentCache<String> cache = new ContentCache<>("test", 10, 10, null, 0);
+        store(cache, "a", "1234");
+        store(cache, "b", "1234");
+        cache.get("a");
+
+        store(cache, "c", "123456");
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(10, cache.getStats().getMemoryBytes());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Test invalidateAll drops every entry and deletes spilled files")
+    public void testInvalidateAll() throws IOException {
+        ContentCache<String> cache = new ContentCache<>("test", 100, 10, tempDir, 100);
+        store(cache, "small", "12345");
+        store(cache, "large", "1234567890abcd");
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("small"));
+        assertNull(cache.get("large"));
+        ContentCacheStats stats = cache.getStats();
+        assertEquals(0, stats.getEntries());
+        assertEquals(0, stats.getMemoryBytes());
+        assertEquals(0, stats.getDiskBytes());
+        assertEquals(2, stats.getInvalidationCount());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test content spilled by a previous run is deleted at startup")
+    public void testStartup_DeletesLeftoverFiles() throws IOException {
+        Path leftover = Files.writeString(tempDir.resolve("0b8f3c1e-2f4a-4c55-9d6e-7a1b2c3d4e5f.cached"), "old");
+        Path unrelated = Files.writeString(tempDir.resolve("notes.txt"), "keep");
+
+        new ContentCache<String>("test", 100, 10, tempDir, 100);
+
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private static void store(ContentCache<String> cache, String key, String value) {
+        ContentCache<String>.Capture capture = cache.capture(key);
+        capture.write(bytes(value), 0, value.length());
+        capture.commit();
+    }
+
+    private static String read(ContentCache.Content content) throws IOException {
+        try (InputStream in = content.open()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
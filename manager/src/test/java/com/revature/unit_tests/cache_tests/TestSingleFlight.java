@@ -0,0 +1,154 @@
+package com.revature.unit_tests.cache_tests;
+
+import com.revature.cache.CoalescingStats;
+import com.revature.cache.SingleFlight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSingleFlight {
+    private AtomicLong clock;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new AtomicLong();
+        executions = new AtomicInteger();
+    }
+
+    private String load(String value) {
+        executions.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    @DisplayName("Test concurrent calls for the same key share one execution")
+    public void testExecute_CollapsesConcurrentCalls() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ZERO);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.execute("pending", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return load("rows");
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> flight.execute("pending", () -> load("other rows"))));
+            }
+            // Wait until every follower is waiting on the leader's flight
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flight.getStats().get(0).getCallCount() < callers && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("rows", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        CoalescingStats stats = flight.getStats().get(0);
+        assertEquals("pending", stats.getKey());
+        assertEquals(callers, stats.getCallCount());
+        assertEquals(1, stats.getExecutionCount());
+        assertEquals(callers - 1, stats.getCollapsedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Test without a time to live, sequential calls each execute")
+    public void testExecute_NoTtlDoesNotCache() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ZERO, 10, clock::get);
+
+        flight.execute("all", () -> load("a"));
+        flight.execute("all", () -> load("b"));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test finished results are reused until the time to live passes")
+    public void testExecute_ReusesResultWithinTtl() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMillis(500), 10, clock::get);
+
+        assertEquals("a", flight.execute("all", () -> load("a")));
+        clock.addAndGet(Duration.ofMillis(499).toNanos());
+        assertEquals("a", flight.execute("all", () -> load("b")));
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertEquals("c", flight.execute("all", () -> load("c")));
+
+        assertEquals(2, executions.get());
+        assertEquals(1, flight.getStats().get(0).getCachedCount());
+    }
+
+    @Test
+    @DisplayName("Test invalidateAll makes the next call execute again")
+    public void testInvalidateAll() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), 10, clock::get);
+
+        flight.execute("all", () -> load("a"));
+        flight.invalidateAll();
+
+        assertEquals("b", flight.execute("all", () -> load("b")));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test failures reach the caller and are not reused")
+    public void testExecute_FailureNotCached() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMinutes(1), 10, clock::get);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> flight.execute("all", () -> { throw new IllegalStateException("database is locked"); }));
+        assertEquals("database is locked", thrown.getMessage());
+
+        assertEquals("a", flight.execute("all", () -> load("a")));
+    }
+
+    @Test
+    @DisplayName("Test keys beyond the tracking limit are pooled in the statistics")
+    public void testGetStats_PoolsUntrackedKeys() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ZERO, 2, clock::get);
+
+        flight.execute("a", () -> load("1"));
+        flight.execute("a", () -> load("1"));
+        flight.execute("b", () -> load("2"));
+        flight.execute("c", () -> load("3"));
+        flight.execute("d", () -> load("4"));
+
+        List<CoalescingStats> stats = flight.getStats();
+        assertEquals(3, stats.size());
+        assertEquals("a", stats.get(0).getKey());
+        assertEquals(2, stats.get(0).getCallCount());
+        assertTrue(stats.stream().anyMatch(s -> s.getKey().equals("(other)") && s.getCallCount() == 2));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.revature.unit_tests.cache_tests;
+
+import com.revature.cache.CacheStats;
+import com.revature.cache.TtlCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTtlCache {
+    private AtomicLong clock;
+    private TtlCache<String, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new AtomicLong();
+        cache = new TtlCache<>("test", 3, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    @DisplayName("Test get returns cached values until they expire")
+    public void testGet_ExpiresAfterTtl() {
+        cache.put("a", "1");
+
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("1", cache.get("a"));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test entries can have their own, shorter time to live")
+    public void testPut_CustomTtl() {
+        cache.put("negative", "none", Duration.ofSeconds(1));
+        cache.put("positive", "user");
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertNull(cache.get("negative"));
+        assertEquals("user", cache.get("positive"));
+    }
+
+    @Test
+    @DisplayName("Test a full cache evicts the least recently used entry")
+    public void testPut_EvictsLeastRecentlyUsed() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Test invalidate removes entries and returns the removed value")
+    public void testInvalidate() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        assertEquals("1", cache.invalidate("a"));
+        assertNull(cache.invalidate("a"));
+        assertNull(cache.get("a"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test stats count hits and misses")
+    public void testGetStats() {
+        cache.put("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        CacheStats stats = cache.getStats();
+
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> cache.put("b", null));
+    }
+}
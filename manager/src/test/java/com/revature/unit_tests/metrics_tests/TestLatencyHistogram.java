@@ -0,0 +1,108 @@
+package com.revature.unit_tests.metrics_tests;
+
+import com.revature.metrics.LatencyHistogram;
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLatencyHistogram {
+    private static final long MICROS = 1_000L;
+    private static final long MILLIS = 1_000_000L;
+
+    private static int bucketOf(double seconds) {
+        double[] bounds = LatencyHistogram.getBoundsSeconds();
+        for (int i = 0; i < bounds.length; i++) {
+            if (bounds[i] == seconds) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No bucket bound " + seconds);
+    }
+
+    @Test
+    @DisplayName("Test values fall in the first bucket whose bound is not below them")
+    public void testRecord_Buckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(50 * MICROS);
+        histogram.record(100 * MICROS);   // on the bound: same bucket
+        histogram.record(101 * MICROS);
+        histogram.record(3 * MILLIS);
+        histogram.record(60_000 * MILLIS);
+        histogram.record(-5);              // clock went backwards: counted as zero
+
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(LatencyHistogram.getBoundsSeconds().length + 1, counts.length);
+        assertEquals(3, counts[bucketOf(0.0001)]);
+        assertEquals(1, counts[bucketOf(0.00025)]);
+        assertEquals(1, counts[bucketOf(0.005)]);
+        assertEquals(1, counts[counts.length - 1]);
+        assertEquals(6, histogram.getCount());
+        assertEquals(50 * MICROS + 100 * MICROS + 101 * MICROS + 3 * MILLIS + 60_000 * MILLIS,
+                histogram.getSumNanos());
+    }
+
+    @Test
+    @DisplayName("Test concurrent recording loses no values")
+    public void testRecord_Concurrent() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i * MICROS);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(8 * MICROS * (9_999L * 10_000 / 2), histogram.getSumNanos());
+    }
+
+    @Test
+    @DisplayName("Test a query timer records returned and failed calls")
+    public void testQueryTimer_RecordsCalls() {
+        QueryMetrics metrics = new QueryMetrics();
+        QueryTimer timer = metrics.timer("ExpenseRepository", "findById");
+
+        assertEquals("ok", timer.time(() -> "ok"));
+        assertThrows(IllegalStateException.class, () -> timer.time(() -> {
+            throw new IllegalStateException("database is locked");
+        }));
+
+        assertSame(timer, metrics.timer("ExpenseRepository", "findById"));
+        assertEquals(2, timer.getLatency().getCount());
+        assertEquals(1, timer.getErrorCount());
+    }
+
+    @Test
+    @DisplayName("Test timers are listed by repository then method")
+    public void testQueryMetrics_Order() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.timer("UserRepository", "findById");
+        metrics.timer("ApprovalRepository", "reviewApproval");
+        metrics.timer("ApprovalRepository", "findByExpenseId");
+
+        assertEquals(List.of("ApprovalRepository.findByExpenseId", "ApprovalRepository.reviewApproval",
+                        "UserRepository.findById"),
+                metrics.getTimers().stream().map(t -> t.getRepository() + "." + t.getMethod()).toList());
+    }
+}
@@ -0,0 +1,66 @@
+package com.revature.unit_tests.metrics_tests;
+
+import com.revature.metrics.LatencyHistogram;
+import com.revature.metrics.PrometheusWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPrometheusWriter {
+
+    @Test
+    @DisplayName("Test counters and gauges are written with their headers and labels")
+    public void testSample_Format() {
+        String text = new PrometheusWriter()
+                .header("http_requests_in_flight", "gauge", "Requests being handled")
+                .sample("http_requests_in_flight", 3)
+                .header("bulkhead_waiting", "gauge", "Requests waiting")
+                .sample("bulkhead_waiting", 0.5, "bulkhead", "reads")
+                .toString();
+
+        assertEquals("""
+                # HELP http_requests_in_flight Requests being handled
+                # TYPE http_requests_in_flight gauge
+                http_requests_in_flight 3
+                # HELP bulkhead_waiting Requests waiting
+                # TYPE bulkhead_waiting gauge
+                bulkhead_waiting{bulkhead="reads"} 0.5
+                """, text);
+    }
+
+    @Test
+    @DisplayName("Test label values are escaped")
+    public void testSample_EscapesLabels() {
+        String text = new PrometheusWriter()
+                .sample("http_responses_total", 1, "route", "/a\"b\\c\nd", "status", "200")
+                .toString();
+
+        assertEquals("http_responses_total{route=\"/a\\\"b\\\\c\\nd\",status=\"200\"} 1\n", text);
+    }
+
+    @Test
+    @DisplayName("Test histogram buckets are cumulative and end with +Inf, sum and count")
+    public void testHistogram_Format() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(80_000L);          // 0.08ms
+        histogram.record(2_000_000L);       // 2ms
+        histogram.record(20_000_000_000L);  // 20s
+
+        List<String> lines = new PrometheusWriter()
+                .histogram("db_query_duration_seconds", histogram, "repository", "UserRepository", "method", "findById")
+                .toString().lines().toList();
+
+        assertEquals(LatencyHistogram.getBoundsSeconds().length + 3, lines.size());
+        String labels = "repository=\"UserRepository\",method=\"findById\"";
+        assertEquals("db_query_duration_seconds_bucket{" + labels + ",le=\"0.0001\"} 1", lines.get(0));
+        assertTrue(lines.contains("db_query_duration_seconds_bucket{" + labels + ",le=\"0.001\"} 1"));
+        assertTrue(lines.contains("db_query_duration_seconds_bucket{" + labels + ",le=\"0.0025\"} 2"));
+        assertTrue(lines.contains("db_query_duration_seconds_bucket{" + labels + ",le=\"10\"} 2"));
+        assertTrue(lines.contains("db_query_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 3"));
+        assertEquals("db_query_duration_seconds_sum{" + labels + "} 20.00208", lines.get(lines.size() - 2));
+        assertEquals("db_query_duration_seconds_count{" + labels + "} 3", lines.get(lines.size() - 1));
+    }
+}
@@ -0,0 +1,265 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.metrics.QueryMetrics;
+import com.revature.repository.AnalyticsRepository;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.SpendRollupStats;
+import com.revature.repository.SpendSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnalyticsRepository {
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection db;
+    private QueryMetrics queryMetrics;
+    private AnalyticsRepository analyticsRepository;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("analytics.db"));
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                    CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                    CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                    INSERT INTO users VALUES (1, 'employee1', 'pw', 'Employee'), (2, 'employee2', 'pw', 'Employee'), (3, 'manager1', 'pw', 'Manager');
+                    INSERT INTO expenses VALUES
+                        (1, 1, 50.00, 'Client lunch', '2025-01-05'),
+                        (2, 1, 200.00, 'Hotel, 2 nights', '2025-01-06'),
+                        (3, 1, 30.00, 'Parking fee', '2025-02-07'),
+                        (4, 2, 75.00, 'Office supplies', '2025-02-05'),
+                        (5, 2, 450.00, 'Hotel stay', '2025-03-08'),
+                        (6, 2, 0.15, 'hotel: minibar', '2025-03-09'),
+                        (7, 2, 0.20, 'Parking', '2025-03-10');
+                    INSERT INTO approvals (expense_id, status) VALUES
+                        (1, 'pending'), (2, 'approved'), (3, 'denied'), (4, 'pending'),
+                        (5, 'approved'), (6, 'approved'), (7, 'pending');
+                    """);
+        }
+        new MigrationRunner(db).migrate();
+        queryMetrics = new QueryMetrics();
+        analyticsRepository = new AnalyticsRepository(db, queryMetrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    @DisplayName("Test spend by employee is totalled per employee, highest total first")
+    public void testSummarizeSpend_ByEmployee() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, null);
+
+        assertEquals(2, summaries.size());
+        SpendSummary top = summaries.get(0);
+        assertEquals("employee2", top.getGroup());
+        assertEquals(Integer.valueOf(2), top.getEmployeeId());
+        assertEquals(4, top.getCount());
+        assertEquals(new BigDecimal("525.35"), top.getTotal());
+        assertEquals(new BigDecimal("131.34"), top.getAverage());
+        assertEquals("employee1", summaries.get(1).getGroup());
+        assertEquals(new BigDecimal("280.00"), summaries.get(1).getTotal());
+    }
+
+    @Test
+    @DisplayName("Test spend by status covers every approval status")
+    public void testSummarizeSpend_ByStatus() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null);
+
+        assertEquals(List.of("approved", "denied", "pending"), summaries.stream().map(SpendSummary::getGroup).toList());
+        assertEquals(3, summaries.get(0).getCount());
+        assertEquals(new BigDecimal("650.15"), summaries.get(0).getTotal());
+        assertNull(summaries.get(0).getEmployeeId());
+        assertEquals(new BigDecimal("125.20"), summaries.get(2).getTotal());
+    }
+
+    @Test
+    @DisplayName("Test spend by month is in calendar order")
+    public void testSummarizeSpend_ByMonth() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.MONTH, null, null, null);
+
+        assertEquals(List.of("2025-01", "2025-02", "2025-03"), summaries.stream().map(SpendSummary::getGroup).toList());
+        assertEquals(new BigDecimal("250.00"), summaries.get(0).getTotal());
+        assertEquals(new BigDecimal("125.00"), summaries.get(0).getAverage());
+        assertEquals(3, summaries.get(2).getCount());
+    }
+
+    @Test
+    @DisplayName("Test spend by category groups on the first word of the description")
+    public void testSummarizeSpend_ByCategory() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.CATEGORY, null, null, null);
+
+        assertEquals(List.of("hotel", "office", "client", "parking"), summaries.stream().map(SpendSummary::getGroup).toList());
+        assertEquals(3, summaries.get(0).getCount());
+        assertEquals(new BigDecimal("650.15"), summaries.get(0).getTotal());
+        assertEquals(2, summaries.get(3).getCount());
+        assertEquals(new BigDecimal("30.20"), summaries.get(3).getTotal());
+    }
+
+    @Test
+    @DisplayName("Test a date range limits the expenses summarized, inclusive at both ends")
+    public void testSummarizeSpend_DateRange() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, "2025-01-06", "2025-02-07", null);
+
+        assertEquals(2, summaries.size());
+        assertEquals("employee1", summaries.get(0).getGroup());
+        assertEquals(2, summaries.get(0).getCount());
+        assertEquals(new BigDecimal("230.00"), summaries.get(0).getTotal());
+
+        assertEquals(List.of("2025-03"), analyticsRepository.summarizeSpend(SpendGrouping.MONTH, "2025-03-01", null, null)
+                .stream().map(SpendSummary::getGroup).toList());
+        assertTrue(analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, "2024-12-31", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test spend by employee over whole months matches the expenses in those months")
+    public void testSummarizeSpend_WholeMonths() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, "2025-02-01", "2025-03-31", null);
+
+        assertEquals(List.of("employee2", "employee1"), summaries.stream().map(SpendSummary::getGroup).toList());
+        assertEquals(4, summaries.get(0).getCount());
+        assertEquals(new BigDecimal("525.35"), summaries.get(0).getTotal());
+        assertEquals(new BigDecimal("131.34"), summaries.get(0).getAverage());
+        assertEquals(1, summaries.get(1).getCount());
+        assertEquals(new BigDecimal("30.00"), summaries.get(1).getTotal());
+    }
+
+    @Test
+    @DisplayName("Test spend by employee is the same from the rollups and from the expenses")
+    public void testSummarizeSpend_RollupsMatchExpenses() throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            // Sub-cent amounts and an expense with no approval record, which neither path counts
+            stmt.executeUpdate("INSERT INTO expenses VALUES (8, 1, 0.125, 'Stamp', '2025-02-14'),"
+                    + " (9, 1, 0.335, 'Stamp', '2025-02-15'), (10, 2, 99.99, 'Draft', '2025-02-16');"
+                    + "INSERT INTO approvals (expense_id, status) VALUES (8, 'pending'), (9, 'pending');");
+        }
+
+        // The first range covers whole months and is read from the rollups, the second is not
+        List<SpendSummary> wholeMonths = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, "2025-01-01", "2025-03-31", null);
+        List<SpendSummary> days = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, "2025-01-05", "2025-03-10", null);
+
+        assertEquals(describe(wholeMonths), describe(days));
+        assertEquals(5, wholeMonths.get(1).getCount());
+        assertEquals(new BigDecimal("280.47"), wholeMonths.get(1).getTotal());
+    }
+
+    @Test
+    @DisplayName("Test the spend rollups follow inserts, reviews, edits and deletes")
+    public void testSpendRollups_FollowWrites() throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO expenses VALUES (8, 1, 20.00, 'Taxi', '2025-04-01');"
+                    + "INSERT INTO approvals (expense_id, status) VALUES (8, 'pending');");
+        }
+        assertEquals(List.of("2025-01", "2025-02", "2025-03", "2025-04"),
+                analyticsRepository.summarizeSpend(SpendGrouping.MONTH, null, null, null)
+                        .stream().map(SpendSummary::getGroup).toList());
+
+        // A review through the manager's write path moves the expense to its new status
+        new ApprovalRepository(db).reviewApproval(new ApprovalDecision(1, "approved", 3, null));
+        List<SpendSummary> byStatus = analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null);
+        assertEquals(4, byStatus.get(0).getCount());
+        assertEquals(new BigDecimal("700.15"), byStatus.get(0).getTotal());
+        assertEquals(new BigDecimal("95.20"), byStatus.get(2).getTotal());
+
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE expenses SET amount = 25.50, user_id = 2 WHERE id = 8;"
+                    + "DELETE FROM approvals WHERE expense_id = 3;"
+                    + "DELETE FROM expenses WHERE id = 3;");
+        }
+        List<SpendSummary> april = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, "2025-04-01", "2025-04-30", null);
+        assertEquals(1, april.size());
+        assertEquals("employee2", april.get(0).getGroup());
+        assertEquals(new BigDecimal("25.50"), april.get(0).getTotal());
+        assertEquals(List.of("approved", "pending"), analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null)
+                .stream().map(SpendSummary::getGroup).toList());
+
+        SpendRollupStats maintained = analyticsRepository.getSpendRollupStats();
+        SpendRollupStats rebuilt = analyticsRepository.rebuildSpendRollups();
+        assertEquals(rebuilt.getDailyBuckets(), maintained.getDailyBuckets());
+        assertEquals(rebuilt.getMonthlyBuckets(), maintained.getMonthlyBuckets());
+        assertEquals(7, maintained.getExpenseCount());
+    }
+
+    @Test
+    @DisplayName("Test rebuilding the spend rollups recovers from edits to them")
+    public void testRebuildSpendRollups() throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM spend_daily WHERE status = 'approved';"
+                    + "UPDATE spend_monthly SET total_cents = 0;");
+        }
+        assertEquals(2, analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null).size());
+
+        SpendRollupStats stats = analyticsRepository.rebuildSpendRollups();
+
+        assertEquals(7, stats.getExpenseCount());
+        assertEquals(7, stats.getDailyBuckets());
+        assertEquals(6, stats.getMonthlyBuckets());
+        assertEquals(new BigDecimal("650.15"),
+                analyticsRepository.summarizeSpend(SpendGrouping.STATUS, null, null, null).get(0).getTotal());
+        assertEquals(new BigDecimal("525.35"),
+                analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, null).get(0).getTotal());
+        assertEquals(1, queryMetrics.timer("AnalyticsRepository", "rebuildSpendRollups").getLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("Test a limit returns only the first groups in order")
+    public void testSummarizeSpend_Limit() {
+        List<SpendSummary> summaries = analyticsRepository.summarizeSpend(SpendGrouping.CATEGORY, null, null, 2);
+
+        assertEquals(List.of("hotel", "office"), summaries.stream().map(SpendSummary::getGroup).toList());
+    }
+
+    @Test
+    @DisplayName("Test large totals keep two decimals")
+    public void testSummarizeSpend_LargeTotals() throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO expenses VALUES (8, 1, 118004255.47, 'Office building', '2024-06-01');"
+                    + "INSERT INTO approvals (expense_id, status) VALUES (8, 'approved');");
+        }
+
+        SpendSummary employee1 = analyticsRepository.summarizeSpend(SpendGrouping.EMPLOYEE, null, null, 1).get(0);
+        assertEquals("118004535.47", employee1.getTotal().toPlainString());
+        assertEquals("118004535.47", employee1.getTotal().toString());
+    }
+
+    @Test
+    @DisplayName("Test each grouping is timed separately")
+    public void testSummarizeSpend_Timed() {
+        analyticsRepository.summarizeSpend(SpendGrouping.MONTH, null, null, null);
+        analyticsRepository.summarizeSpend(SpendGrouping.MONTH, null, null, null);
+
+        assertEquals(2, queryMetrics.timer("AnalyticsRepository", "summarizeSpendByMonth").getLatency().getCount());
+        assertEquals(0, queryMetrics.timer("AnalyticsRepository", "summarizeSpendByEmployee").getLatency().getCount());
+    }
+
+    private static List<String> describe(List<SpendSummary> summaries) {
+        return summaries.stream()
+                .map(s -> s.getGroup() + " " + s.getCount() + " " + s.getTotal() + " " + s.getAverage())
+                .toList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.ReviewOutcome;
+import com.revature.service.ApprovalWriteQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestApprovalCompareAndSet {
+    private static final int EXPENSES = 20;
+    private static final int REVIEWERS = 16;
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection db;
+    private ApprovalRepository approvalRepository;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("cas.db"));
+        execute("""
+                CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                INSERT INTO users VALUES (1, 'employee1', 'pw', 'Employee');
+                """);
+        for (int i = 1; i <= EXPENSES; i++) {
+            execute("INSERT INTO expenses VALUES (" + i + ", 1, 10.0, 'Taxi', '2025-01-01');"
+                    + "INSERT INTO approvals (expense_id, status) VALUES (" + i + ", 'pending');");
+        }
+        new MigrationRunner(db).migrate();
+        approvalRepository = new ApprovalRepository(db);
+        executor = Executors.newFixedThreadPool(REVIEWERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        db.close();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private long changeLogRows() throws SQLException {
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM change_log")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Every reviewer submits a decision for the same expense at once; returns the outcomes by reviewer.
+     */
+    private List<ReviewOutcome> race(int expenseId, ReviewCall call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReviewOutcome>> futures = new ArrayList<>();
+        for (int reviewer = 0; reviewer < REVIEWERS; reviewer++) {
+            ApprovalDecision decision = new ApprovalDecision(expenseId, reviewer % 2 == 0 ? "approved" : "denied",
+                    100 + reviewer, "reviewer " + reviewer, 0);
+            futures.add(executor.submit((Callable<ReviewOutcome>) () -> {
+                start.await();
+                return call.review(decision);
+            }));
+        }
+        start.countDown();
+        List<ReviewOutcome> outcomes = new ArrayList<>();
+        for (Future<ReviewOutcome> future : futures) {
+            outcomes.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return outcomes;
+    }
+
+    private void assertSingleWinner(int expenseId, List<ReviewOutcome> outcomes) {
+        List<Integer> winners = new ArrayList<>();
+        for (int reviewer = 0; reviewer < outcomes.size(); reviewer++) {
+            if (outcomes.get(reviewer).isApplied()) {
+                winners.add(100 + reviewer);
+            }
+        }
+        assertEquals(1, winners.size(), "expense " + expenseId + " winners " + winners);
+
+        Approval stored = approvalRepository.findByExpenseId(expenseId).orElseThrow();
+        assertEquals(winners.get(0), stored.getReviewer());
+        assertEquals("reviewer " + (winners.get(0) - 100), stored.getComment());
+        assertEquals(1, stored.getVersion());
+        for (ReviewOutcome outcome : outcomes) {
+            if (!outcome.isApplied()) {
+                assertEquals(ReviewOutcome.Result.CONFLICT, outcome.getResult());
+                assertEquals(stored.getStatus(), outcome.getCurrent().getStatus());
+                assertEquals(stored.getReviewer(), outcome.getCurrent().getReviewer());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent reviews of the same expense have exactly one winner")
+    public void testReviewApproval_OneWinnerUnderContention() throws Exception {
+        for (int expenseId = 1; expenseId <= EXPENSES; expenseId++) {
+            assertSingleWinner(expenseId, race(expenseId, approvalRepository::reviewApproval));
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent reviews committed in the same group still have exactly one winner")
+    public void testWriteQueue_OneWinnerUnderContention() throws Exception {
+        try (ApprovalWriteQueue writeQueue = new ApprovalWriteQueue(approvalRepository, 1000, 64, Duration.ofMillis(5))) {
+            for (int expenseId = 1; expenseId <= EXPENSES; expenseId++) {
+                assertSingleWinner(expenseId, race(expenseId, decision -> writeQueue.submit(decision).join()));
+            }
+            assertTrue(writeQueue.getStats().getGroupCount() < (long) EXPENSES * REVIEWERS);
+        }
+    }
+
+    @Test
+    @DisplayName("Test a review based on a stale version is refused even while still pending")
+    public void testReviewApproval_StaleVersion() throws SQLException {
+        // An update from another writer, which moves the version on in the same statement
+        execute("UPDATE approvals SET comment = 'resubmitted', version = version + 1 WHERE expense_id = 1");
+
+        ReviewOutcome stale = approvalRepository.reviewApproval(new ApprovalDecision(1, "approved", 3, null, 0));
+        assertEquals(ReviewOutcome.Result.CONFLICT, stale.getResult());
+        assertTrue(stale.getCurrent().isPending());
+        assertEquals(1, stale.getCurrent().getVersion());
+
+        assertTrue(approvalRepository.reviewApproval(new ApprovalDecision(1, "approved", 3, null, 1)).isApplied());
+        assertEquals(2, approvalRepository.findByExpenseId(1).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Test a review is a single row change, so it is logged once")
+    public void testReviewApproval_LoggedOnce() throws SQLException {
+        long before = changeLogRows();
+
+        assertTrue(approvalRepository.updateApprovalStatus(1, "approved", 3, null));
+
+        assertEquals(before + 1, changeLogRows());
+        assertEquals(1, approvalRepository.findByExpenseId(1).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Test a batch reports reviews of expenses that are no longer pending as conflicts")
+    public void testUpdateApprovalStatuses_Conflicts() {
+        assertTrue(approvalRepository.reviewApproval(new ApprovalDecision(2, "denied", 3, null)).isApplied());
+
+        List<ReviewOutcome> outcomes = approvalRepository.updateApprovalStatuses(List.of(
+                new ApprovalDecision(1, "approved", 4, null),
+                new ApprovalDecision(2, "approved", 4, null),
+                new ApprovalDecision(1, "denied", 5, null),
+                new ApprovalDecision(999, "approved", 4, null)));
+
+        assertEquals(List.of(ReviewOutcome.Result.APPLIED, ReviewOutcome.Result.CONFLICT,
+                        ReviewOutcome.Result.CONFLICT, ReviewOutcome.Result.NOT_FOUND),
+                outcomes.stream().map(ReviewOutcome::getResult).toList());
+        assertEquals("denied", outcomes.get(1).getCurrent().getStatus());
+        assertEquals("approved", outcomes.get(2).getCurrent().getStatus());
+        assertEquals(4, approvalRepository.findByExpenseId(1).orElseThrow().getReviewer());
+    }
+
+    private interface ReviewCall {
+        ReviewOutcome review(ApprovalDecision decision) throws Exception;
+    }
+}
@@ -1,8 +1,11 @@
 package com.revature.unit_tests.repository_tests;
 
+import com.revature.metrics.QueryMetrics;
 import com.revature.repository.Approval;
+import com.revature.repository.ApprovalDecision;
 import com.revature.repository.ApprovalRepository;
 import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ReviewOutcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,15 +14,18 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.sql.*;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,12 +44,16 @@ public class TestApprovalRepository {
     @Mock
     private ResultSet resultSet;
 
+    @Spy
+    private QueryMetrics queryMetrics = new QueryMetrics();
+
     @InjectMocks
     private ApprovalRepository approvalRepo;
 
     @BeforeEach
     public void setUp() throws Exception {
-        when(db.getConnection()).thenReturn(connection);
+        when(db.getReadConnection()).thenReturn(connection);
+        when(db.getWriteConnection()).thenReturn(connection);
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
     }
 
@@ -116,6 +126,8 @@ public class TestApprovalRepository {
             assertInstanceOf(SQLException.class, exception.getCause());
         } else {
             when(preparedStatement.executeUpdate()).thenReturn(rowsUpdated);
+            // A refused review reads the approval to report it; here there is none
+            when(preparedStatement.executeQuery()).thenReturn(resultSet);
             boolean result = approvalRepo.updateApprovalStatus(expenseId, status, reviewerId, comment);
             assertEquals(expectedResult, result);
         }
@@ -191,4 +203,92 @@ public class TestApprovalRepository {
         verify(preparedStatement).setInt(1, expenseId);
         verify(preparedStatement).setString(2, status);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test reviewApproval applies the review in one conditional statement")
+    public void testReviewApproval_Applied() throws SQLException {
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        ReviewOutcome outcome = approvalRepo.reviewApproval(new ApprovalDecision(1, "approved", 3, "ok", 4));
+
+        assertTrue(outcome.isApplied());
+        verify(connection).prepareStatement(contains("status = 'pending'"));
+        verify(preparedStatement).setObject(6, 4, Types.INTEGER);
+        verify(preparedStatement).setObject(7, 4, Types.INTEGER);
+        verify(preparedStatement, never()).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Test reviewApproval reports the current approval when the review is refused")
+    public void testReviewApproval_Conflict() throws SQLException {
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("status")).thenReturn("denied");
+        when(resultSet.getObject("reviewer")).thenReturn(5);
+        when(resultSet.getInt("version")).thenReturn(2);
+
+        ReviewOutcome outcome = approvalRepo.reviewApproval(new ApprovalDecision(1, "approved", 3, null));
+
+        assertEquals(ReviewOutcome.Result.CONFLICT, outcome.getResult());
+        assertEquals("denied", outcome.getCurrent().getStatus());
+        assertEquals(5, outcome.getCurrent().getReviewer());
+        assertEquals(2, outcome.getCurrent().getVersion());
+        verify(preparedStatement).setObject(6, null, Types.INTEGER);
+    }
+
+    @Test
+    @DisplayName("Test reviewApproval reports expenses without an approval as not found")
+    public void testReviewApproval_NotFound() throws SQLException {
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        ReviewOutcome outcome = approvalRepo.reviewApproval(new ApprovalDecision(99, "approved", 3, null));
+
+        assertEquals(ReviewOutcome.Result.NOT_FOUND, outcome.getResult());
+        assertNull(outcome.getCurrent());
+    }
+
+    @Test
+    @DisplayName("Test updateApprovalStatuses sends one batch and commits once")
+    public void testUpdateApprovalStatuses_OneTransaction() throws Exception {
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 0, 1});
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString("status")).thenReturn("approved");
+        List<ApprovalDecision> decisions = List.of(
+                new ApprovalDecision(1, "approved", 7, null),
+                new ApprovalDecision(2, "denied", 8, "no"),
+                new ApprovalDecision(3, "approved", 7, "ok"));
+
+        List<ReviewOutcome> outcomes = approvalRepo.updateApprovalStatuses(decisions);
+
+        assertEquals(List.of(ReviewOutcome.Result.APPLIED, ReviewOutcome.Result.CONFLICT, ReviewOutcome.Result.APPLIED),
+                outcomes.stream().map(ReviewOutcome::getResult).toList());
+        assertEquals("approved", outcomes.get(1).getCurrent().getStatus());
+        verify(preparedStatement, times(1)).setInt(1, 2);
+        verify(preparedStatement, times(3)).addBatch();
+        verify(preparedStatement, times(1)).executeBatch();
+        verify(preparedStatement, never()).executeUpdate();
+        verify(preparedStatement, times(2)).setInt(2, 7);
+        verify(preparedStatement, times(1)).setInt(2, 8);
+        verify(connection).setAutoCommit(false);
+        verify(connection, times(1)).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    @DisplayName("Test updateApprovalStatuses rolls back the whole batch on failure")
+    public void testUpdateApprovalStatuses_RollsBack() throws Exception {
+        when(preparedStatement.executeBatch()).thenThrow(new BatchUpdateException("database is locked", new int[0]));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> approvalRepo.updateApprovalStatuses(List.of(new ApprovalDecision(1, "approved", 7, null))));
+
+        assertTrue(exception.getMessage().contains("Error updating approvals for 1 expenses"));
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+}
@@ -0,0 +1,145 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.CachedUserRepository;
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestCachedUserRepository {
+    @Mock
+    private DatabaseConnection db;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private CachedUserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        userRepository = new CachedUserRepository(db, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        when(db.getReadConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    private void stubManagerRow() throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(3);
+        when(resultSet.getString("username")).thenReturn("manager1");
+        when(resultSet.getString("password")).thenReturn("password123");
+        when(resultSet.getString("role")).thenReturn("Manager");
+    }
+
+    @Test
+    @DisplayName("Test findById reads through once, then serves both lookups from the cache")
+    public void testFindById_CachesUser() throws SQLException {
+        stubManagerRow();
+
+        Optional<User> first = userRepository.findById(3);
+        Optional<User> second = userRepository.findById(3);
+        Optional<User> byUsername = userRepository.findByUsername("manager1");
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertSame(first.get(), byUsername.get());
+        verify(db, times(1)).getReadConnection();
+    }
+
+    @Test
+    @DisplayName("Test unknown IDs are cached as negative entries")
+    public void testFindById_CachesMiss() throws SQLException {
+        when(resultSet.next()).thenReturn(false);
+
+        assertTrue(userRepository.findById(999).isEmpty());
+        assertTrue(userRepository.findById(999).isEmpty());
+
+        verify(db, times(1)).getReadConnection();
+    }
+
+    @Test
+    @DisplayName("Test invalidate forces the next lookup back to the database")
+    public void testInvalidate_ReloadsUser() throws SQLException {
+        stubManagerRow();
+        userRepository.findById(3);
+
+        userRepository.invalidate(3);
+        userRepository.findByUsername("manager1");
+        userRepository.invalidate("manager1");
+        userRepository.findById(3);
+        userRepository.invalidateAll();
+        userRepository.findById(3);
+
+        verify(db, times(4)).getReadConnection();
+    }
+
+    @Test
+    @DisplayName("Test a lookup that overlaps an invalidation does not cache what it read")
+    public void testInvalidateAll_DuringLoadIsNotUndone() throws SQLException {
+        stubManagerRow();
+        // The first load reads the row, then the users table changes before it caches the result
+        when(resultSet.next()).thenAnswer(invocation -> {
+            userRepository.invalidateAll();
+            return true;
+        }).thenReturn(true);
+
+        assertTrue(userRepository.findById(3).isPresent());
+        userRepository.findById(3);
+        userRepository.findByUsername("manager1");
+
+        verify(db, times(2)).getReadConnection();
+    }
+
+    @Test
+    @DisplayName("Test a lookup that overlaps a single-user invalidation does not cache what it read")
+    public void testInvalidate_DuringLoadIsNotUndone() throws SQLException {
+        stubManagerRow();
+        when(resultSet.next()).thenAnswer(invocation -> {
+            userRepository.invalidate("manager1");
+            return true;
+        }).thenReturn(true);
+
+        assertTrue(userRepository.findByUsername("manager1").isPresent());
+        userRepository.findByUsername("manager1");
+
+        verify(db, times(2)).getReadConnection();
+    }
+
+    @Test
+    @DisplayName("Test onChanges clears the cache for user changes only")
+    public void testOnChanges_UserChangeClearsCache() throws SQLException {
+        stubManagerRow();
+        userRepository.findById(3);
+
+        userRepository.onChanges(List.of(new ChangeEvent(1, ChangeEvent.APPROVALS, ChangeEvent.UPDATE, 7, 7)));
+        userRepository.findById(3);
+        userRepository.onChanges(List.of(new ChangeEvent(2, ChangeEvent.USERS, ChangeEvent.UPDATE, 3, null)));
+        userRepository.findById(3);
+
+        verify(db, times(2)).getReadConnection();
+    }
+}
@@ -0,0 +1,149 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.ChangeFeed;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.MigrationRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestChangeFeed {
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection db;
+    private ChangeFeed changeFeed;
+    private final List<List<ChangeEvent>> batches = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("changes.db"));
+        execute("""
+                CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                INSERT INTO users VALUES (1, 'employee1', 'pw', 'Employee');
+                """);
+        new MigrationRunner(db).migrate();
+        changeFeed = new ChangeFeed(db, Duration.ofSeconds(60), 0);
+        changeFeed.addListener(batches::add);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeFeed.close();
+        db.close();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private long changeLogRows() throws SQLException {
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM change_log")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Test poll starts at the end of the log and then delivers new changes in order")
+    public void testPoll_DeliversNewChanges() throws SQLException {
+        execute("INSERT INTO expenses VALUES (1, 1, 10.0, 'Before start', '2025-01-01')");
+        assertEquals(0, changeFeed.poll());
+
+        execute("""
+                INSERT INTO expenses VALUES (2, 1, 20.0, 'Taxi', '2025-01-02');
+                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (9, 2, 'pending', NULL, NULL, NULL);
+                UPDATE users SET role = 'Manager' WHERE id = 1;
+                """);
+
+        assertEquals(3, changeFeed.poll());
+        List<ChangeEvent> changes = batches.get(0);
+        assertEquals(ChangeEvent.EXPENSES, changes.get(0).getTable());
+        assertEquals(ChangeEvent.INSERT, changes.get(0).getOperation());
+        assertEquals(2, changes.get(0).getRowId());
+        assertEquals(ChangeEvent.APPROVALS, changes.get(1).getTable());
+        assertEquals(9, changes.get(1).getRowId());
+        assertEquals(2, changes.get(1).getExpenseId());
+        assertEquals(ChangeEvent.USERS, changes.get(2).getTable());
+        assertEquals(ChangeEvent.UPDATE, changes.get(2).getOperation());
+        assertNull(changes.get(2).getExpenseId());
+        assertTrue(changes.get(0).getVersion() < changes.get(1).getVersion());
+        assertEquals(changes.get(2).getVersion(), changeFeed.getLastVersion());
+    }
+
+    @Test
+    @DisplayName("Test poll delivers nothing when the database has not changed")
+    public void testPoll_Idle() {
+        changeFeed.poll();
+
+        assertEquals(0, changeFeed.poll());
+        assertEquals(0, changeFeed.poll());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test poll catches up on a large backlog in batches")
+    public void testPoll_Backlog() throws SQLException {
+        changeFeed.poll();
+        execute("""
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 700)
+                INSERT INTO expenses (user_id, amount, description, date) SELECT 1, i, 'Bulk', '2025-01-01' FROM n;
+                """);
+
+        assertEquals(700, changeFeed.poll());
+        assertEquals(2, batches.size());
+        assertEquals(700, changeFeed.getChangeCount());
+    }
+
+    @Test
+    @DisplayName("Test pollSoon delivers a change without waiting for the poll interval")
+    public void testPollSoon() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        changeFeed.addListener(changes -> delivered.countDown());
+        changeFeed.start();
+        execute("INSERT INTO expenses VALUES (1, 1, 10.0, 'Taxi', '2025-01-01')");
+
+        changeFeed.pollSoon();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test poll prunes log rows far behind the feed")
+    public void testPoll_Prunes() throws SQLException {
+        changeFeed.close();
+        changeFeed = new ChangeFeed(db, Duration.ofSeconds(60), 10);
+        changeFeed.poll();
+        execute("""
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 50)
+                INSERT INTO expenses (user_id, amount, description, date) SELECT 1, i, 'Bulk', '2025-01-01' FROM n;
+                """);
+
+        changeFeed.poll();
+
+        assertEquals(10, changeLogRows());
+    }
+}
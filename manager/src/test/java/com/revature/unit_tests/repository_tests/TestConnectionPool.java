@@ -0,0 +1,143 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.ConnectionPool;
+import com.revature.repository.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TestConnectionPool {
+    private final List<Connection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private Connection newPhysicalConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        opened.add(connection);
+        return connection;
+    }
+
+    private ConnectionPool newPool(int min, int max, long acquireTimeoutMillis) {
+        return new ConnectionPool("test", this::newPhysicalConnection, min, max, acquireTimeoutMillis, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Test pool prefills minimum connections")
+    public void testPrefillsMinimum() {
+        pool = newPool(2, 4, 100);
+
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getTotalConnections());
+        assertEquals(2, stats.getIdleConnections());
+        assertEquals(0, stats.getActiveConnections());
+    }
+
+    @Test
+    @DisplayName("Test closing a pooled connection returns it for reuse")
+    public void testConnectionIsReused() throws SQLException {
+        pool = newPool(0, 2, 100);
+
+        Connection first = pool.getConnection();
+        first.close();
+        Connection second = pool.getConnection();
+        second.close();
+
+        assertEquals(1, opened.size());
+        verify(opened.get(0), never()).close();
+        assertTrue(first.isClosed());
+        assertEquals(2, pool.getStats().getAcquiredCount());
+    }
+
+    @Test
+    @DisplayName("Test acquire times out when the pool is exhausted")
+    public void testAcquireTimeout() throws SQLException {
+        pool = newPool(0, 1, 50);
+
+        Connection held = pool.getConnection();
+        SQLException exception = assertThrows(SQLException.class, () -> pool.getConnection());
+
+        assertTrue(exception.getMessage().contains("Timed out"));
+        assertEquals(1, pool.getStats().getTimeoutCount());
+        assertEquals(1.0, pool.getStats().getSaturation());
+        held.close();
+    }
+
+    @Test
+    @DisplayName("Test invalid idle connection is replaced on borrow")
+    public void testInvalidConnectionDiscarded() throws SQLException {
+        pool = newPool(1, 1, 100);
+        when(opened.get(0).isValid(anyInt())).thenReturn(false);
+
+        try (Connection connection = pool.getConnection()) {
+            assertNotNull(connection);
+        }
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+        assertEquals(1, pool.getStats().getValidationFailureCount());
+    }
+
+    @Test
+    @DisplayName("Test statements left open are closed when the connection is returned")
+    public void testOpenStatementsReclaimed() throws SQLException {
+        pool = newPool(1, 1, 100);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(opened.get(0).prepareStatement(anyString())).thenReturn(statement);
+
+        Connection connection = pool.getConnection();
+        connection.prepareStatement("SELECT 1");
+        connection.close();
+
+        verify(statement).close();
+        assertEquals(1, pool.getStats().getReclaimedStatementCount());
+    }
+
+    @Test
+    @DisplayName("Test returned connection cannot be used again")
+    public void testUseAfterClose() throws SQLException {
+        pool = newPool(0, 1, 100);
+
+        Connection connection = pool.getConnection();
+        connection.close();
+
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    @DisplayName("Test a connection held past the leak threshold is reported, unless it is streaming")
+    public void testLeakDetection_ExemptsStreaming() throws Exception {
+        pool = new ConnectionPool("test", this::newPhysicalConnection, 0, 2, 100, 1, 0);
+
+        Connection leaked = pool.getConnection();
+        Connection streaming = pool.getStreamingConnection();
+        // The housekeeper looks for leaks at most once a second
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getStats().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, pool.getStats().getLeakCount());
+        leaked.close();
+        streaming.close();
+        assertEquals(0, pool.getStats().getActiveConnections());
+    }
+}
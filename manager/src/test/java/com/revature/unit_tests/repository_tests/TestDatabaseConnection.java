@@ -0,0 +1,102 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.DatabaseConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDatabaseConnection {
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection db;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("pools.db"));
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE notes (id INTEGER PRIMARY KEY, body TEXT NOT NULL)");
+            stmt.executeUpdate("INSERT INTO notes VALUES (1, 'first')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private static String queryString(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static void assertWriteRefused(Connection conn) {
+        SQLException ex = assertThrows(SQLException.class, () -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO notes VALUES (2, 'second')");
+            }
+        });
+        assertTrue(ex.getMessage().contains("readonly"), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test the writer connection runs in WAL mode")
+    public void testWriteConnection_WalMode() throws SQLException {
+        try (Connection conn = db.getWriteConnection()) {
+            assertEquals("wal", queryString(conn, "PRAGMA journal_mode"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test a write through the reader pool is refused")
+    public void testReadConnection_QueryOnly() throws SQLException {
+        try (Connection conn = db.getReadConnection()) {
+            assertEquals("1", queryString(conn, "PRAGMA query_only"));
+            assertWriteRefused(conn);
+        }
+        try (Connection conn = db.getStreamingReadConnection()) {
+            assertWriteRefused(conn);
+        }
+        try (Connection conn = db.openDedicatedReadConnection()) {
+            assertWriteRefused(conn);
+        }
+        try (Connection conn = db.getReadConnection()) {
+            assertEquals("1", queryString(conn, "SELECT COUNT(*) FROM notes"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test readers see the last commit while a write transaction is open")
+    public void testReadConnection_NotBlockedByWriter() throws SQLException {
+        try (Connection writer = db.getWriteConnection()) {
+            writer.setAutoCommit(false);
+            try (Statement stmt = writer.createStatement()) {
+                stmt.executeUpdate("INSERT INTO notes VALUES (2, 'second')");
+            }
+
+            try (Connection reader = db.getReadConnection()) {
+                assertEquals("1", queryString(reader, "SELECT COUNT(*) FROM notes"));
+            }
+
+            writer.commit();
+            writer.setAutoCommit(true);
+        }
+        try (Connection reader = db.getReadConnection()) {
+            assertEquals("2", queryString(reader, "SELECT COUNT(*) FROM notes"));
+        }
+    }
+}
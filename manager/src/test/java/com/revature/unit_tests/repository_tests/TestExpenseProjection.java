@@ -0,0 +1,223 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ChangeFeed;
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ExpenseProjection;
+import com.revature.repository.ExpenseQuery;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.PendingExpenseFilter;
+import com.revature.repository.ProjectedApprovalRepository;
+import com.revature.repository.ProjectionCheckResult;
+import com.revature.repository.ReviewOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestExpenseProjection {
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DatabaseConnection db;
+    private ChangeFeed changeFeed;
+    private ExpenseRepository expenseRepository;
+    private ExpenseProjection projection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("projection.db"));
+        execute("""
+                CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                INSERT INTO users VALUES (1, 'employee1', 'pw', 'Employee'), (2, 'employee2', 'pw', 'Employee'), (3, 'manager1', 'pw', 'Manager');
+                INSERT INTO expenses VALUES
+                    (1, 1, 10.0, 'Taxi', '2025-01-01'),
+                    (2, 1, 20.0, 'Hotel', '2025-01-03'),
+                    (3, 2, 30.0, 'Lunch', '2025-01-03'),
+                    (4, 2, 40.0, 'Flight', '2025-01-05'),
+                    (5, 2, 50.0, 'No approval yet', '2025-01-06');
+                INSERT INTO approvals VALUES
+                    (11, 1, 'pending', NULL, NULL, NULL),
+                    (12, 2, 'approved', 3, 'ok', '2025-01-04 09:00:00'),
+                    (13, 3, 'pending', NULL, NULL, NULL),
+                    (14, 4, 'denied', 3, NULL, '2025-01-06 10:00:00');
+                """);
+        new MigrationRunner(db).migrate();
+
+        expenseRepository = new ExpenseRepository(db);
+        projection = new ExpenseProjection(db);
+        changeFeed = new ChangeFeed(db, Duration.ofSeconds(60), 0);
+        changeFeed.addListener(projection);
+        changeFeed.poll();
+        projection.load();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeFeed.close();
+        db.close();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private void assertMatchesDatabase(ExpenseQuery query) throws Exception {
+        List<ExpenseWithUser> projected = projection.find(query);
+        assertNotNull(projected, query.getDescription());
+        assertEquals(objectMapper.writeValueAsString(expenseRepository.findExpensesWithUsers(query)),
+                objectMapper.writeValueAsString(projected), query.getDescription());
+    }
+
+    private void assertAllQueriesMatch() throws Exception {
+        assertMatchesDatabase(ExpenseQuery.all());
+        assertMatchesDatabase(ExpenseQuery.pending());
+        assertMatchesDatabase(ExpenseQuery.byUser(1));
+        assertMatchesDatabase(ExpenseQuery.byUser(2));
+        assertMatchesDatabase(ExpenseQuery.byUser(99));
+        assertMatchesDatabase(ExpenseQuery.byDateRange("2025-01-03", "2025-01-05"));
+        assertMatchesDatabase(ExpenseQuery.byDateRange("2025-01-02", "2025-01-02"));
+        assertMatchesDatabase(ExpenseQuery.byDateRange("2025-01-05", "2025-01-01"));
+    }
+
+    @Test
+    @DisplayName("Test find returns the same results as the database queries")
+    public void testFind_MatchesDatabase() throws Exception {
+        assertAllQueriesMatch();
+        assertEquals(2, projection.find(ExpenseQuery.pending()).size());
+        assertEquals(5, projection.getStats().getExpenseCount());
+        assertEquals(4, projection.find(ExpenseQuery.all()).size());
+    }
+
+    @Test
+    @DisplayName("Test find leaves category searches to the database")
+    public void testFind_CategoryNotProjected() {
+        assertNull(projection.find(ExpenseQuery.byCategory("Taxi")));
+    }
+
+    @Test
+    @DisplayName("Test find returns null before the projection is loaded")
+    public void testFind_NotLoaded() {
+        assertNull(new ExpenseProjection(db).find(ExpenseQuery.all()));
+    }
+
+    @Test
+    @DisplayName("Test changes delivered by the change feed are applied to the projection")
+    public void testOnChanges_AppliesChanges() throws Exception {
+        execute("""
+                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (15, 5, 'pending', NULL, NULL, NULL);
+                UPDATE expenses SET date = '2025-01-02', amount = 25.0 WHERE id = 2;
+                UPDATE approvals SET status = 'approved', reviewer = 3 WHERE id = 11;
+                DELETE FROM approvals WHERE expense_id = 3;
+                DELETE FROM expenses WHERE id = 3;
+                UPDATE users SET username = 'employee2b' WHERE id = 2;
+                """);
+        changeFeed.poll();
+
+        assertAllQueriesMatch();
+        assertEquals(List.of(5), projection.find(ExpenseQuery.pending()).stream()
+                .map(e -> e.getExpense().getId()).toList());
+        assertTrue(projection.check(false).isConsistent());
+    }
+
+    @Test
+    @DisplayName("Test local approval writes are visible before the change feed polls")
+    public void testRefreshApproval_LocalWrite() throws Exception {
+        ProjectedApprovalRepository approvalRepository = new ProjectedApprovalRepository(db, projection);
+
+        assertTrue(approvalRepository.updateApprovalStatus(1, "denied", 3, "missing receipt"));
+
+        List<ExpenseWithUser> pending = projection.find(ExpenseQuery.pending());
+        assertEquals(List.of(3), pending.stream().map(e -> e.getExpense().getId()).toList());
+        assertAllQueriesMatch();
+
+        // The feed later reports the same write; re-reading it changes nothing
+        changeFeed.poll();
+        assertAllQueriesMatch();
+    }
+
+    @Test
+    @DisplayName("Test check catches up on logged changes before comparing")
+    public void testCheck_CatchesUp() throws SQLException {
+        execute("UPDATE approvals SET status = 'approved' WHERE id = 13");
+
+        ProjectionCheckResult result = projection.check(false);
+
+        assertTrue(result.isConsistent());
+        assertEquals(0, result.getDifferenceCount());
+        assertEquals(1, projection.find(ExpenseQuery.pending()).size());
+    }
+
+    @Test
+    @DisplayName("Test check reports changes that bypassed the change log and repair reloads them")
+    public void testCheck_DetectsAndRepairs() throws Exception {
+        execute("""
+                UPDATE approvals SET status = 'approved' WHERE id = 13;
+                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (15, 5, 'pending', NULL, NULL, NULL);
+                DELETE FROM change_log;
+                """);
+
+        ProjectionCheckResult detected = projection.check(false);
+        assertFalse(detected.isConsistent());
+        assertFalse(detected.isRepaired());
+        assertEquals(2, detected.getDifferenceCount());
+        assertFalse(detected.getDifferences().isEmpty());
+
+        ProjectionCheckResult repaired = projection.check(true);
+        assertFalse(repaired.isConsistent());
+        assertTrue(repaired.isRepaired());
+
+        assertTrue(projection.check(false).isConsistent());
+        assertAllQueriesMatch();
+    }
+
+    @Test
+    @DisplayName("Test batch reviews are applied in the database and the projection")
+    public void testBatchReviews_RefreshProjection() throws Exception {
+        ProjectedApprovalRepository approvalRepository = new ProjectedApprovalRepository(db, projection);
+
+        List<ReviewOutcome> outcomes = approvalRepository.updateApprovalStatuses(List.of(
+                new ApprovalDecision(1, "approved", 3, "ok"),
+                new ApprovalDecision(99, "approved", 3, null)));
+        assertEquals(List.of(ReviewOutcome.Result.APPLIED, ReviewOutcome.Result.NOT_FOUND),
+                outcomes.stream().map(ReviewOutcome::getResult).toList());
+        assertAllQueriesMatch();
+
+        // Expense 3 (30.0) is pending and matches; nothing else is pending any more
+        assertEquals(List.of(3), approvalRepository.updatePendingApprovals(
+                new PendingExpenseFilter(2, 30.0, "2025-01-01", null), "denied", 3, "bulk", 10));
+        assertTrue(projection.find(ExpenseQuery.pending()).isEmpty());
+        assertAllQueriesMatch();
+    }
+
+    @Test
+    @DisplayName("Test a filter matching too many expenses changes nothing")
+    public void testUpdatePendingApprovals_TooMany() throws Exception {
+        ProjectedApprovalRepository approvalRepository = new ProjectedApprovalRepository(db, projection);
+
+        assertThrows(IllegalArgumentException.class, () -> approvalRepository.updatePendingApprovals(
+                new PendingExpenseFilter(null, null, null, null), "approved", 3, null, 1));
+
+        assertEquals(2, expenseRepository.findPendingExpensesWithUsers().size());
+        assertTrue(projection.check(false).isConsistent());
+    }
+}
@@ -1,16 +1,21 @@
 package com.revature.unit_tests.repository_tests;
 
+import com.revature.metrics.QueryMetrics;
+import com.revature.metrics.QueryTimer;
 import com.revature.repository.DatabaseConnection;
 import com.revature.repository.Expense;
+import com.revature.repository.ExpenseQuery;
 import com.revature.repository.ExpenseRepository;
 import com.revature.repository.ExpenseWithUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.Connection;
@@ -19,9 +24,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,12 +45,16 @@ public class TestExpenseRepository {
     @Mock
     private ResultSet resultSet;
 
+    @Spy
+    private QueryMetrics queryMetrics = new QueryMetrics();
+
     @InjectMocks
     private ExpenseRepository expenseRepo;
 
     @BeforeEach
     public void setUp() throws Exception {
-        when(db.getConnection()).thenReturn(connection);
+        // Streaming reads borrow through getStreamingReadConnection instead
+        lenient().when(db.getReadConnection()).thenReturn(connection);
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
     }
 
@@ -83,6 +94,11 @@ public class TestExpenseRepository {
             assertNotNull(result);
             assertEquals(expectEmpty, result.isEmpty());
         }
+
+        // Every call is timed, and failed calls are counted
+        QueryTimer timer = queryMetrics.timer("ExpenseRepository", "findById");
+        assertEquals(1, timer.getLatency().getCount());
+        assertEquals(throwException ? 1 : 0, timer.getErrorCount());
     }
 
     /****************************************************************************************************
@@ -92,14 +108,15 @@ public class TestExpenseRepository {
     //MU-097, MU-100, MU-103, MU-106, MU-109
     @ParameterizedTest
     @CsvSource({
-            "findPendingExpensesWithUsers, '', '', 'Error finding pending expenses'",
-            "findExpensesByUser, '1', '', 'Error finding expenses for user: 1'",
-            "findExpensesByDateRange, '01/01/2025', '01/09/2025', 'Error finding expenses by date range: 01/01/2025 to 01/09/2025'",
-            "findExpensesByCategory, 'test', '', 'Error finding expenses by category: test'",
-            "findAllExpensesWithUsers, '', '', 'Error finding all expenses'"
+            "findPendingExpensesWithUsers, '', '', 'Error finding pending expenses', pending",
+            "findExpensesByUser, '1', '', 'Error finding expenses for user: 1', user",
+            "findExpensesByDateRange, '01/01/2025', '01/09/2025', 'Error finding expenses by date range: 01/01/2025 to 01/09/2025', date_range",
+            "findExpensesByCategory, 'test', '', 'Error finding expenses by category: test', category",
+            "findAllExpensesWithUsers, '', '', 'Error finding all expenses', all"
     })
     @DisplayName("Test Repository Methods Throw Exception")
-    public void testRepositoryMethods_Exception(String methodName, String param1, String param2, String expectedMessage) throws SQLException {
+    public void testRepositoryMethods_Exception(String methodName, String param1, String param2, String expectedMessage,
+                                                String queryType) throws SQLException {
         when(preparedStatement.executeQuery()).thenThrow(new SQLException("DB failure"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -125,6 +142,11 @@ public class TestExpenseRepository {
         assertTrue(exception.getMessage().contains(expectedMessage));
         assertNotNull(exception.getCause());
         assertInstanceOf(SQLException.class, exception.getCause());
+
+        // Each kind of query is timed separately
+        QueryTimer timer = queryMetrics.timer("ExpenseRepository", "findExpensesWithUsers:" + queryType);
+        assertEquals(1, timer.getLatency().getCount());
+        assertEquals(1, timer.getErrorCount());
     }
 
     //MU-098, MU-099, MU-101, MU-102, MU-104, MU-105, MU-107, MU-108, MU-110, MU-111
@@ -158,4 +180,25 @@ public class TestExpenseRepository {
         assertNotNull(result);
         assertEquals(expectEmpty, result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test streaming times the query but not the handler writing each row")
+    public void testForEachExpense_TimesQueryOnly() throws SQLException {
+        when(db.getStreamingReadConnection()).thenReturn(connection);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        int count = expenseRepo.forEachExpense(ExpenseQuery.all(), row -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(2, count);
+        QueryTimer timer = queryMetrics.timer("ExpenseRepository", "forEachExpense:all");
+        assertEquals(1, timer.getLatency().getCount());
+        assertTrue(timer.getLatency().getSumNanos() < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
@@ -0,0 +1,135 @@
+package com.revature.unit_tests.repository_tests;
+
+import com.revature.repository.DatabaseConnection;
+import com.revature.repository.ExpenseRepository;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.MigrationRunner;
+import com.revature.repository.SchemaMigration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMigrationRunner {
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection db;
+    private MigrationRunner migrationRunner;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("migrations.db"));
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE users (id INTEGER PRIMARY KEY, username TEXT UNIQUE NOT NULL, password TEXT NOT NULL, role TEXT NOT NULL);
+                CREATE TABLE expenses (id INTEGER PRIMARY KEY, user_id INTEGER NOT NULL, amount REAL NOT NULL, description TEXT NOT NULL, date TEXT NOT NULL);
+                CREATE TABLE approvals (id INTEGER PRIMARY KEY, expense_id INTEGER NOT NULL, status TEXT NOT NULL, reviewer INTEGER, comment TEXT, review_date TEXT);
+                """);
+        }
+        migrationRunner = new MigrationRunner(db);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    @DisplayName("Test migrate applies pending migrations and records them")
+    public void testMigrate_AppliesMigrations() throws SQLException {
+        List<SchemaMigration> applied = migrationRunner.migrate();
+
+        assertFalse(applied.isEmpty());
+        assertEquals(1, applied.get(0).getVersion());
+        assertEquals("query indexes", applied.get(0).getDescription());
+        assertEquals(applied.size(), migrationRunner.getAppliedMigrations().size());
+        assertTrue(indexExists("idx_approvals_pending"));
+        // V5 replaces the per-employee index with one that also covers the amount
+        assertTrue(indexExists("idx_expenses_user_date_amount"));
+        assertFalse(indexExists("idx_expenses_user_date"));
+    }
+
+    @Test
+    @DisplayName("Test migrate is a no-op once everything is applied")
+    public void testMigrate_Idempotent() {
+        migrationRunner.migrate();
+
+        List<SchemaMigration> appliedAgain = migrationRunner.migrate();
+
+        assertTrue(appliedAgain.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test migrate fails when an applied migration was modified")
+    public void testMigrate_ChecksumMismatch() throws SQLException {
+        migrationRunner.migrate();
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE schema_migrations SET checksum = 'tampered' WHERE version = 1");
+        }
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> migrationRunner.migrate());
+        assertTrue(exception.getMessage().contains("Checksum mismatch"));
+    }
+
+    @Test
+    @DisplayName("Test migrate rejects badly named migration files")
+    public void testMigrate_InvalidName() {
+        MigrationRunner runner = new MigrationRunner(db, List.of("add_indexes.sql"));
+
+        assertThrows(IllegalStateException.class, runner::migrate);
+    }
+
+    @Test
+    @DisplayName("Test category search uses the full-text index, kept in sync by triggers")
+    public void testMigrate_FullTextCategorySearch() throws SQLException {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                INSERT INTO users VALUES (1, 'employee1', 'x', 'Employee');
+                INSERT INTO expenses VALUES (1, 1, 120.0, 'Hotel stay', '2025-01-05');
+                INSERT INTO approvals VALUES (1, 1, 'pending', NULL, NULL, NULL);
+                """);
+        }
+        migrationRunner.migrate();
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                INSERT INTO expenses VALUES (2, 1, 80.0, 'Hotel breakfast, hotel parking', '2025-01-06');
+                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (2, 2, 'pending', NULL, NULL, NULL);
+                INSERT INTO expenses VALUES (3, 1, 300.0, 'Flight ticket', '2025-01-07');
+                INSERT INTO approvals (id, expense_id, status, reviewer, comment, review_date) VALUES (3, 3, 'pending', NULL, NULL, NULL);
+                UPDATE expenses SET description = 'Motel stay' WHERE id = 1;
+                """);
+        }
+        ExpenseRepository expenseRepository = new ExpenseRepository(db);
+
+        List<ExpenseWithUser> hotel = expenseRepository.findExpensesByCategory("HOT");
+        List<ExpenseWithUser> flight = expenseRepository.findExpensesByCategory("flight \"ticket");
+
+        assertEquals(List.of(2), hotel.stream().map(e -> e.getExpense().getId()).toList());
+        assertEquals(List.of(3), flight.stream().map(e -> e.getExpense().getId()).toList());
+        assertEquals(1, expenseRepository.findExpensesByCategory("motel").size());
+        assertTrue(expenseRepository.findExpensesByCategory("stay ticket").isEmpty());
+    }
+
+    private boolean indexExists(String name) throws SQLException {
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+}
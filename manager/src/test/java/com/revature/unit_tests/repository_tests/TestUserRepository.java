@@ -63,7 +63,7 @@ public class TestUserRepository {
             String expectedRole,
             String expectedMessage
     ) throws SQLException {
-        when(mockDatabaseConnection.getConnection()).thenReturn(mockConnection);
+        when(mockDatabaseConnection.getReadConnection()).thenReturn(mockConnection);
 
         if (scenario.equals("exception")) {
             when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
@@ -0,0 +1,55 @@
+package com.revature.unit_tests.service_tests;
+
+import com.revature.repository.AnalyticsRepository;
+import com.revature.repository.SpendGrouping;
+import com.revature.repository.SpendSummary;
+import com.revature.service.AnalyticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestAnalyticsService {
+    @Mock
+    private AnalyticsRepository analyticsRepository;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    @DisplayName("Test summaries come from the repository")
+    public void testSummarizeSpend() {
+        List<SpendSummary> summaries = List.of(new SpendSummary("2025-01", 2, new BigDecimal("250.00"), new BigDecimal("125.00")));
+        when(analyticsRepository.summarizeSpend(SpendGrouping.MONTH, "2025-01-01", null, null)).thenReturn(summaries);
+
+        assertEquals(summaries, analyticsService.summarizeSpend(SpendGrouping.MONTH, "2025-01-01", null, null));
+    }
+
+    @Test
+    @DisplayName("Test summaries are written as CSV with the employee ID column when grouped by employee")
+    public void testWriteCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        analyticsService.writeCsv(SpendGrouping.EMPLOYEE, List.of(
+                new SpendSummary("employee2", 2, 4, new BigDecimal("525.35"), new BigDecimal("131.34")),
+                new SpendSummary("employee1", 1, 3, new BigDecimal("280.00"), new BigDecimal("93.33"))), out);
+        assertEquals("Employee ID,Employee,Expenses,Total,Average\n"
+                + "2,employee2,4,525.35,131.34\n"
+                + "1,employee1,3,280.00,93.33\n", out.toString(StandardCharsets.UTF_8));
+
+        out.reset();
+        analyticsService.writeCsv(SpendGrouping.CATEGORY, List.of(new SpendSummary("hotel, paris", 1, new BigDecimal("10.00"), new BigDecimal("10.00"))), out);
+        assertEquals("Category,Expenses,Total,Average\n\"hotel, paris\",1,10.00,10.00\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,216 @@
+package com.revature.unit_tests.service_tests;
+
+import com.revature.repository.ApprovalDecision;
+import com.revature.repository.ApprovalRepository;
+import com.revature.repository.ReviewOutcome;
+import com.revature.service.ApprovalWriteQueue;
+import com.revature.service.WriteQueueStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestApprovalWriteQueue {
+    private ApprovalWriteQueue queue;
+
+    @AfterEach
+    public void tearDown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * Records each group it is asked to commit; the first commit waits for a latch, so decisions
+     * submitted meanwhile pile up behind it.
+     */
+    private static class RecordingRepository extends ApprovalRepository {
+        private final List<List<Integer>> groups = new CopyOnWriteArrayList<>();
+        private final CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseFirstCommit;
+        private volatile RuntimeException failure;
+        private volatile Error error;
+
+        RecordingRepository(boolean holdFirstCommit) {
+            super(null);
+            this.releaseFirstCommit = new CountDownLatch(holdFirstCommit ? 1 : 0);
+        }
+
+        @Override
+        public List<ReviewOutcome> updateApprovalStatuses(List<ApprovalDecision> decisions) {
+            firstCommitStarted.countDown();
+            try {
+                releaseFirstCommit.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (error != null) {
+                Error thrown = error;
+                error = null;
+                throw thrown;
+            }
+            groups.add(decisions.stream().map(ApprovalDecision::getExpenseId).toList());
+            // Expense IDs of 1000 and up do not exist
+            return decisions.stream()
+                    .map(d -> d.getExpenseId() < 1000 ? ReviewOutcome.applied() : ReviewOutcome.notFound())
+                    .toList();
+        }
+    }
+
+    private static ApprovalDecision decision(int expenseId) {
+        return new ApprovalDecision(expenseId, "approved", 3, null);
+    }
+
+    @Test
+    @DisplayName("Test decisions queued during a commit are committed together as the next group")
+    public void testSubmit_GroupsConcurrentDecisions() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 100, 50, Duration.ZERO);
+
+        CompletableFuture<ReviewOutcome> first = queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<ReviewOutcome>> waiting = new ArrayList<>();
+        for (int i = 2; i <= 11; i++) {
+            waiting.add(queue.submit(decision(i)));
+        }
+        waiting.add(queue.submit(decision(1000)));
+        repository.releaseFirstCommit.countDown();
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).isApplied());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(waiting.get(i).get(5, TimeUnit.SECONDS).isApplied());
+        }
+        assertEquals(ReviewOutcome.Result.NOT_FOUND, waiting.get(10).get(5, TimeUnit.SECONDS).getResult());
+
+        assertEquals(List.of(List.of(1), List.of(2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 1000)), repository.groups);
+        WriteQueueStats stats = queue.getStats();
+        assertEquals(2, stats.getGroupCount());
+        assertEquals(12, stats.getCommittedCount());
+        assertEquals(11, stats.getLargestGroup());
+    }
+
+    @Test
+    @DisplayName("Test groups are capped at the maximum group size")
+    public void testSubmit_RespectsMaxGroupSize() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 100, 4, Duration.ZERO);
+
+        queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<ReviewOutcome>> waiting = new ArrayList<>();
+        for (int i = 2; i <= 10; i++) {
+            waiting.add(queue.submit(decision(i)));
+        }
+        repository.releaseFirstCommit.countDown();
+        CompletableFuture.allOf(waiting.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of(1), List.of(2, 3, 4, 5), List.of(6, 7, 8, 9), List.of(10)), repository.groups);
+    }
+
+    @Test
+    @DisplayName("Test a failed commit fails every decision in its group")
+    public void testSubmit_FailureReachesWholeGroup() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 100, 50, Duration.ZERO);
+
+        CompletableFuture<ReviewOutcome> first = queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        repository.failure = new RuntimeException("database is locked");
+        repository.releaseFirstCommit.countDown();
+
+        CompletionException ex = assertThrows(CompletionException.class, first::join);
+        assertEquals("database is locked", ex.getCause().getMessage());
+        assertEquals(1, queue.getStats().getFailedCount());
+    }
+
+    @Test
+    @DisplayName("Test an Error during a commit fails its group and the writer carries on")
+    public void testSubmit_ErrorFailsGroupAndWriterSurvives() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 100, 50, Duration.ZERO);
+
+        CompletableFuture<ReviewOutcome> first = queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        repository.error = new OutOfMemoryError("Java heap space");
+        repository.releaseFirstCommit.countDown();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, ex.getCause());
+        assertEquals(1, queue.getStats().getFailedCount());
+        assertTrue(queue.submit(decision(2)).get(5, TimeUnit.SECONDS).isApplied());
+    }
+
+    @Test
+    @DisplayName("Test a full queue rejects new decisions")
+    public void testSubmit_RejectsWhenFull() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 1, 50, Duration.ZERO);
+
+        queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ReviewOutcome> queued = queue.submit(decision(2));
+
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(decision(3)));
+        assertEquals(1, queue.getStats().getRejectedCount());
+
+        repository.releaseFirstCommit.countDown();
+        assertTrue(queued.get(5, TimeUnit.SECONDS).isApplied());
+    }
+
+    @Test
+    @DisplayName("Test close commits queued decisions and then refuses new ones")
+    public void testClose_DrainsQueue() throws Exception {
+        RecordingRepository repository = new RecordingRepository(true);
+        queue = new ApprovalWriteQueue(repository, 100, 50, Duration.ZERO);
+
+        queue.submit(decision(1));
+        assertTrue(repository.firstCommitStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ReviewOutcome> queued = queue.submit(decision(2));
+        repository.releaseFirstCommit.countDown();
+        queue.close();
+
+        assertTrue(queued.isDone());
+        assertTrue(queued.get().isApplied());
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(decision(3)));
+    }
+
+    @Test
+    @DisplayName("Test a decision submitted while the queue closes is completed, never stranded")
+    public void testSubmit_RacingClose() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            ApprovalWriteQueue racing = new ApprovalWriteQueue(new RecordingRepository(false), 100, 50, Duration.ZERO);
+            List<CompletableFuture<ReviewOutcome>> accepted = new CopyOnWriteArrayList<>();
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        accepted.add(racing.submit(decision(i % 999)));
+                    } catch (RejectedExecutionException e) {
+                        // Closed or full; either way nothing was left waiting
+                    }
+                }
+            });
+            submitter.start();
+            racing.close();
+            submitter.join();
+
+            for (CompletableFuture<ReviewOutcome> future : accepted) {
+                assertTrue(future.isDone(), "A future accepted around close() was never completed");
+            }
+        }
+    }
+}
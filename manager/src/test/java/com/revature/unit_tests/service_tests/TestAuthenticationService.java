@@ -1,14 +1,15 @@
 package com.revature.unit_tests.service_tests;
 
+import com.revature.cache.CacheStats;
 import com.revature.repository.User;
 import com.revature.repository.UserRepository;
 import com.revature.service.AuthenticationService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -23,9 +24,13 @@ public class TestAuthenticationService {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private AuthenticationService authenticationService;
 
+    @BeforeEach
+    public void setUp() {
+        authenticationService = new AuthenticationService(userRepository);
+    }
+
     @Test
     public void testValidateAuthenticationValidHeaderReturnsUser() {
         User user = new User(1, "username", "password", "Employee");
@@ -145,4 +150,60 @@ public class TestAuthenticationService {
 
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testValidateJwtTokenVerifiesOnceThenServesFromCache() {
+        User manager = new User(3, "manager1", "password", "Manager");
+        when(userRepository.findById(3)).thenReturn(Optional.of(manager));
+        String token = authenticationService.createJwtToken(manager);
+
+        Optional<User> first = authenticationService.validateJwtToken(token);
+        Optional<User> second = authenticationService.validateJwtToken(token);
+
+        assertSame(manager, first.get());
+        assertSame(manager, second.get());
+        CacheStats stats = authenticationService.getVerifiedTokenCacheStats();
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getSize());
+        // The user is still looked up every time, so role changes are not masked by the token cache
+        verify(userRepository, times(2)).findById(3);
+    }
+
+    @Test
+    public void testInvalidateTokenForcesVerificationAgain() {
+        User manager = new User(3, "manager1", "password", "Manager");
+        when(userRepository.findById(3)).thenReturn(Optional.of(manager));
+        String token = authenticationService.createJwtToken(manager);
+        authenticationService.validateJwtToken(token);
+
+        authenticationService.invalidateToken(token);
+
+        assertEquals(0, authenticationService.getVerifiedTokenCacheStats().getSize());
+        assertTrue(authenticationService.validateJwtToken(token).isPresent());
+        assertEquals(2, authenticationService.getVerifiedTokenCacheStats().getMissCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not.a.jwt", "eyJhbGciOiJIUzI1NiJ9.e30.invalidsignature"})
+    public void testValidateJwtTokenRejectsInvalidTokensWithoutCaching(String token) {
+        assertTrue(authenticationService.validateJwtToken(token).isEmpty());
+        assertTrue(authenticationService.validateJwtToken(token).isEmpty());
+
+        assertEquals(0, authenticationService.getVerifiedTokenCacheStats().getSize());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testValidateJwtTokenWithCacheDisabled() {
+        AuthenticationService uncached = new AuthenticationService(userRepository, 0);
+        User manager = new User(3, "manager1", "password", "Manager");
+        when(userRepository.findById(3)).thenReturn(Optional.of(manager));
+        String token = uncached.createJwtToken(manager);
+
+        assertTrue(uncached.validateJwtToken(token).isPresent());
+        assertTrue(uncached.validateJwtToken(token).isPresent());
+
+        assertEquals(0, uncached.getVerifiedTokenCacheStats().getSize());
+    }
+}
@@ -3,7 +3,11 @@ package com.revature.unit_tests.service_tests;
 
 import com.revature.repository.*;
 
+import com.revature.service.ApprovalWriteQueue;
+import com.revature.service.BatchReviewResult;
+import com.revature.service.ExpenseChangeListener;
 import com.revature.service.ExpenseService;
+import com.revature.service.ReviewConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -14,6 +18,10 @@ import org.mockito.Mock;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -60,12 +68,13 @@ public class TestExpenseService {
             "999, 2, 'approved expense', false"
     })
     void approveExpense_allScenarios(int expenseId, int managerId, String comment, boolean expectedResult) {
-        when(repository2.updateApprovalStatus(anyInt(), anyString(), anyInt(), anyString())).thenReturn(expectedResult);
+        when(repository2.reviewApproval(any())).thenReturn(expectedResult ? ReviewOutcome.applied() : ReviewOutcome.notFound());
 
         boolean result = expenseService.approveExpense(expenseId, managerId, comment);
 
         assertEquals(expectedResult, result);
-        verify(repository2).updateApprovalStatus(expenseId, "approved", managerId, comment);
+        verify(repository2).reviewApproval(argThat(d -> d.getExpenseId() == expenseId && d.getStatus().equals("approved")
+                && d.getReviewerId() == managerId && comment.equals(d.getComment()) && d.getExpectedVersion() == null));
     }
 
     // MU-171, MU-172
@@ -77,12 +86,26 @@ public class TestExpenseService {
             "999, 2, 'denied expense', false"
     })
     void denyExpense_allScenarios(int expenseId, int managerId, String comment, boolean expectedResult) {
-        when(repository2.updateApprovalStatus(anyInt(), anyString(), anyInt(), anyString())).thenReturn(expectedResult);
+        when(repository2.reviewApproval(any())).thenReturn(expectedResult ? ReviewOutcome.applied() : ReviewOutcome.notFound());
 
         boolean result = expenseService.denyExpense(expenseId, managerId, comment);
 
         assertEquals(expectedResult, result);
-        verify(repository2).updateApprovalStatus(expenseId, "denied", managerId, comment);
+        verify(repository2).reviewApproval(argThat(d -> d.getExpenseId() == expenseId && d.getStatus().equals("denied")
+                && d.getReviewerId() == managerId && comment.equals(d.getComment()) && d.getExpectedVersion() == null));
+    }
+
+    @Test
+    void approveExpense_conflictCarriesCurrentApproval() {
+        Approval current = new Approval(11, 1, "denied", 4, "duplicate", "2025-01-02 10:00:00", 1);
+        when(repository2.reviewApproval(any())).thenReturn(ReviewOutcome.conflict(current));
+
+        ReviewConflictException ex = assertThrows(ReviewConflictException.class,
+                () -> expenseService.approveExpense(1, 3, null, 0));
+
+        assertSame(current, ex.getCurrent());
+        assertEquals("Expense was already denied by reviewer 4", ex.getMessage());
+        verify(repository2).reviewApproval(argThat(d -> d.getExpectedVersion() == 0));
     }
 
     @Nested
@@ -282,4 +305,141 @@ public class TestExpenseService {
         String csv = expenseService.generateCsvReport(List.of(e1));
         assertTrue(csv.contains(expected));
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeCsvReport_streamsRowsInSameFormatAsGenerateCsvReport() throws Exception {
+        expense = new Expense(1, 1, 250.0, "Hello, \"World\"", "2025-01-10");
+        user = new User(1, "john101", null, "employee");
+        approval = new Approval(1, 1, "approved", 101, "Valid", "2025-01-11");
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(1);
+        when(rs.getString(6)).thenReturn("john101");
+        when(rs.getDouble(3)).thenReturn(250.0);
+        when(rs.getString(4)).thenReturn("Hello, \"World\"");
+        when(rs.getString(5)).thenReturn("2025-01-10");
+        when(rs.getString(9)).thenReturn("approved");
+        when(rs.getInt(10)).thenReturn(101);
+        when(rs.wasNull()).thenReturn(false);
+        when(rs.getString(11)).thenReturn("Valid");
+        when(rs.getString(12)).thenReturn("2025-01-11");
+        when(repository1.forEachExpense(eq(ExpenseQuery.all()), any(ExpenseRowHandler.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, ExpenseRowHandler.class).handle(new ExpenseRow(rs));
+            return 1;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = expenseService.writeCsvReport(ExpenseQuery.all(), out);
+
+        assertEquals(1, count);
+        assertEquals(expenseService.generateCsvReport(List.of(new ExpenseWithUser(expense, user, approval))),
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void listQueries_reuseResultWithinTtlUntilAReview() {
+        ExpenseService coalescing = new ExpenseService(repository1, repository2, Duration.ofMinutes(1));
+        when(repository1.findPendingExpensesWithUsers()).thenReturn(new ArrayList<>());
+        when(repository2.reviewApproval(any())).thenReturn(ReviewOutcome.applied());
+
+        coalescing.getPendingExpenses();
+        coalescing.getPendingExpenses();
+        verify(repository1, times(1)).findPendingExpensesWithUsers();
+
+        assertTrue(coalescing.approveExpense(1, 3, null));
+        coalescing.getPendingExpenses();
+        verify(repository1, times(2)).findPendingExpensesWithUsers();
+
+        coalescing.onChanges(List.of(new ChangeEvent(1, ChangeEvent.EXPENSES, ChangeEvent.INSERT, 7, 7)));
+        coalescing.getPendingExpenses();
+        verify(repository1, times(3)).findPendingExpensesWithUsers();
+        assertEquals(3, coalescing.getCoalescingStats().get(0).getExecutionCount());
+        assertEquals(1, coalescing.getCoalescingStats().get(0).getCachedCount());
+    }
+
+    @Test
+    void listQueries_returnUnmodifiableSharedResults() {
+        when(repository1.findAllExpensesWithUsers()).thenReturn(new ArrayList<>());
+
+        List<ExpenseWithUser> all = expenseService.getAllExpenses();
+
+        assertThrows(UnsupportedOperationException.class, () -> all.add(null));
+    }
+
+    @Test
+    void reviewExpenses_appliesValidDecisionsAndReportsEachItem() {
+        List<ApprovalDecision> decisions = List.of(
+                new ApprovalDecision(1, "approved", 9, null),
+                new ApprovalDecision(2, "maybe", 9, null),
+                new ApprovalDecision(3, "denied", 9, "no receipt"));
+        when(repository2.updateApprovalStatuses(anyList())).thenReturn(List.of(ReviewOutcome.applied(), ReviewOutcome.notFound()));
+
+        List<BatchReviewResult> results = expenseService.reviewExpenses(decisions);
+
+        verify(repository2).updateApprovalStatuses(argThat(valid -> valid.size() == 2
+                && valid.get(0).getExpenseId() == 1 && valid.get(1).getExpenseId() == 3));
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Decision must be approve or deny", results.get(1).getError());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals("Expense not found", results.get(2).getError());
+    }
+
+    @Test
+    void reviewExpenses_rejectsEmptyAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> expenseService.reviewExpenses(List.of()));
+        List<ApprovalDecision> tooMany = new ArrayList<>();
+        for (int i = 0; i <= ExpenseService.MAX_BATCH_SIZE; i++) {
+            tooMany.add(new ApprovalDecision(i, "approved", 9, null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> expenseService.reviewExpenses(tooMany));
+        verifyNoInteractions(repository2);
+    }
+
+    @Test
+    void reviewPendingExpenses_returnsOneResultPerReviewedExpense() {
+        PendingExpenseFilter filter = new PendingExpenseFilter(2, 50.0, null, null);
+        when(repository2.updatePendingApprovals(filter, "approved", 9, "bulk", ExpenseService.MAX_BATCH_SIZE))
+                .thenReturn(List.of(4, 7));
+
+        List<BatchReviewResult> results = expenseService.reviewPendingExpenses(filter, "approved", 9, "bulk");
+
+        assertEquals(List.of(4, 7), results.stream().map(BatchReviewResult::getExpenseId).toList());
+        assertTrue(results.stream().allMatch(BatchReviewResult::isSuccess));
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseService.reviewPendingExpenses(filter, "pending", 9, null));
+    }
+
+    @Test
+    void approveExpense_goesThroughWriteQueueWhenConfigured() {
+        when(repository2.updateApprovalStatuses(anyList())).thenReturn(List.of(ReviewOutcome.applied()));
+        try (ApprovalWriteQueue writeQueue = new ApprovalWriteQueue(repository2, 10, 10, Duration.ZERO)) {
+            ExpenseService queued = new ExpenseService(repository1, repository2, Duration.ZERO, writeQueue);
+
+            assertTrue(queued.approveExpense(5, 3, "ok"));
+
+            verify(repository2).updateApprovalStatuses(argThat(decisions -> decisions.size() == 1
+                    && decisions.get(0).getExpenseId() == 5 && decisions.get(0).getStatus().equals("approved")
+                    && decisions.get(0).getReviewerId() == 3));
+            verify(repository2, never()).reviewApproval(any());
+            assertEquals(1, queued.getWriteQueueStats().getCommittedCount());
+        }
+    }
+
+    @Test
+    void reviews_notifyChangeListenersOnlyWhenApplied() {
+        ExpenseChangeListener listener = mock(ExpenseChangeListener.class);
+        expenseService.addChangeListener(listener);
+        when(repository2.reviewApproval(any())).thenReturn(ReviewOutcome.applied(), ReviewOutcome.notFound());
+        when(repository2.updateApprovalStatuses(anyList())).thenReturn(List.of(ReviewOutcome.notFound(), ReviewOutcome.applied()));
+
+        expenseService.approveExpense(1, 101, null);
+        expenseService.denyExpense(2, 101, null);
+        expenseService.reviewExpenses(List.of(new ApprovalDecision(3, "approved", 101, null),
+                new ApprovalDecision(4, "denied", 101, null)));
+
+        verify(listener).expenseChanged(1);
+        verify(listener).expenseChanged(4);
+        verifyNoMoreInteractions(listener);
+    }
+}
@@ -0,0 +1,165 @@
+package com.revature.unit_tests.service_tests;
+
+import com.revature.repository.Approval;
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.Expense;
+import com.revature.repository.ExpenseWithUser;
+import com.revature.repository.User;
+import com.revature.service.ExpenseService;
+import com.revature.service.PendingExpenseEvent;
+import com.revature.service.PendingExpenseFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestPendingExpenseFeed {
+    private static final Duration NO_WAIT = Duration.ZERO;
+
+    @Mock
+    private ExpenseService expenseService;
+
+    private PendingExpenseFeed feed;
+
+    @BeforeEach
+    public void setUp() {
+        // Most tests drive refresh() directly rather than through a change feed
+        feed = new PendingExpenseFeed(expenseService, 3, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        feed.close();
+    }
+
+    private static ExpenseWithUser pending(int expenseId, double amount) {
+        return new ExpenseWithUser(new Expense(expenseId, 1, amount, "Lunch", "2025-01-05"),
+                new User(1, "employee1", null, "Employee"),
+                new Approval(expenseId, expenseId, "pending", null, null, null));
+    }
+
+    private static List<PendingExpenseEvent> drain(PendingExpenseFeed.Subscription subscription) throws InterruptedException {
+        List<PendingExpenseEvent> events = new ArrayList<>();
+        PendingExpenseEvent event;
+        while ((event = subscription.next(NO_WAIT)) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    @DisplayName("New subscriber starts with a snapshot of the queue")
+    @Test
+    public void testSubscribe_Snapshot() throws InterruptedException {
+        when(expenseService.getPendingExpenses()).thenReturn(List.of(pending(1, 10.0), pending(2, 20.0)));
+
+        List<PendingExpenseEvent> events = drain(feed.subscribe(null));
+
+        assertEquals(1, events.size());
+        assertEquals(PendingExpenseEvent.SNAPSHOT, events.get(0).getType());
+        assertTrue(events.get(0).getData().contains("\"count\":2"));
+        assertEquals(1, feed.getSubscriberCount());
+    }
+
+    @DisplayName("Refresh publishes add, update and remove events for the differences")
+    @Test
+    public void testRefresh_Diff() throws InterruptedException {
+        when(expenseService.getPendingExpenses())
+                .thenReturn(List.of(pending(1, 10.0), pending(2, 20.0)))
+                .thenReturn(List.of(pending(2, 25.0), pending(3, 30.0)));
+        PendingExpenseFeed.Subscription subscription = feed.subscribe(null);
+        drain(subscription);
+
+        feed.refresh();
+        List<PendingExpenseEvent> events = drain(subscription);
+
+        assertEquals(List.of(PendingExpenseEvent.REMOVE, PendingExpenseEvent.UPDATE, PendingExpenseEvent.ADD),
+                events.stream().map(PendingExpenseEvent::getType).toList());
+        assertEquals("{\"expenseId\":1}", events.get(0).getData());
+        assertTrue(events.get(1).getData().contains("\"amount\":25.0"));
+        assertTrue(events.get(2).getData().contains("\"id\":3"));
+    }
+
+    @DisplayName("Resuming with Last-Event-ID replays only the missed events")
+    @Test
+    public void testSubscribe_Resume() throws InterruptedException {
+        when(expenseService.getPendingExpenses())
+                .thenReturn(List.of(pending(1, 10.0)))
+                .thenReturn(List.of(pending(1, 10.0), pending(2, 20.0)))
+                .thenReturn(List.of(pending(2, 20.0)));
+        PendingExpenseFeed.Subscription first = feed.subscribe(null);
+        feed.refresh();
+        List<PendingExpenseEvent> seen = drain(first);
+        first.close();
+        String lastSeen = seen.get(seen.size() - 1).getId();
+
+        feed.refresh();
+        List<PendingExpenseEvent> replayed = drain(feed.subscribe(lastSeen));
+
+        assertEquals(1, replayed.size());
+        assertEquals(PendingExpenseEvent.REMOVE, replayed.get(0).getType());
+    }
+
+    @DisplayName("Unknown or expired Last-Event-ID falls back to a snapshot")
+    @Test
+    public void testSubscribe_ResumeTooOld() throws InterruptedException {
+        when(expenseService.getPendingExpenses())
+                .thenReturn(List.of())
+                .thenReturn(List.of(pending(1, 10.0)))
+                .thenReturn(List.of(pending(1, 11.0)))
+                .thenReturn(List.of(pending(1, 12.0)))
+                .thenReturn(List.of(pending(1, 13.0)));
+        PendingExpenseFeed.Subscription first = feed.subscribe(null);
+        String snapshotId = drain(first).get(0).getId();
+        feed.refresh();
+        feed.refresh();
+        feed.refresh();
+        feed.refresh();
+        first.close();
+
+        assertEquals(PendingExpenseEvent.SNAPSHOT, drain(feed.subscribe(snapshotId)).get(0).getType());
+        assertEquals(PendingExpenseEvent.SNAPSHOT, drain(feed.subscribe("other-run-3")).get(0).getType());
+    }
+
+    @DisplayName("Subscriber whose buffer fills up is dropped")
+    @Test
+    public void testPublish_DropsSlowSubscriber() {
+        when(expenseService.getPendingExpenses())
+                .thenReturn(List.of())
+                .thenReturn(List.of(pending(1, 10.0), pending(2, 20.0), pending(3, 30.0), pending(4, 40.0)));
+        PendingExpenseFeed.Subscription slow = feed.subscribe(null);
+
+        // Snapshot plus four adds overflow a buffer of four
+        feed.refresh();
+
+        assertTrue(slow.isDropped());
+        assertEquals(0, feed.getSubscriberCount());
+        assertEquals(1, feed.getDroppedCount());
+    }
+
+    @DisplayName("Database changes refresh the queue in the background while someone is subscribed")
+    @Test
+    public void testOnChanges_RefreshesWhenSubscribed() throws InterruptedException {
+        when(expenseService.getPendingExpenses())
+                .thenReturn(List.of())
+                .thenReturn(List.of(pending(5, 50.0)));
+        PendingExpenseFeed.Subscription subscription = feed.subscribe(null);
+        drain(subscription);
+
+        feed.onChanges(List.of(new ChangeEvent(1, ChangeEvent.EXPENSES, ChangeEvent.INSERT, 5, 5)));
+
+        PendingExpenseEvent event = subscription.next(Duration.ofSeconds(5));
+        assertNotNull(event);
+        assertEquals(PendingExpenseEvent.ADD, event.getType());
+    }
+}
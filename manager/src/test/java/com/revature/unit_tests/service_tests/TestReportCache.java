@@ -0,0 +1,189 @@
+package com.revature.unit_tests.service_tests;
+
+import com.revature.repository.ChangeEvent;
+import com.revature.repository.ExpenseQuery;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestReportCache {
+    private static final String REPORT = "Expense ID\n1\n";
+
+    @Mock
+    private ExpenseService expenseService;
+
+    private ReportCache reportCache;
+
+    @BeforeEach
+    public void setUp() {
+        reportCache = new ReportCache(expenseService, 1024, 1024, null, 0);
+    }
+
+    @Test
+    @DisplayName("Test a report is streamed to the client and cached for its data version")
+    public void testWriteCsvReport_Caches() {
+        stubReport(ExpenseQuery.all());
+        when(expenseService.getDataVersion()).thenReturn(7L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1, reportCache.writeCsvReport(ExpenseQuery.all(), 7, out));
+
+        assertEquals(REPORT, out.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(out.toByteArray(), reportCache.get(ExpenseQuery.all(), 7).getBytes());
+        assertNull(reportCache.get(ExpenseQuery.all(), 8));
+        assertNull(reportCache.get(ExpenseQuery.pending(), 7));
+    }
+
+    @Test
+    @DisplayName("Test a report is not cached if the data changed while it rendered")
+    public void testWriteCsvReport_DataChanged() {
+        stubReport(ExpenseQuery.all());
+        when(expenseService.getDataVersion()).thenReturn(8L);
+
+        reportCache.writeCsvReport(ExpenseQuery.all(), 7, new ByteArrayOutputStream());
+
+        assertNull(reportCache.get(ExpenseQuery.all(), 7));
+        assertNull(reportCache.get(ExpenseQuery.all(), 8));
+    }
+
+    @Test
+    @DisplayName("Test a report is not cached if the client disconnected")
+    public void testWriteCsvReport_ClientFailed() {
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class)))
+                .thenThrow(new UncheckedIOException(new IOException("Broken pipe")));
+
+        assertThrows(UncheckedIOException.class,
+                () -> reportCache.writeCsvReport(ExpenseQuery.all(), 7, new ByteArrayOutputStream()));
+
+        assertNull(reportCache.get(ExpenseQuery.all(), 7));
+        verify(expenseService, never()).getDataVersion();
+    }
+
+    @Test
+    @DisplayName("Test concurrent downloads of the same report share one render")
+    public void testWriteCsvReport_Coalesces() throws Exception {
+        when(expenseService.getDataVersion()).thenReturn(7L);
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class))).thenAnswer(invocation -> {
+            awaitSecondDownload();
+            OutputStream out = invocation.getArgument(1);
+            out.write(REPORT.getBytes(StandardCharsets.UTF_8));
+            return 1;
+        });
+
+        assertEquals(List.of(REPORT, REPORT), downloadTwice(ExpenseQuery.all(), 7));
+
+        verify(expenseService, times(1)).writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("Test a download waiting on a render that was not cached renders the report itself")
+    public void testWriteCsvReport_CoalescedRenderNotCached() throws Exception {
+        // The data changes during the first render, so only the second is cached
+        when(expenseService.getDataVersion()).thenReturn(8L, 7L);
+        AtomicInteger renders = new AtomicInteger();
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class))).thenAnswer(invocation -> {
+            if (renders.getAndIncrement() == 0) {
+                awaitSecondDownload();
+            }
+            OutputStream out = invocation.getArgument(1);
+            out.write(REPORT.getBytes(StandardCharsets.UTF_8));
+            return 1;
+        });
+
+        assertEquals(List.of(REPORT, REPORT), downloadTwice(ExpenseQuery.all(), 7));
+
+        assertEquals(2, renders.get());
+        assertNotNull(reportCache.get(ExpenseQuery.all(), 7));
+    }
+
+    @Test
+    @DisplayName("Test cached reports are dropped when expenses, approvals or users change")
+    public void testOnChanges_Invalidates() {
+        stubReport(ExpenseQuery.all());
+        when(expenseService.getDataVersion()).thenReturn(7L);
+        reportCache.writeCsvReport(ExpenseQuery.all(), 7, new ByteArrayOutputStream());
+
+        reportCache.onChanges(List.of(new ChangeEvent(8, ChangeEvent.APPROVALS, ChangeEvent.UPDATE, 1, 1)));
+
+        assertNull(reportCache.get(ExpenseQuery.all(), 7));
+        assertEquals(1, reportCache.getStats().getInvalidationCount());
+    }
+
+    @Test
+    @DisplayName("Test ETags differ by report and by data version")
+    public void testEtag() {
+        String etag = ReportCache.etag(ExpenseQuery.all(), 7);
+
+        assertTrue(etag.startsWith("W/\""));
+        assertEquals(etag, ReportCache.etag(ExpenseQuery.all(), 7));
+        assertNotEquals(etag, ReportCache.etag(ExpenseQuery.all(), 8));
+        assertNotEquals(etag, ReportCache.etag(ExpenseQuery.pending(), 7));
+    }
+
+    /**
+     * Download a report from two threads at once; returns what each client received.
+     */
+    private List<String> downloadTwice(ExpenseQuery query, long version) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> downloads = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                downloads.add(executor.submit(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    assertEquals(1, reportCache.writeCsvReport(query, version, out));
+                    return out.toString(StandardCharsets.UTF_8);
+                }));
+            }
+            List<String> received = new ArrayList<>();
+            for (Future<String> download : downloads) {
+                received.add(download.get(10, TimeUnit.SECONDS));
+            }
+            return received;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hold a render until another download is waiting on it.
+     */
+    private void awaitSecondDownload() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (reportCache.getCoalescingStats().get(0).getCollapsedCount() == 0) {
+            assertTrue(System.nanoTime() < deadline, "Second download did not wait");
+            Thread.sleep(5);
+        }
+    }
+
+    private void stubReport(ExpenseQuery query) {
+        when(expenseService.writeCsvReport(eq(query), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(REPORT.getBytes(StandardCharsets.UTF_8));
+            return 1;
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package com.revature.unit_tests.service_tests;
+
+import com.revature.repository.ExpenseQuery;
+import com.revature.service.ExpenseService;
+import com.revature.service.ReportJob;
+import com.revature.service.ReportJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestReportJobService {
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ExpenseService expenseService;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private ReportJobService reportJobService;
+
+    @AfterEach
+    public void tearDown() {
+        if (reportJobService != null) {
+            reportJobService.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test a job writes its report to disk and records the rows written")
+    public void testSubmit_Completes() throws Exception {
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.pending()), any(OutputStream.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(1);
+                    IntConsumer progress = invocation.getArgument(2);
+                    out.write("Expense ID\n1\n2\n".getBytes(StandardCharsets.UTF_8));
+                    progress.accept(1);
+                    progress.accept(2);
+                    return 2;
+                });
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 4, Duration.ofMinutes(10), clock);
+
+        ReportJob job = reportJobService.submit(ExpenseQuery.pending(), "pending_expenses_report.csv");
+        awaitFinished(job);
+
+        assertEquals(ReportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getRowsWritten());
+        assertEquals(15L, job.getSizeBytes());
+        assertEquals("Expense ID\n1\n2\n", Files.readString(job.getFile()));
+        assertEquals("2026-01-01T00:10:00Z", job.getExpiresAt());
+        assertEquals("pending expenses", job.getReport());
+        assertSame(job, reportJobService.getJob(job.getId()).orElseThrow());
+        assertEquals(List.of(job), reportJobService.getJobs());
+    }
+
+    @Test
+    @DisplayName("Test a failed job records the error and leaves no partial report")
+    public void testSubmit_Fails() throws Exception {
+        when(expenseService.writeCsvReport(eq(ExpenseQuery.all()), any(OutputStream.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(1);
+                    out.write("Expense ID\n".getBytes(StandardCharsets.UTF_8));
+                    throw new RuntimeException("Error finding all expenses");
+                });
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 4, Duration.ofMinutes(10), clock);
+
+        ReportJob job = reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv");
+        awaitFinished(job);
+
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("Error finding all expenses", job.getError());
+        assertNull(job.getSizeBytes());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a job hit by an Error is marked failed and the worker pool keeps going")
+    public void testSubmit_Error() throws Exception {
+        when(expenseService.writeCsvReport(any(ExpenseQuery.class), any(OutputStream.class), any(IntConsumer.class)))
+                .thenThrow(new OutOfMemoryError("Java heap space"))
+                .thenReturn(0);
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 4, Duration.ofMinutes(10), clock);
+
+        ReportJob failed = reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv");
+        awaitFinished(failed);
+        ReportJob next = reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv");
+        awaitFinished(next);
+
+        assertEquals(ReportJob.Status.FAILED, failed.getStatus());
+        assertEquals("java.lang.OutOfMemoryError: Java heap space", failed.getError());
+        assertEquals("2026-01-01T00:10:00Z", failed.getExpiresAt());
+        assertFalse(Files.exists(tempDir.resolve(failed.getId() + ".csv.part")));
+        assertEquals(ReportJob.Status.COMPLETED, next.getStatus());
+    }
+
+    @Test
+    @DisplayName("Test finished jobs and their reports are discarded once their TTL has passed")
+    public void testPurgeExpired() throws Exception {
+        when(expenseService.writeCsvReport(any(ExpenseQuery.class), any(OutputStream.class), any(IntConsumer.class)))
+                .thenReturn(0);
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 4, Duration.ofMinutes(10), clock);
+        ReportJob job = reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv");
+        awaitFinished(job);
+        assertTrue(Files.exists(job.getFile()));
+
+        clock.advance(Duration.ofMinutes(9));
+        assertEquals(0, reportJobService.purgeExpired());
+        assertTrue(reportJobService.getJob(job.getId()).isPresent());
+
+        clock.advance(Duration.ofMinutes(1));
+        assertTrue(reportJobService.getJob(job.getId()).isEmpty());
+        assertEquals(1, reportJobService.purgeExpired());
+        assertFalse(Files.exists(job.getFile()));
+        assertTrue(reportJobService.getJobs().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test jobs beyond the workers and queue are rejected")
+    public void testSubmit_QueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseService.writeCsvReport(any(ExpenseQuery.class), any(OutputStream.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return 0;
+                });
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 1, Duration.ofMinutes(10), clock);
+
+        ReportJob running = reportJobService.submit(ExpenseQuery.all(), "all_expenses_report.csv");
+        ReportJob queued = reportJobService.submit(ExpenseQuery.pending(), "pending_expenses_report.csv");
+        assertThrows(RejectedExecutionException.class,
+                () -> reportJobService.submit(ExpenseQuery.byUser(1), "employee_1_expenses_report.csv"));
+        assertEquals(2, reportJobService.getJobs().size());
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(ReportJob.Status.COMPLETED, queued.getStatus());
+    }
+
+    @Test
+    @DisplayName("Test reports left over from a previous run are deleted at startup")
+    public void testStartup_DeletesLeftoverReports() throws Exception {
+        Path leftover = Files.writeString(tempDir.resolve("0b8f3c1e-2f4a-4c55-9d6e-7a1b2c3d4e5f.csv"), "old");
+        Path partial = Files.writeString(tempDir.resolve("0b8f3c1e-2f4a-4c55-9d6e-7a1b2c3d4e5f.csv.part"), "old");
+        Path unrelated = Files.writeString(tempDir.resolve("notes.csv"), "keep");
+
+        reportJobService = new ReportJobService(expenseService, tempDir, 1, 4, Duration.ofMinutes(10), clock);
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private static void awaitFinished(ReportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.getStatus() == ReportJob.Status.QUEUED || job.getStatus() == ReportJob.Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "Report job did not finish");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}